@@ -0,0 +1,94 @@
+package com.smartplay.usertimer.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartplay.usertimer.tools.converters.EpochSecondConverter;
+import com.smartplay.usertimer.tools.converters.LocalDateTimeConverter;
+import com.smartplay.usertimer.tools.converters.UUIDBinaryConverter;
+import com.smartplay.usertimer.tools.converters.UUIDConverter;
+
+/**
+ * Round trips through the DynamoDB attribute converters of UserTimer, for the
+ * string storage format (LocalDateTimeConverter, UUIDConverter) and the compact
+ * one (EpochSecondConverter, UUIDBinaryConverter). Every stored row goes
+ * through three of them on save and again on load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private final LocalDateTimeConverter localDateTimeConverter = new LocalDateTimeConverter();
+    private final UUIDConverter uuidConverter = new UUIDConverter();
+    private final EpochSecondConverter epochSecondConverter = new EpochSecondConverter();
+    private final UUIDBinaryConverter uuidBinaryConverter = new UUIDBinaryConverter();
+
+    private LocalDateTime dateTime;
+    private String dateTimeAttribute;
+    private UUID uuid;
+    private String uuidAttribute;
+
+    @Setup
+    public void createValues() {
+        dateTime = LocalDateTime.of(2024, 6, 15, 13, 45, 30);
+        dateTimeAttribute = localDateTimeConverter.convert(dateTime);
+        uuid = UUID.randomUUID();
+        uuidAttribute = uuidConverter.convert(uuid);
+    }
+
+    @Benchmark
+    public String localDateTimeConvert() {
+        return localDateTimeConverter.convert(dateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTimeUnconvert() {
+        return localDateTimeConverter.unconvert(dateTimeAttribute);
+    }
+
+    @Benchmark
+    public LocalDateTime localDateTimeRoundTrip() {
+        return localDateTimeConverter.unconvert(localDateTimeConverter.convert(dateTime));
+    }
+
+    @Benchmark
+    public String uuidConvert() {
+        return uuidConverter.convert(uuid);
+    }
+
+    @Benchmark
+    public UUID uuidUnconvert() {
+        return uuidConverter.unconvert(uuidAttribute);
+    }
+
+    @Benchmark
+    public UUID uuidRoundTrip() {
+        return uuidConverter.unconvert(uuidConverter.convert(uuid));
+    }
+
+    @Benchmark
+    public LocalDateTime epochSecondRoundTrip() {
+        return epochSecondConverter.unconvert(epochSecondConverter.convert(dateTime));
+    }
+
+    @Benchmark
+    public UUID uuidBinaryRoundTrip() {
+        return uuidBinaryConverter.unconvert(uuidBinaryConverter.convert(uuid));
+    }
+}
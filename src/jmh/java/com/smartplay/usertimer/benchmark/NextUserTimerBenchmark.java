@@ -0,0 +1,63 @@
+package com.smartplay.usertimer.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.services.impl.TimerService;
+
+/**
+ * TimerService.getNextUserTimer() for a 4 hour timer restored after a gap of
+ * gapHours since its endTime: 0 is still inside the window, the others are
+ * catch-ups over one or many missed windows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NextUserTimerBenchmark {
+
+    private static final long DURATION_SECONDS = TimeUnit.HOURS.toSeconds(4);
+
+    @Param({ "0", "1", "5", "168", "8760" })
+    public long gapHours;
+
+    private UserTimer timer;
+    private LocalDateTime currentTime;
+
+    @Setup
+    public void createTimer() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        timer = UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId("user-1")
+                .startTime(startTime)
+                .duration(DURATION_SECONDS)
+                .endTime(startTime.plusSeconds(DURATION_SECONDS))
+                .build();
+        // half a minute into the hour, so the gap never lands on a window boundary
+        currentTime = gapHours == 0
+                ? startTime.plusHours(1)
+                : timer.getEndTime().plusHours(gapHours).plusSeconds(30);
+    }
+
+    @Benchmark
+    public UserTimer getNextUserTimer() {
+        return TimerService.getNextUserTimer(timer, currentTime);
+    }
+}
@@ -0,0 +1,168 @@
+package com.smartplay.usertimer.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.AttributeTransformer;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+
+/**
+ * Writing and reading a UserTimer item in the string and the compact storage
+ * format, the way the DynamoDBMapper does it: table model conversion plus the
+ * UserTimerStorageFormat transformer. readOtherFormat reads a row of the other
+ * format (dual read before the migration).
+ *
+ * The gc profiler configured in build.gradle reports the allocations per
+ * operation (gc.alloc.rate.norm); the item size in bytes, as DynamoDB counts
+ * it, is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageFormatBenchmark {
+
+    @Param({ UserTimerStorageFormat.FORMAT_STRING, UserTimerStorageFormat.FORMAT_COMPACT })
+    public String format;
+
+    private DynamoDBMapperTableModel<UserTimer> tableModel;
+    private UserTimerStorageFormat storageFormat;
+    private UserTimer timer;
+    private Map<String, AttributeValue> item;
+    private Map<String, AttributeValue> otherFormatItem;
+
+    @Setup
+    public void createItems() {
+        DynamoDBMapper dynamoDBMapper = new DynamoDBMapper(AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:8001", "us-west-2"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("benchmark", "benchmark")))
+                .build());
+        tableModel = dynamoDBMapper.getTableModel(UserTimer.class);
+        storageFormat = new UserTimerStorageFormat(format);
+        UserTimerStorageFormat otherFormat = new UserTimerStorageFormat(storageFormat.isCompact()
+                ? UserTimerStorageFormat.FORMAT_STRING
+                : UserTimerStorageFormat.FORMAT_COMPACT);
+
+        LocalDateTime startTime = LocalDateTime.of(2024, 6, 15, 13, 45, 30);
+        timer = UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId("user-1")
+                .startTime(startTime)
+                .duration(TimeUnit.HOURS.toSeconds(4))
+                .endTime(startTime.plusHours(4))
+                .version(7L)
+                .build();
+        item = write(storageFormat);
+        otherFormatItem = write(otherFormat);
+        System.out.println("UserTimer item in the " + format + " format: " + itemSize(item) + " bytes");
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> write() {
+        return write(storageFormat);
+    }
+
+    @Benchmark
+    public UserTimer read() {
+        return tableModel.unconvert(storageFormat.untransform(new ItemParameters(item)));
+    }
+
+    @Benchmark
+    public UserTimer readOtherFormat() {
+        return tableModel.unconvert(storageFormat.untransform(new ItemParameters(otherFormatItem)));
+    }
+
+    private Map<String, AttributeValue> write(UserTimerStorageFormat writeFormat) {
+        return writeFormat.transform(new ItemParameters(tableModel.convert(timer)));
+    }
+
+    /*
+     * Item size as DynamoDB bills it: attribute names plus values, numbers
+     * approximated as one byte per two significant digits plus one
+     */
+    private static int itemSize(Map<String, AttributeValue> item) {
+        int size = 0;
+        for (Map.Entry<String, AttributeValue> attribute : item.entrySet()) {
+            size += attribute.getKey().getBytes(StandardCharsets.UTF_8).length;
+            AttributeValue value = attribute.getValue();
+            if (value.getS() != null) {
+                size += value.getS().getBytes(StandardCharsets.UTF_8).length;
+            } else if (value.getN() != null) {
+                size += (value.getN().replace("-", "").length() + 1) / 2 + 1;
+            } else if (value.getB() != null) {
+                size += value.getB().remaining();
+            }
+        }
+        return size;
+    }
+
+    private static final class ItemParameters implements AttributeTransformer.Parameters<UserTimer> {
+
+        private final Map<String, AttributeValue> attributeValues;
+
+        private ItemParameters(Map<String, AttributeValue> attributeValues) {
+            this.attributeValues = attributeValues;
+        }
+
+        @Override
+        public Map<String, AttributeValue> getAttributeValues() {
+            return attributeValues;
+        }
+
+        @Override
+        public boolean isPartialUpdate() {
+            return false;
+        }
+
+        @Override
+        public Class<UserTimer> getModelClass() {
+            return UserTimer.class;
+        }
+
+        @Override
+        public DynamoDBMapperConfig getMapperConfig() {
+            return DynamoDBMapperConfig.DEFAULT;
+        }
+
+        @Override
+        public String getTableName() {
+            return "UserTimer";
+        }
+
+        @Override
+        public String getHashKeyName() {
+            return "lpaId";
+        }
+
+        @Override
+        public String getRangeKeyName() {
+            return null;
+        }
+    }
+}
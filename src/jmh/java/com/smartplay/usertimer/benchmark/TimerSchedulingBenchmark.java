@@ -0,0 +1,114 @@
+package com.smartplay.usertimer.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.smartplay.usertimer.config.TimerSchedulerConfig;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.services.impl.ShardedTimerScheduler;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+
+/**
+ * Arms and disarms N timers the way TimerService does on start and stop:
+ * schedule() plus IActiveTimerIndex.put(), then cancel() plus remove(). The
+ * scheduler and index are built by TimerSchedulerConfig, so every engine and shard count
+ * the service supports can be compared. The timers are due in an hour and never
+ * fire during a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimerSchedulingBenchmark {
+
+    private static final long DELAY_SECONDS = 3600;
+
+    @Param({ "10000", "100000" })
+    public int timers;
+
+    @Param({ TimerSchedulerConfig.ENGINE_WHEEL, TimerSchedulerConfig.ENGINE_COMPACT, TimerSchedulerConfig.ENGINE_EXECUTOR })
+    public String engine;
+
+    @Param({ "1", "4" })
+    public int shards;
+
+    private List<UserTimer> userTimers;
+    private ShardedTimerScheduler timerScheduler;
+    private IActiveTimerIndex activeTimerIndex;
+
+    @Setup(Level.Trial)
+    public void createTimers() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+        userTimers = new ArrayList<>(timers);
+        for (int i = 0; i < timers; i++) {
+            userTimers.add(UserTimer.builder()
+                    .timerId(UUID.randomUUID())
+                    .lpaId("user-" + i)
+                    .startTime(startTime)
+                    .duration(DELAY_SECONDS)
+                    .endTime(startTime.plusSeconds(DELAY_SECONDS))
+                    .build());
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createScheduler() {
+        TimerSchedulerConfig timerSchedulerConfig = new TimerSchedulerConfig();
+        timerScheduler = timerSchedulerConfig.timerScheduler(engine, shards, 1000, 1000, timers / shards);
+        activeTimerIndex = timerSchedulerConfig.activeTimerIndex(timerScheduler, engine);
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdownScheduler() {
+        timerScheduler.shutdown();
+    }
+
+    @Benchmark
+    public int scheduleAndCancel() {
+        for (UserTimer userTimer : userTimers) {
+            timerScheduler.schedule(userTimer, DELAY_SECONDS);
+            activeTimerIndex.put(userTimer);
+        }
+        int cancelled = 0;
+        for (UserTimer userTimer : userTimers) {
+            if (timerScheduler.cancel(userTimer.getLpaId())) {
+                cancelled++;
+            }
+            activeTimerIndex.remove(userTimer.getLpaId());
+        }
+        return cancelled;
+    }
+
+    @Benchmark
+    public int scheduleAllAndCancel() {
+        timerScheduler.scheduleAll(userTimers, DELAY_SECONDS);
+        userTimers.forEach(activeTimerIndex::put);
+        int cancelled = 0;
+        for (UserTimer userTimer : userTimers) {
+            if (timerScheduler.cancel(userTimer.getLpaId())) {
+                cancelled++;
+            }
+            activeTimerIndex.remove(userTimer.getLpaId());
+        }
+        return cancelled;
+    }
+}
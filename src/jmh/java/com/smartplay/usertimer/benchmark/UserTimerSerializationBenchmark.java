@@ -0,0 +1,92 @@
+package com.smartplay.usertimer.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperTableModel;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/**
+ * UserTimer to and from a DynamoDB item, through the table model DynamoDBMapper
+ * uses for save() and load(), and to and from JSON as the controllers return
+ * it. No request is sent; the client only exists to build the mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserTimerSerializationBenchmark {
+
+    private DynamoDBMapperTableModel<UserTimer> tableModel;
+    private ObjectMapper objectMapper;
+    private UserTimer timer;
+    private Map<String, AttributeValue> item;
+    private byte[] json;
+
+    @Setup
+    public void createTimer() throws IOException {
+        DynamoDBMapper dynamoDBMapper = new DynamoDBMapper(AmazonDynamoDBClientBuilder.standard()
+                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration("http://localhost:8001", "us-west-2"))
+                .withCredentials(new AWSStaticCredentialsProvider(new BasicAWSCredentials("benchmark", "benchmark")))
+                .build());
+        tableModel = dynamoDBMapper.getTableModel(UserTimer.class);
+        // the same modules Spring Boot registers, e.g. java.time support
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        LocalDateTime startTime = LocalDateTime.of(2024, 6, 15, 13, 45, 30);
+        timer = UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId("user-1")
+                .startTime(startTime)
+                .duration(TimeUnit.HOURS.toSeconds(4))
+                .endTime(startTime.plusHours(4))
+                .version(7L)
+                .build();
+        item = tableModel.convert(timer);
+        json = objectMapper.writeValueAsBytes(timer);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> toItem() {
+        return tableModel.convert(timer);
+    }
+
+    @Benchmark
+    public UserTimer fromItem() {
+        return tableModel.unconvert(item);
+    }
+
+    @Benchmark
+    public byte[] toJson() throws IOException {
+        return objectMapper.writeValueAsBytes(timer);
+    }
+
+    @Benchmark
+    public UserTimer fromJson() throws IOException {
+        return objectMapper.readValue(json, UserTimer.class);
+    }
+}
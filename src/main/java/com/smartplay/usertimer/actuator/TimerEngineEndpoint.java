@@ -0,0 +1,78 @@
+package com.smartplay.usertimer.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.impl.NotificationService;
+import com.smartplay.usertimer.services.interfaces.ICatchUpService;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.IStorageMigrationService;
+import com.smartplay.usertimer.services.interfaces.ITimerEventStream;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor;
+import com.smartplay.usertimer.tools.throughput.DynamoDBThroughputGovernor;
+
+/**
+ * Exposes the internals of the timer engine on /actuator/timers.
+ */
+@Component
+@Endpoint(id = "timers")
+public class TimerEngineEndpoint {
+
+    private final ITimerScheduler timerScheduler;
+    private final NotificationService notificationService;
+    private final IEventOutbox eventOutbox;
+    private final List<InstrumentedExecutor> executors;
+    private final IStorageMigrationService storageMigrationService;
+    private final ITimerOwnershipService timerOwnershipService;
+    private final ICatchUpService catchUpService;
+    private final DynamoDBThroughputGovernor throughputGovernor;
+    private final ITimerEventStream timerEventStream;
+
+    public TimerEngineEndpoint(
+            @Autowired ITimerScheduler timerScheduler,
+            @Autowired NotificationService notificationService,
+            @Autowired IEventOutbox eventOutbox,
+            @Autowired List<InstrumentedExecutor> executors,
+            @Autowired IStorageMigrationService storageMigrationService,
+            @Autowired ITimerOwnershipService timerOwnershipService,
+            @Autowired ICatchUpService catchUpService,
+            @Autowired DynamoDBThroughputGovernor throughputGovernor,
+            @Autowired ITimerEventStream timerEventStream) {
+        this.timerScheduler = timerScheduler;
+        this.notificationService = notificationService;
+        this.eventOutbox = eventOutbox;
+        this.executors = executors;
+        this.storageMigrationService = storageMigrationService;
+        this.timerOwnershipService = timerOwnershipService;
+        this.catchUpService = catchUpService;
+        this.throughputGovernor = throughputGovernor;
+        this.timerEventStream = timerEventStream;
+    }
+
+    @ReadOperation
+    public Map<String, Object> timers() {
+        List<TimerSchedulerStats> shards = timerScheduler.getStats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("armed", shards.stream().mapToLong(TimerSchedulerStats::armed).sum());
+        result.put("fired", shards.stream().mapToLong(TimerSchedulerStats::fired).sum());
+        result.put("shards", shards);
+        result.put("outbox", eventOutbox.getStats());
+        result.put("publisher", notificationService.getStats());
+        result.put("executors", executors.stream().map(InstrumentedExecutor::getStats).toList());
+        result.put("storageMigration", storageMigrationService.getStats());
+        result.put("cluster", timerOwnershipService.getStats());
+        result.put("catchUp", catchUpService.getProgress());
+        result.put("dynamoDB", throughputGovernor.getStats());
+        result.put("eventStream", timerEventStream.getStats());
+        return result;
+    }
+}
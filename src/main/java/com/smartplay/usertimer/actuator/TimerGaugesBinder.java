@@ -0,0 +1,106 @@
+package com.smartplay.usertimer.actuator;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.smartplay.usertimer.model.stats.ThroughputStats;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.impl.NotificationService;
+import com.smartplay.usertimer.services.interfaces.ICatchUpService;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor;
+import com.smartplay.usertimer.tools.throughput.DynamoDBThroughputGovernor;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges over the state that /actuator/timers shows: armed timers per
+ * scheduler shard, publisher queue depth, outbox backlog, catch-up backlog,
+ * the DynamoDB throughput governor and the executors.
+ */
+@Component
+public class TimerGaugesBinder implements MeterBinder {
+
+    private final ITimerScheduler timerScheduler;
+    private final NotificationService notificationService;
+    private final IEventOutbox eventOutbox;
+    private final List<InstrumentedExecutor> executors;
+    private final ICatchUpService catchUpService;
+    private final DynamoDBThroughputGovernor throughputGovernor;
+
+    public TimerGaugesBinder(
+            @Autowired ITimerScheduler timerScheduler,
+            @Autowired NotificationService notificationService,
+            @Autowired IEventOutbox eventOutbox,
+            @Autowired List<InstrumentedExecutor> executors,
+            @Autowired ICatchUpService catchUpService,
+            @Autowired DynamoDBThroughputGovernor throughputGovernor) {
+        this.timerScheduler = timerScheduler;
+        this.notificationService = notificationService;
+        this.eventOutbox = eventOutbox;
+        this.executors = executors;
+        this.catchUpService = catchUpService;
+        this.throughputGovernor = throughputGovernor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<TimerSchedulerStats> shards = timerScheduler.getStats();
+        for (int i = 0; i < shards.size(); i++) {
+            int shard = i;
+            Gauge.builder("usertimer.scheduler.armed", timerScheduler, scheduler -> scheduler.getStats().get(shard).armed())
+                    .description("Timers armed in the scheduler shard")
+                    .tag("shard", shards.get(i).name())
+                    .register(registry);
+        }
+        Gauge.builder("usertimer.events.queue.depth", notificationService, service -> service.getStats().queueDepth())
+                .description("Events waiting for the publisher")
+                .register(registry);
+        FunctionCounter.builder("usertimer.events.dropped", notificationService, service -> service.getStats().dropped())
+                .description("Events given up on by the publisher")
+                .register(registry);
+        Gauge.builder("usertimer.outbox.pending", eventOutbox, outbox -> outbox.getStats().pending())
+                .description("Events recorded in the outbox but not relayed yet")
+                .register(registry);
+        Gauge.builder("usertimer.catchup.pending", catchUpService, service -> service.getProgress().pending())
+                .description("Overdue timers waiting for the catch-up")
+                .register(registry);
+        FunctionCounter.builder("usertimer.catchup.missed.windows", catchUpService, service -> service.getProgress().missedWindows())
+                .description("Windows that ended during a downtime, coalesced into catch-up events")
+                .register(registry);
+        List<ThroughputStats> throughput = throughputGovernor.getStats();
+        for (int i = 0; i < throughput.size(); i++) {
+            int index = i;
+            String operation = throughput.get(i).name();
+            Gauge.builder("usertimer.dynamodb.rate", throughputGovernor, governor -> governor.getStats().get(index).ratePerSecond())
+                    .description("DynamoDB calls per second the governor allows")
+                    .tag("operation", operation)
+                    .register(registry);
+            Gauge.builder("usertimer.dynamodb.waiting", throughputGovernor, governor -> governor.getStats().get(index).waiting())
+                    .description("DynamoDB calls waiting for capacity")
+                    .tag("operation", operation)
+                    .register(registry);
+            FunctionCounter.builder("usertimer.dynamodb.throttles", throughputGovernor, governor -> governor.getStats().get(index).throttles())
+                    .description("DynamoDB calls answered with a throttling error")
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+        for (InstrumentedExecutor executor : executors) {
+            Gauge.builder("usertimer.executor.active", executor, e -> e.getStats().active())
+                    .tag("name", executor.getName())
+                    .register(registry);
+            Gauge.builder("usertimer.executor.queued", executor, e -> e.getStats().queued())
+                    .tag("name", executor.getName())
+                    .register(registry);
+            FunctionCounter.builder("usertimer.executor.completed", executor, e -> e.getStats().completed())
+                    .tag("name", executor.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.smartplay.usertimer.actuator;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.CacheStats;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters recorded by the timer services, exposed on
+ * /actuator/metrics and /actuator/prometheus. The gauges that read the state
+ * of the scheduler, the publisher and the executors are bound by
+ * TimerGaugesBinder.
+ */
+@Component
+public class TimerMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer fireLag;
+    private final Counter started;
+    private final Counter fired;
+    private final Counter rolledOver;
+    private final Counter rolloverSkipped;
+    private final Counter rolloverFailures;
+
+    public TimerMetrics(@Autowired MeterRegistry registry) {
+        this.registry = registry;
+        this.fireLag = Timer.builder("usertimer.timer.fire.lag")
+                .description("Time between the endTime of a timer and its expiry being handled")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.started = Counter.builder("usertimer.timers.started")
+                .description("Timers started through the API")
+                .register(registry);
+        this.fired = Counter.builder("usertimer.timers.fired")
+                .description("Timers that expired")
+                .register(registry);
+        this.rolledOver = Counter.builder("usertimer.timers.rolled.over")
+                .tag("result", "success")
+                .description("Expired timers moved to their next window")
+                .register(registry);
+        this.rolloverSkipped = Counter.builder("usertimer.timers.rolled.over")
+                .tag("result", "skipped")
+                .description("Expired timers moved to their next window")
+                .register(registry);
+        this.rolloverFailures = Counter.builder("usertimer.timers.rollover.failures")
+                .description("Rollover updates that failed and were retried")
+                .register(registry);
+    }
+
+    public void timersStarted(int count) {
+        started.increment(count);
+    }
+
+    /*
+     * Timers handled before their endTime (e.g. when restored overdue at
+     * startup) count as zero lag.
+     */
+    public void timerFired(UserTimer timer, LocalDateTime handledAt) {
+        fired.increment();
+        if (timer.getEndTime() != null) {
+            Duration lag = Duration.between(timer.getEndTime(), handledAt);
+            fireLag.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+
+    public void timersRolledOver(int succeeded, int skipped) {
+        rolledOver.increment(succeeded);
+        rolloverSkipped.increment(skipped);
+    }
+
+    public void rolloverFailed() {
+        rolloverFailures.increment();
+    }
+
+    public void recoveryPhaseCompleted(String phase, String mode, long elapsedMillis) {
+        Timer.builder("usertimer.recovery.duration")
+                .description("Time from startup until the recovery phase was done")
+                .tag("phase", phase)
+                .tag("mode", mode)
+                .register(registry)
+                .record(elapsedMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void eventsPublished(String sink, int batchSize, long elapsedNanos) {
+        Timer.builder("usertimer.events.publish.latency")
+                .description("Time the sink took to accept a batch of events")
+                .tag("sink", sink)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("usertimer.events.batch.size")
+                .description("Events per batch handed to the sink")
+                .tag("sink", sink)
+                .register(registry)
+                .record(batchSize);
+    }
+
+    /*
+     * Hit, miss and eviction counts of a cache, read from its stats on every
+     * scrape
+     */
+    public void bindCache(String cache, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("usertimer.cache.requests", stats, s -> s.get().hits())
+                .description("Cache lookups")
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("usertimer.cache.requests", stats, s -> s.get().misses())
+                .description("Cache lookups")
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("usertimer.cache.coalesced", stats, s -> s.get().coalesced())
+                .description("Misses that waited for the load of another caller")
+                .tag("cache", cache)
+                .register(registry);
+        FunctionCounter.builder("usertimer.cache.evictions", stats, s -> s.get().evictions())
+                .description("Cache entries dropped")
+                .tag("cache", cache)
+                .tag("cause", "size")
+                .register(registry);
+        FunctionCounter.builder("usertimer.cache.evictions", stats, s -> s.get().expirations())
+                .description("Cache entries dropped")
+                .tag("cache", cache)
+                .tag("cause", "expired")
+                .register(registry);
+        Gauge.builder("usertimer.cache.size", stats, s -> s.get().size())
+                .description("Cache entries held")
+                .tag("cache", cache)
+                .register(registry);
+    }
+
+    public Timer repositoryTimer(String operation) {
+        return Timer.builder("usertimer.repository.latency")
+                .description("Latency of UserTimer repository operations")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartplay.usertimer.actuator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.smartplay.usertimer.model.stats.TimerRecoveryProgress;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+import com.smartplay.usertimer.services.interfaces.ITimerRecoveryService;
+
+/**
+ * Health contributor "timerRecovery", part of the readiness group: the service
+ * is ready once every timer due within the ready horizon is armed, while the
+ * rest of the table may still be loading. A cluster node that owns no
+ * partition has nothing to load and is ready as well.
+ */
+@Component
+public class TimerRecoveryHealthIndicator implements HealthIndicator {
+
+    private final ITimerRecoveryService timerRecoveryService;
+    private final ITimerOwnershipService timerOwnershipService;
+
+    public TimerRecoveryHealthIndicator(
+            @Autowired ITimerRecoveryService timerRecoveryService,
+            @Autowired ITimerOwnershipService timerOwnershipService) {
+        this.timerRecoveryService = timerRecoveryService;
+        this.timerOwnershipService = timerOwnershipService;
+    }
+
+    @Override
+    public Health health() {
+        TimerRecoveryProgress progress = timerRecoveryService.getProgress();
+        Health.Builder builder;
+        if ("FAILED".equals(progress.phase())) {
+            builder = Health.down();
+        } else if (timerRecoveryService.isNearTermArmed()
+                || (timerOwnershipService.isClustered() && timerOwnershipService.getOwnedPartitions().isEmpty())) {
+            builder = Health.up();
+        } else {
+            builder = Health.outOfService();
+        }
+        if (timerOwnershipService.isClustered()) {
+            builder.withDetail("ownedPartitions", timerOwnershipService.getOwnedPartitions().size());
+        }
+        return builder.withDetail("recovery", progress).build();
+    }
+}
@@ -1,22 +1,134 @@
 package com.smartplay.usertimer.config;
 
+import org.socialsignin.spring.data.dynamodb.core.DynamoDBOperations;
+import org.socialsignin.spring.data.dynamodb.core.DynamoDBTemplate;
 import org.socialsignin.spring.data.dynamodb.repository.config.EnableDynamoDBRepositories;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.client.builder.AwsClientBuilder;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDBClientBuilder;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+import com.smartplay.usertimer.tools.throughput.AimdRateLimiter;
+import com.smartplay.usertimer.tools.throughput.DynamoDBThroughputGovernor;
+import com.smartplay.usertimer.tools.throughput.ThrottleFaultInjector;
 
 @Configuration
-@EnableDynamoDBRepositories(basePackages = "com.smartplay.usertimer.repository.interfaces")
+@EnableDynamoDBRepositories(basePackages = "com.smartplay.usertimer.repository.interfaces",
+        dynamoDBOperationsRef = "dynamoDBOperations")
 public class DynamoDBConfig {
 
+    /*
+     * usertimer.dynamodb.endpoint: DynamoDB Local by default; empty for the
+     * regional AWS endpoint. The connection pool should allow as many
+     * connections as DynamoDB calls run at once (usertimer.executors.request
+     * and persistence threads); a call that waits longer than
+     * connection-timeout-millis for a connection fails.
+     */
     @Bean
-    public AmazonDynamoDB amazonDynamoDB() {
-        return AmazonDynamoDBClientBuilder.standard()
-                .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(
-                        "http://localhost:8001", "us-west-2"))
-                .build();
+    public AmazonDynamoDB amazonDynamoDB(DynamoDBThroughputGovernor throughputGovernor,
+            ThrottleFaultInjector throttleFaultInjector,
+            @Value("${usertimer.dynamodb.endpoint:http://localhost:8001}") String endpoint,
+            @Value("${usertimer.dynamodb.region:us-west-2}") String region,
+            @Value("${usertimer.dynamodb.client.max-connections:300}") int maxConnections,
+            @Value("${usertimer.dynamodb.client.connection-timeout-millis:2000}") int connectionTimeoutMillis,
+            @Value("${usertimer.dynamodb.client.socket-timeout-millis:5000}") int socketTimeoutMillis,
+            @Value("${usertimer.dynamodb.client.request-timeout-millis:5000}") int requestTimeoutMillis,
+            @Value("${usertimer.dynamodb.client.execution-timeout-millis:15000}") int executionTimeoutMillis,
+            @Value("${usertimer.dynamodb.client.max-error-retry:5}") int maxErrorRetry,
+            @Value("${usertimer.dynamodb.client.connection-ttl-millis:60000}") long connectionTtlMillis) {
+        ClientConfiguration clientConfiguration = new ClientConfiguration()
+                .withMaxConnections(maxConnections)
+                .withConnectionTimeout(connectionTimeoutMillis)
+                .withSocketTimeout(socketTimeoutMillis)
+                // request-timeout per attempt, execution-timeout for the call with its retries
+                .withRequestTimeout(requestTimeoutMillis)
+                .withClientExecutionTimeout(executionTimeoutMillis)
+                .withMaxErrorRetry(maxErrorRetry)
+                .withConnectionTTL(connectionTtlMillis)
+                .withTcpKeepAlive(true);
+        AmazonDynamoDBClientBuilder builder = AmazonDynamoDBClientBuilder.standard()
+                .withClientConfiguration(clientConfiguration)
+                // the governor first, so it waits before the injector fails an attempt
+                .withRequestHandlers(throughputGovernor, throttleFaultInjector);
+        if (endpoint.isBlank()) {
+            builder.withRegion(region);
+        } else {
+            builder.withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(endpoint, region));
+        }
+        return builder.build();
+    }
+
+    /*
+     * usertimer.dynamodb.governor.enabled paces the calls; without it the
+     * governor only observes throttles. The rates are in calls (items of
+     * batches) per second, per class.
+     */
+    @Bean
+    public DynamoDBThroughputGovernor dynamoDBThroughputGovernor(
+            @Value("${usertimer.dynamodb.governor.enabled:false}") boolean enabled,
+            @Value("${usertimer.dynamodb.governor.read.initial-rate:50}") double readInitialRate,
+            @Value("${usertimer.dynamodb.governor.read.min-rate:5}") double readMinRate,
+            @Value("${usertimer.dynamodb.governor.read.max-rate:1000}") double readMaxRate,
+            @Value("${usertimer.dynamodb.governor.write.initial-rate:50}") double writeInitialRate,
+            @Value("${usertimer.dynamodb.governor.write.min-rate:5}") double writeMinRate,
+            @Value("${usertimer.dynamodb.governor.write.max-rate:1000}") double writeMaxRate,
+            @Value("${usertimer.dynamodb.governor.increase-per-second:5}") double increasePerSecond,
+            @Value("${usertimer.dynamodb.governor.decrease-factor:0.5}") double decreaseFactor,
+            @Value("${usertimer.dynamodb.governor.cooldown-millis:1000}") long cooldownMillis) {
+        return new DynamoDBThroughputGovernor(
+                new AimdRateLimiter("read", readInitialRate, readMinRate, readMaxRate, increasePerSecond,
+                        decreaseFactor, cooldownMillis),
+                new AimdRateLimiter("write", writeInitialRate, writeMinRate, writeMaxRate, increasePerSecond,
+                        decreaseFactor, cooldownMillis),
+                enabled);
+    }
+
+    /*
+     * usertimer.dynamodb.fault-injection.throttle-probability: share of data
+     * plane calls failed with a throttling error, for tests against DynamoDB
+     * Local; 0 (default) injects nothing.
+     */
+    @Bean
+    public ThrottleFaultInjector throttleFaultInjector(
+            @Value("${usertimer.dynamodb.fault-injection.throttle-probability:0}") double throttleProbability) {
+        return new ThrottleFaultInjector(throttleProbability);
+    }
+
+    /*
+     * usertimer.persistence.storage-format: string (default, the original
+     * format) or compact; both are read either way.
+     */
+    @Bean
+    public UserTimerStorageFormat userTimerStorageFormat(
+            @Value("${usertimer.persistence.storage-format:" + UserTimerStorageFormat.FORMAT_STRING + "}") String format) {
+        return new UserTimerStorageFormat(format);
+    }
+
+    /*
+     * Mapper for the hand written repositories (page-wise scans, batch writes)
+     * and, through dynamoDBOperations, the generated ones, so every UserTimer
+     * read and write goes through the storage format.
+     * Primary because spring-data-dynamodb registers its own mapper as well.
+     */
+    @Bean
+    @Primary
+    public DynamoDBMapper dynamoDBMapper(AmazonDynamoDB amazonDynamoDB, UserTimerStorageFormat storageFormat) {
+        return new DynamoDBMapper(amazonDynamoDB, DynamoDBMapperConfig.DEFAULT, storageFormat);
+    }
+
+    /*
+     * Operations of the generated repositories (dynamoDBOperationsRef), on
+     * the mapper above
+     */
+    @Bean
+    public DynamoDBOperations dynamoDBOperations(AmazonDynamoDB amazonDynamoDB, DynamoDBMapper dynamoDBMapper) {
+        return new DynamoDBTemplate(amazonDynamoDB, DynamoDBMapperConfig.DEFAULT, dynamoDBMapper);
     }
 }
@@ -2,31 +2,77 @@ package com.smartplay.usertimer.config;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
+import com.amazonaws.services.dynamodbv2.model.BillingMode;
+import com.amazonaws.services.dynamodbv2.model.CreateGlobalSecondaryIndexAction;
 import com.amazonaws.services.dynamodbv2.model.CreateTableRequest;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndex;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexDescription;
+import com.amazonaws.services.dynamodbv2.model.GlobalSecondaryIndexUpdate;
 import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
 import com.amazonaws.services.dynamodbv2.model.KeyType;
+import com.amazonaws.services.dynamodbv2.model.Projection;
+import com.amazonaws.services.dynamodbv2.model.ProjectionType;
 import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughput;
+import com.amazonaws.services.dynamodbv2.model.ScalarAttributeType;
 import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
+import com.amazonaws.services.dynamodbv2.model.UpdateTableRequest;
+import com.smartplay.usertimer.model.data.TimerLease;
+import com.smartplay.usertimer.model.data.UserTimer;
 
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 
 @Configuration
+@Slf4j
 public class DynamoDBTableInitializer {
 
+    private static final String USER_TIMER_TABLE = "UserTimer";
+    private static final String EXPIRY_BUCKET_ATTRIBUTE = "expiryBucket";
+    private static final String EXPIRES_AT_ATTRIBUTE = "expiresAt";
+
+    private static final String BILLING_PROVISIONED = "provisioned";
+    private static final String BILLING_ON_DEMAND = "on-demand";
+
     private final AmazonDynamoDB amazonDynamoDB;
+    private final boolean clusterEnabled;
+    private final boolean onDemand;
+    private final ProvisionedThroughput provisionedThroughput;
 
-    public DynamoDBTableInitializer(@Autowired AmazonDynamoDB amazonDynamoDB) {
+    /*
+     * usertimer.dynamodb.table.billing-mode: provisioned (default) with the
+     * given read and write capacity for tables and indexes, or on-demand
+     * (PAY_PER_REQUEST). Applies to tables and indexes created from now on;
+     * existing tables keep their billing mode.
+     */
+    public DynamoDBTableInitializer(
+            @Autowired AmazonDynamoDB amazonDynamoDB,
+            @Value("${usertimer.cluster.enabled:false}") boolean clusterEnabled,
+            @Value("${usertimer.dynamodb.table.billing-mode:" + BILLING_PROVISIONED + "}") String billingMode,
+            @Value("${usertimer.dynamodb.table.read-capacity:5}") long readCapacity,
+            @Value("${usertimer.dynamodb.table.write-capacity:5}") long writeCapacity) {
         this.amazonDynamoDB = amazonDynamoDB;
+        this.clusterEnabled = clusterEnabled;
+        this.onDemand = switch (billingMode.toLowerCase()) {
+            case BILLING_PROVISIONED -> false;
+            case BILLING_ON_DEMAND -> true;
+            default -> throw new IllegalArgumentException("Unknown usertimer.dynamodb.table.billing-mode: " + billingMode);
+        };
+        this.provisionedThroughput = onDemand ? null : new ProvisionedThroughput(readCapacity, writeCapacity);
     }
 
     @PostConstruct
     public void init() {
         checkAndCreateTable("TestTable", "id");
-        checkAndCreateTable("UserTimer","lpaId");
+        checkAndCreateUserTimerTable();
+        if (clusterEnabled) {
+            checkAndCreateTable(TimerLease.TABLE_NAME, TimerLease.KEY_ATTRIBUTE);
+        }
         // checkAndCreateTable("UserTimer","id");
         // checkAndCreateTable("SmartPlayGamePoint","requestId");
     }
@@ -37,6 +83,36 @@ public class DynamoDBTableInitializer {
         }
     }
 
+    /*
+     * UserTimer carries the expiry index. Tables created before the index
+     * existed get it added with UpdateTable; DynamoDB backfills it in the
+     * background.
+     */
+    private void checkAndCreateUserTimerTable() {
+        if (!doesTableExist(USER_TIMER_TABLE)) {
+            CreateTableRequest request = createTableRequest(USER_TIMER_TABLE, "lpaId")
+                    .withGlobalSecondaryIndexes(expiryIndex());
+            request.withAttributeDefinitions(expiryIndexAttributes());
+            amazonDynamoDB.createTable(request);
+            return;
+        }
+        TableDescription tableDescription = amazonDynamoDB.describeTable(USER_TIMER_TABLE).getTable();
+        if (hasIndex(tableDescription, UserTimer.EXPIRY_INDEX)) {
+            return;
+        }
+        log.info("Adding index {} to table {}", UserTimer.EXPIRY_INDEX, USER_TIMER_TABLE);
+        GlobalSecondaryIndex index = expiryIndex();
+        amazonDynamoDB.updateTable(new UpdateTableRequest()
+                .withTableName(USER_TIMER_TABLE)
+                .withAttributeDefinitions(expiryIndexAttributes())
+                .withGlobalSecondaryIndexUpdates(new GlobalSecondaryIndexUpdate()
+                        .withCreate(new CreateGlobalSecondaryIndexAction()
+                                .withIndexName(index.getIndexName())
+                                .withKeySchema(index.getKeySchema())
+                                .withProjection(index.getProjection())
+                                .withProvisionedThroughput(index.getProvisionedThroughput()))));
+    }
+
     private boolean doesTableExist(String tableName) {
         try {
             TableDescription tableDescription = amazonDynamoDB.describeTable(tableName).getTable();
@@ -46,13 +122,52 @@ public class DynamoDBTableInitializer {
         }
     }
 
+    private static boolean hasIndex(TableDescription tableDescription, String indexName) {
+        if (tableDescription.getGlobalSecondaryIndexes() == null) {
+            return false;
+        }
+        for (GlobalSecondaryIndexDescription index : tableDescription.getGlobalSecondaryIndexes()) {
+            if (indexName.equals(index.getIndexName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void createTable(String tableName, String keyName) {
+        amazonDynamoDB.createTable(createTableRequest(tableName, keyName));
+    }
+
+    private CreateTableRequest createTableRequest(String tableName, String keyName) {
         CreateTableRequest request = new CreateTableRequest()
                 .withTableName(tableName)
                 .withKeySchema(new KeySchemaElement(keyName, KeyType.HASH))
-                .withAttributeDefinitions(new com.amazonaws.services.dynamodbv2.model.AttributeDefinition(keyName, com.amazonaws.services.dynamodbv2.model.ScalarAttributeType.S))
-                .withProvisionedThroughput(new ProvisionedThroughput(5L, 5L));
+                .withAttributeDefinitions(new AttributeDefinition(keyName, ScalarAttributeType.S));
+        if (onDemand) {
+            return request.withBillingMode(BillingMode.PAY_PER_REQUEST);
+        }
+        return request.withBillingMode(BillingMode.PROVISIONED).withProvisionedThroughput(provisionedThroughput);
+    }
+
+    /*
+     * Hash key: minute of endTime, range key: endTime in epoch seconds. All
+     * attributes are projected so a query returns complete timers. An index
+     * of an on-demand table has no throughput of its own.
+     */
+    private GlobalSecondaryIndex expiryIndex() {
+        return new GlobalSecondaryIndex()
+                .withIndexName(UserTimer.EXPIRY_INDEX)
+                .withKeySchema(
+                        new KeySchemaElement(EXPIRY_BUCKET_ATTRIBUTE, KeyType.HASH),
+                        new KeySchemaElement(EXPIRES_AT_ATTRIBUTE, KeyType.RANGE))
+                .withProjection(new Projection().withProjectionType(ProjectionType.ALL))
+                .withProvisionedThroughput(provisionedThroughput);
+    }
 
-        amazonDynamoDB.createTable(request);
+    private static AttributeDefinition[] expiryIndexAttributes() {
+        return new AttributeDefinition[] {
+                new AttributeDefinition(EXPIRY_BUCKET_ATTRIBUTE, ScalarAttributeType.N),
+                new AttributeDefinition(EXPIRES_AT_ATTRIBUTE, ScalarAttributeType.N)
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,42 @@
+package com.smartplay.usertimer.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.smartplay.usertimer.services.impl.DirectEventOutbox;
+import com.smartplay.usertimer.services.impl.JournalEventOutbox;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.INotificationService;
+
+/**
+ * Selects how completion events reach the notification service:
+ * usertimer.outbox.mode=journal (default) records them in the memory-mapped
+ * outbox journal first, direct hands them over in memory.
+ */
+@Configuration
+public class EventOutboxConfig {
+
+    @Bean
+    public IEventOutbox eventOutbox(
+            INotificationService notificationService,
+            @Value("${usertimer.outbox.mode:" + JournalEventOutbox.MODE + "}") String mode,
+            @Value("${usertimer.outbox.directory:data/outbox}") String directory,
+            @Value("${usertimer.outbox.segment-size-bytes:16777216}") int segmentSize,
+            @Value("${usertimer.outbox.fsync:" + JournalEventOutbox.FSYNC_BATCH + "}") String fsyncPolicy,
+            @Value("${usertimer.outbox.fsync-interval-millis:100}") long fsyncIntervalMillis,
+            @Value("${usertimer.outbox.relay-batch-size:500}") int relayBatchSize,
+            @Value("${usertimer.outbox.ack-timeout-millis:30000}") long ackTimeoutMillis) throws IOException {
+        if (DirectEventOutbox.MODE.equalsIgnoreCase(mode)) {
+            return new DirectEventOutbox(notificationService);
+        }
+        if (!JournalEventOutbox.MODE.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown usertimer.outbox.mode: " + mode);
+        }
+        return new JournalEventOutbox(notificationService, Path.of(directory), segmentSize, fsyncPolicy,
+                fsyncIntervalMillis, relayBatchSize, ackTimeoutMillis);
+    }
+}
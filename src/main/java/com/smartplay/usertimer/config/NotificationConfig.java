@@ -0,0 +1,34 @@
+package com.smartplay.usertimer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartplay.usertimer.services.impl.HttpNotificationSink;
+import com.smartplay.usertimer.services.impl.LoggingNotificationSink;
+import com.smartplay.usertimer.services.interfaces.INotificationSink;
+
+/**
+ * Selects where NotificationService delivers the events:
+ * usertimer.notification.sink=log (default) writes them to the log,
+ * http POSTs every batch to usertimer.notification.http.url.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    public INotificationSink notificationSink(
+            ObjectMapper objectMapper,
+            @Value("${usertimer.notification.sink:" + LoggingNotificationSink.NAME + "}") String sink,
+            @Value("${usertimer.notification.http.url:http://localhost:9324/events}") String url,
+            @Value("${usertimer.notification.http.timeout-millis:2000}") long timeoutMillis) {
+        if (HttpNotificationSink.NAME.equalsIgnoreCase(sink)) {
+            return new HttpNotificationSink(objectMapper, url, timeoutMillis);
+        }
+        if (!LoggingNotificationSink.NAME.equalsIgnoreCase(sink)) {
+            throw new IllegalArgumentException("Unknown usertimer.notification.sink: " + sink);
+        }
+        return new LoggingNotificationSink();
+    }
+}
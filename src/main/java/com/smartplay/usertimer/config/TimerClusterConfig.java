@@ -0,0 +1,51 @@
+package com.smartplay.usertimer.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import com.smartplay.usertimer.repository.interfaces.ITimerLeaseRepository;
+import com.smartplay.usertimer.services.impl.LeaseTimerOwnershipService;
+import com.smartplay.usertimer.services.impl.SingleNodeOwnershipService;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+
+/**
+ * Selects who arms the timers: usertimer.cluster.enabled=false (default) runs
+ * a single node that owns every timer, true shares usertimer.cluster.partitions
+ * partitions between the running nodes through leases in DynamoDB. Every node
+ * of a cluster needs the same partition count and a unique node id (defaults to
+ * host name and process id).
+ */
+@Configuration
+public class TimerClusterConfig {
+
+    @Bean
+    @DependsOn("dynamoDBTableInitializer")
+    public ITimerOwnershipService timerOwnershipService(
+            ITimerLeaseRepository leaseRepository,
+            @Value("${usertimer.cluster.enabled:false}") boolean enabled,
+            @Value("${usertimer.cluster.node-id:}") String nodeId,
+            @Value("${usertimer.cluster.partitions:64}") int partitions,
+            @Value("${usertimer.cluster.lease-duration-millis:10000}") long leaseDurationMillis,
+            @Value("${usertimer.cluster.heartbeat-millis:2000}") long heartbeatMillis) {
+        if (!enabled) {
+            return new SingleNodeOwnershipService();
+        }
+        return new LeaseTimerOwnershipService(leaseRepository, nodeId.isBlank() ? defaultNodeId() : nodeId,
+                partitions, leaseDurationMillis, heartbeatMillis);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
@@ -0,0 +1,57 @@
+package com.smartplay.usertimer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor.WhenFull;
+
+/**
+ * Executors of the stages TimerService runs after timers expire, so blocking
+ * DynamoDB calls stay off the scheduler threads and the common pool:
+ * persistence (rollover and bulk writes), publish (recording the completion
+ * events) and reschedule (re-arming rolled over timers). When their queues
+ * are full the submitting thread waits for room, so a burst of expiries slows
+ * down the stage before it instead of running the work on the scheduler's
+ * completion thread. The request executor runs the blocking DynamoDB calls of
+ * the asynchronous API endpoints, so waiting requests do not hold Tomcat
+ * threads; when its queue is full a call is rejected and the endpoint answers
+ * 503 instead of running it on the Tomcat thread.
+ */
+@Configuration
+public class TimerExecutorConfig {
+
+    public static final String PERSISTENCE_EXECUTOR = "persistenceExecutor";
+    public static final String PUBLISH_EXECUTOR = "publishExecutor";
+    public static final String RESCHEDULE_EXECUTOR = "rescheduleExecutor";
+    public static final String REQUEST_EXECUTOR = "requestExecutor";
+
+    @Bean(PERSISTENCE_EXECUTOR)
+    public InstrumentedExecutor persistenceExecutor(
+            @Value("${usertimer.executors.persistence.threads:32}") int threads,
+            @Value("${usertimer.executors.persistence.queue-capacity:10000}") int queueCapacity) {
+        return new InstrumentedExecutor("timer-persistence", threads, queueCapacity, WhenFull.BLOCK);
+    }
+
+    @Bean(PUBLISH_EXECUTOR)
+    public InstrumentedExecutor publishExecutor(
+            @Value("${usertimer.executors.publish.threads:4}") int threads,
+            @Value("${usertimer.executors.publish.queue-capacity:10000}") int queueCapacity) {
+        return new InstrumentedExecutor("timer-publish", threads, queueCapacity, WhenFull.BLOCK);
+    }
+
+    @Bean(RESCHEDULE_EXECUTOR)
+    public InstrumentedExecutor rescheduleExecutor(
+            @Value("${usertimer.executors.reschedule.threads:2}") int threads,
+            @Value("${usertimer.executors.reschedule.queue-capacity:10000}") int queueCapacity) {
+        return new InstrumentedExecutor("timer-reschedule", threads, queueCapacity, WhenFull.BLOCK);
+    }
+
+    @Bean(REQUEST_EXECUTOR)
+    public InstrumentedExecutor requestExecutor(
+            @Value("${usertimer.executors.request.threads:256}") int threads,
+            @Value("${usertimer.executors.request.queue-capacity:10000}") int queueCapacity) {
+        return new InstrumentedExecutor("timer-request", threads, queueCapacity, WhenFull.REJECT);
+    }
+}
@@ -0,0 +1,67 @@
+package com.smartplay.usertimer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.smartplay.usertimer.services.impl.ActiveTimerIndex;
+import com.smartplay.usertimer.services.impl.CompactActiveTimerIndex;
+import com.smartplay.usertimer.services.impl.ExecutorTimerScheduler;
+import com.smartplay.usertimer.services.impl.ShardedTimerScheduler;
+import com.smartplay.usertimer.services.impl.TimingWheelTimerScheduler;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.scheduling.CompactTimerStore;
+
+/**
+ * Builds the scheduler used by TimerService: usertimer.scheduler.shards shards
+ * (0 means one per available core), each running the engine selected by
+ * usertimer.scheduler.engine.
+ * wheel (default) uses the hierarchical timing wheel,
+ * compact the same wheel over the primitive CompactTimerStore,
+ * executor uses the original ScheduledExecutorService.
+ * The active timer index matches the engine: compact reads the timers from the
+ * stores of the shards, the others keep an ActiveTimerIndex.
+ */
+@Configuration
+public class TimerSchedulerConfig {
+
+    public static final String ENGINE_WHEEL = "wheel";
+    public static final String ENGINE_COMPACT = "compact";
+    public static final String ENGINE_EXECUTOR = "executor";
+
+    @Bean
+    public ShardedTimerScheduler timerScheduler(
+            @Value("${usertimer.scheduler.engine:" + ENGINE_WHEEL + "}") String engine,
+            @Value("${usertimer.scheduler.shards:0}") int shards,
+            @Value("${usertimer.scheduler.tick-millis:1000}") long tickMillis,
+            @Value("${usertimer.scheduler.max-batch-size:1000}") int maxBatchSize,
+            @Value("${usertimer.scheduler.compact.initial-capacity:1024}") int initialCapacity) {
+        if (!ENGINE_WHEEL.equalsIgnoreCase(engine) && !ENGINE_COMPACT.equalsIgnoreCase(engine)
+                && !ENGINE_EXECUTOR.equalsIgnoreCase(engine)) {
+            throw new IllegalArgumentException("Unknown usertimer.scheduler.engine: " + engine);
+        }
+        int shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        return new ShardedTimerScheduler(shardCount, shard -> {
+            String name = "timer-shard-" + shard;
+            if (ENGINE_EXECUTOR.equalsIgnoreCase(engine)) {
+                return new ExecutorTimerScheduler(name, maxBatchSize);
+            }
+            if (ENGINE_COMPACT.equalsIgnoreCase(engine)) {
+                return new TimingWheelTimerScheduler(name, ENGINE_COMPACT, tickMillis, maxBatchSize,
+                        new CompactTimerStore(0, initialCapacity));
+            }
+            return new TimingWheelTimerScheduler(name, tickMillis, maxBatchSize);
+        });
+    }
+
+    @Bean
+    public IActiveTimerIndex activeTimerIndex(
+            ShardedTimerScheduler timerScheduler,
+            @Value("${usertimer.scheduler.engine:" + ENGINE_WHEEL + "}") String engine) {
+        if (ENGINE_COMPACT.equalsIgnoreCase(engine)) {
+            return new CompactActiveTimerIndex(timerScheduler);
+        }
+        return new ActiveTimerIndex();
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartplay.usertimer.config;
+
+import java.util.concurrent.Executor;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.repository.impl.AsyncUserTimerRepository;
+import com.smartplay.usertimer.repository.impl.CachingUserTimerRepository;
+import com.smartplay.usertimer.repository.impl.CachingUserTimerRolloverRepository;
+import com.smartplay.usertimer.repository.impl.MeteredUserTimerRepository;
+import com.smartplay.usertimer.repository.impl.UserTimerRolloverRepository;
+import com.smartplay.usertimer.repository.impl.WriteBehindUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IAsyncUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+
+/**
+ * Builds the IUserTimerRepository used by the services: the repository
+ * generated by spring-data-dynamodb (bean "IUserTimerRepository"), wrapped in
+ * the decorators that are switched on. With the cache switched on, the
+ * rollover repository the services use reports its updates to the cache.
+ * When the context closes, Spring calls shutdown() of the outermost decorator
+ * (the inferred destroy method of the bean), which every decorator hands down,
+ * so the write-behind buffer stops its flusher and writes what is queued.
+ */
+@Configuration
+public class UserTimerRepositoryConfig {
+
+    public static final String DYNAMODB_REPOSITORY = "IUserTimerRepository";
+
+    @Bean
+    @Primary
+    public IUserTimerRepository userTimerRepository(
+            @Qualifier(DYNAMODB_REPOSITORY) IUserTimerRepository dynamoDBRepository,
+            DynamoDBMapper dynamoDBMapper,
+            @Value("${usertimer.persistence.write-behind.enabled:false}") boolean writeBehindEnabled,
+            @Value("${usertimer.persistence.write-behind.queue-capacity:100000}") int writeBehindQueueCapacity,
+            @Value("${usertimer.persistence.write-behind.flush-interval-millis:200}") long writeBehindFlushIntervalMillis,
+            @Value("${usertimer.persistence.write-behind.max-retries:5}") int writeBehindMaxRetries,
+            TimerMetrics timerMetrics,
+            @Value("${usertimer.metrics.repository.enabled:true}") boolean metricsEnabled,
+            @Value("${usertimer.persistence.cache.enabled:false}") boolean cacheEnabled,
+            @Value("${usertimer.persistence.cache.maximum-size:100000}") int cacheMaximumSize,
+            @Value("${usertimer.persistence.cache.ttl-millis:60000}") long cacheTtlMillis,
+            @Value("${usertimer.cluster.enabled:false}") boolean clusterEnabled) {
+        if (cacheEnabled && clusterEnabled) {
+            throw new IllegalArgumentException("usertimer.persistence.cache.enabled cannot be combined with "
+                    + "usertimer.cluster.enabled: the other nodes write the table behind the cache");
+        }
+        IUserTimerRepository repository = dynamoDBRepository;
+        if (metricsEnabled) {
+            // innermost, so the latency is that of DynamoDB and not of a queue or cache in front of it
+            repository = new MeteredUserTimerRepository(repository, timerMetrics);
+        }
+        if (writeBehindEnabled) {
+            repository = new WriteBehindUserTimerRepository(repository, dynamoDBMapper, writeBehindQueueCapacity,
+                    writeBehindFlushIntervalMillis, writeBehindMaxRetries,
+                    metricsEnabled ? timerMetrics.repositoryTimer("batchWrite") : null);
+        }
+        if (cacheEnabled) {
+            // outermost, so hits are answered before any other decorator
+            CachingUserTimerRepository cachingRepository = new CachingUserTimerRepository(repository,
+                    cacheMaximumSize, cacheTtlMillis);
+            timerMetrics.bindCache("userTimer", cachingRepository::getStats);
+            repository = cachingRepository;
+        }
+        return repository;
+    }
+
+    /*
+     * The repository above for the asynchronous request path, on the request
+     * executor
+     */
+    @Bean
+    public IAsyncUserTimerRepository asyncUserTimerRepository(
+            IUserTimerRepository userTimerRepository,
+            @Qualifier(TimerExecutorConfig.REQUEST_EXECUTOR) Executor requestExecutor) {
+        return new AsyncUserTimerRepository(userTimerRepository, requestExecutor);
+    }
+
+    @Bean
+    @Primary
+    public IUserTimerRolloverRepository primaryUserTimerRolloverRepository(
+            UserTimerRolloverRepository dynamoDBRolloverRepository,
+            IUserTimerRepository userTimerRepository) {
+        if (userTimerRepository instanceof CachingUserTimerRepository cachingRepository) {
+            return new CachingUserTimerRolloverRepository(dynamoDBRolloverRepository, cachingRepository);
+        }
+        return dynamoDBRolloverRepository;
+    }
+}
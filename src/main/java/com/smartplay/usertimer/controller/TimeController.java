@@ -1,47 +1,289 @@
 package com.smartplay.usertimer.controller;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.smartplay.usertimer.config.TimerExecutorConfig;
 import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.BulkStartResult;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerExpiryRepository;
 import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerScanRepository;
 import com.smartplay.usertimer.services.impl.TimerService;
+import com.smartplay.usertimer.services.interfaces.ISystemService;
+import com.smartplay.usertimer.services.interfaces.ITimerEventStream;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/timers")
 public class TimeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 10000;
+    private static final int STREAM_PAGE_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+    private static final long MAX_EXPIRING_WINDOW_SECONDS = 86400;
+    private static final int MAX_BULK_START_SIZE = 100000;
+
     @Autowired
     private TimerService timerService;
 
     @Autowired
     private IUserTimerRepository userTimerRepository;
 
+    @Autowired
+    private IUserTimerScanRepository userTimerScanRepository;
+
+    @Autowired
+    private IUserTimerExpiryRepository userTimerExpiryRepository;
+
+    @Autowired
+    private ISystemService systemService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ITimerEventStream timerEventStream;
+
+    @Autowired
+    @Qualifier(TimerExecutorConfig.REQUEST_EXECUTOR)
+    private Executor requestExecutor;
+
+    /*
+     * The endpoints that wait for DynamoDB return a CompletableFuture: the
+     * request thread goes back to Tomcat at once and the response is written
+     * when the future completes (spring.mvc.async.request-timeout). The
+     * DynamoDB client is blocking, so the calls still hold a thread of the
+     * request executor while they wait. A call the full request executor
+     * rejects is answered with 503 (see rejected()).
+     */
     @PostMapping("/start")
-    public ResponseEntity<String> startTimer(@RequestParam String lpaId) {
-        timerService.startTimer(lpaId);
-        return ResponseEntity.ok("Timer started for user: " + lpaId);
+    public CompletableFuture<ResponseEntity<String>> startTimer(@RequestParam String lpaId) {
+        return timerService.startTimerAsync(lpaId)
+                .thenApply(started -> ResponseEntity.ok("Timer started for user: " + lpaId));
     }
 
+    /*
+     * Starts the timers of a JSON array of lpaIds in one call.
+     */
+    @PostMapping(value = "/start/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<BulkStartResult>> startTimers(@RequestBody List<String> lpaIds) {
+        if (lpaIds.size() > MAX_BULK_START_SIZE) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return supplyAsync(() -> ResponseEntity.ok(timerService.startTimers(lpaIds)));
+    }
+
+    /*
+     * Same as above for NDJSON: one lpaId per line, either as a JSON string or
+     * bare. Empty lines are ignored. The body is read on the request thread,
+     * the timers are started on the request executor.
+     */
+    @PostMapping(value = "/start/batch", consumes = NDJSON)
+    public CompletableFuture<ResponseEntity<BulkStartResult>> startTimersFromStream(HttpServletRequest request)
+            throws IOException {
+        List<String> lpaIds = new ArrayList<>();
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (lpaIds.size() == MAX_BULK_START_SIZE) {
+                    return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+                }
+                try {
+                    lpaIds.add(line.startsWith("\"") ? objectMapper.readValue(line, String.class) : line);
+                } catch (JsonProcessingException e) {
+                    return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+                }
+            }
+        }
+        return supplyAsync(() -> ResponseEntity.ok(timerService.startTimers(lpaIds)));
+    }
+
+    /*
+     * Without a limit every active timer is returned as one JSON array, like
+     * before paging was added. With a limit one page is returned, and the
+     * X-Next-Cursor header carries the cursor of the next page.
+     */
     @GetMapping("/active")
-    public ResponseEntity<List<UserTimer>> getAllActiveTimers() {
-        List<UserTimer> activeTimers = timerService.getActiveTimers();
-        return ResponseEntity.ok(activeTimers);
+    public ResponseEntity<List<UserTimer>> getAllActiveTimers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiringBefore) {
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return pageResponse(timerService.getActiveTimers(cursor, limit != null ? limit : Integer.MAX_VALUE,
+                    expiringBefore));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
+    /*
+     * Without a limit the whole table is returned as one JSON array. With a limit
+     * one scan page is returned, and the X-Next-Cursor header carries the
+     * DynamoDB exclusive start key of the next page. The scan runs on the
+     * request executor.
+     */
     @GetMapping("/all")
-    public ResponseEntity<List<UserTimer>> getAllStoredTimers() {
-        Iterable<UserTimer> allTimers = userTimerRepository.findAll();
-        List<UserTimer> allTimersList = new ArrayList<>();
-        allTimers.forEach(allTimersList::add);
-        return ResponseEntity.ok(allTimersList);
+    public CompletableFuture<ResponseEntity<List<UserTimer>>> getAllStoredTimers(
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (limit != null && (limit <= 0 || limit > MAX_PAGE_SIZE)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return supplyAsync(() -> {
+            if (limit != null) {
+                try {
+                    return pageResponse(userTimerScanRepository.scanPage(cursor, limit));
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.badRequest().<List<UserTimer>>build();
+                }
+            }
+            Iterable<UserTimer> allTimers = userTimerRepository.findAll();
+            List<UserTimer> allTimersList = new ArrayList<>();
+            allTimers.forEach(allTimersList::add);
+            return ResponseEntity.ok(allTimersList);
+        });
+    }
+
+    /*
+     * Streams the whole table as newline delimited JSON. Rows are written as the
+     * scan pages arrive, so memory use does not depend on the table size.
+     */
+    @GetMapping(value = "/all/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllStoredTimers() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                userTimerScanRepository.scanSegment(0, 1, null, null, STREAM_PAGE_SIZE, page -> {
+                    try {
+                        for (UserTimer userTimer : page) {
+                            outputStream.write(objectMapper.writeValueAsBytes(userTimer));
+                            outputStream.write('\n');
+                        }
+                        outputStream.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /*
+     * Stored timers ending within the next withinSeconds, read from the expiry
+     * index instead of a table scan. Bounded by MAX_PAGE_SIZE rows.
+     */
+    @GetMapping("/expiring")
+    public CompletableFuture<ResponseEntity<List<UserTimer>>> getExpiringTimers(
+            @RequestParam(defaultValue = "600") long withinSeconds) {
+        if (withinSeconds <= 0 || withinSeconds > MAX_EXPIRING_WINDOW_SECONDS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        LocalDateTime now = systemService.getCurrentDateTime();
+        return supplyAsync(() -> {
+            List<UserTimer> expiringTimers = new ArrayList<>();
+            userTimerExpiryRepository.queryEndTimeRange(now, now.plusSeconds(withinSeconds), STREAM_PAGE_SIZE, page -> {
+                if (expiringTimers.size() < MAX_PAGE_SIZE) {
+                    expiringTimers.addAll(page.subList(0, Math.min(page.size(), MAX_PAGE_SIZE - expiringTimers.size())));
+                }
+            });
+            return ResponseEntity.ok(expiringTimers);
+        });
+    }
+
+    /*
+     * Server-Sent Events of the timers started, stopped and completed on this
+     * node, optionally only of the lpaIds starting with lpaIdPrefix. A client
+     * resumes after the last event it saw with the Last-Event-ID header, as
+     * EventSource does on reconnect, or the after parameter.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestParam(required = false) String lpaIdPrefix,
+            @RequestParam(required = false) Long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Long afterSequence = after;
+        if (afterSequence == null && lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                afterSequence = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Last-Event-ID must be a sequence number");
+            }
+        }
+        try {
+            return timerEventStream.subscribe(lpaIdPrefix, afterSequence);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+
+    /*
+     * The request executor is full: the caller should come back later, the
+     * call is not run on the request thread
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> rejected(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    /*
+     * Runs the call on the request executor; a rejection completes the future
+     * exceptionally
+     */
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, requestExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> ResponseEntity<List<T>> pageResponse(TimerPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.smartplay.usertimer.model.data;
+
+/**
+ * One row of the lease table. A partition lease ("partition-7") names the node
+ * that owns a timer partition; a node lease ("node-a") is the heartbeat of a
+ * node, so every node knows how many nodes share the partitions even before
+ * they own any. The version is incremented by every acquire, renew and
+ * release, so other nodes see a lease that stops changing for the lease
+ * duration as expired, without comparing clocks.
+ *
+ * @param leaseKey key of the row, see partitionKey and nodeKey
+ * @param owner    node id of the owner, null when the lease is free
+ * @param version  lease version, incremented by every write
+ */
+public record TimerLease(String leaseKey, String owner, long version) {
+
+    public static final String TABLE_NAME = "UserTimerLease";
+    public static final String KEY_ATTRIBUTE = "leaseKey";
+
+    private static final String PARTITION_PREFIX = "partition-";
+    private static final String NODE_PREFIX = "node-";
+
+    public static String partitionKey(int partition) {
+        return PARTITION_PREFIX + partition;
+    }
+
+    public static String nodeKey(String nodeId) {
+        return NODE_PREFIX + nodeId;
+    }
+
+    public boolean isFree() {
+        return owner == null;
+    }
+
+    public boolean isPartition() {
+        return leaseKey.startsWith(PARTITION_PREFIX);
+    }
+
+    public boolean isNode() {
+        return leaseKey.startsWith(NODE_PREFIX);
+    }
+
+    public int partition() {
+        return Integer.parseInt(leaseKey.substring(PARTITION_PREFIX.length()));
+    }
+}
@@ -5,10 +5,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexHashKey;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBIndexRangeKey;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTable;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverted;
-import com.smartplay.usertimer.tools.converters.LocalDateTimeConverter;
-import com.smartplay.usertimer.tools.converters.UUIDConverter;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBVersionAttribute;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.smartplay.usertimer.tools.converters.EpochSecondConverter;
+import com.smartplay.usertimer.tools.converters.UUIDBinaryConverter;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
 
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -29,14 +34,24 @@ public class UserTimer implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /** GSI on (expiryBucket, expiresAt), see DynamoDBTableInitializer. */
+    public static final String EXPIRY_INDEX = "ExpiryBucketIndex";
+
     
-    @DynamoDBTypeConverted(converter = UUIDConverter.class)
+    /**
+     * Stored as 16 bytes of binary; rows in the string storage format are
+     * converted by UserTimerStorageFormat.
+     */
+    @DynamoDBTypeConverted(converter = UUIDBinaryConverter.class)
     private UUID timerId;
     
     @DynamoDBHashKey(attributeName = "lpaId")
     private String lpaId;
 
-    @DynamoDBTypeConverted(converter = LocalDateTimeConverter.class)
+    /**
+     * Stored as epoch seconds (UTC), see UserTimerStorageFormat.
+     */
+    @DynamoDBTypeConverted(converter = EpochSecondConverter.class)
     private LocalDateTime startTime;
 
     /**
@@ -44,8 +59,42 @@ public class UserTimer implements Serializable {
      */
     private long duration;
 
-    @DynamoDBTypeConverted(converter = LocalDateTimeConverter.class)
+    @DynamoDBTypeConverted(converter = EpochSecondConverter.class)
     private LocalDateTime endTime;
+
+    /**
+     * Sequence of the row, incremented on every write. Rollovers are conditional
+     * on it so that a concurrent stop or restart of the user is not overwritten.
+     */
+    @DynamoDBVersionAttribute
+    private Long version;
+
+    /**
+     * Minute of endTime (epoch minutes, UTC), hash key of the expiry index.
+     * Derived from endTime on every write.
+     */
+    @JsonIgnore
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = EXPIRY_INDEX, attributeName = "expiryBucket")
+    public Long getExpiryBucket() {
+        return endTime == null ? null : ExpiryBuckets.bucketOf(endTime);
+    }
+
+    public void setExpiryBucket(Long expiryBucket) {
+        // derived from endTime
+    }
+
+    /**
+     * endTime in epoch seconds, range key of the expiry index.
+     */
+    @JsonIgnore
+    @DynamoDBIndexRangeKey(globalSecondaryIndexName = EXPIRY_INDEX, attributeName = "expiresAt")
+    public Long getExpiresAt() {
+        return endTime == null ? null : ExpiryBuckets.epochSecondOf(endTime);
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        // derived from endTime
+    }
     // public LocalDateTime getEndTime() {
     //     return this.startTime.plusSeconds(this.duration);
     // }
@@ -0,0 +1,24 @@
+package com.smartplay.usertimer.model.dto;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk timer start.
+ *
+ * @param requested     number of lpaIds in the request, duplicates included
+ * @param started       timers created and scheduled
+ * @param alreadyActive lpaIds that already had an active timer
+ * @param duplicates    repeated lpaIds, reported once in results
+ * @param invalid       blank lpaIds, not reported in results
+ * @param failed        lpaIds whose timer could not be stored
+ * @param results       status of every distinct lpaId, in request order
+ */
+public record BulkStartResult(int requested, int started, int alreadyActive, int duplicates, int invalid,
+        int failed, Map<String, Status> results) {
+
+    public enum Status {
+        STARTED,
+        ALREADY_ACTIVE,
+        FAILED
+    }
+}
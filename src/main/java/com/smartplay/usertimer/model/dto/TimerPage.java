@@ -0,0 +1,12 @@
+package com.smartplay.usertimer.model.dto;
+
+import java.util.List;
+
+/**
+ * One page of a cursor paginated listing.
+ *
+ * @param items      the items of this page
+ * @param nextCursor opaque cursor of the next page, null on the last page
+ */
+public record TimerPage<T>(List<T> items, String nextCursor) {
+}
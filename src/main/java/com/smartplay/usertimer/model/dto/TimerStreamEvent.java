@@ -0,0 +1,29 @@
+package com.smartplay.usertimer.model.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One entry of the /timers/events stream.
+ *
+ * @param sequence      position in the stream, also the SSE event id to resume from
+ * @param type          started, stopped or completed
+ * @param lpaId         user of the timer
+ * @param timerId       timer started or completed; null for stopped
+ * @param startTime     start of the window; null for stopped
+ * @param endTime       end of the window; null for stopped
+ * @param missedWindows completed: windows that ended during a downtime, coalesced into this one
+ */
+public record TimerStreamEvent(
+        long sequence,
+        String type,
+        String lpaId,
+        UUID timerId,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        long missedWindows) {
+
+    public static final String STARTED = "started";
+    public static final String STOPPED = "stopped";
+    public static final String COMPLETED = "completed";
+}
@@ -5,25 +5,30 @@ import java.util.UUID;
 
 import org.springframework.context.ApplicationEvent;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.smartplay.usertimer.model.data.UserTimer;
 
 import lombok.Getter;
 
 @Getter
+@JsonIgnoreProperties({ "source" })
 public class ResetTimerEvent extends ApplicationEvent {
 
     private UUID timerId;
     private String lpaId;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
+    // windows that ended after this one while the service was down, coalesced into this event
+    private long missedWindows;
 
     @lombok.Builder(builderClassName = "Builder")
-    public ResetTimerEvent(Object source, UserTimer userTimer) {
+    public ResetTimerEvent(Object source, UserTimer userTimer, long missedWindows) {
         super(source);
         this.timerId = userTimer.getTimerId();
         this.lpaId = userTimer.getLpaId();
         this.startTime = userTimer.getStartTime();
         this.endTime = userTimer.getEndTime();
+        this.missedWindows = missedWindows;
     }
 
 }
@@ -0,0 +1,24 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * State of a read-through cache.
+ *
+ * @param size         entries held
+ * @param maximumSize  entries held at most
+ * @param ttlMillis    time an entry is served before it is read again
+ * @param hits         reads served from the cache
+ * @param misses       reads that went to the table (or waited for a load in flight)
+ * @param coalesced    misses that waited for the load of another caller
+ * @param evictions    entries dropped to stay within maximumSize
+ * @param expirations  entries dropped because they outlived the ttl
+ */
+public record CacheStats(
+        int size,
+        int maximumSize,
+        long ttlMillis,
+        long hits,
+        long misses,
+        long coalesced,
+        long evictions,
+        long expirations) {
+}
@@ -0,0 +1,29 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Progress of the catch-up stage that completes the timers found overdue
+ * after a downtime.
+ *
+ * @param state                 IDLE (nothing pending) or DRAINING
+ * @param ratePerSecond         overdue timers completed per second at most
+ * @param pending               overdue timers waiting to be completed
+ * @param submitted             overdue timers handed to the stage since startup
+ * @param completed             overdue timers completed
+ * @param cancelled             pending timers dropped because the user was stopped
+ * @param failed                overdue timers of batches that failed and were queued again
+ * @param missedWindows         windows that ended during the downtime, coalesced into the events
+ * @param oldestOverdueSeconds  how long the oldest pending timer is overdue
+ * @param elapsedMillis         time spent draining since the backlog last started
+ */
+public record CatchUpProgress(
+        String state,
+        int ratePerSecond,
+        int pending,
+        long submitted,
+        long completed,
+        long cancelled,
+        long failed,
+        long missedWindows,
+        long oldestOverdueSeconds,
+        long elapsedMillis) {
+}
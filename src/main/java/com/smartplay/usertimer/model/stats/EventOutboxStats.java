@@ -0,0 +1,24 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Point-in-time counters of the event outbox.
+ *
+ * @param mode              journal or direct
+ * @param fsyncPolicy       when the journal is flushed to disk (batch, interval, none)
+ * @param appended          events appended since start
+ * @param relayed           events handed over to the notification service and acknowledged
+ * @param pending           events appended but not relayed yet
+ * @param replayedAtStartup unacknowledged events found in the journal at start
+ * @param failedRelays      relay attempts that were not acknowledged
+ * @param segments          journal segment files on disk
+ */
+public record EventOutboxStats(
+        String mode,
+        String fsyncPolicy,
+        long appended,
+        long relayed,
+        long pending,
+        long replayedAtStartup,
+        long failedRelays,
+        int segments) {
+}
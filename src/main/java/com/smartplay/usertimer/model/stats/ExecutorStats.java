@@ -0,0 +1,30 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Point-in-time counters of one named executor.
+ *
+ * @param name                executor name, also the thread name prefix
+ * @param threads             threads of the pool
+ * @param active              tasks running
+ * @param queued              tasks waiting for a thread or permit
+ * @param submitted           tasks submitted since start
+ * @param completed           tasks finished since start
+ * @param blocked             tasks whose submitting thread waited for room in the full queue
+ * @param rejected            tasks rejected because the queue was full
+ * @param avgQueueWaitMicros  mean time from submit to start
+ * @param maxQueueWaitMicros  longest time from submit to start
+ * @param avgRunMicros        mean task run time
+ */
+public record ExecutorStats(
+        String name,
+        int threads,
+        int active,
+        int queued,
+        long submitted,
+        long completed,
+        long blocked,
+        long rejected,
+        long avgQueueWaitMicros,
+        long maxQueueWaitMicros,
+        long avgRunMicros) {
+}
@@ -0,0 +1,32 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Point-in-time counters of the event publisher.
+ *
+ * @param sink           where the events are delivered
+ * @param overflowPolicy what happens when the queue is full (BLOCK, DROP, SPILL)
+ * @param capacity       size of the queue
+ * @param queueDepth     events waiting in the queue
+ * @param published      events delivered to the sink
+ * @param batches        batches delivered to the sink
+ * @param lastBatchSize  size of the last delivered batch
+ * @param maxBatchSize   largest delivered batch
+ * @param failedBatches  sink calls that failed, retries included
+ * @param blocked        events whose producer had to wait for space
+ * @param dropped        events given up on
+ * @param spilled        events written to the spill file
+ */
+public record NotificationPublisherStats(
+        String sink,
+        String overflowPolicy,
+        int capacity,
+        int queueDepth,
+        long published,
+        long batches,
+        int lastBatchSize,
+        int maxBatchSize,
+        long failedBatches,
+        long blocked,
+        long dropped,
+        long spilled) {
+}
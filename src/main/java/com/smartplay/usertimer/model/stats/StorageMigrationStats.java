@@ -0,0 +1,25 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Progress of the background rewrite of UserTimer rows into the configured
+ * storage format.
+ *
+ * @param targetFormat   string or compact
+ * @param state          DISABLED, RUNNING, COMPLETED or FAILED
+ * @param scanned        rows read that were in the other format
+ * @param migrated       rows rewritten
+ * @param skipped        rows changed concurrently (already rewritten by the service) or incomplete
+ * @param failed         rewrites that failed
+ * @param elapsedMillis  time since the migration started
+ * @param error          failure message, if the migration failed
+ */
+public record StorageMigrationStats(
+        String targetFormat,
+        String state,
+        long scanned,
+        long migrated,
+        long skipped,
+        long failed,
+        long elapsedMillis,
+        String error) {
+}
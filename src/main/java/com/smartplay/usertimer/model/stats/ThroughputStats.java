@@ -0,0 +1,28 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * State of one class (reads or writes) of the DynamoDB throughput governor.
+ *
+ * @param name             read or write
+ * @param governed         whether calls are paced or only observed
+ * @param ratePerSecond    permits (calls, items of batches) per second allowed now
+ * @param minRatePerSecond floor the rate is never decreased below
+ * @param maxRatePerSecond ceiling the rate is never increased above
+ * @param requests         calls admitted
+ * @param throttles        calls DynamoDB answered with a throttling error
+ * @param decreases        times the rate was cut after a throttle
+ * @param waiting          calls waiting for capacity right now
+ * @param waitedMillis     time calls spent waiting for capacity in total
+ */
+public record ThroughputStats(
+        String name,
+        boolean governed,
+        double ratePerSecond,
+        double minRatePerSecond,
+        double maxRatePerSecond,
+        long requests,
+        long throttles,
+        long decreases,
+        int waiting,
+        long waitedMillis) {
+}
@@ -0,0 +1,28 @@
+package com.smartplay.usertimer.model.stats;
+
+import java.util.List;
+
+/**
+ * Partition ownership of this node.
+ *
+ * @param nodeId               id of this node in the lease table
+ * @param clustered            false when the node owns every partition without leases
+ * @param partitions           total number of partitions
+ * @param ownedPartitions      partitions this node holds a lease for
+ * @param liveNodes            nodes seen holding a live lease, this node included
+ * @param acquired             leases taken since startup
+ * @param released             leases given up to balance the cluster
+ * @param lost                 leases found taken by another node or dropped after failed renewals
+ * @param lastHeartbeatMillis  time since the last successful heartbeat, -1 before the first one
+ */
+public record TimerClusterStats(
+        String nodeId,
+        boolean clustered,
+        int partitions,
+        List<Integer> ownedPartitions,
+        int liveNodes,
+        long acquired,
+        long released,
+        long lost,
+        long lastHeartbeatMillis) {
+}
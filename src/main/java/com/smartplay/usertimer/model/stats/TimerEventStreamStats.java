@@ -0,0 +1,20 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * State of the /timers/events stream.
+ *
+ * @param subscribers         clients connected right now
+ * @param lastSequence        sequence of the latest event (sequences start at the startup time in microseconds)
+ * @param published           events published since start
+ * @param replayable          latest events kept for clients resuming with a sequence
+ * @param overflowed          subscribers disconnected because their buffer was full
+ * @param rejectedSubscribers subscriptions refused at the subscriber limit
+ */
+public record TimerEventStreamStats(
+        int subscribers,
+        long lastSequence,
+        long published,
+        int replayable,
+        long overflowed,
+        long rejectedSubscribers) {
+}
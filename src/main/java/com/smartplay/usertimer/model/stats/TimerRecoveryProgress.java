@@ -0,0 +1,24 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Progress of the latest recovery that re-arms the stored timers.
+ *
+ * @param mode              parallel or sequential
+ * @param phase             NOT_STARTED, NEAR_TERM, REMAINING, ALL (single pass), COMPLETED or FAILED
+ * @param nearTermArmed     true once every timer due within the ready horizon is armed
+ * @param totalSegments     segments of the parallel scan
+ * @param segmentsCompleted segments finished in the current phase
+ * @param rowsLoaded        rows handed to the scheduler so far
+ * @param elapsedMillis     time since the recovery started
+ * @param error             failure message, if the recovery failed
+ */
+public record TimerRecoveryProgress(
+        String mode,
+        String phase,
+        boolean nearTermArmed,
+        int totalSegments,
+        int segmentsCompleted,
+        long rowsLoaded,
+        long elapsedMillis,
+        String error) {
+}
@@ -0,0 +1,22 @@
+package com.smartplay.usertimer.model.stats;
+
+/**
+ * Point-in-time counters of one scheduler shard.
+ *
+ * @param name      shard name, e.g. timer-shard-3
+ * @param engine    scheduling engine of the shard (wheel or executor)
+ * @param armed     timers currently armed
+ * @param scheduled timers armed since start
+ * @param cancelled timers disarmed before they expired
+ * @param fired     timers that expired
+ * @param batches   expiry batches handed to TimerService
+ */
+public record TimerSchedulerStats(
+        String name,
+        String engine,
+        int armed,
+        long scheduled,
+        long cancelled,
+        long fired,
+        long batches) {
+}
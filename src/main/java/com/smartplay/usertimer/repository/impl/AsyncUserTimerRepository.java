@@ -0,0 +1,64 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IAsyncUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+
+/**
+ * IAsyncUserTimerRepository over the repository the services use, so the
+ * cache, write-behind buffer, meters, throughput governor and storage format
+ * apply to asynchronous calls as well. The AWS SDK v1 client has no
+ * non-blocking API, so each call is the blocking one, run on the request
+ * executor: it frees the request thread, not the thread that waits for
+ * DynamoDB. The calls in flight are bounded by the thread count and queue of
+ * the executor; a call the executor rejects because it is full completes the
+ * future with the RejectedExecutionException instead of running on the
+ * calling thread.
+ */
+public class AsyncUserTimerRepository implements IAsyncUserTimerRepository {
+
+    private final IUserTimerRepository delegate;
+    private final Executor executor;
+
+    public AsyncUserTimerRepository(IUserTimerRepository delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Optional<UserTimer>> findById(String lpaId) {
+        return supplyAsync(() -> delegate.findById(lpaId));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> existsById(String lpaId) {
+        return supplyAsync(() -> delegate.existsById(lpaId));
+    }
+
+    @Override
+    public CompletableFuture<UserTimer> save(UserTimer userTimer) {
+        return supplyAsync(() -> delegate.save(userTimer));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteById(String lpaId) {
+        return supplyAsync(() -> {
+            delegate.deleteById(lpaId);
+            return null;
+        });
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
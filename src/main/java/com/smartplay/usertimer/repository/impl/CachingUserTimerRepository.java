@@ -0,0 +1,164 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.CacheStats;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.tools.caching.ExpiringLruCache;
+
+/**
+ * Read-through, write-through cache in front of the UserTimer table.
+ *
+ * findById, existsById and findAllById are served from an ExpiringLruCache of
+ * the rows by lpaId, absent rows included, so repeated lookups of the same
+ * users cost no read capacity. Concurrent misses for a user share one read,
+ * and the misses of findAllById are read with one batched call. Saves and
+ * deletes update the cache after the write succeeded and invalidate the users
+ * when it failed. findAll and count scan the table and bypass the cache.
+ *
+ * Writes that do not go through this repository must be reported: the
+ * rollover updates through CachingUserTimerRolloverRepository. Rows written
+ * by other processes are only seen once their entry expired, which is why
+ * the cache cannot be combined with a cluster.
+ *
+ * Cached timers are shared with the callers and must not be modified.
+ */
+public class CachingUserTimerRepository extends DelegatingUserTimerRepository {
+
+    private final ExpiringLruCache<String, Optional<UserTimer>> cache;
+
+    public CachingUserTimerRepository(IUserTimerRepository delegate, int maximumSize, long ttlMillis) {
+        super(delegate);
+        this.cache = new ExpiringLruCache<>(maximumSize, ttlMillis);
+    }
+
+    @Override
+    public <S extends UserTimer> S save(S entity) {
+        S saved;
+        try {
+            saved = delegate.save(entity);
+        } catch (RuntimeException e) {
+            cache.invalidate(entity.getLpaId());
+            throw e;
+        }
+        cache.put(saved.getLpaId(), Optional.of(saved));
+        return saved;
+    }
+
+    @Override
+    public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+        Iterable<S> saved;
+        try {
+            saved = delegate.saveAll(entities);
+        } catch (RuntimeException e) {
+            // part of the batch may have been written
+            entities.forEach(entity -> cache.invalidate(entity.getLpaId()));
+            throw e;
+        }
+        saved.forEach(entity -> cache.put(entity.getLpaId(), Optional.of(entity)));
+        return saved;
+    }
+
+    @Override
+    public Optional<UserTimer> findById(String lpaId) {
+        return cache.get(lpaId, delegate::findById);
+    }
+
+    @Override
+    public boolean existsById(String lpaId) {
+        return findById(lpaId).isPresent();
+    }
+
+    @Override
+    public Iterable<UserTimer> findAllById(Iterable<String> lpaIds) {
+        Set<String> distinctIds = new LinkedHashSet<>();
+        lpaIds.forEach(distinctIds::add);
+        Map<String, Optional<UserTimer>> timers = cache.getAll(distinctIds, misses -> {
+            Map<String, Optional<UserTimer>> loaded = new HashMap<>();
+            misses.forEach(lpaId -> loaded.put(lpaId, Optional.empty()));
+            delegate.findAllById(misses).forEach(timer -> loaded.put(timer.getLpaId(), Optional.of(timer)));
+            return loaded;
+        });
+        List<UserTimer> found = new ArrayList<>(timers.size());
+        for (String lpaId : distinctIds) {
+            timers.get(lpaId).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public void deleteById(String lpaId) {
+        try {
+            delegate.deleteById(lpaId);
+        } catch (RuntimeException e) {
+            cache.invalidate(lpaId);
+            throw e;
+        }
+        cache.put(lpaId, Optional.empty());
+    }
+
+    @Override
+    public void delete(UserTimer entity) {
+        try {
+            delegate.delete(entity);
+        } catch (RuntimeException e) {
+            cache.invalidate(entity.getLpaId());
+            throw e;
+        }
+        cache.put(entity.getLpaId(), Optional.empty());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> lpaIds) {
+        try {
+            delegate.deleteAllById(lpaIds);
+        } catch (RuntimeException e) {
+            lpaIds.forEach(cache::invalidate);
+            throw e;
+        }
+        lpaIds.forEach(lpaId -> cache.put(lpaId, Optional.empty()));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserTimer> entities) {
+        try {
+            delegate.deleteAll(entities);
+        } catch (RuntimeException e) {
+            entities.forEach(entity -> cache.invalidate(entity.getLpaId()));
+            throw e;
+        }
+        entities.forEach(entity -> cache.put(entity.getLpaId(), Optional.empty()));
+    }
+
+    @Override
+    public void deleteAll() {
+        try {
+            delegate.deleteAll();
+        } finally {
+            cache.invalidateAll();
+        }
+    }
+
+    /*
+     * The row of the user was moved to nextTimer by a write outside this
+     * repository
+     */
+    public void rolledOver(UserTimer nextTimer) {
+        cache.put(nextTimer.getLpaId(), Optional.of(nextTimer));
+    }
+
+    public void invalidate(String lpaId) {
+        cache.invalidate(lpaId);
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+}
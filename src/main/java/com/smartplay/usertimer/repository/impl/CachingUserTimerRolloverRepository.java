@@ -0,0 +1,38 @@
+package com.smartplay.usertimer.repository.impl;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+
+/**
+ * Keeps the CachingUserTimerRepository in step with the rollovers, which
+ * update the table directly: a rolled over user is cached with its next
+ * timer, a user whose rollover failed or was skipped is read again.
+ */
+public class CachingUserTimerRolloverRepository implements IUserTimerRolloverRepository {
+
+    private final IUserTimerRolloverRepository delegate;
+    private final CachingUserTimerRepository cachingRepository;
+
+    public CachingUserTimerRolloverRepository(IUserTimerRolloverRepository delegate,
+            CachingUserTimerRepository cachingRepository) {
+        this.delegate = delegate;
+        this.cachingRepository = cachingRepository;
+    }
+
+    @Override
+    public boolean rollover(UserTimer currentTimer, UserTimer nextTimer) {
+        boolean rolledOver;
+        try {
+            rolledOver = delegate.rollover(currentTimer, nextTimer);
+        } catch (RuntimeException e) {
+            cachingRepository.invalidate(currentTimer.getLpaId());
+            throw e;
+        }
+        if (rolledOver) {
+            cachingRepository.rolledOver(nextTimer);
+        } else {
+            cachingRepository.invalidate(currentTimer.getLpaId());
+        }
+        return rolledOver;
+    }
+}
@@ -0,0 +1,97 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.Optional;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IFlushableRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+
+/**
+ * Base class for decorators of IUserTimerRepository. Every call is forwarded to
+ * the delegate; subclasses override the operations they change.
+ */
+public abstract class DelegatingUserTimerRepository implements IUserTimerRepository, IFlushableRepository {
+
+    protected final IUserTimerRepository delegate;
+
+    protected DelegatingUserTimerRepository(IUserTimerRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void flush() {
+        if (delegate instanceof IFlushableRepository flushableRepository) {
+            flushableRepository.flush();
+        }
+    }
+
+    /*
+     * Inferred by Spring as the destroy method of the repository bean; handed
+     * down the chain so a decorator holding resources can release them
+     */
+    public void shutdown() {
+        if (delegate instanceof DelegatingUserTimerRepository delegatingRepository) {
+            delegatingRepository.shutdown();
+        }
+    }
+
+    @Override
+    public <S extends UserTimer> S save(S entity) {
+        return delegate.save(entity);
+    }
+
+    @Override
+    public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+        return delegate.saveAll(entities);
+    }
+
+    @Override
+    public Optional<UserTimer> findById(String lpaId) {
+        return delegate.findById(lpaId);
+    }
+
+    @Override
+    public boolean existsById(String lpaId) {
+        return delegate.existsById(lpaId);
+    }
+
+    @Override
+    public Iterable<UserTimer> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Iterable<UserTimer> findAllById(Iterable<String> lpaIds) {
+        return delegate.findAllById(lpaIds);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public void deleteById(String lpaId) {
+        delegate.deleteById(lpaId);
+    }
+
+    @Override
+    public void delete(UserTimer entity) {
+        delegate.delete(entity);
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> lpaIds) {
+        delegate.deleteAllById(lpaIds);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserTimer> entities) {
+        delegate.deleteAll(entities);
+    }
+
+    @Override
+    public void deleteAll() {
+        delegate.deleteAll();
+    }
+}
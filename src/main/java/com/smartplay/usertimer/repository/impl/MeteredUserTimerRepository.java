@@ -0,0 +1,102 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.Optional;
+
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records the latency of every repository operation in the timer
+ * usertimer.repository.latency, tagged with the operation. findAll() returns a
+ * lazily paginated list, so only its first page is measured. It wraps the
+ * DynamoDB repository directly, below the write-behind buffer and the cache,
+ * so it measures the table and not an enqueue or a cache hit.
+ */
+public class MeteredUserTimerRepository extends DelegatingUserTimerRepository {
+
+    private final Timer saveTimer;
+    private final Timer saveAllTimer;
+    private final Timer findByIdTimer;
+    private final Timer existsByIdTimer;
+    private final Timer findAllTimer;
+    private final Timer findAllByIdTimer;
+    private final Timer countTimer;
+    private final Timer deleteTimer;
+    private final Timer deleteAllTimer;
+
+    public MeteredUserTimerRepository(IUserTimerRepository delegate, TimerMetrics timerMetrics) {
+        super(delegate);
+        this.saveTimer = timerMetrics.repositoryTimer("save");
+        this.saveAllTimer = timerMetrics.repositoryTimer("saveAll");
+        this.findByIdTimer = timerMetrics.repositoryTimer("findById");
+        this.existsByIdTimer = timerMetrics.repositoryTimer("existsById");
+        this.findAllTimer = timerMetrics.repositoryTimer("findAll");
+        this.findAllByIdTimer = timerMetrics.repositoryTimer("findAllById");
+        this.countTimer = timerMetrics.repositoryTimer("count");
+        this.deleteTimer = timerMetrics.repositoryTimer("delete");
+        this.deleteAllTimer = timerMetrics.repositoryTimer("deleteAll");
+    }
+
+    @Override
+    public <S extends UserTimer> S save(S entity) {
+        return saveTimer.record(() -> delegate.save(entity));
+    }
+
+    @Override
+    public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+        return saveAllTimer.record(() -> delegate.saveAll(entities));
+    }
+
+    @Override
+    public Optional<UserTimer> findById(String lpaId) {
+        return findByIdTimer.record(() -> delegate.findById(lpaId));
+    }
+
+    @Override
+    public boolean existsById(String lpaId) {
+        return existsByIdTimer.record(() -> delegate.existsById(lpaId));
+    }
+
+    @Override
+    public Iterable<UserTimer> findAll() {
+        return findAllTimer.record(() -> delegate.findAll());
+    }
+
+    @Override
+    public Iterable<UserTimer> findAllById(Iterable<String> lpaIds) {
+        return findAllByIdTimer.record(() -> delegate.findAllById(lpaIds));
+    }
+
+    @Override
+    public long count() {
+        return countTimer.record(() -> delegate.count());
+    }
+
+    @Override
+    public void deleteById(String lpaId) {
+        deleteTimer.record(() -> delegate.deleteById(lpaId));
+    }
+
+    @Override
+    public void delete(UserTimer entity) {
+        deleteTimer.record(() -> delegate.delete(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> lpaIds) {
+        deleteAllTimer.record(() -> delegate.deleteAllById(lpaIds));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserTimer> entities) {
+        deleteAllTimer.record(() -> delegate.deleteAll(entities));
+    }
+
+    @Override
+    public void deleteAll() {
+        deleteAllTimer.record(() -> delegate.deleteAll());
+    }
+}
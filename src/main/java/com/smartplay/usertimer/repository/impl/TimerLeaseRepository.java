@@ -0,0 +1,140 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.smartplay.usertimer.model.data.TimerLease;
+import com.smartplay.usertimer.repository.interfaces.ITimerLeaseRepository;
+
+/**
+ * Lease table on the low-level client: leaseKey (hash key), owner and
+ * leaseVersion. The table holds one small row per partition and per node, so
+ * findAll is a single consistent scan in practice.
+ */
+@Repository
+public class TimerLeaseRepository implements ITimerLeaseRepository {
+
+    private static final String OWNER = "owner";
+    private static final String VERSION = "leaseVersion";
+
+    private final AmazonDynamoDB amazonDynamoDB;
+
+    public TimerLeaseRepository(@Autowired AmazonDynamoDB amazonDynamoDB) {
+        this.amazonDynamoDB = amazonDynamoDB;
+    }
+
+    @Override
+    public List<TimerLease> findAll() {
+        List<TimerLease> leases = new ArrayList<>();
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            ScanResult page = amazonDynamoDB.scan(new ScanRequest()
+                    .withTableName(TimerLease.TABLE_NAME)
+                    .withConsistentRead(true)
+                    .withExclusiveStartKey(exclusiveStartKey));
+            for (Map<String, AttributeValue> item : page.getItems()) {
+                AttributeValue owner = item.get(OWNER);
+                AttributeValue version = item.get(VERSION);
+                leases.add(new TimerLease(
+                        item.get(TimerLease.KEY_ATTRIBUTE).getS(),
+                        owner == null ? null : owner.getS(),
+                        version == null ? 0 : Long.parseLong(version.getN())));
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+        return leases;
+    }
+
+    @Override
+    public TimerLease acquire(String leaseKey, String owner, TimerLease expected) {
+        long nextVersion = expected == null ? 1 : expected.version() + 1;
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":owner", new AttributeValue().withS(owner));
+        values.put(":nextVersion", number(nextVersion));
+        String condition;
+        if (expected == null) {
+            condition = "attribute_not_exists(" + TimerLease.KEY_ATTRIBUTE + ")";
+        } else {
+            condition = "#version = :expectedVersion";
+            values.put(":expectedVersion", number(expected.version()));
+        }
+        return update(leaseKey, "SET #owner = :owner, #version = :nextVersion", condition, values)
+                ? new TimerLease(leaseKey, owner, nextVersion)
+                : null;
+    }
+
+    @Override
+    public TimerLease renew(TimerLease lease) {
+        long nextVersion = lease.version() + 1;
+        return update(lease.leaseKey(), "SET #version = :nextVersion", "#owner = :owner AND #version = :expectedVersion",
+                ownedValues(lease, nextVersion))
+                ? new TimerLease(lease.leaseKey(), lease.owner(), nextVersion)
+                : null;
+    }
+
+    @Override
+    public boolean release(TimerLease lease) {
+        return update(lease.leaseKey(), "REMOVE #owner SET #version = :nextVersion",
+                "#owner = :owner AND #version = :expectedVersion", ownedValues(lease, lease.version() + 1));
+    }
+
+    @Override
+    public boolean delete(TimerLease lease) {
+        try {
+            amazonDynamoDB.deleteItem(new DeleteItemRequest()
+                    .withTableName(TimerLease.TABLE_NAME)
+                    .withKey(Map.of(TimerLease.KEY_ATTRIBUTE, new AttributeValue().withS(lease.leaseKey())))
+                    .withConditionExpression("#version = :expectedVersion")
+                    .withExpressionAttributeNames(Map.of("#version", VERSION))
+                    .withExpressionAttributeValues(Map.of(":expectedVersion", number(lease.version()))));
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private boolean update(String leaseKey, String updateExpression, String condition,
+            Map<String, AttributeValue> values) {
+        Map<String, String> names = new HashMap<>();
+        // owner is a reserved word
+        names.put("#owner", OWNER);
+        names.put("#version", VERSION);
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(TimerLease.TABLE_NAME)
+                .withKey(Map.of(TimerLease.KEY_ATTRIBUTE, new AttributeValue().withS(leaseKey)))
+                .withUpdateExpression(updateExpression)
+                .withConditionExpression(condition)
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        try {
+            amazonDynamoDB.updateItem(request);
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    private static Map<String, AttributeValue> ownedValues(TimerLease lease, long nextVersion) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":owner", new AttributeValue().withS(lease.owner()));
+        values.put(":expectedVersion", number(lease.version()));
+        values.put(":nextVersion", number(nextVersion));
+        return values;
+    }
+
+    private static AttributeValue number(long value) {
+        return new AttributeValue().withN(Long.toString(value));
+    }
+}
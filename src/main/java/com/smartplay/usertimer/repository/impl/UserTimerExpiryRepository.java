@@ -0,0 +1,77 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerExpiryRepository;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
+
+@Repository
+public class UserTimerExpiryRepository implements IUserTimerExpiryRepository {
+
+    private final DynamoDBMapper dynamoDBMapper;
+
+    public UserTimerExpiryRepository(@Autowired DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    @Override
+    public void queryBucket(long bucket, int pageSize, Consumer<List<UserTimer>> pageConsumer) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":bucket", new AttributeValue().withN(Long.toString(bucket)));
+        query("expiryBucket = :bucket", values, pageSize, pageConsumer);
+    }
+
+    /*
+     * One query per bucket. Only the first and the last bucket can be partly
+     * outside the range, the condition on expiresAt trims them.
+     */
+    @Override
+    public void queryEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo, int pageSize,
+            Consumer<List<UserTimer>> pageConsumer) {
+        long fromSecond = ExpiryBuckets.epochSecondOf(endTimeFrom);
+        long toSecond = ExpiryBuckets.epochSecondOf(endTimeTo);
+        if (toSecond <= fromSecond) {
+            return;
+        }
+        long lastBucket = ExpiryBuckets.bucketOf(toSecond - 1);
+        for (long bucket = ExpiryBuckets.bucketOf(fromSecond); bucket <= lastBucket; bucket++) {
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":bucket", new AttributeValue().withN(Long.toString(bucket)));
+            values.put(":from", new AttributeValue().withN(Long.toString(fromSecond)));
+            values.put(":to", new AttributeValue().withN(Long.toString(toSecond - 1)));
+            query("expiryBucket = :bucket AND expiresAt BETWEEN :from AND :to", values, pageSize, pageConsumer);
+        }
+    }
+
+    private void query(String keyCondition, Map<String, AttributeValue> values, int pageSize,
+            Consumer<List<UserTimer>> pageConsumer) {
+        DynamoDBQueryExpression<UserTimer> queryExpression = new DynamoDBQueryExpression<UserTimer>()
+                .withIndexName(UserTimer.EXPIRY_INDEX)
+                .withConsistentRead(false)
+                .withKeyConditionExpression(keyCondition)
+                .withExpressionAttributeValues(values)
+                .withLimit(pageSize);
+
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            queryExpression.setExclusiveStartKey(exclusiveStartKey);
+            QueryResultPage<UserTimer> page = dynamoDBMapper.queryPage(UserTimer.class, queryExpression);
+            if (!page.getResults().isEmpty()) {
+                pageConsumer.accept(page.getResults());
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+    }
+}
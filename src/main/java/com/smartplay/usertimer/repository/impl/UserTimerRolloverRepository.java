@@ -0,0 +1,94 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+import com.smartplay.usertimer.tools.throughput.ThroughputLane;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Rolls a timer row over with one UpdateItem instead of a delete and a put.
+ * The update is conditional on the row still existing with the expected
+ * version, which replaces the window in which a user had no row at all.
+ */
+@Repository
+public class UserTimerRolloverRepository implements IUserTimerRolloverRepository {
+
+    private static final String TABLE_NAME = "UserTimer";
+    private static final String UPDATE_EXPRESSION = "SET timerId = :timerId, startTime = :startTime, "
+            + "endTime = :endTime, #duration = :duration, #version = :nextVersion, "
+            + "expiryBucket = :expiryBucket, expiresAt = :expiresAt";
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final UserTimerStorageFormat storageFormat;
+    private final Timer rolloverTimer;
+
+    public UserTimerRolloverRepository(
+            @Autowired AmazonDynamoDB amazonDynamoDB,
+            @Autowired UserTimerStorageFormat storageFormat,
+            @Autowired TimerMetrics timerMetrics) {
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.storageFormat = storageFormat;
+        this.rolloverTimer = timerMetrics.repositoryTimer("rollover");
+    }
+
+    @Override
+    public boolean rollover(UserTimer currentTimer, UserTimer nextTimer) {
+        Long currentVersion = currentTimer.getVersion();
+        long nextVersion = currentVersion == null ? 1L : currentVersion + 1;
+
+        Map<String, String> names = new HashMap<>();
+        names.put("#duration", "duration");
+        names.put("#version", "version");
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":timerId", storageFormat.timerId(nextTimer.getTimerId()));
+        values.put(":startTime", storageFormat.dateTime(nextTimer.getStartTime()));
+        values.put(":endTime", storageFormat.dateTime(nextTimer.getEndTime()));
+        values.put(":duration", new AttributeValue().withN(Long.toString(nextTimer.getDuration())));
+        values.put(":nextVersion", new AttributeValue().withN(Long.toString(nextVersion)));
+        values.put(":expiryBucket", new AttributeValue().withN(Long.toString(nextTimer.getExpiryBucket())));
+        values.put(":expiresAt", new AttributeValue().withN(Long.toString(nextTimer.getExpiresAt())));
+
+        String condition;
+        if (currentVersion == null) {
+            // rows written before the version attribute existed
+            condition = "attribute_exists(lpaId) AND attribute_not_exists(#version)";
+        } else {
+            condition = "attribute_exists(lpaId) AND #version = :expectedVersion";
+            values.put(":expectedVersion", new AttributeValue().withN(Long.toString(currentVersion)));
+        }
+
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(Map.of("lpaId", new AttributeValue().withS(currentTimer.getLpaId())))
+                .withUpdateExpression(UPDATE_EXPRESSION)
+                .withConditionExpression(condition)
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values);
+        long startedNanos = System.nanoTime();
+        try {
+            // ahead of the other calls when the table is saturated
+            ThroughputLane.CRITICAL.runIn(() -> amazonDynamoDB.updateItem(request));
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        } finally {
+            rolloverTimer.record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+        nextTimer.setVersion(nextVersion);
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerScanRepository;
+import com.smartplay.usertimer.tools.converters.CursorConverter;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+
+@Repository
+public class UserTimerScanRepository implements IUserTimerScanRepository {
+
+    private static final String KEY_ATTRIBUTE = "lpaId";
+    private static final UserTimerStorageFormat STRING_FORMAT = new UserTimerStorageFormat(UserTimerStorageFormat.FORMAT_STRING);
+    private static final UserTimerStorageFormat COMPACT_FORMAT = new UserTimerStorageFormat(UserTimerStorageFormat.FORMAT_COMPACT);
+
+    private final DynamoDBMapper dynamoDBMapper;
+
+    public UserTimerScanRepository(@Autowired DynamoDBMapper dynamoDBMapper) {
+        this.dynamoDBMapper = dynamoDBMapper;
+    }
+
+    @Override
+    public void scanSegment(int segment, int totalSegments, LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+            int pageSize, Consumer<List<UserTimer>> pageConsumer) {
+        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression()
+                .withSegment(segment)
+                .withTotalSegments(totalSegments)
+                .withLimit(pageSize);
+        applyEndTimeFilter(scanExpression, endTimeFrom, endTimeTo);
+
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            scanExpression.setExclusiveStartKey(exclusiveStartKey);
+            ScanResultPage<UserTimer> page = dynamoDBMapper.scanPage(UserTimer.class, scanExpression);
+            if (!page.getResults().isEmpty()) {
+                pageConsumer.accept(page.getResults());
+            }
+            exclusiveStartKey = page.getLastEvaluatedKey();
+        } while (exclusiveStartKey != null);
+    }
+
+    /*
+     * The table only has the lpaId hash key, so the exclusive start key is fully
+     * described by the lpaId and the cursor is just its encoded form.
+     */
+    @Override
+    public TimerPage<UserTimer> scanPage(String cursor, int limit) {
+        DynamoDBScanExpression scanExpression = new DynamoDBScanExpression().withLimit(limit);
+        String exclusiveStartLpaId = CursorConverter.decode(cursor);
+        if (exclusiveStartLpaId != null) {
+            scanExpression.setExclusiveStartKey(Map.of(KEY_ATTRIBUTE, new AttributeValue().withS(exclusiveStartLpaId)));
+        }
+        ScanResultPage<UserTimer> page = dynamoDBMapper.scanPage(UserTimer.class, scanExpression);
+        Map<String, AttributeValue> lastEvaluatedKey = page.getLastEvaluatedKey();
+        String nextCursor = lastEvaluatedKey == null ? null : CursorConverter.encode(lastEvaluatedKey.get(KEY_ATTRIBUTE).getS());
+        return new TimerPage<>(page.getResults(), nextCursor);
+    }
+
+    /*
+     * endTime is either a fixed width UTC string, whose lexical order matches
+     * chronological order, or epoch seconds (see UserTimerStorageFormat). The
+     * filter carries the bounds in both formats; a comparison against a value of
+     * the other type is simply false.
+     */
+    private void applyEndTimeFilter(DynamoDBScanExpression scanExpression, LocalDateTime endTimeFrom,
+            LocalDateTime endTimeTo) {
+        List<String> stringConditions = new ArrayList<>();
+        List<String> numberConditions = new ArrayList<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        if (endTimeFrom != null) {
+            stringConditions.add("endTime >= :endTimeFromS");
+            numberConditions.add("endTime >= :endTimeFromN");
+            values.put(":endTimeFromS", STRING_FORMAT.dateTime(endTimeFrom));
+            values.put(":endTimeFromN", COMPACT_FORMAT.dateTime(endTimeFrom));
+        }
+        if (endTimeTo != null) {
+            stringConditions.add("endTime < :endTimeToS");
+            numberConditions.add("endTime < :endTimeToN");
+            values.put(":endTimeToS", STRING_FORMAT.dateTime(endTimeTo));
+            values.put(":endTimeToN", COMPACT_FORMAT.dateTime(endTimeTo));
+        }
+        if (!values.isEmpty()) {
+            scanExpression.setFilterExpression("(" + String.join(" AND ", stringConditions) + ") OR ("
+                    + String.join(" AND ", numberConditions) + ")");
+            scanExpression.setExpressionAttributeValues(values);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.smartplay.usertimer.repository.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer in front of IUserTimerRepository.
+ *
+ * save and delete calls return immediately and are queued per lpaId. Only the
+ * latest mutation of a key is kept, so a delete followed by a save of the same
+ * user is written as a single put. A background thread flushes the queue every
+ * flush interval in BatchWriteItem requests of up to 25 items; unprocessed
+ * items are queued again up to maxRetries times. Every BatchWriteItem is
+ * recorded in batchWriteTimer, if one is given. The number of distinct keys
+ * waiting is bounded by queueCapacity, callers block when it is reached.
+ *
+ * Reads of single keys, findAllById and count() take the pending mutations
+ * into account without writing them; findAll() flushes first.
+ *
+ * shutdown() stops the flusher and writes whatever is still queued. The
+ * decorators in front of this one hand the call down the chain, so it runs
+ * when the context closes the repository bean.
+ */
+@Slf4j
+public class WriteBehindUserTimerRepository extends DelegatingUserTimerRepository {
+
+    /** BatchWriteItem accepts at most 25 put or delete requests. */
+    public static final int MAX_BATCH_SIZE = 25;
+
+    private static final String KEY_ATTRIBUTE = "lpaId";
+
+    private final DynamoDBMapper dynamoDBMapper;
+    private final int maxRetries;
+    private final Timer batchWriteTimer;
+    private final ConcurrentHashMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final LinkedBlockingQueue<String> queue;
+    private final ConcurrentLinkedQueue<String> retryQueue = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService flusher;
+    private final Object flushLock = new Object();
+
+    public WriteBehindUserTimerRepository(IUserTimerRepository delegate, DynamoDBMapper dynamoDBMapper,
+            int queueCapacity, long flushIntervalMillis, int maxRetries, Timer batchWriteTimer) {
+        super(delegate);
+        this.dynamoDBMapper = dynamoDBMapper;
+        this.maxRetries = maxRetries;
+        this.batchWriteTimer = batchWriteTimer;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("timer-write-behind"));
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public <S extends UserTimer> S save(S entity) {
+        enqueue(new PendingWrite(entity.getLpaId(), entity, 0));
+        return entity;
+    }
+
+    @Override
+    public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+        entities.forEach(this::save);
+        return entities;
+    }
+
+    @Override
+    public void deleteById(String lpaId) {
+        enqueue(new PendingWrite(lpaId, null, 0));
+    }
+
+    @Override
+    public void delete(UserTimer entity) {
+        deleteById(entity.getLpaId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> lpaIds) {
+        lpaIds.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserTimer> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        flush();
+        delegate.deleteAll();
+    }
+
+    @Override
+    public Optional<UserTimer> findById(String lpaId) {
+        PendingWrite pendingWrite = pending.get(lpaId);
+        if (pendingWrite != null) {
+            return Optional.ofNullable(pendingWrite.timer());
+        }
+        return delegate.findById(lpaId);
+    }
+
+    @Override
+    public boolean existsById(String lpaId) {
+        PendingWrite pendingWrite = pending.get(lpaId);
+        if (pendingWrite != null) {
+            return pendingWrite.timer() != null;
+        }
+        return delegate.existsById(lpaId);
+    }
+
+    @Override
+    public Iterable<UserTimer> findAll() {
+        flush();
+        return delegate.findAll();
+    }
+
+    /*
+     * Keys with a pending mutation are answered from the queue, the others are
+     * read from the delegate in one call
+     */
+    @Override
+    public Iterable<UserTimer> findAllById(Iterable<String> lpaIds) {
+        List<UserTimer> timers = new ArrayList<>();
+        List<String> storedIds = new ArrayList<>();
+        for (String lpaId : lpaIds) {
+            PendingWrite pendingWrite = pending.get(lpaId);
+            if (pendingWrite == null) {
+                storedIds.add(lpaId);
+            } else if (pendingWrite.timer() != null) {
+                timers.add(pendingWrite.timer());
+            }
+        }
+        if (!storedIds.isEmpty()) {
+            delegate.findAllById(storedIds).forEach(timers::add);
+        }
+        return timers;
+    }
+
+    /*
+     * The stored count corrected by the pending mutations: a queued save of a
+     * key not stored yet adds one, a queued delete of a stored key takes one
+     * away. Writes flushed while the count runs may be off by one each.
+     */
+    @Override
+    public long count() {
+        Map<String, PendingWrite> snapshot = new HashMap<>(pending);
+        long count = delegate.count();
+        if (snapshot.isEmpty()) {
+            return count;
+        }
+        Set<String> storedIds = new HashSet<>();
+        delegate.findAllById(snapshot.keySet()).forEach(timer -> storedIds.add(timer.getLpaId()));
+        for (PendingWrite pendingWrite : snapshot.values()) {
+            boolean stored = storedIds.contains(pendingWrite.lpaId());
+            if (pendingWrite.timer() != null && !stored) {
+                count++;
+            } else if (pendingWrite.timer() == null && stored) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /*
+     * Writes everything queued so far before returning.
+     */
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            while (writeBatch() > 0) {
+                // keep going until both queues are drained
+            }
+        }
+        super.flush();
+    }
+
+    /*
+     * Called when the bean is destroyed: stop the background flusher and write
+     * whatever is still queued.
+     */
+    @Override
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+        super.shutdown();
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (pending.put(write.lpaId(), write) != null) {
+            // the key is already queued, the newer mutation replaces the older one
+            return;
+        }
+        try {
+            queue.put(write.lpaId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.remove(write.lpaId(), write);
+            throw new IllegalStateException("Interrupted while waiting for the write-behind queue", e);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush failed", e);
+        }
+    }
+
+    /*
+     * Writes one batch of up to 25 keys; returns the number of keys taken from
+     * the queues.
+     */
+    private int writeBatch() {
+        List<String> keys = new ArrayList<>(MAX_BATCH_SIZE);
+        String retryKey;
+        while (keys.size() < MAX_BATCH_SIZE && (retryKey = retryQueue.poll()) != null) {
+            keys.add(retryKey);
+        }
+        queue.drainTo(keys, MAX_BATCH_SIZE - keys.size());
+        if (keys.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, PendingWrite> batch = new HashMap<>();
+        List<UserTimer> toSave = new ArrayList<>();
+        List<UserTimer> toDelete = new ArrayList<>();
+        for (String key : keys) {
+            PendingWrite write = pending.remove(key);
+            if (write == null || batch.containsKey(key)) {
+                continue;
+            }
+            batch.put(key, write);
+            if (write.timer() != null) {
+                toSave.add(write.timer());
+            } else {
+                toDelete.add(UserTimer.builder().lpaId(key).build());
+            }
+        }
+        if (batch.isEmpty()) {
+            return keys.size();
+        }
+
+        try {
+            List<FailedBatch> failedBatches = batchWriteTimer == null
+                    ? dynamoDBMapper.batchWrite(toSave, toDelete)
+                    : batchWriteTimer.record(() -> dynamoDBMapper.batchWrite(toSave, toDelete));
+            for (FailedBatch failedBatch : failedBatches) {
+                log.warn("Write-behind batch partially failed", failedBatch.getException());
+                for (List<WriteRequest> writeRequests : failedBatch.getUnprocessedItems().values()) {
+                    for (WriteRequest writeRequest : writeRequests) {
+                        retry(batch.get(keyOf(writeRequest)));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Write-behind batch of {} items failed", batch.size(), e);
+            batch.values().forEach(this::retry);
+        }
+        return keys.size();
+    }
+
+    private void retry(PendingWrite write) {
+        if (write == null) {
+            return;
+        }
+        if (write.attempts() >= maxRetries) {
+            log.error("Dropping write for lpaId {} after {} attempts", write.lpaId(), write.attempts() + 1);
+            return;
+        }
+        PendingWrite retry = new PendingWrite(write.lpaId(), write.timer(), write.attempts() + 1);
+        // a mutation queued meanwhile is newer than the failed one and wins
+        if (pending.putIfAbsent(write.lpaId(), retry) == null) {
+            retryQueue.add(write.lpaId());
+        }
+    }
+
+    private static String keyOf(WriteRequest writeRequest) {
+        Map<String, AttributeValue> key = writeRequest.getPutRequest() != null
+                ? writeRequest.getPutRequest().getItem()
+                : writeRequest.getDeleteRequest().getKey();
+        return key.get(KEY_ATTRIBUTE).getS();
+    }
+
+    /*
+     * timer == null marks a delete
+     */
+    private record PendingWrite(String lpaId, UserTimer timer, int attempts) {
+    }
+}
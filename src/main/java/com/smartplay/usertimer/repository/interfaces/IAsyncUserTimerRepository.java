@@ -0,0 +1,21 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/*
+ * Non-blocking access to the UserTimer rows for the request path: every call
+ * returns at once and completes its future when DynamoDB has answered.
+ */
+public interface IAsyncUserTimerRepository {
+
+    CompletableFuture<Optional<UserTimer>> findById(String lpaId);
+
+    CompletableFuture<Boolean> existsById(String lpaId);
+
+    CompletableFuture<UserTimer> save(UserTimer userTimer);
+
+    CompletableFuture<Void> deleteById(String lpaId);
+}
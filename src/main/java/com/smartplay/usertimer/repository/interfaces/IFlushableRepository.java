@@ -0,0 +1,10 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+/*
+ * Implemented by repositories that may hold back writes; flush() returns once
+ * every write accepted so far has reached the underlying store.
+ */
+public interface IFlushableRepository {
+
+    void flush();
+}
@@ -0,0 +1,40 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+import java.util.List;
+
+import com.smartplay.usertimer.model.data.TimerLease;
+
+/*
+ * The lease table of the timer cluster. Every write is conditional on the
+ * version read before, so of two nodes racing for a lease exactly one wins.
+ */
+public interface ITimerLeaseRepository {
+
+    /*
+     * All leases, read consistently
+     */
+    List<TimerLease> findAll();
+
+    /*
+     * Take the lease for the owner; expected is the lease as last read, or null
+     * when there is no row yet. Returns the new lease, or null when another node
+     * changed it in the meantime.
+     */
+    TimerLease acquire(String leaseKey, String owner, TimerLease expected);
+
+    /*
+     * Bump the version of an owned lease. Returns the new lease, or null when
+     * the lease was lost.
+     */
+    TimerLease renew(TimerLease lease);
+
+    /*
+     * Give an owned lease up, returns false when it was already lost
+     */
+    boolean release(TimerLease lease);
+
+    /*
+     * Remove the row while it still has the version read, returns false otherwise
+     */
+    boolean delete(TimerLease lease);
+}
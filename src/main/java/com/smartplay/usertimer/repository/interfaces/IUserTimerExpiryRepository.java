@@ -0,0 +1,28 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/*
+ * Reads of the UserTimer table by expiry, through the ExpiryBucketIndex GSI.
+ * The index is eventually consistent and only holds rows written since it was
+ * created; every rollover rewrites a row, so it is complete after one timer
+ * window.
+ */
+public interface IUserTimerExpiryRepository {
+
+    /*
+     * Read every timer of one expiry bucket (see ExpiryBuckets), page by page.
+     */
+    void queryBucket(long bucket, int pageSize, Consumer<List<UserTimer>> pageConsumer);
+
+    /*
+     * Read every timer with endTimeFrom <= endTime < endTimeTo, page by page,
+     * oldest bucket first.
+     */
+    void queryEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo, int pageSize,
+            Consumer<List<UserTimer>> pageConsumer);
+}
@@ -0,0 +1,14 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+public interface IUserTimerRolloverRepository {
+
+    /*
+     * Move the stored row of the user from currentTimer to nextTimer in a single
+     * conditional write. The write only succeeds while the row still exists with
+     * the version of currentTimer; on success nextTimer carries the new version.
+     * Returns false when the row was stopped or changed concurrently.
+     */
+    boolean rollover(UserTimer currentTimer, UserTimer nextTimer);
+}
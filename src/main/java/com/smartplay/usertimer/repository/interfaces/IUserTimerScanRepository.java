@@ -0,0 +1,30 @@
+package com.smartplay.usertimer.repository.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+
+/*
+ * Page-wise scans of the UserTimer table, for work that must not hold the whole
+ * table in memory.
+ */
+public interface IUserTimerScanRepository {
+
+    /*
+     * Scan one segment of a parallel scan and hand every page to the consumer as
+     * soon as it arrives. Only rows with endTimeFrom <= endTime < endTimeTo are
+     * returned; either bound may be null.
+     */
+    void scanSegment(int segment, int totalSegments, LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+            int pageSize, Consumer<List<UserTimer>> pageConsumer);
+
+    /*
+     * Read one page of at most limit rows. The cursor is the opaque form of the
+     * DynamoDB LastEvaluatedKey of the previous page; null starts at the
+     * beginning and a null nextCursor marks the end of the table.
+     */
+    TimerPage<UserTimer> scanPage(String cursor, int limit);
+}
@@ -0,0 +1,70 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+import com.smartplay.usertimer.tools.converters.CursorConverter;
+
+/**
+ * In-memory index of the armed timers, kept up to date by TimerService on
+ * start, stop and rollover. Serves the active timer listing without touching
+ * DynamoDB. Entries are ordered by lpaId, which makes the lpaId of the last
+ * entry of a page a stable cursor.
+ * Used with the wheel and executor engines, see TimerSchedulerConfig.
+ */
+public class ActiveTimerIndex implements IActiveTimerIndex {
+
+    private final ConcurrentSkipListMap<String, UserTimer> timers = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void put(UserTimer userTimer) {
+        timers.put(userTimer.getLpaId(), userTimer);
+    }
+
+    @Override
+    public void remove(String lpaId) {
+        timers.remove(lpaId);
+    }
+
+    @Override
+    public void remove(UserTimer userTimer) {
+        timers.remove(userTimer.getLpaId(), userTimer);
+    }
+
+    @Override
+    public UserTimer get(String lpaId) {
+        return timers.get(lpaId);
+    }
+
+    @Override
+    public int size() {
+        return timers.size();
+    }
+
+    @Override
+    public TimerPage<UserTimer> page(String cursor, int limit, LocalDateTime now, LocalDateTime expiringBefore) {
+        String after = CursorConverter.decode(cursor);
+        NavigableMap<String, UserTimer> remaining = after == null ? timers : timers.tailMap(after, false);
+        List<UserTimer> items = new ArrayList<>(Math.min(limit, 1024));
+        String lastKey = null;
+        for (Map.Entry<String, UserTimer> entry : remaining.entrySet()) {
+            if (items.size() == limit) {
+                return new TimerPage<>(items, CursorConverter.encode(lastKey));
+            }
+            UserTimer userTimer = entry.getValue();
+            if (userTimer.getEndTime().isAfter(now)
+                    && (expiringBefore == null || userTimer.getEndTime().isBefore(expiringBefore))) {
+                items.add(userTimer);
+                lastKey = entry.getKey();
+            }
+        }
+        return new TimerPage<>(items, null);
+    }
+}
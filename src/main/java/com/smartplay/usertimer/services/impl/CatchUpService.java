@@ -0,0 +1,278 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.CatchUpProgress;
+import com.smartplay.usertimer.services.interfaces.ICatchUpService;
+import com.smartplay.usertimer.services.interfaces.ISystemService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+import com.smartplay.usertimer.tools.concurrent.TokenBucket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drains the timers that became overdue while the service was down. Instead
+ * of firing every overdue timer at startup, which after a long outage floods
+ * the event sink and DynamoDB, the recovery queues them here and a single
+ * "timer-catch-up" thread hands them to the CatchUpHandler in batches of at
+ * most batch-size, at no more than rate-per-second timers per second (token
+ * bucket, bursts of one batch).
+ *
+ * The queue is ordered by endTime, so the timers that are overdue the longest
+ * are completed first. The recovery streams the table page by page, so the
+ * order holds among the timers loaded so far. A user stopped while its timer
+ * waits here is dropped from the queue; timers of a user restarted meanwhile
+ * are left to the conditional rollover.
+ *
+ * A batch whose handler fails is queued again, and the thread waits before
+ * the next batch, starting at one second and doubling with every failure in
+ * a row up to a minute. Timers of a user stopped or queued again meanwhile
+ * are not put back.
+ *
+ * Progress is logged every progress-log-interval-seconds while draining and
+ * shown under "catchUp" on /actuator/timers.
+ */
+@Service
+@Slf4j
+public class CatchUpService implements ICatchUpService {
+
+    private static final long RETRY_INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long RETRY_MAX_BACKOFF_MILLIS = 60_000;
+
+    private static final Comparator<UserTimer> OLDEST_FIRST = Comparator.comparing(UserTimer::getEndTime,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ISystemService systemService;
+    private final int ratePerSecond;
+    private final int batchSize;
+    private final long progressLogIntervalNanos;
+    private final TokenBucket tokenBucket;
+
+    // guarded by this; a queued timer is stale once pending maps its lpaId elsewhere
+    private final PriorityQueue<UserTimer> queue = new PriorityQueue<>(OLDEST_FIRST);
+    private final Map<String, UserTimer> pending = new HashMap<>();
+    // lpaIds of the batch the handler is working on, minus those stopped meanwhile
+    private final Set<String> inFlight = new HashSet<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong missedWindows = new AtomicLong();
+    private volatile long drainStartedNanos;
+    private volatile long drainFinishedNanos;
+    private volatile boolean running;
+    private Thread worker;
+    // touched by the catch-up thread only
+    private int consecutiveFailures;
+
+    public CatchUpService(
+            @Autowired ISystemService systemService,
+            @Value("${usertimer.catch-up.rate-per-second:200}") int ratePerSecond,
+            @Value("${usertimer.catch-up.batch-size:100}") int batchSize,
+            @Value("${usertimer.catch-up.progress-log-interval-seconds:10}") long progressLogIntervalSeconds) {
+        if (ratePerSecond <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("usertimer.catch-up.rate-per-second and batch-size must be positive");
+        }
+        this.systemService = systemService;
+        this.ratePerSecond = ratePerSecond;
+        this.batchSize = batchSize;
+        this.progressLogIntervalNanos = TimeUnit.SECONDS.toNanos(progressLogIntervalSeconds);
+        this.tokenBucket = new TokenBucket(ratePerSecond, batchSize);
+    }
+
+    @Override
+    public synchronized void start(CatchUpHandler handler) {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new NamedThreadFactory("timer-catch-up").newThread(() -> drain(handler));
+        worker.start();
+    }
+
+    @Override
+    public synchronized void submit(List<UserTimer> overdueTimers) {
+        if (overdueTimers.isEmpty()) {
+            return;
+        }
+        if (pending.isEmpty()) {
+            drainStartedNanos = System.nanoTime();
+            drainFinishedNanos = 0;
+        }
+        for (UserTimer timer : overdueTimers) {
+            pending.put(timer.getLpaId(), timer);
+            queue.add(timer);
+        }
+        submitted.addAndGet(overdueTimers.size());
+        notifyAll();
+    }
+
+    @Override
+    public synchronized boolean isPending(String lpaId) {
+        return pending.containsKey(lpaId) || inFlight.contains(lpaId);
+    }
+
+    @Override
+    public synchronized boolean cancel(String lpaId) {
+        // a failing batch is not queued again for the user
+        inFlight.remove(lpaId);
+        if (pending.remove(lpaId) == null) {
+            return false;
+        }
+        cancelled.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public CatchUpProgress getProgress() {
+        int pendingCount;
+        UserTimer oldest;
+        synchronized (this) {
+            pendingCount = pending.size();
+            oldest = pendingCount == 0 ? null : queue.peek();
+        }
+        long oldestOverdueSeconds = oldest == null || oldest.getEndTime() == null ? 0
+                : Math.max(0, oldest.getEndTime().until(systemService.getCurrentDateTime(), ChronoUnit.SECONDS));
+        long started = drainStartedNanos;
+        long end = drainFinishedNanos != 0 ? drainFinishedNanos : System.nanoTime();
+        long elapsedMillis = started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - started);
+        return new CatchUpProgress(pendingCount == 0 ? "IDLE" : "DRAINING", ratePerSecond, pendingCount,
+                submitted.get(), completed.get(), cancelled.get(), failed.get(), missedWindows.get(),
+                oldestOverdueSeconds, elapsedMillis);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void drain(CatchUpHandler handler) {
+        long nextProgressLog = System.nanoTime() + progressLogIntervalNanos;
+        try {
+            while (running) {
+                if (!awaitPending()) {
+                    return;
+                }
+                int permits = tokenBucket.tryAcquireUpTo(Math.min(batchSize, pendingCount()));
+                if (permits == 0) {
+                    LockSupport.parkNanos(tokenBucket.nanosUntilAvailable());
+                    continue;
+                }
+                List<UserTimer> batch = poll(permits);
+                if (!batch.isEmpty()) {
+                    complete(handler, batch);
+                }
+                if (System.nanoTime() - nextProgressLog >= 0) {
+                    logProgress();
+                    nextProgressLog = System.nanoTime() + progressLogIntervalNanos;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Waits until a timer is pending; false on shutdown. Logs the summary when
+     * a backlog has been drained.
+     */
+    private synchronized boolean awaitPending() throws InterruptedException {
+        if (pending.isEmpty() && drainStartedNanos != 0 && drainFinishedNanos == 0) {
+            drainFinishedNanos = System.nanoTime();
+            queue.clear();
+            logProgress();
+        }
+        while (running && pending.isEmpty()) {
+            wait();
+        }
+        return running;
+    }
+
+    private synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /*
+     * Takes up to count timers, oldest first, skipping queue entries of
+     * cancelled or replaced timers
+     */
+    private synchronized List<UserTimer> poll(int count) {
+        List<UserTimer> batch = new ArrayList<>(count);
+        while (batch.size() < count && !queue.isEmpty()) {
+            UserTimer timer = queue.poll();
+            if (pending.get(timer.getLpaId()) == timer) {
+                pending.remove(timer.getLpaId());
+                inFlight.add(timer.getLpaId());
+                batch.add(timer);
+            }
+        }
+        return batch;
+    }
+
+    /*
+     * Hands one batch to the handler; a failed batch is queued again and the
+     * thread backs off before the next one
+     */
+    private void complete(CatchUpHandler handler, List<UserTimer> batch) throws InterruptedException {
+        try {
+            missedWindows.addAndGet(handler.complete(batch));
+            completed.addAndGet(batch.size());
+            consecutiveFailures = 0;
+            batchDone();
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            long backoffMillis = Math.min(RETRY_MAX_BACKOFF_MILLIS,
+                    RETRY_INITIAL_BACKOFF_MILLIS << Math.min(consecutiveFailures, 16));
+            consecutiveFailures++;
+            requeue(batch);
+            log.error("Catch-up of " + batch.size() + " overdue timers failed, retrying in " + backoffMillis + " ms", e);
+            Thread.sleep(backoffMillis);
+        }
+    }
+
+    /*
+     * Puts a failed batch back, except the timers of users that were stopped
+     * or queued again while it ran
+     */
+    private synchronized void requeue(List<UserTimer> batch) {
+        for (UserTimer timer : batch) {
+            if (inFlight.contains(timer.getLpaId()) && pending.putIfAbsent(timer.getLpaId(), timer) == null) {
+                queue.add(timer);
+            }
+        }
+        inFlight.clear();
+    }
+
+    private synchronized void batchDone() {
+        inFlight.clear();
+    }
+
+    private void logProgress() {
+        CatchUpProgress progress = getProgress();
+        log.info("Catch-up: {} of {} overdue timers completed, {} pending (oldest overdue {} s), "
+                + "{} missed windows coalesced, {} failed, {} ms", progress.completed(), progress.submitted(),
+                progress.pending(), progress.oldestOverdueSeconds(), progress.missedWindows(), progress.failed(),
+                progress.elapsedMillis());
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+import com.smartplay.usertimer.tools.converters.CursorConverter;
+import com.smartplay.usertimer.tools.scheduling.CompactTimerStore;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
+
+/**
+ * Active timer index of the compact engine. The CompactTimerStores of the
+ * scheduler shards already hold every armed timer, so put and remove are no-ops
+ * and a second copy of the timers is never kept; lookups and pages read the
+ * stores under their lock and build the UserTimers of the result only.
+ *
+ * Pages are ordered by shard and row instead of lpaId. The cursor is the
+ * position of the last timer of the page; rows are reused, so a timer started
+ * or stopped while a client pages may show up on a later page or not at all.
+ */
+public class CompactActiveTimerIndex implements IActiveTimerIndex {
+
+    // rows scanned per lock acquisition, so a page never holds up a ticker for long
+    private static final int SCAN_CHUNK = 4096;
+
+    private final CompactTimerStore[] stores;
+    private final ToIntFunction<String> shardOf;
+
+    public CompactActiveTimerIndex(ShardedTimerScheduler timerScheduler) {
+        this(storesOf(timerScheduler), timerScheduler::shardOf);
+    }
+
+    /*
+     * shardOf maps an lpaId to the index of the store that holds it
+     */
+    public CompactActiveTimerIndex(CompactTimerStore[] stores, ToIntFunction<String> shardOf) {
+        this.stores = stores;
+        this.shardOf = shardOf;
+    }
+
+    @Override
+    public void put(UserTimer userTimer) {
+        // armed in the store by the scheduler
+    }
+
+    @Override
+    public void remove(String lpaId) {
+        // disarmed in the store by the scheduler
+    }
+
+    @Override
+    public void remove(UserTimer userTimer) {
+        // disarmed in the store by the scheduler
+    }
+
+    @Override
+    public UserTimer get(String lpaId) {
+        CompactTimerStore store = stores[shardOf.applyAsInt(lpaId)];
+        synchronized (store) {
+            return store.get(lpaId);
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (CompactTimerStore store : stores) {
+            synchronized (store) {
+                size += store.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public TimerPage<UserTimer> page(String cursor, int limit, LocalDateTime now, LocalDateTime expiringBefore) {
+        long nowSecond = ExpiryBuckets.epochSecondOf(now);
+        // the stores keep whole seconds; an endTime in the second of expiringBefore ends before it
+        long beforeSecond = expiringBefore == null ? Long.MAX_VALUE
+                : ExpiryBuckets.epochSecondOf(expiringBefore) + (expiringBefore.getNano() > 0 ? 1 : 0);
+        int shard = 0;
+        int row = 0;
+        String after = CursorConverter.decode(cursor);
+        if (after != null) {
+            int[] position = parsePosition(after, cursor);
+            shard = position[0];
+            row = position[1] + 1;
+        }
+
+        List<UserTimer> items = new ArrayList<>(Math.min(limit, 1024));
+        int lastShard = 0;
+        int lastRow = 0;
+        for (; shard < stores.length; shard++, row = 0) {
+            CompactTimerStore store = stores[shard];
+            boolean scanned = false;
+            while (!scanned) {
+                synchronized (store) {
+                    int end = Math.min(store.rowCount(), row + SCAN_CHUNK);
+                    for (; row < end; row++) {
+                        if (!store.isArmed(row)) {
+                            continue;
+                        }
+                        long endSecond = store.endSecondAt(row);
+                        if (endSecond > nowSecond && endSecond < beforeSecond) {
+                            if (items.size() == limit) {
+                                return new TimerPage<>(items, CursorConverter.encode(lastShard + ":" + lastRow));
+                            }
+                            items.add(store.timerAt(row));
+                            lastShard = shard;
+                            lastRow = row;
+                        }
+                    }
+                    scanned = row >= store.rowCount();
+                }
+            }
+        }
+        return new TimerPage<>(items, null);
+    }
+
+    private static CompactTimerStore[] storesOf(ShardedTimerScheduler timerScheduler) {
+        CompactTimerStore[] stores = new CompactTimerStore[timerScheduler.getShardCount()];
+        for (int shard = 0; shard < stores.length; shard++) {
+            if (!(timerScheduler.getShard(shard) instanceof TimingWheelTimerScheduler wheelScheduler)
+                    || !(wheelScheduler.getStore() instanceof CompactTimerStore store)) {
+                throw new IllegalArgumentException("Shard " + shard + " does not use a CompactTimerStore");
+            }
+            stores[shard] = store;
+        }
+        return stores;
+    }
+
+    private int[] parsePosition(String position, String cursor) {
+        int separator = position.indexOf(':');
+        try {
+            int shard = Integer.parseInt(position.substring(0, separator));
+            int row = Integer.parseInt(position.substring(separator + 1));
+            if (shard >= 0 && row >= 0) {
+                return new int[] { shard, row };
+            }
+        } catch (RuntimeException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
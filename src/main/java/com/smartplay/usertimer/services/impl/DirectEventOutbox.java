@@ -0,0 +1,36 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.EventOutboxStats;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.INotificationService;
+
+/**
+ * Outbox without a journal: events go straight to the notification service
+ * and are lost if the process dies before they are published.
+ */
+public class DirectEventOutbox implements IEventOutbox {
+
+    public static final String MODE = "direct";
+
+    private final INotificationService notificationService;
+    private final AtomicLong appended = new AtomicLong();
+
+    public DirectEventOutbox(INotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    @Override
+    public void append(List<ResetTimerEvent> events) {
+        notificationService.publishEvents(events);
+        appended.addAndGet(events.size());
+    }
+
+    @Override
+    public EventOutboxStats getStats() {
+        return new EventOutboxStats(MODE, "none", appended.get(), appended.get(), 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,173 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.smartplay.usertimer.config.TimerSchedulerConfig;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The original scheduling engine: one ScheduledFuture per lpaId on a single
+ * threaded ScheduledExecutorService. Schedule and cancel are O(log n) on the
+ * executor's delay heap. Kept as a fallback for the timing wheel engine
+ * (usertimer.scheduler.engine=executor).
+ *
+ * Timers that fire back to back are queued and drained as one batch on the
+ * completion executor.
+ */
+@Slf4j
+public class ExecutorTimerScheduler implements ITimerScheduler {
+
+    private final ConcurrentHashMap<String, ScheduledAction> userTimers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<UserTimer> expiredTimers = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService completionExecutor;
+    private final String name;
+    private final int maxBatchSize;
+    private final LongAdder scheduledCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final LongAdder firedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private volatile ExpiryHandler expiryHandler = expired -> log.warn("No expiry handler, dropping {} timers", expired.size());
+
+    public ExecutorTimerScheduler(String name, int maxBatchSize) {
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newScheduledThreadPool(1, new NamedThreadFactory(name + "-executor"));
+        this.completionExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory(name + "-completion"));
+    }
+
+    @Override
+    public void setExpiryHandler(ExpiryHandler expiryHandler) {
+        this.expiryHandler = expiryHandler;
+    }
+
+    @Override
+    public void schedule(UserTimer userTimer, long delayInSeconds) {
+        ScheduledAction scheduledAction = new ScheduledAction(userTimer);
+        ScheduledAction previous = userTimers.put(userTimer.getLpaId(), scheduledAction);
+        if (previous != null) {
+            previous.cancel();
+        }
+        scheduledCount.increment();
+        scheduledAction.future = scheduler.schedule(scheduledAction, delayInSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean cancel(String lpaId) {
+        ScheduledAction scheduledAction = userTimers.remove(lpaId);
+        if (scheduledAction == null) {
+            return false;
+        }
+        scheduledAction.cancel();
+        cancelledCount.increment();
+        return true;
+    }
+
+    @Override
+    public boolean isScheduled(String lpaId) {
+        return userTimers.containsKey(lpaId);
+    }
+
+    @Override
+    public Set<String> getScheduledIds() {
+        return Set.copyOf(userTimers.keySet());
+    }
+
+    @Override
+    public int size() {
+        return userTimers.size();
+    }
+
+    @Override
+    public List<TimerSchedulerStats> getStats() {
+        return List.of(new TimerSchedulerStats(name, TimerSchedulerConfig.ENGINE_EXECUTOR, userTimers.size(),
+                scheduledCount.sum(), cancelledCount.sum(), firedCount.sum(), batchCount.sum()));
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdown();
+        completionExecutor.shutdown();
+    }
+
+    private void onExpired(UserTimer userTimer) {
+        firedCount.increment();
+        expiredTimers.add(userTimer);
+        if (drainScheduled.compareAndSet(false, true)) {
+            completionExecutor.execute(this::drainExpired);
+        }
+    }
+
+    private void drainExpired() {
+        // clear the flag first so a timer queued while draining schedules another drain
+        drainScheduled.set(false);
+        List<UserTimer> batch = new ArrayList<>();
+        UserTimer userTimer;
+        while ((userTimer = expiredTimers.poll()) != null) {
+            batch.add(userTimer);
+            if (batch.size() == maxBatchSize) {
+                dispatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatch(List<UserTimer> batch) {
+        batchCount.increment();
+        try {
+            expiryHandler.onExpired(batch);
+        } catch (RuntimeException e) {
+            log.error("Expiry handler failed for a batch of {} timers", batch.size(), e);
+        }
+    }
+
+    /*
+     * Wraps the timer so that it unregisters itself when it fires, and so that
+     * a cancel which races with scheduler.schedule() still takes effect.
+     */
+    private final class ScheduledAction implements Runnable {
+        private final UserTimer userTimer;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+
+        private ScheduledAction(UserTimer userTimer) {
+            this.userTimer = userTimer;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled || !userTimers.remove(userTimer.getLpaId(), this)) {
+                return;
+            }
+            onExpired(userTimer);
+        }
+
+        private void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduledFuture = future;
+            if (scheduledFuture != null) {
+                scheduledFuture.cancel(false);
+            }
+        }
+    }
+}
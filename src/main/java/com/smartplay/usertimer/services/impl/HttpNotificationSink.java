@@ -0,0 +1,53 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartplay.usertimer.services.interfaces.INotificationSink;
+
+/**
+ * POSTs every batch as one JSON array to a configurable URL, the way a batch
+ * send to SQS or an API gateway would work. Any non-2xx response fails the
+ * batch. Point the URL at a local stand-in for testing.
+ */
+public class HttpNotificationSink implements INotificationSink {
+
+    public static final String NAME = "http";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Duration timeout;
+
+    public HttpNotificationSink(ObjectMapper objectMapper, String url, long timeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.uri = URI.create(url);
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME + " " + uri;
+    }
+
+    @Override
+    public void publish(List<?> events) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(events)))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Notification sink " + uri + " answered " + response.statusCode());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.EventOutboxStats;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.INotificationService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+import com.smartplay.usertimer.tools.converters.ResetTimerEventCodec;
+import com.smartplay.usertimer.tools.journal.MappedJournal;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable outbox on a memory-mapped journal.
+ *
+ * append() writes the events sequentially to the journal (see
+ * ResetTimerEventCodec for the record format) and, depending on the fsync
+ * policy, flushes them: batch forces once per append() call, i.e. once per
+ * expiry batch; interval forces every fsyncIntervalMillis from the relay
+ * thread; none leaves it to the OS, which still survives a JVM crash but not a
+ * machine crash.
+ *
+ * A relay thread reads the journal from the checkpoint, hands the events to
+ * the notification service and waits for the acknowledgement before it stores
+ * the new checkpoint. Segments before the checkpoint are deleted. After a crash
+ * everything behind the checkpoint is relayed again, so delivery is at least
+ * once.
+ */
+@Slf4j
+public class JournalEventOutbox implements IEventOutbox {
+
+    public static final String MODE = "journal";
+    public static final String FSYNC_BATCH = "batch";
+    public static final String FSYNC_INTERVAL = "interval";
+    public static final String FSYNC_NONE = "none";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long RETRY_BACKOFF_MILLIS = 500;
+
+    private final INotificationService notificationService;
+    private final MappedJournal journal;
+    private final String fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int relayBatchSize;
+    private final long ackTimeoutMillis;
+    private final Thread relay;
+
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong relayed = new AtomicLong();
+    private final AtomicLong failedRelays = new AtomicLong();
+    private final long replayedAtStartup;
+    private volatile boolean running = true;
+
+    public JournalEventOutbox(INotificationService notificationService, Path directory, int segmentSize,
+            String fsyncPolicy, long fsyncIntervalMillis, int relayBatchSize, long ackTimeoutMillis) throws IOException {
+        this.fsyncPolicy = fsyncPolicy.toLowerCase();
+        if (!FSYNC_BATCH.equals(this.fsyncPolicy) && !FSYNC_INTERVAL.equals(this.fsyncPolicy)
+                && !FSYNC_NONE.equals(this.fsyncPolicy)) {
+            throw new IllegalArgumentException("Unknown usertimer.outbox.fsync: " + fsyncPolicy);
+        }
+        this.notificationService = notificationService;
+        this.journal = new MappedJournal(directory, segmentSize);
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.relayBatchSize = relayBatchSize;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+
+        MappedJournal.Position checkpoint = journal.readCheckpoint();
+        MappedJournal.Position start = checkpoint != null ? checkpoint : journal.firstPosition();
+        this.replayedAtStartup = journal.count(start);
+        if (replayedAtStartup > 0) {
+            log.warn("Outbox: replaying {} events that were not acknowledged before the last shutdown", replayedAtStartup);
+        }
+        this.relay = new NamedThreadFactory("outbox-relay").newThread(() -> relayLoop(start));
+        this.relay.start();
+    }
+
+    @Override
+    public void append(List<ResetTimerEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<byte[]> records = new ArrayList<>(events.size());
+        for (ResetTimerEvent event : events) {
+            records.add(ResetTimerEventCodec.encode(event));
+        }
+        try {
+            journal.append(records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Appending " + events.size() + " events to the outbox failed", e);
+        }
+        if (FSYNC_BATCH.equals(fsyncPolicy)) {
+            journal.force();
+        }
+        appended.addAndGet(events.size());
+    }
+
+    @Override
+    public EventOutboxStats getStats() {
+        long relayedEvents = relayed.get();
+        long pending = Math.max(0, appended.get() + replayedAtStartup - relayedEvents);
+        return new EventOutboxStats(MODE, fsyncPolicy, appended.get(), relayedEvents, pending, replayedAtStartup,
+                failedRelays.get(), journal.segmentCount());
+    }
+
+    /*
+     * Stops the relay and flushes the journal. Events not relayed yet are
+     * picked up at the next start.
+     */
+    public void shutdown() {
+        running = false;
+        relay.interrupt();
+        try {
+            relay.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.warn("Closing the outbox journal failed", e);
+        }
+    }
+
+    private void relayLoop(MappedJournal.Position start) {
+        MappedJournal.Position position = start;
+        long nextForce = System.nanoTime() + fsyncIntervalNanos;
+        List<byte[]> records = new ArrayList<>(relayBatchSize);
+        while (running) {
+            if (FSYNC_INTERVAL.equals(fsyncPolicy) && System.nanoTime() - nextForce >= 0) {
+                journal.force();
+                nextForce = System.nanoTime() + fsyncIntervalNanos;
+            }
+            records.clear();
+            MappedJournal.Position next = journal.read(position, relayBatchSize, records);
+            if (records.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            List<ResetTimerEvent> events = new ArrayList<>(records.size());
+            for (byte[] record : records) {
+                events.add(ResetTimerEventCodec.decode(record, this));
+            }
+            try {
+                notificationService.publishEventsAcknowledged(events).get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+                journal.writeCheckpoint(next);
+                relayed.addAndGet(events.size());
+                if (next.segment() > position.segment()) {
+                    journal.deleteSegmentsBefore(next.segment());
+                }
+                position = next;
+            } catch (InterruptedException e) {
+                // shutdown, the batch is relayed again at the next start
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failedRelays.incrementAndGet();
+                log.warn("Outbox: relaying {} events failed, retrying in {} ms", events.size(), RETRY_BACKOFF_MILLIS, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS));
+            }
+        }
+    }
+}
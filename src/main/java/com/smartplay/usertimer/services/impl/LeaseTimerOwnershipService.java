@@ -0,0 +1,344 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.smartplay.usertimer.model.data.TimerLease;
+import com.smartplay.usertimer.model.stats.TimerClusterStats;
+import com.smartplay.usertimer.repository.interfaces.ITimerLeaseRepository;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+import com.smartplay.usertimer.tools.scheduling.TimerPartitions;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Partition ownership through leases in the UserTimerLease table
+ * (usertimer.cluster.enabled).
+ *
+ * A single lease thread runs one heartbeat per heartbeat interval: it reads the
+ * lease table, renews the node lease of this node and every partition lease it
+ * holds, and balances. A lease whose version has not changed for the lease
+ * duration, as seen by this node's own clock, is expired. The live nodes are
+ * the unexpired node leases, so every node aims for ceil(partitions / nodes)
+ * partitions: a node above that releases its highest partitions, a node below
+ * takes free and expired ones. A joining node is therefore served within a few
+ * heartbeats, and the partitions of a node that died within one lease
+ * duration. Partitions are never taken from a live node; it releases them
+ * itself, after disarming their timers.
+ *
+ * A node that could not renew its leases for most of the lease duration
+ * drops all of its partitions before any other node may consider them expired,
+ * so two nodes never fire the same partition. On shutdown all leases are
+ * released, so the other nodes take over on their next heartbeat.
+ */
+@Slf4j
+public class LeaseTimerOwnershipService implements ITimerOwnershipService {
+
+    // a node lease unchanged for this many lease durations belongs to a node that is gone, its row is removed
+    private static final int STALE_NODE_LEASE_DURATIONS = 10;
+
+    private final ITimerLeaseRepository leaseRepository;
+    private final String nodeId;
+    private final int partitions;
+    private final long leaseDurationNanos;
+    private final long heartbeatNanos;
+
+    private final Map<Integer, TimerLease> owned = new ConcurrentHashMap<>();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private volatile long lastHeartbeatNanos;
+    private volatile int liveNodes = 1;
+    private volatile OwnershipListener listener;
+    private volatile boolean running;
+    private Thread leaseThread;
+
+    // lease thread only
+    private final Map<String, Observation> observations = new HashMap<>();
+    private TimerLease nodeLease;
+    private long lastRenewedNanos;
+
+    public LeaseTimerOwnershipService(ITimerLeaseRepository leaseRepository, String nodeId, int partitions,
+            long leaseDurationMillis, long heartbeatMillis) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("usertimer.cluster.partitions must be positive: " + partitions);
+        }
+        if (heartbeatMillis <= 0 || leaseDurationMillis < 3 * heartbeatMillis) {
+            throw new IllegalArgumentException(
+                    "usertimer.cluster.lease-duration-millis must be at least three heartbeat intervals");
+        }
+        this.leaseRepository = leaseRepository;
+        this.nodeId = nodeId;
+        this.partitions = partitions;
+        this.leaseDurationNanos = TimeUnit.MILLISECONDS.toNanos(leaseDurationMillis);
+        this.heartbeatNanos = TimeUnit.MILLISECONDS.toNanos(heartbeatMillis);
+    }
+
+    @Override
+    public boolean isClustered() {
+        return true;
+    }
+
+    @Override
+    public boolean owns(String lpaId) {
+        return owned.containsKey(partitionOf(lpaId));
+    }
+
+    @Override
+    public int partitionOf(String lpaId) {
+        return TimerPartitions.partitionOf(lpaId, partitions);
+    }
+
+    @Override
+    public Set<Integer> getOwnedPartitions() {
+        return Set.copyOf(owned.keySet());
+    }
+
+    @Override
+    public synchronized void start(OwnershipListener listener) {
+        if (running) {
+            return;
+        }
+        this.listener = listener;
+        running = true;
+        log.info("Node {} joins the timer cluster ({} partitions)", nodeId, partitions);
+        leaseThread = new NamedThreadFactory("timer-lease").newThread(this::run);
+        leaseThread.start();
+    }
+
+    @Override
+    public TimerClusterStats getStats() {
+        long heartbeat = lastHeartbeatNanos;
+        return new TimerClusterStats(nodeId, true, partitions, List.copyOf(new TreeSet<>(owned.keySet())), liveNodes,
+                acquired.get(), released.get(), lost.get(),
+                heartbeat == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - heartbeat));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = leaseThread;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(TimeUnit.NANOSECONDS.toMillis(leaseDurationNanos));
+        }
+    }
+
+    private void run() {
+        while (running) {
+            long cycleNanos = System.nanoTime();
+            try {
+                heartbeat(cycleNanos);
+            } catch (RuntimeException e) {
+                log.warn("Lease heartbeat of node {} failed", nodeId, e);
+            }
+            fenceIfNotRenewed();
+            LockSupport.parkNanos(cycleNanos + heartbeatNanos - System.nanoTime());
+        }
+        releaseAll();
+    }
+
+    private void heartbeat(long cycleNanos) {
+        Map<String, TimerLease> leases = new HashMap<>();
+        for (TimerLease lease : leaseRepository.findAll()) {
+            leases.put(lease.leaseKey(), lease);
+        }
+        renewNodeLease(leases.get(TimerLease.nodeKey(nodeId)));
+        renewPartitions(cycleNanos);
+        lastHeartbeatNanos = System.nanoTime();
+        balance(leases, cycleNanos);
+    }
+
+    private void renewNodeLease(TimerLease current) {
+        if (nodeLease != null) {
+            TimerLease renewed = leaseRepository.renew(nodeLease);
+            if (renewed != null) {
+                nodeLease = renewed;
+                return;
+            }
+        }
+        // first heartbeat, or the row was removed while this node was unreachable
+        nodeLease = leaseRepository.acquire(TimerLease.nodeKey(nodeId), nodeId, current);
+    }
+
+    private void renewPartitions(long cycleNanos) {
+        Set<Integer> lostPartitions = new TreeSet<>();
+        for (TimerLease lease : List.copyOf(owned.values())) {
+            TimerLease renewed = leaseRepository.renew(lease);
+            if (renewed == null) {
+                owned.remove(lease.partition());
+                lostPartitions.add(lease.partition());
+            } else {
+                owned.put(lease.partition(), renewed);
+            }
+        }
+        // taken before the first renew request was sent, so never later than the renewal other nodes observe
+        lastRenewedNanos = cycleNanos;
+        if (!lostPartitions.isEmpty()) {
+            lost.addAndGet(lostPartitions.size());
+            log.warn("Node {} lost the leases of partitions {}", nodeId, lostPartitions);
+            notifyReleased(lostPartitions);
+        }
+    }
+
+    private void balance(Map<String, TimerLease> leases, long nowNanos) {
+        Set<String> liveOwners = new HashSet<>();
+        liveOwners.add(nodeId);
+        for (TimerLease lease : leases.values()) {
+            if (lease.isFree() || nodeId.equals(lease.owner())) {
+                observations.remove(lease.leaseKey());
+                continue;
+            }
+            Observation observation = observe(lease, nowNanos);
+            if (lease.isNode()) {
+                if (!observation.isOlderThan(leaseDurationNanos, nowNanos)) {
+                    liveOwners.add(lease.owner());
+                } else if (observation.isOlderThan(STALE_NODE_LEASE_DURATIONS * leaseDurationNanos, nowNanos)
+                        && leaseRepository.delete(lease)) {
+                    observations.remove(lease.leaseKey());
+                    log.info("Removed the lease of node {}, gone since {} lease durations", lease.owner(),
+                            STALE_NODE_LEASE_DURATIONS);
+                }
+            }
+        }
+        int nodes = liveOwners.size();
+        liveNodes = nodes;
+        int target = (partitions + nodes - 1) / nodes;
+
+        if (owned.size() > target) {
+            Set<Integer> surplus = new TreeSet<>();
+            List<Integer> ownedPartitions = new ArrayList<>(new TreeSet<>(owned.keySet()));
+            for (int i = ownedPartitions.size() - 1; ownedPartitions.size() - surplus.size() > target; i--) {
+                surplus.add(ownedPartitions.get(i));
+            }
+            releasePartitions(surplus);
+            return;
+        }
+
+        // start at a node specific partition so joining nodes do not all race for the same leases
+        Set<Integer> gained = new TreeSet<>();
+        int first = TimerPartitions.partitionOf(nodeId, partitions);
+        for (int i = 0; i < partitions && owned.size() < target; i++) {
+            int partition = (first + i) % partitions;
+            if (owned.containsKey(partition)) {
+                continue;
+            }
+            TimerLease lease = leases.get(TimerLease.partitionKey(partition));
+            boolean available = lease == null
+                    || lease.isFree()
+                    || nodeId.equals(lease.owner())
+                    || observe(lease, nowNanos).isOlderThan(leaseDurationNanos, nowNanos);
+            if (!available) {
+                continue;
+            }
+            TimerLease taken = leaseRepository.acquire(TimerLease.partitionKey(partition), nodeId, lease);
+            if (taken != null) {
+                owned.put(partition, taken);
+                gained.add(partition);
+            }
+        }
+        if (!gained.isEmpty()) {
+            acquired.addAndGet(gained.size());
+            log.info("Node {} acquired partitions {} ({} of {} owned, {} nodes)", nodeId, gained, owned.size(),
+                    partitions, nodes);
+            notifyAcquired(gained);
+        }
+    }
+
+    /*
+     * Remembers since when a lease has had its current version
+     */
+    private Observation observe(TimerLease lease, long nowNanos) {
+        Observation observation = observations.get(lease.leaseKey());
+        if (observation == null || observation.version() != lease.version()) {
+            observation = new Observation(lease.version(), nowNanos);
+            observations.put(lease.leaseKey(), observation);
+        }
+        return observation;
+    }
+
+    /*
+     * The timers are disarmed before the leases are given up
+     */
+    private void releasePartitions(Set<Integer> surplus) {
+        List<TimerLease> leases = new ArrayList<>(surplus.size());
+        for (Integer partition : surplus) {
+            TimerLease lease = owned.remove(partition);
+            if (lease != null) {
+                leases.add(lease);
+            }
+        }
+        notifyReleased(surplus);
+        for (TimerLease lease : leases) {
+            leaseRepository.release(lease);
+        }
+        released.addAndGet(leases.size());
+        log.info("Node {} released partitions {} ({} of {} owned)", nodeId, surplus, owned.size(), partitions);
+    }
+
+    /*
+     * Other nodes consider a lease expired at the earliest one lease duration
+     * after its last renewal; the partitions are dropped two heartbeats before
+     */
+    private void fenceIfNotRenewed() {
+        if (owned.isEmpty() || System.nanoTime() - lastRenewedNanos <= leaseDurationNanos - 2 * heartbeatNanos) {
+            return;
+        }
+        Set<Integer> dropped = new TreeSet<>(owned.keySet());
+        owned.clear();
+        lost.addAndGet(dropped.size());
+        log.error("Node {} could not renew its leases, dropping partitions {}", nodeId, dropped);
+        notifyReleased(dropped);
+    }
+
+    private void releaseAll() {
+        try {
+            if (!owned.isEmpty()) {
+                releasePartitions(new TreeSet<>(owned.keySet()));
+            }
+            if (nodeLease != null) {
+                leaseRepository.delete(nodeLease);
+            }
+            log.info("Node {} left the timer cluster", nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Node {} could not release its leases, they expire after the lease duration", nodeId, e);
+        }
+    }
+
+    private void notifyAcquired(Set<Integer> gained) {
+        try {
+            listener.onPartitionsAcquired(Set.copyOf(gained));
+        } catch (RuntimeException e) {
+            log.error("Arming the timers of partitions {} failed", gained, e);
+        }
+    }
+
+    private void notifyReleased(Set<Integer> partitionsReleased) {
+        try {
+            listener.onPartitionsReleased(Set.copyOf(partitionsReleased));
+        } catch (RuntimeException e) {
+            log.error("Disarming the timers of partitions {} failed", partitionsReleased, e);
+        }
+    }
+
+    private record Observation(long version, long sinceNanos) {
+
+        boolean isOlderThan(long durationNanos, long nowNanos) {
+            return nowNanos - sinceNanos >= durationNanos;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.List;
+
+import com.smartplay.usertimer.services.interfaces.INotificationSink;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes every event to the log, the behaviour the service had before events
+ * were delivered anywhere.
+ */
+@Slf4j
+public class LoggingNotificationSink implements INotificationSink {
+
+    public static final String NAME = "log";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void publish(List<?> events) {
+        for (Object event : events) {
+            log.info(">>>>>>>>>>>>>>>>> Event published: {} <<<<<<<<<<<<<<<<<<<<", event);
+        }
+    }
+}
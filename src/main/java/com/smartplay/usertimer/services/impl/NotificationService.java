@@ -1,18 +1,390 @@
 package com.smartplay.usertimer.services.impl;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.stats.NotificationPublisherStats;
 import com.smartplay.usertimer.services.interfaces.INotificationService;
+import com.smartplay.usertimer.services.interfaces.INotificationSink;
+import com.smartplay.usertimer.tools.concurrent.MpscRingBuffer;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Asynchronous, batching event publisher.
+ *
+ * publishEvent() only puts the event on a bounded lock-free ring buffer. One
+ * publisher thread drains it and hands the events to the INotificationSink in
+ * batches of up to batchSize, waiting at most lingerMillis for a batch to fill
+ * up. A failed batch is retried maxRetries times with exponential backoff.
+ *
+ * When the sink falls behind and the ring is full the overflow policy applies:
+ * BLOCK makes the producer wait for space, DROP discards the event, SPILL
+ * appends it to a spill file that is replayed once the ring has drained (and
+ * on the next start). Batches the sink keeps rejecting are spilled with SPILL
+ * and dropped otherwise. Spilled events lose their order relative to the
+ * queued ones.
+ *
+ * publishEventsAcknowledged() queues a receipt behind the events, so callers
+ * such as the outbox relay learn when their events have left the process.
+ */
 @Service
+@Slf4j
 public class NotificationService implements INotificationService {
 
+    public static final String POLICY_BLOCK = "BLOCK";
+    public static final String POLICY_DROP = "DROP";
+    public static final String POLICY_SPILL = "SPILL";
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final INotificationSink sink;
+    private final TimerMetrics timerMetrics;
+    private final ObjectMapper objectMapper;
+    private final MpscRingBuffer<Object> ringBuffer;
+    private final String overflowPolicy;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int maxRetries;
+    private final Path spillFile;
+    private final Thread publisher;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+
+    private final Object spillLock = new Object();
+    private BufferedWriter spillWriter;
+    private volatile boolean spillPending;
+    private volatile boolean running = true;
+    // publisher thread only
+    private boolean droppedSinceLastReceipt;
+
+    public NotificationService(
+            @Autowired INotificationSink sink,
+            @Autowired TimerMetrics timerMetrics,
+            @Autowired ObjectMapper objectMapper,
+            @Value("${usertimer.notification.queue-capacity:65536}") int queueCapacity,
+            @Value("${usertimer.notification.batch-size:500}") int batchSize,
+            @Value("${usertimer.notification.linger-millis:50}") long lingerMillis,
+            @Value("${usertimer.notification.max-retries:3}") int maxRetries,
+            @Value("${usertimer.notification.overflow-policy:" + POLICY_BLOCK + "}") String overflowPolicy,
+            @Value("${usertimer.notification.spill-file:data/notification-spill.ndjson}") String spillFile) {
+        this.sink = sink;
+        this.timerMetrics = timerMetrics;
+        this.objectMapper = objectMapper;
+        this.ringBuffer = new MpscRingBuffer<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.maxRetries = maxRetries;
+        this.overflowPolicy = overflowPolicy.toUpperCase();
+        if (!POLICY_BLOCK.equals(this.overflowPolicy) && !POLICY_DROP.equals(this.overflowPolicy)
+                && !POLICY_SPILL.equals(this.overflowPolicy)) {
+            throw new IllegalArgumentException("Unknown usertimer.notification.overflow-policy: " + overflowPolicy);
+        }
+        this.spillFile = Path.of(spillFile);
+        // events spilled by the previous run are delivered first
+        this.spillPending = Files.exists(this.spillFile) || Files.exists(replayFile());
+        this.publisher = new NamedThreadFactory("notification-publisher").newThread(this::publishLoop);
+        this.publisher.start();
+    }
+
     @Override
     public <T> void publishEvent(T event) {
-        // TODO : we can call an api to apiservices to prcoess user's event or publish to SQS
+        enqueue(event);
+    }
+
+    @Override
+    public <T> void publishEvents(List<T> events) {
+        events.forEach(this::enqueue);
+    }
+
+    /*
+     * A receipt is queued behind the events. The publisher thread completes it
+     * once everything before it was delivered or spilled, and fails it if any
+     * of those events were dropped.
+     */
+    @Override
+    public <T> CompletableFuture<Void> publishEventsAcknowledged(List<T> events) {
+        for (T event : events) {
+            if (!enqueue(event)) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Event queue is full, events dropped"));
+            }
+        }
+        Receipt receipt = new Receipt();
+        while (!ringBuffer.offer(receipt)) {
+            if (!running) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Notification service is shut down"));
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        return receipt.future;
+    }
+
+    public NotificationPublisherStats getStats() {
+        return new NotificationPublisherStats(sink.getName(), overflowPolicy, ringBuffer.capacity(),
+                ringBuffer.size(), published.get(), batches.get(), lastBatchSize, maxBatchSize,
+                failedBatches.get(), blocked.get(), dropped.get(), spilled.get());
+    }
 
-        System.out.println(">>>>>>>>>>>>>>>>> Event published: " + event + " <<<<<<<<<<<<<<<<<<<<");
-        // throw new UnsupportedOperationException("Unimplemented method 'publishEvent'");
+    /*
+     * Stops accepting events, delivers what is still queued and closes the
+     * spill file.
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            publisher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (spillLock) {
+            closeSpillWriter();
+        }
     }
 
+    /*
+     * Returns false when the event was dropped.
+     */
+    private boolean enqueue(Object event) {
+        if (ringBuffer.offer(event)) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case POLICY_BLOCK -> {
+                blocked.incrementAndGet();
+                while (!ringBuffer.offer(event)) {
+                    if (!running) {
+                        dropped.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+                return true;
+            }
+            case POLICY_SPILL -> {
+                return spill(List.of(event));
+            }
+            default -> {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+    }
+
+    private void publishLoop() {
+        List<Object> batch = new ArrayList<>(batchSize);
+        while (running || !ringBuffer.isEmpty()) {
+            if (ringBuffer.drainTo(batch, batchSize) == 0) {
+                if (spillPending && running) {
+                    replaySpill();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            // linger until the batch is full or the oldest event waited long enough
+            long lingerDeadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < batchSize && running && System.nanoTime() < lingerDeadline) {
+                if (ringBuffer.drainTo(batch, batchSize - batch.size()) == 0) {
+                    LockSupport.parkNanos(Math.min(IDLE_PARK_NANOS, lingerDeadline - System.nanoTime()));
+                }
+            }
+            deliverWithReceipts(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void deliverWithReceipts(List<Object> batch) {
+        List<Object> events = new ArrayList<>(batch.size());
+        List<Receipt> receipts = new ArrayList<>();
+        for (Object element : batch) {
+            if (element instanceof Receipt receipt) {
+                receipts.add(receipt);
+            } else {
+                events.add(element);
+            }
+        }
+        if (!events.isEmpty()) {
+            deliver(events);
+        }
+        if (receipts.isEmpty()) {
+            return;
+        }
+        for (Receipt receipt : receipts) {
+            if (droppedSinceLastReceipt) {
+                receipt.future.completeExceptionally(new IllegalStateException("Events were dropped"));
+            } else {
+                receipt.future.complete(null);
+            }
+        }
+        droppedSinceLastReceipt = false;
+    }
+
+    private void deliver(List<Object> batch) {
+        long backoffMillis = RETRY_BACKOFF_MILLIS;
+        for (int attempt = 0; ; attempt++) {
+            try {
+                long startedNanos = System.nanoTime();
+                sink.publish(batch);
+                timerMetrics.eventsPublished(sink.getName(), batch.size(), System.nanoTime() - startedNanos);
+                published.addAndGet(batch.size());
+                batches.incrementAndGet();
+                lastBatchSize = batch.size();
+                maxBatchSize = Math.max(maxBatchSize, batch.size());
+                return;
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                if (attempt >= maxRetries || !running) {
+                    log.error("Publishing a batch of {} events to {} failed", batch.size(), sink.getName(), e);
+                    break;
+                }
+                log.warn("Publishing a batch of {} events to {} failed, retrying in {} ms", batch.size(),
+                        sink.getName(), backoffMillis);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis *= 2;
+            }
+        }
+        if (POLICY_SPILL.equals(overflowPolicy)) {
+            if (!spill(batch)) {
+                droppedSinceLastReceipt = true;
+            }
+        } else {
+            dropped.addAndGet(batch.size());
+            droppedSinceLastReceipt = true;
+        }
+    }
+
+    /*
+     * Returns false when the events could not be written and were dropped.
+     */
+    private boolean spill(List<?> events) {
+        synchronized (spillLock) {
+            try {
+                if (spillWriter == null) {
+                    Path directory = spillFile.toAbsolutePath().getParent();
+                    if (directory != null) {
+                        Files.createDirectories(directory);
+                    }
+                    spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                }
+                for (Object event : events) {
+                    spillWriter.write(objectMapper.writeValueAsString(event));
+                    spillWriter.newLine();
+                }
+                spillWriter.flush();
+                spilled.addAndGet(events.size());
+                spillPending = true;
+                return true;
+            } catch (IOException e) {
+                log.error("Spilling {} events to {} failed, dropping them", events.size(), spillFile, e);
+                dropped.addAndGet(events.size());
+                return false;
+            }
+        }
+    }
+
+    /*
+     * Moves the spill file aside so new spills go to a fresh file, then
+     * delivers its events in batches. They come back as JSON trees, which the
+     * sinks serialize unchanged.
+     */
+    private void replaySpill() {
+        Path replayFile = replayFile();
+        synchronized (spillLock) {
+            closeSpillWriter();
+            try {
+                if (!Files.exists(replayFile) && Files.exists(spillFile)) {
+                    Files.move(spillFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.error("Moving the spill file {} failed", spillFile, e);
+                return;
+            }
+            spillPending = false;
+        }
+        if (!Files.exists(replayFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(replayFile, StandardCharsets.UTF_8)) {
+            List<Object> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(objectMapper.readTree(line));
+                if (batch.size() == batchSize) {
+                    deliver(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } catch (IOException e) {
+            log.error("Replaying the spill file {} failed", replayFile, e);
+            spillPending = true;
+            return;
+        }
+        try {
+            Files.delete(replayFile);
+        } catch (IOException e) {
+            log.error("Deleting the replayed spill file {} failed", replayFile, e);
+        }
+        if (Files.exists(spillFile)) {
+            // spilled while an older replay file was still pending
+            spillPending = true;
+        }
+        log.info("Replayed the events spilled to {}", spillFile);
+    }
+
+    private static final class Receipt {
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+    }
+
+    private Path replayFile() {
+        return spillFile.resolveSibling(spillFile.getFileName() + ".replay");
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            log.warn("Closing the spill file {} failed", spillFile, e);
+        }
+        spillWriter = null;
+    }
 }
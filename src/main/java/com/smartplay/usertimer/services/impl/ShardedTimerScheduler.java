@@ -0,0 +1,121 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+
+/**
+ * Splits timers across N independent scheduler shards by the hash of the lpaId.
+ * Every shard owns its own timer structures, ticker thread and completion
+ * thread, so start, stop and expiry of users on different shards never
+ * contend. Each shard hands its expiry batches to the shared ExpiryHandler,
+ * which runs the follow-up work on its own executors.
+ */
+public class ShardedTimerScheduler implements ITimerScheduler {
+
+    private final ITimerScheduler[] shards;
+
+    public ShardedTimerScheduler(int shardCount, IntFunction<ITimerScheduler> shardFactory) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new ITimerScheduler[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = shardFactory.apply(i);
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public ITimerScheduler getShard(int shard) {
+        return shards[shard];
+    }
+
+    public int shardOf(String lpaId) {
+        int hash = lpaId.hashCode();
+        // spread the high bits so ids that differ only in their suffix still spread out
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % shards.length;
+    }
+
+    @Override
+    public void setExpiryHandler(ExpiryHandler expiryHandler) {
+        for (ITimerScheduler shard : shards) {
+            shard.setExpiryHandler(expiryHandler);
+        }
+    }
+
+    @Override
+    public void schedule(UserTimer userTimer, long delayInSeconds) {
+        shards[shardOf(userTimer.getLpaId())].schedule(userTimer, delayInSeconds);
+    }
+
+    @Override
+    public void scheduleAll(Collection<UserTimer> userTimers, long delayInSeconds) {
+        List<List<UserTimer>> perShard = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            perShard.add(new ArrayList<>());
+        }
+        for (UserTimer userTimer : userTimers) {
+            perShard.get(shardOf(userTimer.getLpaId())).add(userTimer);
+        }
+        for (int i = 0; i < shards.length; i++) {
+            if (!perShard.get(i).isEmpty()) {
+                shards[i].scheduleAll(perShard.get(i), delayInSeconds);
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(String lpaId) {
+        return shards[shardOf(lpaId)].cancel(lpaId);
+    }
+
+    @Override
+    public boolean isScheduled(String lpaId) {
+        return shards[shardOf(lpaId)].isScheduled(lpaId);
+    }
+
+    @Override
+    public Set<String> getScheduledIds() {
+        Set<String> ids = new HashSet<>();
+        for (ITimerScheduler shard : shards) {
+            ids.addAll(shard.getScheduledIds());
+        }
+        return ids;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ITimerScheduler shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public List<TimerSchedulerStats> getStats() {
+        List<TimerSchedulerStats> stats = new ArrayList<>(shards.length);
+        for (ITimerScheduler shard : shards) {
+            stats.addAll(shard.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void shutdown() {
+        for (ITimerScheduler shard : shards) {
+            shard.shutdown();
+        }
+    }
+}
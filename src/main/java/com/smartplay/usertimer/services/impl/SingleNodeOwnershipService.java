@@ -0,0 +1,46 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.List;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.stats.TimerClusterStats;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+
+/**
+ * Ownership of a service running as a single node (usertimer.cluster.enabled
+ * false): every timer is owned, no leases are taken.
+ */
+public class SingleNodeOwnershipService implements ITimerOwnershipService {
+
+    private static final String NODE_ID = "single-node";
+
+    @Override
+    public boolean isClustered() {
+        return false;
+    }
+
+    @Override
+    public boolean owns(String lpaId) {
+        return true;
+    }
+
+    @Override
+    public int partitionOf(String lpaId) {
+        return 0;
+    }
+
+    @Override
+    public Set<Integer> getOwnedPartitions() {
+        return Set.of(0);
+    }
+
+    @Override
+    public void start(OwnershipListener listener) {
+        // nothing to claim
+    }
+
+    @Override
+    public TimerClusterStats getStats() {
+        return new TimerClusterStats(NODE_ID, false, 1, List.of(0), 1, 0, 0, 0, -1);
+    }
+}
@@ -0,0 +1,230 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.smartplay.usertimer.model.stats.StorageMigrationStats;
+import com.smartplay.usertimer.services.interfaces.IStorageMigrationService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
+import com.smartplay.usertimer.tools.throughput.ThroughputLane;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rewrites the UserTimer rows that are still stored in the other storage
+ * format (see UserTimerStorageFormat) into the configured one, so a switch to
+ * compact (or back to string) eventually covers the whole table.
+ *
+ * A single background thread scans the table for rows with a startTime,
+ * endTime or timerId of the other type and rewrites those three attributes,
+ * plus the expiry index keys, with one UpdateItem per row at no more than
+ * items-per-second. The update is conditional on the version read, so a row the
+ * service wrote in the meantime (already in the new format) is left alone. The
+ * version itself is not changed, the timer stays the same.
+ *
+ * Runs at startup when usertimer.persistence.migration.enabled is set.
+ */
+@Service
+@Slf4j
+public class StorageMigrationService implements IStorageMigrationService {
+
+    private static final String TABLE_NAME = "UserTimer";
+    private static final String UPDATE_EXPRESSION = "SET timerId = :timerId, startTime = :startTime, "
+            + "endTime = :endTime, expiryBucket = :expiryBucket, expiresAt = :expiresAt";
+
+    private final AmazonDynamoDB amazonDynamoDB;
+    private final UserTimerStorageFormat storageFormat;
+    private final boolean enabled;
+    private final int itemsPerSecond;
+    private final int pageSize;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile String state = "DISABLED";
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile String error;
+    private volatile boolean running;
+    private Thread worker;
+
+    public StorageMigrationService(
+            @Autowired AmazonDynamoDB amazonDynamoDB,
+            @Autowired UserTimerStorageFormat storageFormat,
+            @Value("${usertimer.persistence.migration.enabled:false}") boolean enabled,
+            @Value("${usertimer.persistence.migration.items-per-second:100}") int itemsPerSecond,
+            @Value("${usertimer.persistence.migration.page-size:500}") int pageSize) {
+        if (itemsPerSecond <= 0) {
+            throw new IllegalArgumentException("usertimer.persistence.migration.items-per-second must be positive");
+        }
+        this.amazonDynamoDB = amazonDynamoDB;
+        this.storageFormat = storageFormat;
+        this.enabled = enabled;
+        this.itemsPerSecond = itemsPerSecond;
+        this.pageSize = pageSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        state = "RUNNING";
+        error = null;
+        startedNanos = System.nanoTime();
+        finishedNanos = 0;
+        worker = new NamedThreadFactory("storage-migrator").newThread(this::migrate);
+        worker.start();
+    }
+
+    @Override
+    public StorageMigrationStats getStats() {
+        long started = startedNanos;
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        long elapsedMillis = started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(end - started);
+        return new StorageMigrationStats(storageFormat.getFormat(), state, scanned.get(), migrated.get(),
+                skipped.get(), failed.get(), elapsedMillis, error);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void migrate() {
+        log.info("Storage migration to the {} format started", storageFormat.getFormat());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / itemsPerSecond;
+        long nextSlot = System.nanoTime();
+        try {
+            Map<String, AttributeValue> exclusiveStartKey = null;
+            do {
+                ScanResult page = amazonDynamoDB.scan(scanRequest(exclusiveStartKey));
+                for (Map<String, AttributeValue> item : page.getItems()) {
+                    if (!running) {
+                        state = "STOPPED";
+                        return;
+                    }
+                    // no burst to catch up after a slow scan page
+                    nextSlot = Math.max(nextSlot + intervalNanos, System.nanoTime());
+                    LockSupport.parkNanos(nextSlot - System.nanoTime());
+                    scanned.incrementAndGet();
+                    migrate(item);
+                }
+                exclusiveStartKey = page.getLastEvaluatedKey();
+            } while (exclusiveStartKey != null && running);
+            state = running ? "COMPLETED" : "STOPPED";
+            log.info("Storage migration to the {} format completed: {} rows migrated, {} skipped, {} failed",
+                    storageFormat.getFormat(), migrated.get(), skipped.get(), failed.get());
+        } catch (RuntimeException e) {
+            state = "FAILED";
+            error = e.getMessage();
+            log.error("Storage migration failed", e);
+        } finally {
+            finishedNanos = System.nanoTime();
+            running = false;
+        }
+    }
+
+    /*
+     * Only the rows of the other format cross the wire; attribute_type() is
+     * false for attributes that are missing.
+     */
+    private ScanRequest scanRequest(Map<String, AttributeValue> exclusiveStartKey) {
+        Map<String, AttributeValue> values = new HashMap<>();
+        String filter;
+        if (storageFormat.isCompact()) {
+            filter = "attribute_type(startTime, :s) OR attribute_type(endTime, :s) OR attribute_type(timerId, :s)";
+            values.put(":s", new AttributeValue().withS("S"));
+        } else {
+            filter = "attribute_type(startTime, :n) OR attribute_type(endTime, :n) OR attribute_type(timerId, :b)";
+            values.put(":n", new AttributeValue().withS("N"));
+            values.put(":b", new AttributeValue().withS("B"));
+        }
+        return new ScanRequest()
+                .withTableName(TABLE_NAME)
+                .withLimit(pageSize)
+                .withProjectionExpression("lpaId, startTime, endTime, timerId, #version")
+                .withFilterExpression(filter)
+                .withExpressionAttributeNames(Map.of("#version", "version"))
+                .withExpressionAttributeValues(values)
+                .withExclusiveStartKey(exclusiveStartKey);
+    }
+
+    /*
+     * Rewrites one scanned row. Package-private so tests can migrate a row
+     * without the scan and the rate limit
+     */
+    void migrate(Map<String, AttributeValue> item) {
+        String lpaId = item.get("lpaId").getS();
+        LocalDateTime startTime = UserTimerStorageFormat.readDateTime(item.get(UserTimerStorageFormat.START_TIME));
+        LocalDateTime endTime = UserTimerStorageFormat.readDateTime(item.get(UserTimerStorageFormat.END_TIME));
+        UUID timerId = UserTimerStorageFormat.readTimerId(item.get(UserTimerStorageFormat.TIMER_ID));
+        if (startTime == null || endTime == null || timerId == null || !storageFormat.needsMigration(item)) {
+            skipped.incrementAndGet();
+            return;
+        }
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":timerId", storageFormat.timerId(timerId));
+        values.put(":startTime", storageFormat.dateTime(startTime));
+        values.put(":endTime", storageFormat.dateTime(endTime));
+        values.put(":expiryBucket", new AttributeValue().withN(Long.toString(ExpiryBuckets.bucketOf(endTime))));
+        values.put(":expiresAt", new AttributeValue().withN(Long.toString(ExpiryBuckets.epochSecondOf(endTime))));
+        AttributeValue version = item.get("version");
+        String condition;
+        if (version == null) {
+            condition = "attribute_exists(lpaId) AND attribute_not_exists(#version)";
+        } else {
+            condition = "attribute_exists(lpaId) AND #version = :expectedVersion";
+            values.put(":expectedVersion", version);
+        }
+
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(TABLE_NAME)
+                .withKey(Map.of("lpaId", new AttributeValue().withS(lpaId)))
+                .withUpdateExpression(UPDATE_EXPRESSION)
+                .withConditionExpression(condition)
+                .withExpressionAttributeNames(Map.of("#version", "version"))
+                .withExpressionAttributeValues(values);
+        try {
+            ThroughputLane.BACKGROUND.runIn(() -> amazonDynamoDB.updateItem(request));
+            migrated.incrementAndGet();
+        } catch (ConditionalCheckFailedException e) {
+            skipped.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Storage migration of lpaId {} failed", lpaId, e);
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerStreamEvent;
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.TimerEventStreamStats;
+import com.smartplay.usertimer.services.interfaces.ITimerEventStream;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes timer starts, stops and completions to the clients of
+ * /timers/events as Server-Sent Events, so they need not poll the timer
+ * listings.
+ *
+ * Every event gets the next sequence number, which is its SSE id. The latest
+ * replay-capacity events are kept, so a client that reconnects with the id of
+ * the last event it saw (Last-Event-ID, or the after parameter) gets what it
+ * missed. When the events it asks for are no longer kept, or the sequence
+ * belongs to an earlier run of the service, it first gets a "gap" event and
+ * should reconcile through /timers/all. Sequences start at the startup time
+ * in microseconds, so they keep growing across restarts.
+ *
+ * Publishing only puts the event on the bounded buffer of every matching
+ * subscriber and never waits for a client. Each subscriber is drained by
+ * its own task on the "timer-event-stream" threads. A subscriber whose
+ * buffer is full gets an "overflow" event with the last sequence it received
+ * and is disconnected, so it can resume from there.
+ */
+@Service
+@Slf4j
+public class TimerEventStream implements ITimerEventStream {
+
+    private static final String GAP = "gap";
+    private static final String OVERFLOW = "overflow";
+
+    private final int replayCapacity;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long heartbeatSeconds;
+    private final ExecutorService senders = Executors.newCachedThreadPool(new NamedThreadFactory("timer-event-stream"));
+    private ScheduledExecutorService heartbeats;
+
+    // guarded by this
+    private final ArrayDeque<TimerStreamEvent> replay = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private long lastSequence;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder rejectedSubscribers = new LongAdder();
+
+    public TimerEventStream(
+            @Value("${usertimer.event-stream.replay-capacity:10000}") int replayCapacity,
+            @Value("${usertimer.event-stream.subscriber-buffer-size:1000}") int bufferSize,
+            @Value("${usertimer.event-stream.max-subscribers:100}") int maxSubscribers,
+            @Value("${usertimer.event-stream.timeout-millis:0}") long timeoutMillis,
+            @Value("${usertimer.event-stream.heartbeat-seconds:15}") long heartbeatSeconds) {
+        if (bufferSize <= 0 || replayCapacity < 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("usertimer.event-stream.subscriber-buffer-size and max-subscribers must be positive");
+        }
+        this.replayCapacity = replayCapacity;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.lastSequence = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+
+    /*
+     * Comments sent to idle subscribers, so proxies keep the connection open
+     * and clients that went away are noticed
+     */
+    @PostConstruct
+    public void init() {
+        if (heartbeatSeconds <= 0) {
+            return;
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("timer-event-heartbeat"));
+        heartbeats.scheduleWithFixedDelay(() -> {
+            for (Subscriber subscriber : subscribers()) {
+                subscriber.heartbeat();
+            }
+        }, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers()) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public void started(UserTimer userTimer) {
+        publish(TimerStreamEvent.STARTED, userTimer.getLpaId(), userTimer.getTimerId(), userTimer.getStartTime(),
+                userTimer.getEndTime(), 0);
+    }
+
+    @Override
+    public void stopped(String lpaId) {
+        publish(TimerStreamEvent.STOPPED, lpaId, null, null, null, 0);
+    }
+
+    @Override
+    public void completed(List<ResetTimerEvent> events) {
+        for (ResetTimerEvent event : events) {
+            publish(TimerStreamEvent.COMPLETED, event.getLpaId(), event.getTimerId(), event.getStartTime(),
+                    event.getEndTime(), event.getMissedWindows());
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(String lpaIdPrefix, Long afterSequence) {
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(lpaIdPrefix, emitter);
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                rejectedSubscribers.increment();
+                throw new IllegalStateException("Subscriber limit of " + maxSubscribers + " reached");
+            }
+            subscriber.lastSentSequence = afterSequence != null ? afterSequence : lastSequence;
+            if (afterSequence != null) {
+                long oldestSequence = replay.isEmpty() ? lastSequence + 1 : replay.peekFirst().sequence();
+                if (afterSequence < oldestSequence - 1 || afterSequence > lastSequence) {
+                    subscriber.gap = Map.of("afterSequence", afterSequence, "oldestSequence", oldestSequence);
+                }
+                for (TimerStreamEvent event : replay) {
+                    if (event.sequence() > afterSequence && subscriber.matches(event)) {
+                        subscriber.backlog.add(event);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriber.scheduleDrain();
+        return emitter;
+    }
+
+    @Override
+    public TimerEventStreamStats getStats() {
+        synchronized (this) {
+            return new TimerEventStreamStats(subscribers.size(), lastSequence, published.sum(), replay.size(),
+                    overflowed.sum(), rejectedSubscribers.sum());
+        }
+    }
+
+    /*
+     * Package-private so tests can record what a subscriber is sent
+     */
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /*
+     * Numbers the event and hands it to the subscribers under the lock, so
+     * every subscriber sees the events in sequence order
+     */
+    private synchronized void publish(String type, String lpaId, UUID timerId, LocalDateTime startTime,
+            LocalDateTime endTime, long missedWindows) {
+        TimerStreamEvent event = new TimerStreamEvent(++lastSequence, type, lpaId, timerId, startTime, endTime,
+                missedWindows);
+        if (replayCapacity > 0) {
+            replay.addLast(event);
+            if (replay.size() > replayCapacity) {
+                replay.removeFirst();
+            }
+        }
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    private synchronized List<Subscriber> subscribers() {
+        return new ArrayList<>(subscribers);
+    }
+
+    private final class Subscriber {
+
+        private final String lpaIdPrefix;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<TimerStreamEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // set before the subscriber is registered, sent by the first drain
+        private Map<String, Long> gap;
+        private List<TimerStreamEvent> backlog = new ArrayList<>();
+        private long lastSentSequence;
+        private volatile boolean overflow;
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        private Subscriber(String lpaIdPrefix, SseEmitter emitter) {
+            this.lpaIdPrefix = lpaIdPrefix;
+            this.emitter = emitter;
+        }
+
+        private boolean matches(TimerStreamEvent event) {
+            return lpaIdPrefix == null || event.lpaId().startsWith(lpaIdPrefix);
+        }
+
+        /*
+         * Called by the publisher; only touches the buffer and flags
+         */
+        private void offer(TimerStreamEvent event) {
+            if (closed || overflow || !matches(event)) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                overflow = true;
+                overflowed.increment();
+            }
+            scheduleDrain();
+        }
+
+        private void heartbeat() {
+            heartbeatDue = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (gap != null) {
+                    emitter.send(SseEmitter.event().name(GAP).data(gap, MediaType.APPLICATION_JSON));
+                    gap = null;
+                }
+                if (backlog != null) {
+                    for (TimerStreamEvent event : backlog) {
+                        send(event);
+                    }
+                    backlog = null;
+                }
+                TimerStreamEvent event;
+                while (!closed && !overflow && (event = queue.poll()) != null) {
+                    send(event);
+                }
+                if (overflow) {
+                    emitter.send(SseEmitter.event().name(OVERFLOW)
+                            .data(Map.of("lastSequence", lastSentSequence), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                    close();
+                    log.info("Event stream subscriber disconnected at sequence {}, its buffer of {} events was full",
+                            lastSentSequence, bufferSize);
+                    return;
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client went away
+                close();
+            } finally {
+                draining.set(false);
+            }
+            if (!closed && (!queue.isEmpty() || overflow || heartbeatDue)) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(TimerStreamEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(Long.toString(event.sequence()))
+                    .name(event.type())
+                    .data(event, MediaType.APPLICATION_JSON));
+            lastSentSequence = event.sequence();
+        }
+
+        private void close() {
+            closed = true;
+            synchronized (TimerEventStream.this) {
+                subscribers.remove(this);
+            }
+        }
+    }
+}
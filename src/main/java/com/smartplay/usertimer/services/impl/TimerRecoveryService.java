@@ -0,0 +1,290 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerRecoveryProgress;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerExpiryRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerScanRepository;
+import com.smartplay.usertimer.services.interfaces.ISystemService;
+import com.smartplay.usertimer.services.interfaces.ITimerRecoveryService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the stored timers at startup.
+ *
+ * In parallel mode (default) the table is read with a DynamoDB parallel scan
+ * (Segment/TotalSegments), one thread per segment, and every page is handed to
+ * the scheduler as soon as it arrives. The recovery runs in two phases: first
+ * the timers that end within the ready horizon, then the rest. The service
+ * reports ready once the first phase is done, so it does not wait for timers
+ * that are hours away. The two phases read the table twice, but only the rows
+ * of each phase cross the wire.
+ *
+ * With near-term-source=index the first phase reads the expiry index instead
+ * of scanning: one query per minute bucket from now minus the index lookback up
+ * to the ready horizon. The second phase then scans the whole table and skips
+ * the rows already delivered, which also covers rows the index does not hold
+ * yet and timers overdue by more than the lookback.
+ *
+ * recoverAll() reads the table in a single pass of the same parallel scan,
+ * without the near-term phase, and returns once every page is handed out.
+ * The segments of every call run on one shared pool, and each call keeps its
+ * own progress; getProgress() reports on the latest one.
+ *
+ * Sequential mode is the original behaviour: one findAll() on the caller's
+ * thread.
+ */
+@Service
+@Slf4j
+public class TimerRecoveryService implements ITimerRecoveryService {
+
+    public static final String MODE_PARALLEL = "parallel";
+    public static final String MODE_SEQUENTIAL = "sequential";
+    public static final String SOURCE_SCAN = "scan";
+    public static final String SOURCE_INDEX = "index";
+
+    private final IUserTimerRepository userTimerRepository;
+    private final IUserTimerScanRepository userTimerScanRepository;
+    private final IUserTimerExpiryRepository userTimerExpiryRepository;
+    private final ISystemService systemService;
+    private final TimerMetrics timerMetrics;
+    private final String mode;
+    private final String nearTermSource;
+    private final long indexLookbackSeconds;
+    private final int segments;
+    private final int pageSize;
+    private final long readyHorizonSeconds;
+
+    private final ExecutorService segmentExecutor;
+    // the run getProgress() reports on, the latest one started
+    private volatile RecoveryRun currentRun;
+    // latched: a cluster node stays ready while it loads the partitions it gains later
+    private volatile boolean nearTermArmed;
+
+    public TimerRecoveryService(
+            @Autowired IUserTimerRepository userTimerRepository,
+            @Autowired IUserTimerScanRepository userTimerScanRepository,
+            @Autowired IUserTimerExpiryRepository userTimerExpiryRepository,
+            @Autowired ISystemService systemService,
+            @Autowired TimerMetrics timerMetrics,
+            @Value("${usertimer.recovery.mode:" + MODE_PARALLEL + "}") String mode,
+            @Value("${usertimer.recovery.near-term-source:" + SOURCE_SCAN + "}") String nearTermSource,
+            @Value("${usertimer.recovery.index-lookback-seconds:86400}") long indexLookbackSeconds,
+            @Value("${usertimer.recovery.segments:8}") int segments,
+            @Value("${usertimer.recovery.page-size:500}") int pageSize,
+            @Value("${usertimer.recovery.ready-horizon-seconds:900}") long readyHorizonSeconds) {
+        this.userTimerRepository = userTimerRepository;
+        this.userTimerScanRepository = userTimerScanRepository;
+        this.userTimerExpiryRepository = userTimerExpiryRepository;
+        this.systemService = systemService;
+        this.timerMetrics = timerMetrics;
+        this.mode = mode;
+        this.nearTermSource = nearTermSource;
+        this.indexLookbackSeconds = indexLookbackSeconds;
+        this.segments = segments;
+        this.pageSize = pageSize;
+        this.readyHorizonSeconds = readyHorizonSeconds;
+        this.segmentExecutor = Executors.newFixedThreadPool(Math.max(1, segments),
+                new NamedThreadFactory("timer-recovery-segment"));
+    }
+
+    @Override
+    public void recover(Consumer<List<UserTimer>> pageConsumer) {
+        RecoveryRun run = startRun();
+        if (MODE_SEQUENTIAL.equalsIgnoreCase(mode)) {
+            recoverSequentially(run, pageConsumer);
+            return;
+        }
+        if (!MODE_PARALLEL.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("Unknown usertimer.recovery.mode: " + mode);
+        }
+        if (!SOURCE_SCAN.equalsIgnoreCase(nearTermSource) && !SOURCE_INDEX.equalsIgnoreCase(nearTermSource)) {
+            throw new IllegalArgumentException("Unknown usertimer.recovery.near-term-source: " + nearTermSource);
+        }
+        Thread coordinator = new NamedThreadFactory("timer-recovery").newThread(() -> recoverInParallel(run, pageConsumer));
+        coordinator.start();
+    }
+
+    @Override
+    public void recoverAll(Consumer<List<UserTimer>> pageConsumer) {
+        RecoveryRun run = startRun();
+        if (MODE_SEQUENTIAL.equalsIgnoreCase(mode)) {
+            recoverSequentially(run, pageConsumer);
+            return;
+        }
+        try {
+            runPhase(run, "ALL", null, null, pageConsumer);
+            complete(run);
+        } catch (RuntimeException e) {
+            fail(run, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void recoverEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+            Consumer<List<UserTimer>> pageConsumer) {
+        userTimerExpiryRepository.queryEndTimeRange(endTimeFrom, endTimeTo, pageSize, pageConsumer);
+    }
+
+    @Override
+    public boolean isNearTermArmed() {
+        return nearTermArmed;
+    }
+
+    @Override
+    public TimerRecoveryProgress getProgress() {
+        RecoveryRun run = currentRun;
+        if (run == null) {
+            return new TimerRecoveryProgress(mode, "NOT_STARTED", nearTermArmed, segments, 0, 0, 0, null);
+        }
+        return new TimerRecoveryProgress(mode, run.phase, nearTermArmed, segments, run.segmentsCompleted.get(),
+                run.rowsLoaded.get(), run.elapsedMillis(), run.error);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        segmentExecutor.shutdownNow();
+    }
+
+    private RecoveryRun startRun() {
+        RecoveryRun run = new RecoveryRun();
+        currentRun = run;
+        return run;
+    }
+
+    private void recoverSequentially(RecoveryRun run, Consumer<List<UserTimer>> pageConsumer) {
+        run.phase = "REMAINING";
+        List<UserTimer> page = new ArrayList<>(pageSize);
+        for (UserTimer timer : userTimerRepository.findAll()) {
+            page.add(timer);
+            if (page.size() == pageSize) {
+                deliver(run, page, pageConsumer);
+                page = new ArrayList<>(pageSize);
+            }
+        }
+        if (!page.isEmpty()) {
+            deliver(run, page, pageConsumer);
+        }
+        complete(run);
+    }
+
+    private void recoverInParallel(RecoveryRun run, Consumer<List<UserTimer>> pageConsumer) {
+        try {
+            LocalDateTime now = systemService.getCurrentDateTime();
+            LocalDateTime readyHorizon = now.plusSeconds(readyHorizonSeconds);
+            if (SOURCE_INDEX.equalsIgnoreCase(nearTermSource)) {
+                Set<String> nearTermIds = ConcurrentHashMap.newKeySet();
+                run.phase = "NEAR_TERM";
+                userTimerExpiryRepository.queryEndTimeRange(now.minusSeconds(indexLookbackSeconds), readyHorizon,
+                        pageSize, page -> {
+                            page.forEach(timer -> nearTermIds.add(timer.getLpaId()));
+                            deliver(run, page, pageConsumer);
+                        });
+                armNearTerm(run, readyHorizon);
+                runPhase(run, "REMAINING", null, null, page -> {
+                    List<UserTimer> remaining = page.stream()
+                            .filter(timer -> !nearTermIds.contains(timer.getLpaId()))
+                            .toList();
+                    if (!remaining.isEmpty()) {
+                        pageConsumer.accept(remaining);
+                    }
+                });
+            } else {
+                runPhase(run, "NEAR_TERM", null, readyHorizon, pageConsumer);
+                armNearTerm(run, readyHorizon);
+                runPhase(run, "REMAINING", readyHorizon, null, pageConsumer);
+            }
+            complete(run);
+        } catch (RuntimeException e) {
+            fail(run, e);
+        }
+    }
+
+    private void armNearTerm(RecoveryRun run, LocalDateTime readyHorizon) {
+        nearTermArmed = true;
+        timerMetrics.recoveryPhaseCompleted("near_term", mode, run.elapsedMillis());
+        log.info("Timer recovery: timers due before {} armed after {} ms", readyHorizon, run.elapsedMillis());
+    }
+
+    private void runPhase(RecoveryRun run, String phaseName, LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+            Consumer<List<UserTimer>> pageConsumer) {
+        run.phase = phaseName;
+        run.segmentsCompleted.set(0);
+        List<CompletableFuture<Void>> scans = new ArrayList<>(segments);
+        for (int segment = 0; segment < segments; segment++) {
+            int currentSegment = segment;
+            scans.add(CompletableFuture.runAsync(() -> {
+                userTimerScanRepository.scanSegment(currentSegment, segments, endTimeFrom, endTimeTo, pageSize,
+                        page -> deliver(run, page, pageConsumer));
+                run.segmentsCompleted.incrementAndGet();
+            }, segmentExecutor));
+        }
+        try {
+            CompletableFuture.allOf(scans.toArray(CompletableFuture<?>[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void deliver(RecoveryRun run, List<UserTimer> page, Consumer<List<UserTimer>> pageConsumer) {
+        pageConsumer.accept(page);
+        run.rowsLoaded.addAndGet(page.size());
+    }
+
+    private void complete(RecoveryRun run) {
+        nearTermArmed = true;
+        run.phase = "COMPLETED";
+        run.finishedNanos = System.nanoTime();
+        timerMetrics.recoveryPhaseCompleted("completed", mode, run.elapsedMillis());
+        log.info("Timer recovery completed: {} timers in {} ms", run.rowsLoaded.get(), run.elapsedMillis());
+    }
+
+    private void fail(RecoveryRun run, RuntimeException e) {
+        run.phase = "FAILED";
+        run.error = e.getMessage();
+        run.finishedNanos = System.nanoTime();
+        log.error("Timer recovery failed", e);
+    }
+
+    /*
+     * The state of one recover() or recoverAll() call, so calls that overlap
+     * do not count into each other
+     */
+    private static final class RecoveryRun {
+
+        private final long startedNanos = System.nanoTime();
+        private final AtomicInteger segmentsCompleted = new AtomicInteger();
+        private final AtomicLong rowsLoaded = new AtomicLong();
+        private volatile String phase = "NOT_STARTED";
+        private volatile long finishedNanos;
+        private volatile String error;
+
+        private long elapsedMillis() {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+        }
+    }
+}
@@ -2,26 +2,53 @@ package com.smartplay.usertimer.services.impl;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.config.TimerExecutorConfig;
 import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.BulkStartResult;
+import com.smartplay.usertimer.model.dto.TimerPage;
 import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.repository.interfaces.IAsyncUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IFlushableRepository;
 import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+import com.smartplay.usertimer.services.interfaces.ICatchUpService;
 import com.smartplay.usertimer.services.interfaces.IConfigurationService;
-import com.smartplay.usertimer.services.interfaces.INotificationService;
+import com.smartplay.usertimer.services.interfaces.IEventOutbox;
+import com.smartplay.usertimer.services.interfaces.ITimerEventStream;
 import com.smartplay.usertimer.services.interfaces.ISystemService;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+import com.smartplay.usertimer.services.interfaces.ITimerRecoveryService;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
 import com.smartplay.usertimer.services.interfaces.ITimerService;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -39,23 +66,110 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class TimerService implements ITimerService {
 
-    private final ConcurrentHashMap<String, ScheduledFuture<?>> userTimers = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private static final int BULK_SAVE_CHUNK_SIZE = 500;
+    // a start reads the version of the stored row first and tries again when it changed in between
+    private static final int START_SAVE_ATTEMPTS = 3;
+    // the sweep leaves timers this close to their end alone, they may be firing right now
+    private static final long SWEEP_MIN_LEAD_SECONDS = 10;
 
+    private final ITimerScheduler timerScheduler;
+    private final IActiveTimerIndex activeTimerIndex;
     private final IUserTimerRepository userTimerRepository;
+    private final IUserTimerRolloverRepository userTimerRolloverRepository;
     private final ISystemService systemService;
     private final IConfigurationService configurationService;
-    private final INotificationService notificationService;
+    private final IEventOutbox eventOutbox;
+    private final ITimerRecoveryService timerRecoveryService;
+    private final Executor persistenceExecutor;
+    private final Executor publishExecutor;
+    private final Executor rescheduleExecutor;
+    private final TimerMetrics timerMetrics;
+    private final ITimerOwnershipService timerOwnershipService;
+    private final ICatchUpService catchUpService;
+    private final IAsyncUserTimerRepository asyncUserTimerRepository;
+    private final ITimerEventStream timerEventStream;
+    private final long sweepIntervalSeconds;
+    private final long sweepHorizonSeconds;
+    private final boolean tiered;
+    private final long tieringHorizonSeconds;
+    private final long tieringLoadIntervalSeconds;
+    private final long rolloverRetryInitialBackoffMillis;
+    private final long rolloverRetryMaxBackoffMillis;
+    private final ScheduledExecutorService rolloverRetryExecutor;
+    // tiered mode: timers ending before this are armed, later ones wait in the table
+    private volatile LocalDateTime hotUntil;
+    private ScheduledExecutorService sweepExecutor;
+    // held while a partition is disarmed and while a timer is armed after its owns() check
+    private final Object ownershipLock = new Object();
+    // cluster mode: partitions acquired and not loaded yet, guarded by itself
+    private final Set<Integer> partitionsToLoad = new HashSet<>();
+    private ScheduledExecutorService partitionLoader;
 
     public TimerService(
             @Autowired IUserTimerRepository userTimerRepository,
             @Autowired IConfigurationService configurationService,
-            @Autowired INotificationService notificationService,
-            @Autowired ISystemService systemService) {
+            @Autowired IEventOutbox eventOutbox,
+            @Autowired ISystemService systemService,
+            @Autowired ITimerScheduler timerScheduler,
+            @Autowired ITimerRecoveryService timerRecoveryService,
+            @Autowired IUserTimerRolloverRepository userTimerRolloverRepository,
+            @Autowired IActiveTimerIndex activeTimerIndex,
+            @Autowired @Qualifier(TimerExecutorConfig.PERSISTENCE_EXECUTOR) Executor persistenceExecutor,
+            @Autowired @Qualifier(TimerExecutorConfig.PUBLISH_EXECUTOR) Executor publishExecutor,
+            @Autowired @Qualifier(TimerExecutorConfig.RESCHEDULE_EXECUTOR) Executor rescheduleExecutor,
+            @Autowired TimerMetrics timerMetrics,
+            @Autowired ITimerOwnershipService timerOwnershipService,
+            @Autowired ICatchUpService catchUpService,
+            @Autowired IAsyncUserTimerRepository asyncUserTimerRepository,
+            @Autowired ITimerEventStream timerEventStream,
+            @Value("${usertimer.cluster.sweep-interval-seconds:30}") long sweepIntervalSeconds,
+            @Value("${usertimer.cluster.sweep-horizon-seconds:120}") long sweepHorizonSeconds,
+            @Value("${usertimer.tiering.enabled:false}") boolean tiered,
+            @Value("${usertimer.tiering.horizon-seconds:900}") long tieringHorizonSeconds,
+            @Value("${usertimer.tiering.load-interval-seconds:60}") long tieringLoadIntervalSeconds,
+            @Value("${usertimer.rollover.retry-initial-backoff-millis:500}") long rolloverRetryInitialBackoffMillis,
+            @Value("${usertimer.rollover.retry-max-backoff-millis:30000}") long rolloverRetryMaxBackoffMillis) {
+        if (timerOwnershipService.isClustered()
+                && (sweepIntervalSeconds <= 0 || sweepHorizonSeconds <= SWEEP_MIN_LEAD_SECONDS + sweepIntervalSeconds)) {
+            throw new IllegalArgumentException("usertimer.cluster.sweep-horizon-seconds must exceed the sweep interval by more than "
+                    + SWEEP_MIN_LEAD_SECONDS + " seconds");
+        }
+        if (tiered && timerOwnershipService.isClustered()) {
+            // the owners already arm by partition and sweep; a second watermark per node is not tracked
+            throw new IllegalArgumentException("usertimer.tiering.enabled cannot be combined with usertimer.cluster.enabled");
+        }
+        if (tiered && (tieringLoadIntervalSeconds <= 0 || tieringHorizonSeconds <= 2 * tieringLoadIntervalSeconds)) {
+            throw new IllegalArgumentException("usertimer.tiering.horizon-seconds must exceed twice the load interval");
+        }
+        if (rolloverRetryInitialBackoffMillis <= 0 || rolloverRetryMaxBackoffMillis < rolloverRetryInitialBackoffMillis) {
+            throw new IllegalArgumentException("usertimer.rollover.retry-initial-backoff-millis must be positive and "
+                    + "not exceed retry-max-backoff-millis");
+        }
         this.userTimerRepository = userTimerRepository;
         this.configurationService = configurationService;
-        this.notificationService = notificationService;
+        this.eventOutbox = eventOutbox;
         this.systemService = systemService;
+        this.timerScheduler = timerScheduler;
+        this.timerRecoveryService = timerRecoveryService;
+        this.userTimerRolloverRepository = userTimerRolloverRepository;
+        this.activeTimerIndex = activeTimerIndex;
+        this.persistenceExecutor = persistenceExecutor;
+        this.publishExecutor = publishExecutor;
+        this.rescheduleExecutor = rescheduleExecutor;
+        this.timerMetrics = timerMetrics;
+        this.timerOwnershipService = timerOwnershipService;
+        this.catchUpService = catchUpService;
+        this.asyncUserTimerRepository = asyncUserTimerRepository;
+        this.timerEventStream = timerEventStream;
+        this.sweepIntervalSeconds = sweepIntervalSeconds;
+        this.sweepHorizonSeconds = sweepHorizonSeconds;
+        this.tiered = tiered;
+        this.tieringHorizonSeconds = tieringHorizonSeconds;
+        this.tieringLoadIntervalSeconds = tieringLoadIntervalSeconds;
+        this.rolloverRetryInitialBackoffMillis = rolloverRetryInitialBackoffMillis;
+        this.rolloverRetryMaxBackoffMillis = rolloverRetryMaxBackoffMillis;
+        this.rolloverRetryExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("timer-rollover-retry"));
+        this.timerScheduler.setExpiryHandler(this::onTimersExpired);
     }
 
     /*
@@ -63,88 +177,340 @@ public class TimerService implements ITimerService {
      * after dependency injection is done to perform any initialization.
      * The init() method is called after the TimerService bean is created and all
      * dependencies are injected.
-     * The method loads existing timers from the repository and schedules them for
-     * execution.
-     * The timers are scheduled based on the time difference between the current
-     * time and the expiry time.
-     * If the expiry time is in the future, the timer is scheduled to trigger the
-     * completion action.
-     * If the expiry time is in the past, the completion action is triggered
-     * immediately, and a new timer is scheduled for the next available window.
+     * The method hands the loading of the existing timers to the
+     * timerRecoveryService, which streams the stored timers page by page into
+     * restoreTimers(). In parallel mode this happens in the background and the
+     * readiness probe reports ready once the near-term timers are armed.
      * The getNextUserTimer() method is used to calculate the next available timer
      * window based on the current time and the original timer's start and end
      * times.
-     * The scheduleTimer() method is used to schedule a timer for a given user with
-     * a specified delay in seconds.
-     * The onTimerCompletionAction() method is called when a timer expires to
-     * trigger the completion action and remove the timer from the list of active
-     * timers.
-     * The triggerCompletionAction() publishes a ResetTimerEvent to notify other
+     * The onTimersExpired() method is called with every batch of expired timers to
+     * trigger the completion actions and roll the users over to their next window.
+     * The triggerCompletionActions() publishes the ResetTimerEvents to notify other
      * components.
+     * In a cluster the node only arms the timers of the partitions it owns: they
+     * are loaded whenever the timerOwnershipService hands it partitions, and a
+     * periodic sweep over the expiry index arms the timers other nodes stored
+     * for them (see sweepOwnedTimers()).
+     * Timers found overdue are completed by the catchUpService at a bounded
+     * rate (see catchUpTimers()).
+     * In tiered mode only the hot tier, the timers ending within the tiering
+     * horizon, is armed; the cold timers stay in the table and are pulled in
+     * slice by slice before they come due (see loadNextSlice()).
      */
     @PostConstruct
     public void init() {
-        // Load existing timers from the repository and schedule them
-        Iterable<UserTimer> timers = userTimerRepository.findAll();
+        if (tiered) {
+            hotUntil = systemService.getCurrentDateTime().plusSeconds(tieringHorizonSeconds);
+            sweepExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("timer-tier-loader"));
+            sweepExecutor.scheduleWithFixedDelay(this::loadNextSlice, tieringLoadIntervalSeconds,
+                    tieringLoadIntervalSeconds, TimeUnit.SECONDS);
+        }
+        catchUpService.start(this::catchUpTimers);
+        if (!timerOwnershipService.isClustered()) {
+            // Load existing timers from the repository and schedule them
+            timerRecoveryService.recover(this::restoreTimers);
+            return;
+        }
+        partitionLoader = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("partition-load"));
+        timerOwnershipService.start(new PartitionListener());
+        sweepExecutor = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("timer-sweep"));
+        sweepExecutor.scheduleWithFixedDelay(this::sweepOwnedTimers, sweepIntervalSeconds, sweepIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /*
+     * The restoreTimers() method re-arms one page of stored timers.
+     * The timers are scheduled based on the time difference between the current
+     * time and the expiry time.
+     * If the expiry time is in the future, the timer is scheduled to trigger the
+     * completion action.
+     * If the expiry time is in the past, the timer is queued in the
+     * catchUpService, which completes the overdue timers oldest first and at a
+     * bounded rate, so a long downtime does not end in a burst of events and
+     * writes at startup.
+     * In tiered mode timers beyond the hot tier are skipped; the loader pulls
+     * them in later.
+     */
+    private void restoreTimers(List<UserTimer> timers) {
+        LocalDateTime currentDateTime = systemService.getCurrentDateTime();
+        List<UserTimer> overdueTimers = new ArrayList<>();
+        int coldTimers = 0;
         for (UserTimer timer : timers) {
-            LocalDateTime currentDateTime = systemService.getCurrentDateTime();
-            long delay = currentDateTime.until(timer.getEndTime(), TimeUnit.SECONDS.toChronoUnit());
-            if (delay > 0) {
+            long delay = currentDateTime.until(timer.getEndTime(), ChronoUnit.SECONDS);
+            if (delay > 0 && !isHot(timer.getEndTime())) {
+                coldTimers++;
+            } else if (delay > 0) {
                 // a. delay positive because the expiry time is in the future.
-                CompletableFuture.runAsync(() -> scheduleTimer(timer, delay));
+                timerScheduler.schedule(timer, delay);
+                activeTimerIndex.put(timer);
             } else {
                 // b. delay is negative because the expiry time is in the past.
                 // c. delay is zero because the expiry time is the same as the current time.
-                CompletableFuture<Void> completionAction = CompletableFuture.runAsync(() -> triggerCompletionAction(timer));
-
-                CompletableFuture<Void> createNextTimerAndSchedule = CompletableFuture.runAsync(() -> {
-                    // Calculate the next available timer window
-                    UserTimer nextTimer = getNextUserTimer(timer, currentDateTime);
+                overdueTimers.add(timer);
+            }
+        }
+        log("[Action: @postConstruct] " + (timers.size() - overdueTimers.size() - coldTimers) + " timers scheduled"
+                + (coldTimers > 0 ? ", " + coldTimers + " left in the cold tier" : ""));
+        if (!overdueTimers.isEmpty()) {
+            catchUpService.submit(overdueTimers);
+            log("[Action: @postConstruct] " + overdueTimers.size() + " overdue timers queued for catch-up");
+        }
+    }
 
-                    long intervalInSeconds = ChronoUnit.SECONDS.between(currentDateTime, timer.getEndTime());
+    /*
+     * The catchUpTimers() method completes one batch of overdue timers handed
+     * out by the catchUpService. Every user gets a single ResetTimerEvent for
+     * its stored window, carrying the number of windows that ended after it
+     * while the service was down, instead of one event per missed window.
+     * The events are recorded before the timers move on to the window that
+     * contains the current time, and the new timers are armed for its end.
+     * A rollover that fails after the events are recorded is retried in the
+     * background (see tryRolloverTimer()), so the batch is not completed again.
+     */
+    private long catchUpTimers(List<UserTimer> overdueTimers) {
+        LocalDateTime currentDateTime = systemService.getCurrentDateTime();
+        List<UserTimer> ownedTimers = new ArrayList<>(overdueTimers.size());
+        List<UserTimer> nextTimers = new ArrayList<>(overdueTimers.size());
+        List<ResetTimerEvent> events = new ArrayList<>(overdueTimers.size());
+        long missedWindows = 0;
+        for (UserTimer timer : overdueTimers) {
+            if (!timerOwnershipService.owns(timer.getLpaId())) {
+                // the partition moved on while the timer waited
+                continue;
+            }
+            UserTimer nextWindow;
+            try {
+                nextWindow = getNextUserTimer(timer, currentDateTime);
+            } catch (IllegalArgumentException e) {
+                // a broken row would fail the batch on every retry
+                log.error("Catch-up skipped the timer of user " + timer.getLpaId(), e);
+                continue;
+            }
+            long missed = getMissedWindows(timer, nextWindow);
+            ownedTimers.add(timer);
+            nextTimers.add(createNextUserTimer(timer, nextWindow.getStartTime(), nextWindow.getEndTime()));
+            events.add(ResetTimerEvent.builder()
+                    .userTimer(timer)
+                    .missedWindows(missed)
+                    .source(this)
+                    .build());
+            missedWindows += missed;
+        }
+        if (events.isEmpty()) {
+            return 0;
+        }
 
-                    timer.setStartTime(nextTimer.getStartTime());
-                    timer.setEndTime(nextTimer.getEndTime());
+        // the events capture the expired window, so record them before moving the timers on
+        recordEvents(events);
 
-                    userTimerRepository.save(timer);
-                    log(nextTimer, "[Action: new timercreated, saved]");
-                    scheduleTimer(timer, intervalInSeconds);
-                });
-                CompletableFuture.allOf(completionAction, createNextTimerAndSchedule).thenRunAsync(() -> {
-                    log(timer, "[Action: @postConstruct] Timer Completed, action triggered, new timer scheduled");
-                });
+        int rolledOver = 0;
+        for (int i = 0; i < ownedTimers.size(); i++) {
+            UserTimer nextTimer = nextTimers.get(i);
+            if (tryRolloverTimer(ownedTimers.get(i), nextTimer, 1)) {
+                synchronized (ownershipLock) {
+                    if (isHot(nextTimer.getEndTime()) && timerOwnershipService.owns(nextTimer.getLpaId())) {
+                        timerScheduler.schedule(nextTimer,
+                                systemService.getCurrentDateTime().until(nextTimer.getEndTime(), ChronoUnit.SECONDS));
+                        activeTimerIndex.put(nextTimer);
+                    }
+                }
+                rolledOver++;
             }
         }
+        log("[Action: catch-up] " + ownedTimers.size() + " overdue timers completed, " + missedWindows
+                + " missed windows coalesced, " + rolledOver + " new timers scheduled");
+        return missedWindows;
     }
 
     /*
-     * The onTimerCompletionAction() method is called when a timer expires to
-     * trigger the completion action for the user.
-     * The method first triggers the completion action for the user by calling the
-     * triggerCompletionAction() method.
-     * It then removes the user from the userTimers map and deletes the timer from
-     * the repository.
+     * The onTimersExpired() method is called by the timerScheduler with every timer
+     * that expired on the same tick, so a wave of users that registered together
+     * is rolled over in bulk instead of one user at a time.
+     * Every stage runs on its own named executor (see TimerExecutorConfig), so
+     * the blocking calls never run on the scheduler's completion thread; when
+     * the queue of a stage is full, the thread handing the work over waits
+     * for room instead.
+     * Step 1 records the ResetTimerEvents of the whole batch in the event outbox,
+     * which publishes them in the background (publish executor).
+     * Step 2 runs once the events are recorded and moves every user to the window
+     * that directly follows the expired one, with one conditional update per user
+     * (see rolloverTimer()), the updates running concurrently on the persistence
+     * executor. A crash in between therefore never rolls a timer over without its
+     * event.
+     * Step 3 re-arms the rolled over users (reschedule executor), with one
+     * scheduleAll() call per next end time, so users whose windows have
+     * different durations each fire at the end of their own window.
+     * In a cluster the batch is first checked against the table, since a stop or
+     * restart served by another node only reaches the table (see
+     * currentTimers()).
      */
-    private void onTimerCompletionAction(UserTimer userTimer) {
-        String lpaId = userTimer.getLpaId();
+    private void onTimersExpired(List<UserTimer> expiredTimers) {
+        if (!timerOwnershipService.isClustered()) {
+            completeExpiredTimers(expiredTimers);
+            return;
+        }
+        CompletableFuture.supplyAsync(() -> currentTimers(expiredTimers), persistenceExecutor)
+                .handle((currentTimers, e) -> {
+                    if (e != null) {
+                        // fire rather than lose the batch, the rollover is conditional anyway
+                        log.warn("Checking " + expiredTimers.size() + " expired timers against the table failed", e);
+                        return expiredTimers;
+                    }
+                    return currentTimers;
+                })
+                .thenAccept(currentTimers -> {
+                    if (!currentTimers.isEmpty()) {
+                        completeExpiredTimers(currentTimers);
+                    }
+                });
+    }
+
+    private void completeExpiredTimers(List<UserTimer> expiredTimers) {
+        LocalDateTime handledAt = systemService.getCurrentDateTime();
+        expiredTimers.forEach(expiredTimer -> timerMetrics.timerFired(expiredTimer, handledAt));
+
         //step 1
-        CompletableFuture<Void> completionAction = CompletableFuture.runAsync(() -> triggerCompletionAction(userTimer));
+        CompletableFuture<Void> completionAction = CompletableFuture.runAsync(() -> triggerCompletionActions(expiredTimers), publishExecutor);
 
-        // Combine step 2a and 2b into one CompletableFuture
-        CompletableFuture<Void> removeAndDeleteTimer = CompletableFuture.runAsync(() -> {
-            userTimers.remove(lpaId);
-            userTimerRepository.deleteById(lpaId);
-            log(userTimer, "[Action: removeAndDeleteTimer]");
+        //step 2
+        CompletableFuture<List<UserTimer>> rolloverTimers = completionAction.thenCompose(ignored -> {
+            List<CompletableFuture<UserTimer>> rollovers = expiredTimers.stream()
+                    .map(expiredTimer -> CompletableFuture.supplyAsync(() -> rolloverToNextWindow(expiredTimer), persistenceExecutor))
+                    .collect(Collectors.toList());
+            return CompletableFuture.allOf(rollovers.toArray(CompletableFuture<?>[]::new))
+                    .thenApply(done -> {
+                        List<UserTimer> nextTimers = rollovers.stream()
+                                .map(CompletableFuture::join)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList());
+                        log("[Action: rollover] " + nextTimers.size() + " of " + expiredTimers.size() + " timers rolled over");
+                        return nextTimers;
+                    });
         });
 
-        // Wait for both completion actions to finish
-        CompletableFuture.allOf(completionAction, removeAndDeleteTimer).thenRunAsync(() -> {
-            // Start a new timer asynchronously
-            log(userTimer, "[Action: initiating new timer]");
-            startTimer(lpaId);
+        //step 3
+        rolloverTimers.thenAcceptAsync(nextTimers -> {
+            if (nextTimers.isEmpty()) {
+                return;
+            }
+            List<UserTimer> timersToSchedule;
+            synchronized (ownershipLock) {
+                // a user that was started again in the meantime keeps its new timer;
+                // next windows beyond the hot tier are left to the loader, and a
+                // partition released during the rollover to its new owner
+                timersToSchedule = nextTimers.stream()
+                        .filter(nextTimer -> isHot(nextTimer.getEndTime()))
+                        .filter(nextTimer -> timerOwnershipService.owns(nextTimer.getLpaId()))
+                        .filter(nextTimer -> !timerScheduler.isScheduled(nextTimer.getLpaId()))
+                        .collect(Collectors.toList());
+                // timers of one wave share their next end time and are armed in one
+                // scheduleAll() call; timers with other durations get their own call
+                Map<LocalDateTime, List<UserTimer>> timersByEndTime = timersToSchedule.stream()
+                        .collect(Collectors.groupingBy(UserTimer::getEndTime, LinkedHashMap::new, Collectors.toList()));
+                LocalDateTime currentDateTime = systemService.getCurrentDateTime();
+                timersByEndTime.forEach((endTime, timers) -> {
+                    timerScheduler.scheduleAll(timers, currentDateTime.until(endTime, ChronoUnit.SECONDS));
+                    timers.forEach(activeTimerIndex::put);
+                });
+            }
+            log("[Action: rollover] " + timersToSchedule.size() + " timers scheduled");
+        }, rescheduleExecutor).exceptionally(e -> {
+            log.error("Rollover failed for a batch of " + expiredTimers.size() + " timers", e);
+            return null;
         });
     }
 
+    /*
+     * Rolls one expired timer over to the window that directly follows it;
+     * returns the next timer, or null when the row changed concurrently or the
+     * update failed and was handed to the retry. A next timer that goes to the
+     * cold tier drops the expired one from the active timer index.
+     */
+    private UserTimer rolloverToNextWindow(UserTimer expiredTimer) {
+        LocalDateTime nextStartTime = expiredTimer.getEndTime();
+        UserTimer nextTimer = createNextUserTimer(expiredTimer, nextStartTime,
+                nextStartTime.plusSeconds(getDuration(expiredTimer)));
+        if (!tryRolloverTimer(expiredTimer, nextTimer, 1)) {
+            return null;
+        }
+        if (!isHot(nextTimer.getEndTime())) {
+            activeTimerIndex.remove(expiredTimer);
+        }
+        return nextTimer;
+    }
+
+    /*
+     * The tryRolloverTimer() method runs rolloverTimer() and returns false
+     * instead of throwing when the update fails, e.g. because DynamoDB is
+     * throttling. The event of the expired window is already recorded, so the
+     * failed rollover is not dropped: it is tried again after a backoff that
+     * doubles with every attempt, from retry-initial-backoff-millis up to
+     * retry-max-backoff-millis, until it goes through or its condition fails.
+     * Every failure is counted in usertimer.timers.rollover.failures.
+     */
+    private boolean tryRolloverTimer(UserTimer currentTimer, UserTimer nextTimer, int attempt) {
+        try {
+            return rolloverTimer(currentTimer, nextTimer);
+        } catch (RuntimeException e) {
+            timerMetrics.rolloverFailed();
+            long backoffMillis = Math.min(rolloverRetryMaxBackoffMillis,
+                    rolloverRetryInitialBackoffMillis << Math.min(attempt - 1, 20));
+            log.warn("Rollover failed for user " + currentTimer.getLpaId() + " (attempt " + attempt + "), retrying in "
+                    + backoffMillis + " ms", e);
+            try {
+                rolloverRetryExecutor.schedule(
+                        () -> persistenceExecutor.execute(() -> retryRollover(currentTimer, nextTimer, attempt + 1)),
+                        backoffMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                // shutting down, the recovery of the next start picks the row up
+                log.error("Rollover of user " + currentTimer.getLpaId() + " not retried, the service is stopping");
+            }
+            return false;
+        }
+    }
+
+    /*
+     * Another attempt of a failed rollover. Once it goes through, the next
+     * timer is armed like in step 3 of completeExpiredTimers(). A partition
+     * released meanwhile is left to its new owner, which loads the row.
+     */
+    private void retryRollover(UserTimer currentTimer, UserTimer nextTimer, int attempt) {
+        if (!timerOwnershipService.owns(currentTimer.getLpaId())) {
+            activeTimerIndex.remove(currentTimer);
+            return;
+        }
+        if (!tryRolloverTimer(currentTimer, nextTimer, attempt)) {
+            return;
+        }
+        log(nextTimer, "[Action: rollover retried] rolled over after " + attempt + " attempts");
+        synchronized (ownershipLock) {
+            if (!isHot(nextTimer.getEndTime()) || !timerOwnershipService.owns(nextTimer.getLpaId())) {
+                activeTimerIndex.remove(currentTimer);
+            } else if (!timerScheduler.isScheduled(nextTimer.getLpaId())) {
+                scheduleTimer(nextTimer, systemService.getCurrentDateTime().until(nextTimer.getEndTime(), ChronoUnit.SECONDS));
+            }
+        }
+    }
+
+    /*
+     * The rolloverTimer() method persists the move of a user from the current
+     * timer to the next one as a single conditional UpdateItem, instead of a
+     * delete followed by a save. The update only applies while the row still
+     * carries the version of the current timer, so a user that was stopped or
+     * restarted concurrently is left alone and false is returned.
+     */
+    private boolean rolloverTimer(UserTimer currentTimer, UserTimer nextTimer) {
+        if (userTimerRolloverRepository.rollover(currentTimer, nextTimer)) {
+            timerMetrics.timersRolledOver(1, 0);
+            return true;
+        }
+        timerMetrics.timersRolledOver(0, 1);
+        activeTimerIndex.remove(currentTimer);
+        log(currentTimer, "[Action: rollover skipped] timer was stopped or changed concurrently");
+        return false;
+    }
+
     /*
      * The @PreDestroy annotation is used on methods as a callback notification to
      * signal that the instance is in the process of being removed by the container.
@@ -154,23 +520,42 @@ public class TimerService implements ITimerService {
      * destroyed.
      * The shutdown() method is called when the application is shutting down to
      * clean up resources and stop the scheduler.
-     * The scheduler.shutdown() method is used to shut down the scheduler and stop
-     * all scheduled tasks.
+     * The timerScheduler.shutdown() method is used to shut down the scheduler and
+     * stop all scheduled tasks.
+     * Timer mutations still held back by a write-behind repository are flushed
+     * synchronously so nothing is lost.
      */
     @PreDestroy
     public void shutdown() {
-        scheduler.shutdown();
+        if (sweepExecutor != null) {
+            sweepExecutor.shutdownNow();
+        }
+        if (partitionLoader != null) {
+            partitionLoader.shutdownNow();
+        }
+        rolloverRetryExecutor.shutdownNow();
+        timerScheduler.shutdown();
+        if (userTimerRepository instanceof IFlushableRepository flushableRepository) {
+            flushableRepository.flush();
+        }
     }
 
     /**
-     * Checks if there is an active timer for the given lpaId.
+     * Checks if there is an active timer for the given lpaId: armed, or overdue
+     * and waiting for the catch-up.
+     * In a cluster the timer may be armed on another node, or not armed yet,
+     * and in tiered mode it may wait in the cold tier, so a timer that is not
+     * armed here is looked up in the table.
      *
      * @param lpaId the ID of the user
      * @return true if there is an active timer, false otherwise
      */
     @Override
     public boolean hasActiveTimer(String lpaId) {
-        return userTimers.containsKey(lpaId);
+        if (timerScheduler.isScheduled(lpaId) || catchUpService.isPending(lpaId)) {
+            return true;
+        }
+        return !armsEveryTimer() && userTimerRepository.existsById(lpaId);
     }
 
     /*
@@ -181,7 +566,8 @@ public class TimerService implements ITimerService {
      * It then calculates the expiry time by adding the duration to the current
      * time.
      * A new UserTimer object is created with the user ID and expiry time, and it is
-     * saved to the repository.
+     * saved to the repository over any row the user still has (see
+     * saveNewTimer()).
      * The scheduleTimer() method is called to schedule the timer for the user with
      * the specified duration.
      */
@@ -201,37 +587,257 @@ public class TimerService implements ITimerService {
         UserTimer userTimer = createUserTimer(lpaId);
 
         // Save the timer to the repository
-        userTimerRepository.save(userTimer);
+        saveNewTimer(userTimer);
+        armStoredTimer(userTimer);
+    }
+
+    /*
+     * The saveNewTimer() method stores a new timer over the row the user may
+     * still have without an armed timer: after a failed rollover, between the
+     * expiry and the rollover of its timer, before the recovery armed it, or in
+     * the cold tier. The mapper makes every save conditional on the version
+     * attribute, so the version of the stored row is read first; a row that
+     * changed in between fails the save and is read again. Carrying the
+     * version on, instead of overwriting it, also fails a rollover of the old
+     * timer that is still in flight.
+     */
+    private UserTimer saveNewTimer(UserTimer userTimer) {
+        for (int attempt = 1; ; attempt++) {
+            userTimer.setVersion(userTimerRepository.findById(userTimer.getLpaId())
+                    .map(UserTimer::getVersion)
+                    .orElse(null));
+            try {
+                return userTimerRepository.save(userTimer);
+            } catch (ConditionalCheckFailedException e) {
+                if (attempt >= START_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                log(userTimer, "[Action: start retried] the stored row changed concurrently");
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasActiveTimerAsync(String lpaId) {
+        if (timerScheduler.isScheduled(lpaId) || catchUpService.isPending(lpaId)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (armsEveryTimer()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return asyncUserTimerRepository.existsById(lpaId);
+    }
+
+    /*
+     * The startTimerAsync() method does what startTimer() does with the
+     * asyncUserTimerRepository: the calling thread returns as soon as the
+     * lookup is sent, and the timer is armed on the thread that completes the
+     * save (see saveNewTimerAsync()).
+     */
+    @Override
+    public CompletableFuture<Void> startTimerAsync(String lpaId) {
+        return hasActiveTimerAsync(lpaId).thenCompose(active -> {
+            if (active) {
+                log.info("An active timer is already running for user: " + lpaId);
+                return CompletableFuture.completedFuture(null);
+            }
+            return saveNewTimerAsync(createUserTimer(lpaId), 1).thenAccept(this::armStoredTimer);
+        });
+    }
+
+    /*
+     * saveNewTimer() on the asyncUserTimerRepository
+     */
+    private CompletableFuture<UserTimer> saveNewTimerAsync(UserTimer userTimer, int attempt) {
+        return asyncUserTimerRepository.findById(userTimer.getLpaId())
+                .thenCompose(stored -> {
+                    userTimer.setVersion(stored.map(UserTimer::getVersion).orElse(null));
+                    return asyncUserTimerRepository.save(userTimer);
+                })
+                .exceptionallyCompose(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof ConditionalCheckFailedException) || attempt >= START_SAVE_ATTEMPTS) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    log(userTimer, "[Action: start retried] the stored row changed concurrently");
+                    return saveNewTimerAsync(userTimer, attempt + 1);
+                });
+    }
+
+    /*
+     * Arms a timer that was just stored, unless another node or the cold tier
+     * takes care of it
+     */
+    private void armStoredTimer(UserTimer userTimer) {
+        String lpaId = userTimer.getLpaId();
         log(userTimer, "[Action: new timercreated, saved]");
-        // Schedule the timer
-        scheduleTimer(userTimer, userTimer.getDuration());
+        timerMetrics.timersStarted(1);
+        timerEventStream.started(userTimer);
+        if (!isHot(userTimer.getEndTime())) {
+            // armed by loadNextSlice() before it comes due
+            log(userTimer, "[Action: timer stored in the cold tier]");
+            return;
+        }
+        synchronized (ownershipLock) {
+            if (timerOwnershipService.owns(lpaId)) {
+                // Schedule the timer
+                scheduleTimer(userTimer, userTimer.getDuration());
+                return;
+            }
+        }
+        // armed by the owner of the partition, see sweepOwnedTimers()
+        log(userTimer, "[Action: timer stored for the node owning partition " + timerOwnershipService.partitionOf(lpaId) + "]");
+    }
+
+    /*
+     * The startTimers() method starts the timers of a whole wave of users.
+     * The lpaIds are deduplicated and users with an active timer are skipped.
+     * All new timers share the same start time, so they are stored with batched
+     * writes (saveAll, BULK_SAVE_CHUNK_SIZE timers per call, chunks written in
+     * parallel on the persistence executor) and armed in one
+     * scheduleAll() pass. A chunk that cannot be stored is reported as failed
+     * and not scheduled. The stored rows of the users are looked up in one
+     * batched read first: a batched write is not conditional on the version
+     * attribute, so a user whose row is stored but not armed is started with
+     * saveNewTimer() instead, like startTimer() does. In a cluster or tiered
+     * mode a stored row counts as an active timer, and only the users of owned
+     * partitions are armed here; in tiered mode timers ending beyond the hot
+     * tier are only stored.
+     */
+    @Override
+    public BulkStartResult startTimers(Collection<String> lpaIds) {
+        long startedNanos = System.nanoTime();
+        Map<String, BulkStartResult.Status> results = new LinkedHashMap<>();
+        Set<String> distinctIds = new LinkedHashSet<>();
+        int duplicates = 0;
+        int invalid = 0;
+        for (String lpaId : lpaIds) {
+            if (lpaId == null || lpaId.isBlank()) {
+                invalid++;
+            } else if (!distinctIds.add(lpaId)) {
+                duplicates++;
+            }
+        }
+
+        List<UserTimer> newTimers = new ArrayList<>(distinctIds.size());
+        List<UserTimer> replacingTimers = new ArrayList<>();
+        LocalDateTime startDateTime = systemService.getCurrentDateTime();
+        long durationInSeconds = configurationService.getTimerDuration();
+        Set<String> armedIds = distinctIds.stream()
+                .filter(lpaId -> timerScheduler.isScheduled(lpaId) || catchUpService.isPending(lpaId))
+                .collect(Collectors.toSet());
+        Set<String> storedIds = storedTimerIds(distinctIds, armedIds);
+        for (String lpaId : distinctIds) {
+            if (armedIds.contains(lpaId) || (!armsEveryTimer() && storedIds.contains(lpaId))) {
+                results.put(lpaId, BulkStartResult.Status.ALREADY_ACTIVE);
+                continue;
+            }
+            results.put(lpaId, null);
+            UserTimer newTimer = createUserTimer(lpaId, startDateTime, durationInSeconds);
+            if (storedIds.contains(lpaId)) {
+                replacingTimers.add(newTimer);
+            } else {
+                newTimers.add(newTimer);
+            }
+        }
+
+        // the chunks and the replacing saves are written concurrently on the persistence executor
+        List<CompletableFuture<List<UserTimer>>> saves = new ArrayList<>();
+        for (int from = 0; from < newTimers.size(); from += BULK_SAVE_CHUNK_SIZE) {
+            List<UserTimer> chunk = newTimers.subList(from, Math.min(from + BULK_SAVE_CHUNK_SIZE, newTimers.size()));
+            saves.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    userTimerRepository.saveAll(chunk);
+                    return chunk;
+                } catch (RuntimeException e) {
+                    log.error("Bulk start: saving " + chunk.size() + " timers failed", e);
+                    return List.<UserTimer>of();
+                }
+            }, persistenceExecutor));
+        }
+        for (UserTimer replacingTimer : replacingTimers) {
+            saves.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    saveNewTimer(replacingTimer);
+                    return List.of(replacingTimer);
+                } catch (RuntimeException e) {
+                    log.error("Bulk start: saving the timer of user " + replacingTimer.getLpaId() + " failed", e);
+                    return List.<UserTimer>of();
+                }
+            }, persistenceExecutor));
+        }
+        List<UserTimer> startingTimers = new ArrayList<>(newTimers);
+        startingTimers.addAll(replacingTimers);
+        List<UserTimer> storedTimers = new ArrayList<>(startingTimers.size());
+        saves.forEach(save -> storedTimers.addAll(save.join()));
+        startingTimers.forEach(timer -> results.put(timer.getLpaId(), BulkStartResult.Status.FAILED));
+        storedTimers.forEach(timer -> results.put(timer.getLpaId(), BulkStartResult.Status.STARTED));
+
+        if (!storedTimers.isEmpty()) {
+            synchronized (ownershipLock) {
+                List<UserTimer> ownedTimers = storedTimers.stream()
+                        .filter(timer -> timerOwnershipService.owns(timer.getLpaId()))
+                        .filter(timer -> isHot(timer.getEndTime()))
+                        .collect(Collectors.toList());
+                timerScheduler.scheduleAll(ownedTimers, durationInSeconds);
+                ownedTimers.forEach(activeTimerIndex::put);
+            }
+            timerMetrics.timersStarted(storedTimers.size());
+            storedTimers.forEach(timerEventStream::started);
+        }
+
+        int alreadyActive = distinctIds.size() - startingTimers.size();
+        int failed = startingTimers.size() - storedTimers.size();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+        log("[Action: bulk start] " + storedTimers.size() + " of " + lpaIds.size() + " timers started in "
+                + elapsedMillis + " ms (" + alreadyActive + " already active, " + duplicates + " duplicates, "
+                + replacingTimers.size() + " over a stored row, " + failed + " failed)");
+        return new BulkStartResult(lpaIds.size(), storedTimers.size(), alreadyActive, duplicates, invalid, failed,
+                results);
+    }
+
+    /*
+     * The lpaIds that are not armed here but have a stored row, read with one
+     * batched lookup
+     */
+    private Set<String> storedTimerIds(Collection<String> lpaIds, Set<String> armedIds) {
+        List<String> unarmedIds = lpaIds.stream()
+                .filter(lpaId -> !armedIds.contains(lpaId))
+                .collect(Collectors.toList());
+        Set<String> storedIds = new HashSet<>();
+        if (!unarmedIds.isEmpty()) {
+            userTimerRepository.findAllById(unarmedIds).forEach(timer -> storedIds.add(timer.getLpaId()));
+        }
+        return storedIds;
     }
 
     /*
      * The stopTimer() method is used to stop a timer for a given user.
-     * The method first retrieves the scheduled future for the user from the
-     * userTimers map.
-     * If a future exists, it is canceled to stop the timer from triggering the
-     * completion action.
-     * The user is then removed from the userTimers map, and the timer is deleted
-     * from the repository.
+     * The timer is disarmed in the scheduler so it no longer triggers the
+     * completion action, and the timer is deleted from the repository.
      */
     @Override
     public void stopTimer(String lpaId) {
-        ScheduledFuture<?> future = userTimers.remove(lpaId);
-        if (future != null) {
-            future.cancel(true);
-        }
+        timerScheduler.cancel(lpaId);
+        catchUpService.cancel(lpaId);
+        activeTimerIndex.remove(lpaId);
         userTimerRepository.deleteById(lpaId);
+        timerEventStream.stopped(lpaId);
     }
 
     @Override
     public List<UserTimer> getActiveTimers() {
-        LocalDateTime now = LocalDateTime.now();
-        return userTimers.keySet().stream()
-                .map(lpaId -> userTimerRepository.findById(lpaId).orElse(null))
-                .filter(timer -> timer != null && timer.getEndTime().isAfter(now))
-                .collect(Collectors.toList());
+        return getActiveTimers(null, Integer.MAX_VALUE, null).items();
+    }
+
+    /*
+     * The active timers are served from the in-memory activeTimerIndex, which is
+     * updated on start, stop and rollover, so listing them costs no DynamoDB
+     * reads.
+     */
+    @Override
+    public TimerPage<UserTimer> getActiveTimers(String cursor, int limit, LocalDateTime expiringBefore) {
+        return activeTimerIndex.page(cursor, limit, systemService.getCurrentDateTime(), expiringBefore);
     }
 
     /*
@@ -241,55 +847,65 @@ public class TimerService implements ITimerService {
      * the updated UserTimer object with the next available timer window.
      * If the current time is within the original timer's start and end times, the
      * method returns the original timer as it is.
-     * If the current time is after the end time, the method calculates how much
-     * time has passed since the end time.
+     * If the current time is after the end time, the window is moved forward by
+     * whole durations until it contains the current time; a current time on a
+     * window boundary starts the new window. The arithmetic is done in exact
+     * seconds, so durations that are not whole hours keep their phase.
      */
     public static UserTimer getNextUserTimer(UserTimer timer, LocalDateTime currentTime) {
         LocalDateTime startTime = timer.getStartTime();
         LocalDateTime endTime = timer.getEndTime();
 
-        // Calculate the duration between start and end time, which is 4 hours (by
-        // design)
-        long duration = ChronoUnit.HOURS.between(startTime, endTime);
-
         // If the current time is within the start and end time range, return them as
         // they are
         if (!currentTime.isAfter(endTime)) {
             return timer;
         }
 
-        // Calculate how much time has passed since the end time
-        long hoursAfterStart = ChronoUnit.HOURS.between(endTime, currentTime);
-
-        // Determine the integral multiplier of the duration
-        long cycles = hoursAfterStart / duration;
-
-        // If the current time is greater than the new start time, add 1 to cycles
-        if (currentTime.isAfter(startTime.plusHours(cycles * duration))) {
-            cycles++;
-        }
-        if (currentTime.equals(startTime.plusHours(cycles * duration).plusHours(duration))) {
-            cycles++;
+        // Duration of one window in seconds, 4 hours by default
+        long duration = ChronoUnit.SECONDS.between(startTime, endTime);
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Timer of user " + timer.getLpaId() + " has an empty window");
         }
 
-        // Calculate new start and end times by adding the time after the end to the
+        // Number of whole windows between the original start and the current time
+        long cycles = ChronoUnit.SECONDS.between(startTime, currentTime) / duration;
+
+        // Calculate new start and end times by adding the whole windows to the
         // original times
-        LocalDateTime newStartTime = startTime.plusHours(cycles * duration);
-        LocalDateTime newEndTime = newStartTime.plusHours(duration);
+        LocalDateTime newStartTime = startTime.plusSeconds(cycles * duration);
+        LocalDateTime newEndTime = newStartTime.plusSeconds(duration);
 
         // Return the updated UserTimer
         return UserTimer.builder()
                 .timerId(timer.getTimerId())
                 .lpaId(timer.getLpaId())
                 .startTime(newStartTime)
+                .duration(duration)
                 .endTime(newEndTime)
                 .build();
     }
 
+    /*
+     * The number of whole windows between the end of the timer and the start of
+     * the next window: the windows that ended without an event of their own
+     */
+    public static long getMissedWindows(UserTimer timer, UserTimer nextWindow) {
+        long duration = ChronoUnit.SECONDS.between(timer.getStartTime(), timer.getEndTime());
+        if (duration <= 0 || !nextWindow.getStartTime().isAfter(timer.getEndTime())) {
+            return 0;
+        }
+        return ChronoUnit.SECONDS.between(timer.getEndTime(), nextWindow.getStartTime()) / duration;
+    }
+
     private UserTimer createUserTimer(String lpaId) {
         // Get the duration for the timer
         long durationInSeconds = configurationService.getTimerDuration();
         LocalDateTime startDateTime = systemService.getCurrentDateTime();
+        return createUserTimer(lpaId, startDateTime, durationInSeconds);
+    }
+
+    private UserTimer createUserTimer(String lpaId, LocalDateTime startDateTime, long durationInSeconds) {
         // Calculate the expiry time
         LocalDateTime endTime = startDateTime.plusSeconds(durationInSeconds);
         // Create a new UserTimer object
@@ -302,24 +918,226 @@ public class TimerService implements ITimerService {
                 .build();
     }
 
+    /*
+     * The createNextUserTimer() method builds the timer of the given window for the
+     * user of the current timer. Every window gets a new timerId; the version is
+     * carried over so the rollover can be made conditional on it.
+     */
+    private UserTimer createNextUserTimer(UserTimer currentTimer, LocalDateTime startTime, LocalDateTime endTime) {
+        return UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(currentTimer.getLpaId())
+                .startTime(startTime)
+                .duration(getDuration(currentTimer))
+                .endTime(endTime)
+                .version(currentTimer.getVersion())
+                .build();
+    }
+
+    private long getDuration(UserTimer userTimer) {
+        return userTimer.getDuration() > 0 ? userTimer.getDuration() : configurationService.getTimerDuration();
+    }
+
     /*
      * The scheduleTimer() method is used to schedule a timer for a given user with
      * a specified delay in seconds.
-     * The method creates a new scheduled future using the scheduler to execute the
-     * onTimerCompletionAction() method after the specified delay.
-     * The future is stored in the userTimers map with the user ID as the key for
-     * future reference.
-     * When the timer completes, the onTimerCompletionAction() method is called to
-     * trigger the completion action for the user.
+     * The timer is armed in the timerScheduler, keyed by the user ID, and expires
+     * after the specified delay.
+     * When the timer completes, the onTimersExpired() method is called together
+     * with every other timer that expired on the same tick.
      */
     private void scheduleTimer(UserTimer userTimer, long completionDelay) {
-        String lpaId = userTimer.getLpaId();
-        ScheduledFuture<?> future = scheduler.schedule(() -> onTimerCompletionAction(userTimer), completionDelay,
-                TimeUnit.SECONDS);
-        userTimers.put(lpaId, future);
+        timerScheduler.schedule(userTimer, completionDelay);
+        activeTimerIndex.put(userTimer);
         log(userTimer, "[Action: timer scheduled] Timer expired");
     }
 
+    /*
+     * The currentTimers() method keeps the expired timers this node still owns
+     * and whose timerId is still the one stored, reading the batch from the
+     * table in one call. Timers stopped or restarted through another node are
+     * dropped here instead of being fired.
+     */
+    private List<UserTimer> currentTimers(List<UserTimer> expiredTimers) {
+        List<String> lpaIds = expiredTimers.stream().map(UserTimer::getLpaId).collect(Collectors.toList());
+        Map<String, UUID> storedTimerIds = new HashMap<>();
+        userTimerRepository.findAllById(lpaIds)
+                .forEach(stored -> storedTimerIds.put(stored.getLpaId(), stored.getTimerId()));
+        List<UserTimer> currentTimers = new ArrayList<>(expiredTimers.size());
+        for (UserTimer timer : expiredTimers) {
+            if (timerOwnershipService.owns(timer.getLpaId())
+                    && Objects.equals(storedTimerIds.get(timer.getLpaId()), timer.getTimerId())) {
+                currentTimers.add(timer);
+            } else {
+                activeTimerIndex.remove(timer);
+            }
+        }
+        if (currentTimers.size() < expiredTimers.size()) {
+            log("[Action: stale timers dropped] " + (expiredTimers.size() - currentTimers.size())
+                    + " timers were stopped, restarted or moved on another node");
+        }
+        return currentTimers;
+    }
+
+    /*
+     * The sweepOwnedTimers() method arms the timers of owned partitions that
+     * expire within the sweep horizon and are not armed yet: the timers other
+     * nodes started for users of this node. It reads the expiry index, not the
+     * whole table, and leaves out the next few seconds, which the node that
+     * stored a timer never hands over that close to its end.
+     */
+    private void sweepOwnedTimers() {
+        try {
+            LocalDateTime now = systemService.getCurrentDateTime();
+            timerRecoveryService.recoverEndTimeRange(now.plusSeconds(SWEEP_MIN_LEAD_SECONDS),
+                    now.plusSeconds(sweepHorizonSeconds), page -> {
+                        LocalDateTime currentDateTime = systemService.getCurrentDateTime();
+                        int armed = 0;
+                        synchronized (ownershipLock) {
+                            for (UserTimer timer : page) {
+                                if (timerOwnershipService.owns(timer.getLpaId())
+                                        && !timerScheduler.isScheduled(timer.getLpaId())) {
+                                    scheduleTimer(timer, currentDateTime.until(timer.getEndTime(), ChronoUnit.SECONDS));
+                                    armed++;
+                                }
+                            }
+                        }
+                        if (armed > 0) {
+                            log("[Action: sweep] " + armed + " timers armed for owned partitions");
+                        }
+                    });
+        } catch (RuntimeException e) {
+            log.error("Sweeping the expiry index for owned timers failed", e);
+        }
+    }
+
+    /*
+     * The loadNextSlice() method moves the edge of the hot tier forward to now
+     * plus the tiering horizon and arms the stored timers ending in between,
+     * read from the expiry index. The edge moves before the read, so a timer
+     * started meanwhile is either armed by startTimer() or found by the read.
+     * The read starts one load interval before the old edge, which is still
+     * far from due, to pick up rows the index showed late last time; timers
+     * already armed are skipped.
+     * Package-private so tests can load a slice on their own clock.
+     */
+    void loadNextSlice() {
+        try {
+            LocalDateTime from = hotUntil;
+            LocalDateTime to = systemService.getCurrentDateTime().plusSeconds(tieringHorizonSeconds);
+            if (!to.isAfter(from)) {
+                return;
+            }
+            hotUntil = to;
+            int[] armed = new int[1];
+            timerRecoveryService.recoverEndTimeRange(from.minusSeconds(tieringLoadIntervalSeconds), to, page -> {
+                LocalDateTime currentDateTime = systemService.getCurrentDateTime();
+                for (UserTimer timer : page) {
+                    long delay = currentDateTime.until(timer.getEndTime(), ChronoUnit.SECONDS);
+                    if (delay > 0 && !timerScheduler.isScheduled(timer.getLpaId())) {
+                        scheduleTimer(timer, delay);
+                        armed[0]++;
+                    }
+                }
+            });
+            log("[Action: tier load] " + armed[0] + " timers ending before " + to + " moved to the hot tier");
+        } catch (RuntimeException e) {
+            log.error("Loading the next slice of the cold tier failed", e);
+        }
+    }
+
+    /*
+     * Whether a timer ending at endTime is armed now: always, unless tiered
+     * mode leaves it in the cold tier
+     */
+    private boolean isHot(LocalDateTime endTime) {
+        return !tiered || endTime.isBefore(hotUntil);
+    }
+
+    /*
+     * False when stored timers may be unarmed on this node: in a cluster, or in
+     * the cold tier
+     */
+    private boolean armsEveryTimer() {
+        return !timerOwnershipService.isClustered() && !tiered;
+    }
+
+    /*
+     * Arms and disarms the timers of the partitions this node gains and loses.
+     * Acquired partitions are loaded on the single partition-load thread, so
+     * the lease heartbeat is never held up by a table read. Partitions
+     * acquired while a load runs are collected and loaded together by the
+     * next one, a single pass over the table for however many acquisitions
+     * came in meanwhile. Every page is filtered and armed under the
+     * ownershipLock, the guard onPartitionsReleased() disarms under, so a
+     * partition released during the load is never armed again. A failed load
+     * is tried again after the sweep interval for the partitions still owned.
+     */
+    private class PartitionListener implements ITimerOwnershipService.OwnershipListener {
+
+        @Override
+        public void onPartitionsAcquired(Set<Integer> partitions) {
+            boolean loadQueued;
+            synchronized (partitionsToLoad) {
+                loadQueued = !partitionsToLoad.isEmpty();
+                partitionsToLoad.addAll(partitions);
+            }
+            if (!loadQueued) {
+                partitionLoader.execute(this::loadAcquiredPartitions);
+            }
+        }
+
+        @Override
+        public void onPartitionsReleased(Set<Integer> partitions) {
+            int disarmed = 0;
+            synchronized (ownershipLock) {
+                for (String lpaId : timerScheduler.getScheduledIds()) {
+                    if (partitions.contains(timerOwnershipService.partitionOf(lpaId))) {
+                        timerScheduler.cancel(lpaId);
+                        activeTimerIndex.remove(lpaId);
+                        disarmed++;
+                    }
+                }
+            }
+            log("[Action: partitions released] " + partitions + ", " + disarmed + " timers disarmed");
+        }
+
+        private void loadAcquiredPartitions() {
+            Set<Integer> partitions;
+            synchronized (partitionsToLoad) {
+                partitions = new HashSet<>(partitionsToLoad);
+                partitionsToLoad.clear();
+            }
+            if (partitions.isEmpty()) {
+                return;
+            }
+            try {
+                timerRecoveryService.recoverAll(page -> {
+                    synchronized (ownershipLock) {
+                        List<UserTimer> ownedTimers = page.stream()
+                                .filter(timer -> partitions.contains(timerOwnershipService.partitionOf(timer.getLpaId())))
+                                .filter(timer -> timerOwnershipService.owns(timer.getLpaId()))
+                                .collect(Collectors.toList());
+                        if (!ownedTimers.isEmpty()) {
+                            restoreTimers(ownedTimers);
+                        }
+                    }
+                });
+                log("[Action: partitions loaded] " + partitions);
+            } catch (RuntimeException e) {
+                log.error("Loading the timers of partitions " + partitions + " failed, retrying in "
+                        + sweepIntervalSeconds + " s", e);
+                try {
+                    partitionLoader.schedule(() -> onPartitionsAcquired(partitions.stream()
+                            .filter(partition -> timerOwnershipService.getOwnedPartitions().contains(partition))
+                            .collect(Collectors.toSet())), sweepIntervalSeconds, TimeUnit.SECONDS);
+                } catch (RejectedExecutionException rejected) {
+                    log.error("Loading the timers of partitions " + partitions + " not retried, the service is stopping");
+                }
+            }
+        }
+    }
+
     
 
 
@@ -327,22 +1145,28 @@ public class TimerService implements ITimerService {
 
 
     /*
-     * The triggerCompletionAction() method is used to trigger the completion action
-     * for a given user.
-     * The method publishes a ResetTimerEvent to notify other components.
+     * The triggerCompletionActions() method records the ResetTimerEvents of a
+     * whole batch of expired timers in the event outbox in one call. The outbox
+     * delivers them to the notification service.
      */
-    private void triggerCompletionAction(UserTimer userTimer) {
-        // String lpaId = userTimer.getLpaId();
-        log(userTimer, "[Action: triggerCompletionAction]");
-        //triggerCompletionAction
-        CompletableFuture.runAsync(() -> {
-            var event = ResetTimerEvent.builder()
-            .userTimer(userTimer)
-            .source(this)
-            .build();
-            notificationService.publishEvent(event);
-            log(userTimer, "[Action: event published for reset nottification]");
-        });
+    private void triggerCompletionActions(List<UserTimer> userTimers) {
+        List<ResetTimerEvent> events = userTimers.stream()
+                .map(userTimer -> ResetTimerEvent.builder()
+                        .userTimer(userTimer)
+                        .source(this)
+                        .build())
+                .collect(Collectors.toList());
+        recordEvents(events);
+    }
+
+    /*
+     * Records the events in the outbox, then pushes them to the subscribers of
+     * /timers/events
+     */
+    private void recordEvents(List<ResetTimerEvent> events) {
+        eventOutbox.append(events);
+        timerEventStream.completed(events);
+        log("[Action: events recorded for reset notification] " + events.size() + " events");
     }
 
     private void log(String message) {
@@ -0,0 +1,188 @@
+package com.smartplay.usertimer.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.smartplay.usertimer.config.TimerSchedulerConfig;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.concurrent.NamedThreadFactory;
+import com.smartplay.usertimer.tools.scheduling.TimerStore;
+import com.smartplay.usertimer.tools.scheduling.WheelTimerStore;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scheduling engine backed by a hierarchical timing wheel, either the
+ * HierarchicalTimingWheel of UserTimer objects (WheelTimerStore) or the
+ * primitive CompactTimerStore. Schedule and cancel are O(1) and no per-timer
+ * future is allocated. A ticker thread advances the wheel
+ * once per tick and hands everything that expired on that tick to the
+ * completion executor as one batch, so a slow handler never delays the wheel.
+ *
+ * Timers fire on the first tick at or after their due time, i.e. up to one tick
+ * late.
+ */
+@Slf4j
+public class TimingWheelTimerScheduler implements ITimerScheduler {
+
+    private final TimerStore store;
+    private final String name;
+    private final String engine;
+    private final long tickNanos;
+    private final long startNanos;
+    private final int maxBatchSize;
+    private final Thread ticker;
+    private final ExecutorService completionExecutor;
+    private final LongAdder scheduledCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final LongAdder firedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private volatile ExpiryHandler expiryHandler = expired -> log.warn("No expiry handler, dropping {} timers", expired.size());
+    private volatile boolean running = true;
+
+    public TimingWheelTimerScheduler(String name, long tickMillis, int maxBatchSize) {
+        this(name, TimerSchedulerConfig.ENGINE_WHEEL, tickMillis, maxBatchSize, new WheelTimerStore(0));
+    }
+
+    /*
+     * The store starts at tick 0, the tick the scheduler is created at
+     */
+    public TimingWheelTimerScheduler(String name, String engine, long tickMillis, int maxBatchSize, TimerStore store) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive: " + tickMillis);
+        }
+        this.name = name;
+        this.engine = engine;
+        this.store = store;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.startNanos = System.nanoTime();
+        this.completionExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory(name + "-completion"));
+        this.ticker = new NamedThreadFactory(name + "-ticker").newThread(this::runTicker);
+        this.ticker.start();
+    }
+
+    /*
+     * The timers of this shard; callers synchronize on it
+     */
+    public TimerStore getStore() {
+        return store;
+    }
+
+    @Override
+    public void setExpiryHandler(ExpiryHandler expiryHandler) {
+        this.expiryHandler = expiryHandler;
+    }
+
+    @Override
+    public void schedule(UserTimer userTimer, long delayInSeconds) {
+        long deadlineTick = deadlineTick(delayInSeconds);
+        synchronized (store) {
+            store.add(userTimer, deadlineTick);
+        }
+        scheduledCount.increment();
+    }
+
+    @Override
+    public void scheduleAll(Collection<UserTimer> userTimers, long delayInSeconds) {
+        long deadlineTick = deadlineTick(delayInSeconds);
+        synchronized (store) {
+            for (UserTimer userTimer : userTimers) {
+                store.add(userTimer, deadlineTick);
+            }
+        }
+        scheduledCount.add(userTimers.size());
+    }
+
+    @Override
+    public boolean cancel(String lpaId) {
+        boolean cancelled;
+        synchronized (store) {
+            cancelled = store.remove(lpaId);
+        }
+        if (cancelled) {
+            cancelledCount.increment();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean isScheduled(String lpaId) {
+        synchronized (store) {
+            return store.contains(lpaId);
+        }
+    }
+
+    @Override
+    public Set<String> getScheduledIds() {
+        synchronized (store) {
+            return store.keys();
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (store) {
+            return store.size();
+        }
+    }
+
+    @Override
+    public List<TimerSchedulerStats> getStats() {
+        return List.of(new TimerSchedulerStats(name, engine, size(),
+                scheduledCount.sum(), cancelledCount.sum(), firedCount.sum(), batchCount.sum()));
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(ticker);
+        completionExecutor.shutdown();
+    }
+
+    private long deadlineTick(long delayInSeconds) {
+        long dueNanos = System.nanoTime() - startNanos + TimeUnit.SECONDS.toNanos(Math.max(delayInSeconds, 0));
+        // round up so that a timer never fires before its delay has elapsed
+        return (dueNanos + tickNanos - 1) / tickNanos;
+    }
+
+    private void runTicker() {
+        while (running) {
+            long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+            List<UserTimer> expired = new ArrayList<>();
+            synchronized (store) {
+                store.advanceTo(elapsedTicks, expired);
+            }
+            firedCount.add(expired.size());
+            for (int from = 0; from < expired.size(); from += maxBatchSize) {
+                dispatch(expired.subList(from, Math.min(from + maxBatchSize, expired.size())));
+            }
+            long nextTickNanos = startNanos + (elapsedTicks + 1) * tickNanos;
+            LockSupport.parkNanos(nextTickNanos - System.nanoTime());
+        }
+    }
+
+    private void dispatch(List<UserTimer> batch) {
+        batchCount.increment();
+        try {
+            completionExecutor.execute(() -> {
+                try {
+                    expiryHandler.onExpired(batch);
+                } catch (RuntimeException e) {
+                    log.error("Expiry handler failed for a batch of {} timers", batch.size(), e);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Unable to dispatch {} expired timers", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.time.LocalDateTime;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+
+/*
+ * In-memory view of the armed timers that serves the active timer listing,
+ * kept up to date by TimerService on start, stop and rollover.
+ */
+public interface IActiveTimerIndex {
+
+    void put(UserTimer userTimer);
+
+    void remove(String lpaId);
+
+    /*
+     * Removes the entry only while it still is the given timer
+     */
+    void remove(UserTimer userTimer);
+
+    UserTimer get(String lpaId);
+
+    int size();
+
+    /*
+     * Returns up to limit timers ending after now (and before expiringBefore,
+     * when given), starting after the cursor.
+     */
+    TimerPage<UserTimer> page(String cursor, int limit, LocalDateTime now, LocalDateTime expiringBefore);
+}
@@ -0,0 +1,46 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.List;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.CatchUpProgress;
+
+/*
+ * Completes the timers whose endTime passed while the service was down, at a
+ * bounded rate and oldest first, instead of all at once at startup.
+ */
+public interface ICatchUpService {
+
+    /*
+     * Start draining; every batch of overdue timers is handed to the handler on
+     * the catch-up thread
+     */
+    void start(CatchUpHandler handler);
+
+    /*
+     * Queue overdue timers; may be called from several threads at once
+     */
+    void submit(List<UserTimer> overdueTimers);
+
+    /*
+     * True while an overdue timer of the user waits to be completed
+     */
+    boolean isPending(String lpaId);
+
+    /*
+     * Drop the pending timer of the user, if any
+     */
+    boolean cancel(String lpaId);
+
+    CatchUpProgress getProgress();
+
+    interface CatchUpHandler {
+
+        /*
+         * Publish the completion events of the overdue timers and move them on
+         * to their current window; returns the number of windows that ended
+         * during the downtime without an event of their own
+         */
+        long complete(List<UserTimer> overdueTimers);
+    }
+}
@@ -0,0 +1,18 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.List;
+
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.EventOutboxStats;
+
+/*
+ * Hands completion events over to the notification service. append() returns
+ * once the events are recorded, so a timer can be rolled over afterwards
+ * without losing its event if the process dies before the publish.
+ */
+public interface IEventOutbox {
+
+    void append(List<ResetTimerEvent> events);
+
+    EventOutboxStats getStats();
+}
@@ -1,5 +1,24 @@
 package com.smartplay.usertimer.services.interfaces;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public interface INotificationService {
     <T> void publishEvent(T event);
+
+    /*
+     * Publish a batch of events, e.g. every completion of one scheduler tick
+     */
+    default <T> void publishEvents(List<T> events) {
+        events.forEach(this::publishEvent);
+    }
+
+    /*
+     * Publish a batch of events; the future completes once they are delivered
+     * (or safely parked) and fails if any of them were dropped
+     */
+    default <T> CompletableFuture<Void> publishEventsAcknowledged(List<T> events) {
+        publishEvents(events);
+        return CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,15 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.List;
+
+/*
+ * Destination of the events published by NotificationService, e.g. an HTTP
+ * endpoint or a queue. Called from the publisher thread only, with one batch at
+ * a time; a batch that could not be delivered is signalled by an exception.
+ */
+public interface INotificationSink {
+
+    String getName();
+
+    void publish(List<?> events) throws Exception;
+}
@@ -0,0 +1,14 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import com.smartplay.usertimer.model.stats.StorageMigrationStats;
+
+public interface IStorageMigrationService {
+
+    /*
+     * Start rewriting the rows stored in the other format in the background;
+     * does nothing if a migration is already running
+     */
+    void start();
+
+    StorageMigrationStats getStats();
+}
@@ -0,0 +1,31 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.List;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.TimerEventStreamStats;
+
+public interface ITimerEventStream {
+
+    /*
+     * Publish timer starts, stops and completions to the subscribers; never
+     * blocks on a subscriber
+     */
+    void started(UserTimer userTimer);
+
+    void stopped(String lpaId);
+
+    void completed(List<ResetTimerEvent> events);
+
+    /*
+     * Subscribe to the events of the users whose lpaId starts with the prefix
+     * (all when null), starting after the given sequence (the latest event
+     * when null). Throws IllegalStateException at the subscriber limit.
+     */
+    SseEmitter subscribe(String lpaIdPrefix, Long afterSequence);
+
+    TimerEventStreamStats getStats();
+}
@@ -0,0 +1,46 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.Set;
+
+import com.smartplay.usertimer.model.stats.TimerClusterStats;
+
+/*
+ * Decides which node arms the timer of a user. The lpaIds are split into a
+ * fixed number of partitions and every partition is owned by exactly one
+ * node; only the owner arms, fires and rolls over its timers.
+ */
+public interface ITimerOwnershipService {
+
+    /*
+     * False on a single node, which owns every partition and never changes
+     */
+    boolean isClustered();
+
+    boolean owns(String lpaId);
+
+    int partitionOf(String lpaId);
+
+    Set<Integer> getOwnedPartitions();
+
+    /*
+     * Start taking part in the partition assignment; the listener is told about
+     * every partition this node gains or gives up from then on
+     */
+    void start(OwnershipListener listener);
+
+    TimerClusterStats getStats();
+
+    interface OwnershipListener {
+
+        /*
+         * The partitions are owned now; their stored timers must be armed
+         */
+        void onPartitionsAcquired(Set<Integer> partitions);
+
+        /*
+         * The partitions are no longer owned; their timers must be disarmed
+         * before another node arms them
+         */
+        void onPartitionsReleased(Set<Integer> partitions);
+    }
+}
@@ -0,0 +1,41 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerRecoveryProgress;
+
+public interface ITimerRecoveryService {
+
+    /*
+     * Load every stored timer and hand it to the consumer page by page. The
+     * consumer may be called from several threads at once.
+     */
+    void recover(Consumer<List<UserTimer>> pageConsumer);
+
+    /*
+     * Load every stored timer in a single pass, without the near-term phase,
+     * and return once every page has been handed out. The consumer may be
+     * called from several threads at once.
+     */
+    void recoverAll(Consumer<List<UserTimer>> pageConsumer);
+
+    /*
+     * Load the stored timers ending in [endTimeFrom, endTimeTo) from the expiry
+     * index, on the caller's thread
+     */
+    void recoverEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo, Consumer<List<UserTimer>> pageConsumer);
+
+    /*
+     * True once every timer due within the ready horizon has been handed out
+     * by the first recovery; stays true while later recoveries run
+     */
+    boolean isNearTermArmed();
+
+    /*
+     * Progress of the latest recover() or recoverAll() call
+     */
+    TimerRecoveryProgress getProgress();
+}
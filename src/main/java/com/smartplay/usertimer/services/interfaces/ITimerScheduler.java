@@ -0,0 +1,64 @@
+package com.smartplay.usertimer.services.interfaces;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+
+/*
+ * Scheduling engine behind TimerService. At most one timer is armed per lpaId;
+ * scheduling again for the same lpaId replaces the previous timer.
+ * Expired timers are handed to the ExpiryHandler in batches: every timer that
+ * comes due on the same tick is delivered in one call. A timer is no longer
+ * reported as scheduled once it has been handed out.
+ */
+public interface ITimerScheduler {
+
+    /*
+     * Receives every batch of expired timers
+     */
+    void setExpiryHandler(ExpiryHandler expiryHandler);
+
+    /*
+     * Arm the timer for its user to expire after the given delay
+     */
+    void schedule(UserTimer userTimer, long delayInSeconds);
+
+    /*
+     * Arm several timers with the same delay in one pass
+     */
+    default void scheduleAll(Collection<UserTimer> userTimers, long delayInSeconds) {
+        userTimers.forEach(userTimer -> schedule(userTimer, delayInSeconds));
+    }
+
+    /*
+     * Disarm the timer for the user, returns false if nothing was armed
+     */
+    boolean cancel(String lpaId);
+
+    boolean isScheduled(String lpaId);
+
+    Set<String> getScheduledIds();
+
+    int size();
+
+    /*
+     * Counters per shard; an unsharded engine reports a single entry
+     */
+    List<TimerSchedulerStats> getStats();
+
+    void shutdown();
+
+    @FunctionalInterface
+    interface ExpiryHandler {
+        /*
+         * Called on the scheduler's completion thread, never on its tick
+         * thread. The handler must not do the work of the batch there: it hands
+         * it to its own executors and at most waits for room in their queues,
+         * which holds back the following batches, not the ticks.
+         */
+        void onExpired(List<UserTimer> expiredTimers);
+    }
+}
@@ -1,8 +1,13 @@
 package com.smartplay.usertimer.services.interfaces;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.BulkStartResult;
+import com.smartplay.usertimer.model.dto.TimerPage;
 
 public interface ITimerService {
 
@@ -14,10 +19,27 @@ public interface ITimerService {
      * Start and stop the timer for the user
      */
     void startTimer(String lpaId);
+    /*
+     * Same as hasActiveTimer and startTimer without blocking the caller; the
+     * futures complete once the table has answered
+     */
+    CompletableFuture<Boolean> hasActiveTimerAsync(String lpaId);
+
+    CompletableFuture<Void> startTimerAsync(String lpaId);
+    /*
+     * Start the timers of many users at once, with batched writes and a single
+     * scheduling pass. Duplicates and users with an active timer are skipped.
+     */
+    BulkStartResult startTimers(Collection<String> lpaIds);
     /*
      * Stop the timer for the user
      */
     void stopTimer(String lpaId);
 
     List<UserTimer> getActiveTimers();
+    /*
+     * Page through the active timers, optionally only those ending before
+     * expiringBefore
+     */
+    TimerPage<UserTimer> getActiveTimers(String cursor, int limit, LocalDateTime expiringBefore);
 }
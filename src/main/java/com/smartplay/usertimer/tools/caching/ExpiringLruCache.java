@@ -0,0 +1,252 @@
+package com.smartplay.usertimer.tools.caching;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.smartplay.usertimer.model.stats.CacheStats;
+
+/**
+ * Bounded LRU cache with a time to live per entry and single-flight loading.
+ *
+ * The entries are spread over {@value #SEGMENTS} segments by key hash, each an
+ * access-ordered LinkedHashMap under its own lock, so readers of different
+ * keys rarely contend. A segment evicts its least recently used entry once it
+ * holds more than its share of maximumSize; an entry older than the time to
+ * live is dropped when it is next read.
+ *
+ * Concurrent misses for the same key share one load: the first caller runs
+ * the loader, the others wait for its result. A put or invalidate of the key
+ * while the load runs wins over the loaded value, so a slow load never
+ * overwrites a newer write. Values must not be null; cache an Optional to
+ * remember absent keys.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final int maximumSize;
+    private final long ttlNanos;
+    private final List<Segment> segments = new ArrayList<>(SEGMENTS);
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ExpiringLruCache(int maximumSize, long ttlMillis) {
+        if (maximumSize < SEGMENTS || ttlMillis <= 0) {
+            throw new IllegalArgumentException("maximumSize must be at least " + SEGMENTS + " and ttlMillis positive");
+        }
+        this.maximumSize = maximumSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        int segmentCapacity = maximumSize / SEGMENTS;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments.add(new Segment(segmentCapacity));
+        }
+    }
+
+    /*
+     * The cached value, or the value of the loader, which is stored unless the
+     * key was written meanwhile
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+        try {
+            V value = loader.apply(key);
+            storeLoaded(key, load, value);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /*
+     * The values of all keys; the misses are loaded with one call of the bulk
+     * loader, which must return a value for every key it is given. Keys that are
+     * being loaded by another caller are waited for instead.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> bulkLoader) {
+        Map<K, V> values = new HashMap<>();
+        Map<K, CompletableFuture<V>> ownLoads = new HashMap<>();
+        Map<K, CompletableFuture<V>> otherLoads = new HashMap<>();
+        for (K key : keys) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                values.put(key, cached);
+                continue;
+            }
+            CompletableFuture<V> load = new CompletableFuture<>();
+            CompletableFuture<V> running = loads.putIfAbsent(key, load);
+            if (running == null) {
+                ownLoads.put(key, load);
+            } else {
+                coalesced.increment();
+                otherLoads.put(key, running);
+            }
+        }
+        if (!ownLoads.isEmpty()) {
+            Map<K, V> loaded;
+            try {
+                loaded = bulkLoader.apply(ownLoads.keySet());
+            } catch (RuntimeException e) {
+                ownLoads.forEach((key, load) -> {
+                    loads.remove(key, load);
+                    load.completeExceptionally(e);
+                });
+                throw e;
+            }
+            ownLoads.forEach((key, load) -> {
+                V value = loaded.get(key);
+                if (value == null) {
+                    loads.remove(key, load);
+                    load.completeExceptionally(new IllegalStateException("No value loaded for key " + key));
+                    return;
+                }
+                storeLoaded(key, load, value);
+                load.complete(value);
+                values.put(key, value);
+            });
+        }
+        otherLoads.forEach((key, load) -> values.put(key, join(load)));
+        return values;
+    }
+
+    public V getIfPresent(K key) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                segment.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.value();
+        }
+    }
+
+    /*
+     * Stores the value; a load of the key that is still running is not stored
+     */
+    public void put(K key, V value) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            loads.remove(key);
+            segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            loads.remove(key);
+            segment.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                loads.keySet().removeIf(key -> segmentOf(key) == segment);
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(size(), maximumSize, TimeUnit.NANOSECONDS.toMillis(ttlNanos), hits.sum(), misses.sum(),
+                coalesced.sum(), evictions.sum(), expirations.sum());
+    }
+
+    /*
+     * Stores a loaded value only while the load is still registered, i.e. the
+     * key was not put or invalidated since the load started
+     */
+    private void storeLoaded(K key, CompletableFuture<V> load, V value) {
+        Segment segment = segmentOf(key);
+        synchronized (segment) {
+            if (loads.remove(key, load)) {
+                segment.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    private V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Segment segmentOf(K key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return segments.get((hash ^ (hash >>> 16)) & (SEGMENTS - 1));
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    private final class Segment extends LinkedHashMap<K, Entry<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() <= capacity) {
+                return false;
+            }
+            evictions.increment();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.smartplay.usertimer.tools.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.smartplay.usertimer.model.stats.ExecutorStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Named executor for one stage of the timer work that keeps queue, activity
+ * and latency counters.
+ *
+ * The executor is a fixed pool of named threads with a bounded queue. A task
+ * is never run on the submitting thread; what happens to a task submitted
+ * while the queue is full is up to WhenFull: the submitting thread waits for
+ * room in the queue, which slows the producer down without dropping work, or
+ * execute() rejects it, so the caller can fail fast.
+ */
+@Slf4j
+public class InstrumentedExecutor implements Executor {
+
+    /*
+     * What execute() does with a task while the queue is full
+     */
+    public enum WhenFull {
+        // the submitting thread waits until the task fits into the queue
+        BLOCK,
+        // execute() throws a RejectedExecutionException
+        REJECT
+    }
+
+    private final String name;
+    private final int threads;
+    private final WhenFull whenFull;
+    private final ThreadPoolExecutor delegate;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public InstrumentedExecutor(String name, int threads, int queueCapacity, WhenFull whenFull) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Executor " + name + " needs a positive thread count and queue capacity");
+        }
+        this.name = name;
+        this.threads = threads;
+        this.whenFull = whenFull;
+        this.delegate = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new NamedThreadFactory(name), this::onFull);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        long submittedNanos = System.nanoTime();
+        submitted.increment();
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task, submittedNanos));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ExecutorStats getStats() {
+        long completedTasks = completed.sum();
+        long startedTasks = Math.max(1, submitted.sum() - queued.get());
+        return new ExecutorStats(name, threads, active.get(), queued.get(), submitted.sum(), completedTasks,
+                blocked.sum(), rejected.sum(),
+                TimeUnit.NANOSECONDS.toMicros(queueWaitNanos.sum() / startedTasks),
+                TimeUnit.NANOSECONDS.toMicros(maxQueueWaitNanos.get()),
+                TimeUnit.NANOSECONDS.toMicros(runNanos.sum() / Math.max(1, completedTasks)));
+    }
+
+    /*
+     * Lets the queued tasks finish, waiting up to ten seconds.
+     */
+    public void shutdown() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Executor {} did not finish its tasks in time", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Rejection handler of the pool, called on the submitting thread while the
+     * queue is full
+     */
+    private void onFull(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor " + name + " is shut down");
+        }
+        if (whenFull == WhenFull.REJECT) {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor " + name + " is full");
+        }
+        blocked.increment();
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in executor " + name, e);
+        }
+        if (executor.isShutdown() && executor.remove(task)) {
+            // shut down while waiting, the task would never run
+            throw new RejectedExecutionException("Executor " + name + " is shut down");
+        }
+    }
+
+    private void run(Runnable task, long submittedNanos) {
+        long startedNanos = System.nanoTime();
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        long waited = startedNanos - submittedNanos;
+        queueWaitNanos.add(waited);
+        maxQueueWaitNanos.accumulateAndGet(waited, Math::max);
+        try {
+            task.run();
+        } finally {
+            active.decrementAndGet();
+            runNanos.add(System.nanoTime() - startedNanos);
+            completed.increment();
+        }
+    }
+}
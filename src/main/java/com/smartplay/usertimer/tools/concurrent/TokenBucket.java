@@ -0,0 +1,77 @@
+package com.smartplay.usertimer.tools.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter: tokens accrue at ratePerSecond up to capacity,
+ * and every permit taken spends one. A full bucket allows a burst of
+ * capacity permits, after that the rate holds.
+ *
+ * Nothing blocks inside the bucket; the caller asks how long to wait for the
+ * next token and parks itself, so it can still react to shutdown. The rate
+ * can be changed on the fly (AimdRateLimiter).
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private double tokensPerNano;
+    private double tokens;
+    private long refilledNanos;
+
+    public TokenBucket(double ratePerSecond, double capacity) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("rate must be positive and capacity at least 1");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.refilledNanos = System.nanoTime();
+    }
+
+    /*
+     * Takes as many of the permits as there are whole tokens; 0 when the bucket
+     * is empty or in debt
+     */
+    public synchronized int tryAcquireUpTo(int permits) {
+        refill();
+        int granted = (int) Math.max(0, Math.min(permits, Math.floor(tokens)));
+        tokens -= granted;
+        return granted;
+    }
+
+    /*
+     * Takes all permits as soon as one whole token is there; a request larger
+     * than the tokens left goes into debt, which the following requests wait
+     * out. False when the bucket is empty
+     */
+    public synchronized boolean tryAcquire(int permits) {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= permits;
+        return true;
+    }
+
+    /*
+     * Time until the next whole token, 0 when one is available
+     */
+    public synchronized long nanosUntilAvailable() {
+        refill();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    public synchronized void setRatePerSecond(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        refill();
+        tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledNanos) * tokensPerNano);
+        refilledNanos = now;
+    }
+}
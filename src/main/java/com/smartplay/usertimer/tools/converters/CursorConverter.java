@@ -0,0 +1,32 @@
+package com.smartplay.usertimer.tools.converters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Turns a position (e.g. the last lpaId of a page) into an opaque, URL safe
+ * cursor and back, so clients do not build cursors themselves.
+ */
+public final class CursorConverter {
+
+    private CursorConverter() {
+    }
+
+    public static String encode(String position) {
+        if (position == null) {
+            return null;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
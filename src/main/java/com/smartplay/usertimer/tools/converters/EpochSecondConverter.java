@@ -0,0 +1,23 @@
+package com.smartplay.usertimer.tools.converters;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
+
+/**
+ * Stores a LocalDateTime as epoch seconds (UTC) in a DynamoDB number, the
+ * compact counterpart of LocalDateTimeConverter with the same precision.
+ */
+public class EpochSecondConverter implements DynamoDBTypeConverter<Long, LocalDateTime> {
+
+    @Override
+    public Long convert(LocalDateTime object) {
+        return object.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Override
+    public LocalDateTime unconvert(Long object) {
+        return LocalDateTime.ofEpochSecond(object, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,83 @@
+package com.smartplay.usertimer.tools.converters;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+
+/**
+ * Compact binary form of a ResetTimerEvent for the outbox journal:
+ * [byte format][byte flags][timerId 16][lpaId length + UTF-8][startTime 12][endTime 12][missedWindows 8].
+ * The flags mark which of the nullable fields are present; times are epoch
+ * seconds and nanos, read as UTC like LocalDateTimeConverter does. Records of
+ * format 1, journaled before missedWindows existed, are still read.
+ */
+public final class ResetTimerEventCodec {
+
+    private static final byte FORMAT_V1 = 1;
+    private static final byte FORMAT = 2;
+    private static final int HAS_TIMER_ID = 1;
+    private static final int HAS_START_TIME = 2;
+    private static final int HAS_END_TIME = 4;
+
+    private ResetTimerEventCodec() {
+    }
+
+    public static byte[] encode(ResetTimerEvent event) {
+        byte[] lpaId = event.getLpaId() == null ? new byte[0] : event.getLpaId().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 16 + 4 + lpaId.length + 12 + 12 + 8);
+        int flags = (event.getTimerId() != null ? HAS_TIMER_ID : 0)
+                | (event.getStartTime() != null ? HAS_START_TIME : 0)
+                | (event.getEndTime() != null ? HAS_END_TIME : 0);
+        buffer.put(FORMAT).put((byte) flags);
+        if (event.getTimerId() != null) {
+            buffer.putLong(event.getTimerId().getMostSignificantBits()).putLong(event.getTimerId().getLeastSignificantBits());
+        }
+        buffer.putInt(lpaId.length).put(lpaId);
+        putDateTime(buffer, event.getStartTime());
+        putDateTime(buffer, event.getEndTime());
+        buffer.putLong(event.getMissedWindows());
+        byte[] encoded = new byte[buffer.position()];
+        buffer.flip().get(encoded);
+        return encoded;
+    }
+
+    public static ResetTimerEvent decode(byte[] encoded, Object source) {
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        byte format = buffer.get();
+        if (format != FORMAT && format != FORMAT_V1) {
+            throw new IllegalArgumentException("Unknown event format " + format);
+        }
+        int flags = buffer.get();
+        UUID timerId = (flags & HAS_TIMER_ID) != 0 ? new UUID(buffer.getLong(), buffer.getLong()) : null;
+        byte[] lpaId = new byte[buffer.getInt()];
+        buffer.get(lpaId);
+        LocalDateTime startTime = (flags & HAS_START_TIME) != 0 ? getDateTime(buffer) : null;
+        LocalDateTime endTime = (flags & HAS_END_TIME) != 0 ? getDateTime(buffer) : null;
+        long missedWindows = format == FORMAT ? buffer.getLong() : 0;
+        return ResetTimerEvent.builder()
+                .source(source)
+                .userTimer(UserTimer.builder()
+                        .timerId(timerId)
+                        .lpaId(new String(lpaId, StandardCharsets.UTF_8))
+                        .startTime(startTime)
+                        .endTime(endTime)
+                        .build())
+                .missedWindows(missedWindows)
+                .build();
+    }
+
+    private static void putDateTime(ByteBuffer buffer, LocalDateTime dateTime) {
+        if (dateTime != null) {
+            buffer.putLong(dateTime.toEpochSecond(ZoneOffset.UTC)).putInt(dateTime.getNano());
+        }
+    }
+
+    private static LocalDateTime getDateTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,32 @@
+package com.smartplay.usertimer.tools.converters;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
+
+/**
+ * Stores a UUID as its 16 bytes (most significant first) in a DynamoDB binary
+ * instead of the 36 character string UUIDConverter writes.
+ */
+public class UUIDBinaryConverter implements DynamoDBTypeConverter<byte[], UUID> {
+
+    public static final int BYTES = 16;
+
+    @Override
+    public byte[] convert(UUID object) {
+        return ByteBuffer.allocate(BYTES)
+                .putLong(object.getMostSignificantBits())
+                .putLong(object.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public UUID unconvert(byte[] object) {
+        if (object.length != BYTES) {
+            throw new IllegalArgumentException("binary UUID must have 16 bytes, got " + object.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(object);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
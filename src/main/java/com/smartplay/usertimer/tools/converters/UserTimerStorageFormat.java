@@ -0,0 +1,191 @@
+package com.smartplay.usertimer.tools.converters;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.AttributeTransformer;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/**
+ * Storage format of the startTime, endTime and timerId attributes of a
+ * UserTimer row.
+ *
+ * string is the original format: "yyyy-MM-dd'T'HH:mm:ss'Z'" strings and the
+ * textual UUID. compact stores the timestamps as epoch seconds in numbers and
+ * the UUID as 16 bytes of binary, which roughly halves the item and skips the
+ * DateTimeFormatter on every read and write.
+ *
+ * UserTimer maps the attributes in the compact types (EpochSecondConverter,
+ * UUIDBinaryConverter). As the AttributeTransformer of the DynamoDBMapper this
+ * class accepts both formats on every read, rewriting string attributes into
+ * the compact types before the mapper sees them, and writes the configured
+ * format. Rows in the other format stay readable until
+ * StorageMigrationService has rewritten them.
+ */
+public class UserTimerStorageFormat implements AttributeTransformer {
+
+    public static final String FORMAT_STRING = "string";
+    public static final String FORMAT_COMPACT = "compact";
+
+    public static final String START_TIME = "startTime";
+    public static final String END_TIME = "endTime";
+    public static final String TIMER_ID = "timerId";
+
+    private static final LocalDateTimeConverter STRING_DATE_TIME = new LocalDateTimeConverter();
+    private static final EpochSecondConverter EPOCH_DATE_TIME = new EpochSecondConverter();
+    private static final UUIDConverter STRING_UUID = new UUIDConverter();
+    private static final UUIDBinaryConverter BINARY_UUID = new UUIDBinaryConverter();
+
+    private final String format;
+    private final boolean compact;
+
+    public UserTimerStorageFormat(String format) {
+        if (!FORMAT_STRING.equalsIgnoreCase(format) && !FORMAT_COMPACT.equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unknown usertimer.persistence.storage-format: " + format);
+        }
+        this.format = format.toLowerCase();
+        this.compact = FORMAT_COMPACT.equals(this.format);
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /*
+     * The attribute value of a timestamp in the configured format
+     */
+    public AttributeValue dateTime(LocalDateTime dateTime) {
+        return compact
+                ? new AttributeValue().withN(Long.toString(EPOCH_DATE_TIME.convert(dateTime)))
+                : new AttributeValue().withS(STRING_DATE_TIME.convert(dateTime));
+    }
+
+    /*
+     * The attribute value of a timerId in the configured format
+     */
+    public AttributeValue timerId(UUID timerId) {
+        return compact
+                ? new AttributeValue().withB(ByteBuffer.wrap(BINARY_UUID.convert(timerId)))
+                : new AttributeValue().withS(STRING_UUID.convert(timerId));
+    }
+
+    /*
+     * True when one of the attributes of the row is stored in the other format
+     */
+    public boolean needsMigration(Map<String, AttributeValue> item) {
+        return !inFormat(item.get(START_TIME)) || !inFormat(item.get(END_TIME)) || !inFormat(item.get(TIMER_ID));
+    }
+
+    /*
+     * Reads a timestamp stored in either format; null when absent
+     */
+    public static LocalDateTime readDateTime(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getN() != null) {
+            return EPOCH_DATE_TIME.unconvert(Long.parseLong(value.getN()));
+        }
+        return value.getS() == null ? null : STRING_DATE_TIME.unconvert(value.getS());
+    }
+
+    /*
+     * Reads a timerId stored in either format; null when absent
+     */
+    public static UUID readTimerId(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.getB() != null) {
+            return BINARY_UUID.unconvert(bytesOf(value.getB()));
+        }
+        return value.getS() == null ? null : STRING_UUID.unconvert(value.getS());
+    }
+
+    /*
+     * Before a UserTimer is written: the mapper produced compact attributes,
+     * string mode turns them back into strings.
+     */
+    @Override
+    public Map<String, AttributeValue> transform(Parameters<?> parameters) {
+        Map<String, AttributeValue> item = parameters.getAttributeValues();
+        if (compact || parameters.getModelClass() != UserTimer.class) {
+            return item;
+        }
+        Map<String, AttributeValue> transformed = new HashMap<>(item);
+        replace(transformed, START_TIME, value -> value.getN() != null
+                ? new AttributeValue().withS(STRING_DATE_TIME.convert(readDateTime(value))) : null);
+        replace(transformed, END_TIME, value -> value.getN() != null
+                ? new AttributeValue().withS(STRING_DATE_TIME.convert(readDateTime(value))) : null);
+        replace(transformed, TIMER_ID, value -> value.getB() != null
+                ? new AttributeValue().withS(STRING_UUID.convert(readTimerId(value))) : null);
+        return transformed;
+    }
+
+    /*
+     * After a UserTimer is read: string attributes are rewritten into the
+     * compact types UserTimer maps. Compact rows pass through untouched.
+     */
+    @Override
+    public Map<String, AttributeValue> untransform(Parameters<?> parameters) {
+        Map<String, AttributeValue> item = parameters.getAttributeValues();
+        if (parameters.getModelClass() != UserTimer.class || !hasString(item)) {
+            return item;
+        }
+        Map<String, AttributeValue> untransformed = new HashMap<>(item);
+        replace(untransformed, START_TIME, value -> value.getS() != null
+                ? new AttributeValue().withN(Long.toString(EPOCH_DATE_TIME.convert(readDateTime(value)))) : null);
+        replace(untransformed, END_TIME, value -> value.getS() != null
+                ? new AttributeValue().withN(Long.toString(EPOCH_DATE_TIME.convert(readDateTime(value)))) : null);
+        replace(untransformed, TIMER_ID, value -> value.getS() != null
+                ? new AttributeValue().withB(ByteBuffer.wrap(BINARY_UUID.convert(readTimerId(value)))) : null);
+        return untransformed;
+    }
+
+    private boolean inFormat(AttributeValue value) {
+        if (value == null) {
+            return true;
+        }
+        return compact ? value.getS() == null : value.getS() != null;
+    }
+
+    private static boolean hasString(Map<String, AttributeValue> item) {
+        return isString(item.get(START_TIME)) || isString(item.get(END_TIME)) || isString(item.get(TIMER_ID));
+    }
+
+    private static boolean isString(AttributeValue value) {
+        return value != null && value.getS() != null;
+    }
+
+    /*
+     * Replaces the attribute with the converted value, unless the conversion
+     * returns null (already in the wanted type)
+     */
+    private static void replace(Map<String, AttributeValue> item, String name,
+            Function<AttributeValue, AttributeValue> conversion) {
+        AttributeValue value = item.get(name);
+        if (value == null) {
+            return;
+        }
+        AttributeValue converted = conversion.apply(value);
+        if (converted != null) {
+            item.put(name, converted);
+        }
+    }
+
+    private static byte[] bytesOf(ByteBuffer buffer) {
+        ByteBuffer view = buffer.duplicate();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+}
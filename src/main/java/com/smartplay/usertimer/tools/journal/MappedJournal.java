@@ -0,0 +1,279 @@
+package com.smartplay.usertimer.tools.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of byte records in memory-mapped segment files of a
+ * fixed size ("journal-0000000000000000000.log", ...).
+ *
+ * A record is [int length][int crc32][payload]. Appends go to the last segment
+ * and roll over to a new one when it is full. One writer and one reader may
+ * work concurrently: the reader never reads past the position published by the
+ * last append. On open the last segment is scanned and the write position set
+ * behind its last intact record, so a record torn by a crash is overwritten.
+ *
+ * Durability is up to the caller: force() flushes the pages written since the
+ * previous force(); without it the OS writes them back on its own schedule.
+ *
+ * The checkpoint file stores one position, typically how far a consumer got;
+ * segments before it can be deleted with deleteSegmentsBefore().
+ */
+public class MappedJournal implements AutoCloseable {
+
+    /** Position of a record: segment number and byte offset within it. */
+    public record Position(long segment, int offset) {
+    }
+
+    private static final int HEADER_BYTES = 8;
+    private static final int CHECKPOINT_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final FileChannel checkpointChannel;
+
+    // writer state, guarded by this
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+    private int forcedOffset;
+
+    private volatile Position committed;
+
+    public MappedJournal(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long segment = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(segment, map(file));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, map(segmentFile(0)));
+        }
+        Map.Entry<Long, MappedByteBuffer> last = segments.lastEntry();
+        this.writeSegment = last.getKey();
+        this.writeBuffer = last.getValue();
+        this.writeOffset = recoverEnd(writeBuffer);
+        this.forcedOffset = writeOffset;
+        this.committed = new Position(writeSegment, writeOffset);
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /*
+     * Appends the records and publishes them to the reader; returns the
+     * position behind the last one.
+     */
+    public synchronized Position append(List<byte[]> records) throws IOException {
+        for (byte[] record : records) {
+            int recordBytes = HEADER_BYTES + record.length;
+            if (recordBytes > segmentSize - HEADER_BYTES) {
+                throw new IllegalArgumentException("record of " + record.length + " bytes exceeds the segment size");
+            }
+            if (writeOffset + recordBytes > segmentSize) {
+                roll();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            ByteBuffer target = writeBuffer.duplicate();
+            target.position(writeOffset + 4);
+            target.putInt((int) crc.getValue());
+            target.put(record);
+            // terminator, overwritten by the next record
+            if (target.remaining() >= 4) {
+                target.putInt(0);
+            }
+            writeBuffer.putInt(writeOffset, record.length);
+            writeOffset += recordBytes;
+        }
+        Position position = new Position(writeSegment, writeOffset);
+        committed = position;
+        return position;
+    }
+
+    /*
+     * Flushes everything appended so far to the storage device.
+     */
+    public synchronized void force() {
+        if (writeOffset > forcedOffset) {
+            writeBuffer.force(forcedOffset, Math.min(writeOffset + 4, segmentSize) - forcedOffset);
+            forcedOffset = writeOffset;
+        }
+    }
+
+    public Position committedPosition() {
+        return committed;
+    }
+
+    public Position firstPosition() {
+        return new Position(segments.firstKey(), 0);
+    }
+
+    /*
+     * Reads up to maxRecords records starting at from into target; returns the
+     * position behind the last record read.
+     */
+    public Position read(Position from, int maxRecords, List<byte[]> target) {
+        Position end = committed;
+        long segment = from.segment();
+        int offset = from.offset();
+        int read = 0;
+        while (read < maxRecords) {
+            MappedByteBuffer buffer = segments.get(segment);
+            if (buffer == null) {
+                Map.Entry<Long, MappedByteBuffer> next = segments.higherEntry(segment);
+                if (next == null || segment > end.segment()) {
+                    break;
+                }
+                segment = next.getKey();
+                offset = 0;
+                continue;
+            }
+            int limit = segment == end.segment() ? end.offset() : segmentSize;
+            int length = offset + HEADER_BYTES <= limit ? buffer.getInt(offset) : 0;
+            if (length <= 0 || offset + HEADER_BYTES + length > limit) {
+                if (segment >= end.segment()) {
+                    break;
+                }
+                // end of a finished segment
+                segment++;
+                offset = 0;
+                continue;
+            }
+            byte[] record = new byte[length];
+            buffer.get(offset + HEADER_BYTES, record);
+            target.add(record);
+            offset += HEADER_BYTES + length;
+            read++;
+        }
+        return new Position(segment, offset);
+    }
+
+    /*
+     * Counts the records between from and the last append.
+     */
+    public long count(Position from) {
+        long count = 0;
+        Position position = from;
+        List<byte[]> ignored = new ArrayList<>();
+        while (true) {
+            ignored.clear();
+            Position next = read(position, 1024, ignored);
+            if (ignored.isEmpty()) {
+                return count;
+            }
+            count += ignored.size();
+            position = next;
+        }
+    }
+
+    /*
+     * Deletes the segment files before the given segment.
+     */
+    public void deleteSegmentsBefore(long segment) throws IOException {
+        for (Long old : segments.headMap(segment).keySet()) {
+            segments.remove(old);
+            Files.deleteIfExists(segmentFile(old));
+        }
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /*
+     * Returns the stored checkpoint, or null if there is none or it is corrupt.
+     */
+    public Position readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        checkpointChannel.read(buffer, 0);
+        if (buffer.position() < CHECKPOINT_BYTES) {
+            return null;
+        }
+        buffer.flip();
+        long segment = buffer.getLong();
+        int offset = buffer.getInt();
+        int storedCrc = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 12);
+        return storedCrc == (int) crc.getValue() ? new Position(segment, offset) : null;
+    }
+
+    public void writeCheckpoint(Position position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        buffer.putLong(position.segment()).putInt(position.offset());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 12);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        checkpointChannel.write(buffer, 0);
+        checkpointChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        checkpointChannel.close();
+    }
+
+    private void roll() throws IOException {
+        writeBuffer.force();
+        writeSegment++;
+        writeBuffer = map(segmentFile(writeSegment));
+        segments.put(writeSegment, writeBuffer);
+        writeOffset = 0;
+        forcedOffset = 0;
+    }
+
+    private int recoverEnd(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentSize) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentSize) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(offset + HEADER_BYTES, record);
+            CRC32 crc = new CRC32();
+            crc.update(record);
+            if (buffer.getInt(offset + 4) != (int) crc.getValue()) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,383 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/**
+ * TimerStore for tens of millions of armed timers: the timers are kept as
+ * columns of primitive arrays (struct of arrays) instead of one UserTimer, two
+ * LocalDateTimes, a UUID, a wheel node and a HashMap entry each. A timer is a
+ * row: the lpaId, the timerId as two longs, start, end, duration and version
+ * as epoch seconds and longs, its deadline tick and the int links of the wheel.
+ * That is about 100 bytes per timer plus the lpaId string, which is shared
+ * with the caller, and the heap holds a few dozen large arrays instead of
+ * millions of small objects.
+ *
+ * Rows are found by lpaId through an open addressing int table (linear
+ * probing, backward shift delete), and ordered by deadline in the same
+ * {@value #LEVELS} x {@value #WHEEL_SIZE} hierarchical wheel as
+ * HierarchicalTimingWheel, with the slot lists linked by row number. Rows of
+ * cancelled or expired timers are reused. A UserTimer is only built when one
+ * is read (get, timerAt) or expires.
+ *
+ * Timestamps are kept in whole seconds, the precision they are persisted in.
+ * The store is not thread-safe; TimingWheelTimerScheduler synchronizes on it.
+ */
+public class CompactTimerStore implements TimerStore {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private static final int NIL = -1;
+    // null timestamps and versions; a null timerId is 0 / NONE
+    private static final long NONE = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    // one entry per row; a free row has no lpaId
+    private String[] lpaIds;
+    private long[] timerIdHigh;
+    private long[] timerIdLow;
+    private long[] startSeconds;
+    private long[] endSeconds;
+    private long[] durations;
+    private long[] versions;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] buckets;
+
+    // head and tail row of every wheel slot, level * WHEEL_SIZE + slot
+    private final int[] heads = new int[LEVELS * WHEEL_SIZE];
+    private final int[] tails = new int[LEVELS * WHEEL_SIZE];
+
+    // lpaId -> row + 1, 0 is an empty entry
+    private int[] table;
+    private int tableMask;
+
+    private int size;
+    private int highWater;
+    private int freeHead = NIL;
+    private long currentTick;
+
+    public CompactTimerStore(long startTick, int initialCapacity) {
+        this.currentTick = startTick;
+        int capacity = Math.max(initialCapacity, MIN_CAPACITY);
+        lpaIds = new String[capacity];
+        timerIdHigh = new long[capacity];
+        timerIdLow = new long[capacity];
+        startSeconds = new long[capacity];
+        endSeconds = new long[capacity];
+        durations = new long[capacity];
+        versions = new long[capacity];
+        deadlines = new long[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        buckets = new int[capacity];
+        Arrays.fill(heads, NIL);
+        Arrays.fill(tails, NIL);
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        table = new int[tableSize];
+        tableMask = tableSize - 1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(String lpaId) {
+        return find(lpaId) != NIL;
+    }
+
+    @Override
+    public UserTimer get(String lpaId) {
+        int row = find(lpaId);
+        return row == NIL ? null : timerAt(row);
+    }
+
+    @Override
+    public Set<String> keys() {
+        Set<String> keys = new HashSet<>(size * 2);
+        for (int row = 0; row < highWater; row++) {
+            if (lpaIds[row] != null) {
+                keys.add(lpaIds[row]);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void add(UserTimer userTimer, long deadlineTick) {
+        String lpaId = userTimer.getLpaId();
+        int row = find(lpaId);
+        if (row == NIL) {
+            row = allocate();
+            lpaIds[row] = lpaId;
+            insert(row);
+            size++;
+        } else {
+            unlink(row);
+        }
+        UUID timerId = userTimer.getTimerId();
+        if (timerId == null) {
+            timerIdHigh[row] = 0;
+            timerIdLow[row] = NONE;
+        } else {
+            timerIdHigh[row] = timerId.getMostSignificantBits();
+            timerIdLow[row] = timerId.getLeastSignificantBits();
+        }
+        startSeconds[row] = epochSecondOf(userTimer.getStartTime());
+        endSeconds[row] = epochSecondOf(userTimer.getEndTime());
+        durations[row] = userTimer.getDuration();
+        versions[row] = userTimer.getVersion() == null ? NONE : userTimer.getVersion();
+        deadlines[row] = deadlineTick;
+        place(row);
+    }
+
+    @Override
+    public boolean remove(String lpaId) {
+        int row = find(lpaId);
+        if (row == NIL) {
+            return false;
+        }
+        unlink(row);
+        release(row);
+        return true;
+    }
+
+    /*
+     * Same tick by tick advance and cascade as HierarchicalTimingWheel
+     */
+    @Override
+    public void advanceTo(long targetTick, List<UserTimer> expired) {
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    drain(level * WHEEL_SIZE + (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK), expired);
+                }
+            }
+            drain((int) (currentTick & WHEEL_MASK), expired);
+        }
+    }
+
+    /*
+     * Number of rows in use or freed so far; rows at or above it are empty
+     */
+    public int rowCount() {
+        return highWater;
+    }
+
+    public boolean isArmed(int row) {
+        return lpaIds[row] != null;
+    }
+
+    /*
+     * endTime of an armed row in epoch seconds, Long.MIN_VALUE when it has none
+     */
+    public long endSecondAt(int row) {
+        return endSeconds[row];
+    }
+
+    /*
+     * Builds the UserTimer of an armed row
+     */
+    public UserTimer timerAt(int row) {
+        return UserTimer.builder()
+                .timerId(timerIdHigh[row] == 0 && timerIdLow[row] == NONE
+                        ? null : new UUID(timerIdHigh[row], timerIdLow[row]))
+                .lpaId(lpaIds[row])
+                .startTime(dateTimeOf(startSeconds[row]))
+                .duration(durations[row])
+                .endTime(dateTimeOf(endSeconds[row]))
+                .version(versions[row] == NONE ? null : versions[row])
+                .build();
+    }
+
+    /*
+     * Detaches the list of the wheel slot and expires or re-places every row
+     * on it
+     */
+    private void drain(int bucket, List<UserTimer> expired) {
+        int row = heads[bucket];
+        heads[bucket] = NIL;
+        tails[bucket] = NIL;
+        while (row != NIL) {
+            int following = next[row];
+            next[row] = NIL;
+            prev[row] = NIL;
+            buckets[row] = NIL;
+            if (deadlines[row] <= currentTick) {
+                expired.add(timerAt(row));
+                release(row);
+            } else {
+                // clamped or cascading row that is still in the future
+                place(row);
+            }
+            row = following;
+        }
+    }
+
+    private void place(int row) {
+        long due = Math.max(deadlines[row], currentTick + 1);
+        long delta = due - currentTick;
+        if (delta >= MAX_SPAN) {
+            due = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        int bucket = level * WHEEL_SIZE + (int) ((due >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        buckets[row] = bucket;
+        next[row] = NIL;
+        prev[row] = tails[bucket];
+        if (tails[bucket] == NIL) {
+            heads[bucket] = row;
+        } else {
+            next[tails[bucket]] = row;
+        }
+        tails[bucket] = row;
+    }
+
+    private void unlink(int row) {
+        int bucket = buckets[row];
+        if (bucket == NIL) {
+            return;
+        }
+        if (prev[row] == NIL) {
+            heads[bucket] = next[row];
+        } else {
+            next[prev[row]] = next[row];
+        }
+        if (next[row] == NIL) {
+            tails[bucket] = prev[row];
+        } else {
+            prev[next[row]] = prev[row];
+        }
+        next[row] = NIL;
+        prev[row] = NIL;
+        buckets[row] = NIL;
+    }
+
+    private int allocate() {
+        if (freeHead != NIL) {
+            int row = freeHead;
+            freeHead = next[row];
+            return row;
+        }
+        if (highWater == lpaIds.length) {
+            grow();
+        }
+        return highWater++;
+    }
+
+    /*
+     * Drops the row from the lpaId table and puts it on the free list
+     */
+    private void release(int row) {
+        delete(row);
+        lpaIds[row] = null;
+        buckets[row] = NIL;
+        prev[row] = NIL;
+        next[row] = freeHead;
+        freeHead = row;
+        size--;
+    }
+
+    private void grow() {
+        int capacity = lpaIds.length + (lpaIds.length >> 1);
+        lpaIds = Arrays.copyOf(lpaIds, capacity);
+        timerIdHigh = Arrays.copyOf(timerIdHigh, capacity);
+        timerIdLow = Arrays.copyOf(timerIdLow, capacity);
+        startSeconds = Arrays.copyOf(startSeconds, capacity);
+        endSeconds = Arrays.copyOf(endSeconds, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        if (capacity * 2 > table.length) {
+            rehash(Integer.highestOneBit(capacity * 2 - 1) << 1);
+        }
+    }
+
+    private int find(String lpaId) {
+        int index = indexOf(lpaId);
+        while (table[index] != 0) {
+            int row = table[index] - 1;
+            if (lpaIds[row].equals(lpaId)) {
+                return row;
+            }
+            index = (index + 1) & tableMask;
+        }
+        return NIL;
+    }
+
+    private void insert(int row) {
+        int index = indexOf(lpaIds[row]);
+        while (table[index] != 0) {
+            index = (index + 1) & tableMask;
+        }
+        table[index] = row + 1;
+    }
+
+    /*
+     * Removes the row from the table and shifts the following entries of the
+     * probe sequence back, so no tombstones are needed
+     */
+    private void delete(int row) {
+        int index = indexOf(lpaIds[row]);
+        while (table[index] != row + 1) {
+            index = (index + 1) & tableMask;
+        }
+        int gap = index;
+        index = (index + 1) & tableMask;
+        while (table[index] != 0) {
+            int home = indexOf(lpaIds[table[index] - 1]);
+            // move the entry into the gap unless its home lies cyclically in (gap, index]
+            if (((index - home) & tableMask) >= ((index - gap) & tableMask)) {
+                table[gap] = table[index];
+                gap = index;
+            }
+            index = (index + 1) & tableMask;
+        }
+        table[gap] = 0;
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        tableMask = tableSize - 1;
+        for (int row = 0; row < highWater; row++) {
+            if (lpaIds[row] != null) {
+                insert(row);
+            }
+        }
+    }
+
+    private int indexOf(String lpaId) {
+        int hash = lpaId.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & tableMask;
+    }
+
+    private static long epochSecondOf(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime dateTimeOf(long epochSecond) {
+        return epochSecond == NONE ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,33 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Maps an endTime to the coarse bucket used as hash key of the expiry index.
+ * A bucket is one minute of epoch time, with endTime read as UTC like
+ * LocalDateTimeConverter and EpochSecondConverter do.
+ */
+public final class ExpiryBuckets {
+
+    public static final long BUCKET_SECONDS = 60;
+
+    private ExpiryBuckets() {
+    }
+
+    public static long epochSecondOf(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static long bucketOf(LocalDateTime dateTime) {
+        return bucketOf(epochSecondOf(dateTime));
+    }
+
+    public static long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, BUCKET_SECONDS);
+    }
+
+    public static long bucketStartEpochSecond(long bucket) {
+        return bucket * BUCKET_SECONDS;
+    }
+}
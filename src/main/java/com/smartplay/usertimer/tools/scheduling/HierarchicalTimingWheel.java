@@ -0,0 +1,200 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A hierarchical timing wheel (Varghese &amp; Lauck) keyed by a unique key.
+ *
+ * Time is measured in abstract ticks. The wheel has {@value #LEVELS} levels of
+ * {@value #WHEEL_SIZE} slots each; level n covers 64^(n+1) ticks, so with a one
+ * second tick the wheel spans roughly 194 days before entries are clamped into
+ * the top level and re-cascaded. Every slot is an intrusive doubly linked list,
+ * which gives O(1) add and cancel; advancing a tick costs O(1) plus the entries
+ * that expire or cascade on that tick.
+ *
+ * The wheel is not thread-safe. Callers serialize access (see
+ * TimingWheelTimerScheduler).
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private final Node<K, V>[][] slots;
+    private final Map<K, Node<K, V>> index = new HashMap<>();
+    private long currentTick;
+
+    // generic arrays cannot be created, so the slots start out as a raw array
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public HierarchicalTimingWheel(long startTick) {
+        this.currentTick = startTick;
+        this.slots = new Node[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                Node<K, V> sentinel = new Node<>(null, null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                slots[level][slot] = sentinel;
+            }
+        }
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean contains(K key) {
+        return index.containsKey(key);
+    }
+
+    public V get(K key) {
+        Node<K, V> node = index.get(key);
+        return node == null ? null : node.value;
+    }
+
+    public Set<K> keys() {
+        return Set.copyOf(index.keySet());
+    }
+
+    /*
+     * Adds (or replaces) the entry for the key. A deadline that is not in the
+     * future fires on the next tick.
+     * Returns the value previously registered for the key, if any.
+     */
+    public V add(K key, V value, long deadlineTick) {
+        Node<K, V> node = new Node<>(key, value, deadlineTick);
+        Node<K, V> previous = index.put(key, node);
+        if (previous != null) {
+            unlink(previous);
+        }
+        place(node);
+        return previous == null ? null : previous.value;
+    }
+
+    /*
+     * Cancels the entry for the key. Returns the cancelled value, or null when the
+     * key was not scheduled.
+     */
+    public V remove(K key) {
+        Node<K, V> node = index.remove(key);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.value;
+    }
+
+    /*
+     * Advances the wheel tick by tick up to (and including) targetTick and appends
+     * the value of every expired entry to the expired list, in deadline order.
+     * Expired entries are removed from the wheel before they are handed out.
+     */
+    public void advanceTo(long targetTick, List<V> expired) {
+        while (currentTick < targetTick) {
+            currentTick++;
+            // cascade from the highest level down so entries moving down several
+            // levels on the same tick still land in the correct slot
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    cascade(level, expired);
+                }
+            }
+            expireSlot(slots[0][(int) (currentTick & WHEEL_MASK)], expired);
+        }
+    }
+
+    private void cascade(int level, List<V> expired) {
+        Node<K, V> sentinel = slots[level][(int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+        List<Node<K, V>> moving = drain(sentinel);
+        for (Node<K, V> node : moving) {
+            if (node.deadline <= currentTick) {
+                index.remove(node.key);
+                expired.add(node.value);
+            } else {
+                place(node);
+            }
+        }
+    }
+
+    private void expireSlot(Node<K, V> sentinel, List<V> expired) {
+        for (Node<K, V> node : drain(sentinel)) {
+            if (node.deadline <= currentTick) {
+                index.remove(node.key);
+                expired.add(node.value);
+            } else {
+                // clamped entry that is still in the future; put it back
+                place(node);
+            }
+        }
+    }
+
+    private List<Node<K, V>> drain(Node<K, V> sentinel) {
+        if (sentinel.next == sentinel) {
+            return List.of();
+        }
+        List<Node<K, V>> nodes = new ArrayList<>();
+        Node<K, V> node = sentinel.next;
+        while (node != sentinel) {
+            Node<K, V> next = node.next;
+            node.prev = null;
+            node.next = null;
+            nodes.add(node);
+            node = next;
+        }
+        sentinel.next = sentinel;
+        sentinel.prev = sentinel;
+        return nodes;
+    }
+
+    private void place(Node<K, V> node) {
+        long due = Math.max(node.deadline, currentTick + 1);
+        long delta = due - currentTick;
+        if (delta >= MAX_SPAN) {
+            due = currentTick + MAX_SPAN - 1;
+            delta = MAX_SPAN - 1;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+            level++;
+        }
+        Node<K, V> sentinel = slots[level][(int) ((due >>> (WHEEL_BITS * level)) & WHEEL_MASK)];
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final long deadline;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+/**
+ * Maps an lpaId to one of a fixed number of partitions, the unit of ownership
+ * between the nodes of a cluster (see LeaseTimerOwnershipService). Every node
+ * must use the same partition count.
+ */
+public final class TimerPartitions {
+
+    private TimerPartitions() {
+    }
+
+    public static int partitionOf(String lpaId, int partitions) {
+        int hash = lpaId.hashCode();
+        // the same spreading as the scheduler shards, so ids that differ only in their suffix spread out
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % partitions;
+    }
+}
@@ -0,0 +1,41 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import java.util.List;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/**
+ * The armed timers of one scheduler shard, at most one per lpaId, ordered by
+ * deadline tick. Implementations are not thread-safe; TimingWheelTimerScheduler
+ * synchronizes on the store.
+ */
+public interface TimerStore {
+
+    int size();
+
+    boolean contains(String lpaId);
+
+    /*
+     * The armed timer of the user, or null
+     */
+    UserTimer get(String lpaId);
+
+    Set<String> keys();
+
+    /*
+     * Arms (or replaces) the timer of its user
+     */
+    void add(UserTimer userTimer, long deadlineTick);
+
+    /*
+     * Disarms the timer of the user, returns false if nothing was armed
+     */
+    boolean remove(String lpaId);
+
+    /*
+     * Advances to targetTick and appends every timer due by then to expired, in
+     * deadline order; they are removed from the store
+     */
+    void advanceTo(long targetTick, List<UserTimer> expired);
+}
@@ -0,0 +1,54 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import java.util.List;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+/**
+ * TimerStore on a HierarchicalTimingWheel that keeps the UserTimer objects as
+ * they were scheduled.
+ */
+public class WheelTimerStore implements TimerStore {
+
+    private final HierarchicalTimingWheel<String, UserTimer> wheel;
+
+    public WheelTimerStore(long startTick) {
+        this.wheel = new HierarchicalTimingWheel<>(startTick);
+    }
+
+    @Override
+    public int size() {
+        return wheel.size();
+    }
+
+    @Override
+    public boolean contains(String lpaId) {
+        return wheel.contains(lpaId);
+    }
+
+    @Override
+    public UserTimer get(String lpaId) {
+        return wheel.get(lpaId);
+    }
+
+    @Override
+    public Set<String> keys() {
+        return wheel.keys();
+    }
+
+    @Override
+    public void add(UserTimer userTimer, long deadlineTick) {
+        wheel.add(userTimer.getLpaId(), userTimer, deadlineTick);
+    }
+
+    @Override
+    public boolean remove(String lpaId) {
+        return wheel.remove(lpaId) != null;
+    }
+
+    @Override
+    public void advanceTo(long targetTick, List<UserTimer> expired) {
+        wheel.advanceTo(targetTick, expired);
+    }
+}
@@ -0,0 +1,153 @@
+package com.smartplay.usertimer.tools.throughput;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.smartplay.usertimer.model.stats.ThroughputStats;
+import com.smartplay.usertimer.tools.concurrent.TokenBucket;
+
+/**
+ * Blocking rate limiter whose rate follows the capacity DynamoDB grants:
+ * additive increase, multiplicative decrease (AIMD), as TCP does with its
+ * congestion window. Every second without a throttle adds increasePerSecond
+ * to the rate, a throttle multiplies it by decreaseFactor, at most once per
+ * cooldown so that one burst of throttles cuts the rate once. The rate stays
+ * within [minRatePerSecond, maxRatePerSecond].
+ *
+ * Callers wait in ThroughputLanes: a caller only takes capacity while no
+ * caller of a higher lane waits, so rollovers go ahead of scans when the
+ * table is saturated. Waiters share one monitor and are woken when a token
+ * is due or another waiter leaves.
+ */
+public class AimdRateLimiter {
+
+    private static final long INCREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MIN_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final String name;
+    private final double minRatePerSecond;
+    private final double maxRatePerSecond;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+    private final long cooldownNanos;
+    private final TokenBucket tokenBucket;
+
+    // guarded by this
+    private final int[] waiting = new int[ThroughputLane.values().length];
+    private double ratePerSecond;
+    private long lastIncreaseNanos;
+    private long lastDecreaseNanos;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder throttles = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder waitedNanos = new LongAdder();
+
+    public AimdRateLimiter(String name, double initialRatePerSecond, double minRatePerSecond, double maxRatePerSecond,
+            double increasePerSecond, double decreaseFactor, long cooldownMillis) {
+        if (minRatePerSecond <= 0 || minRatePerSecond > maxRatePerSecond || increasePerSecond < 0
+                || decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("Invalid rate limits for " + name
+                    + ": 0 < min <= max, increase >= 0 and 0 < decrease-factor < 1");
+        }
+        this.name = name;
+        this.minRatePerSecond = minRatePerSecond;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.increasePerSecond = increasePerSecond;
+        this.decreaseFactor = decreaseFactor;
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        this.ratePerSecond = clamp(initialRatePerSecond);
+        // bursts of up to the minimum rate, so pacing stays smooth at any rate
+        this.tokenBucket = new TokenBucket(ratePerSecond, Math.max(1, minRatePerSecond));
+        long now = System.nanoTime();
+        this.lastIncreaseNanos = now;
+        this.lastDecreaseNanos = now - cooldownNanos;
+    }
+
+    /*
+     * Waits until the permits (capacity units) may be spent in the lane
+     */
+    public void acquire(ThroughputLane lane, int permits) throws InterruptedException {
+        long started = System.nanoTime();
+        synchronized (this) {
+            waiting[lane.ordinal()]++;
+            try {
+                while (higherLaneWaiting(lane) || !tokenBucket.tryAcquire(permits)) {
+                    long waitNanos = Math.max(tokenBucket.nanosUntilAvailable(), MIN_WAIT_NANOS);
+                    TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                }
+            } finally {
+                waiting[lane.ordinal()]--;
+                notifyAll();
+            }
+        }
+        requests.increment();
+        waitedNanos.add(System.nanoTime() - started);
+    }
+
+    /*
+     * A call succeeded; raises the rate once per interval
+     */
+    public synchronized void onSuccess() {
+        long now = System.nanoTime();
+        if (now - lastIncreaseNanos < INCREASE_INTERVAL_NANOS || ratePerSecond >= maxRatePerSecond) {
+            return;
+        }
+        lastIncreaseNanos = now;
+        setRate(ratePerSecond + increasePerSecond);
+    }
+
+    /*
+     * A call was throttled; cuts the rate unless it was cut within the cooldown
+     */
+    public synchronized void onThrottle() {
+        throttles.increment();
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < cooldownNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        lastIncreaseNanos = now;
+        decreases.increment();
+        setRate(ratePerSecond * decreaseFactor);
+    }
+
+    public synchronized double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public ThroughputStats getStats(boolean governed) {
+        double rate;
+        int waitingNow = 0;
+        synchronized (this) {
+            rate = ratePerSecond;
+            for (int count : waiting) {
+                waitingNow += count;
+            }
+        }
+        return new ThroughputStats(name, governed, rate, minRatePerSecond, maxRatePerSecond, requests.sum(),
+                throttles.sum(), decreases.sum(), waitingNow, TimeUnit.NANOSECONDS.toMillis(waitedNanos.sum()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private void setRate(double rate) {
+        ratePerSecond = clamp(rate);
+        tokenBucket.setRatePerSecond(ratePerSecond);
+    }
+
+    private double clamp(double rate) {
+        return Math.max(minRatePerSecond, Math.min(maxRatePerSecond, rate));
+    }
+
+    private boolean higherLaneWaiting(ThroughputLane lane) {
+        for (int i = 0; i < lane.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,204 @@
+package com.smartplay.usertimer.tools.throughput;
+
+import java.util.List;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactGetItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.TransactWriteItemsRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+import com.smartplay.usertimer.model.data.TimerLease;
+import com.smartplay.usertimer.model.stats.ThroughputStats;
+
+/**
+ * Paces every data plane call of the DynamoDB client, reads and writes
+ * through separate AimdRateLimiters, since DynamoDB throttles read and write
+ * capacity separately. Attached to the client as a request handler, so the
+ * generated repositories, the mapper and the hand written repositories are
+ * all covered.
+ *
+ * Every attempt, retries included, takes one permit per item (one for a
+ * single item call or a scan/query page) on the calling thread before it is
+ * sent. A throttling error (ProvisionedThroughputExceeded, Throttling,
+ * RequestLimitExceeded, ...) cuts the rate of its class, successful calls
+ * raise it again.
+ *
+ * The lane is the one set with ThroughputLane.callIn, otherwise lease calls
+ * are CRITICAL, scans BACKGROUND and everything else NORMAL.
+ *
+ * With governed false nothing waits; throttles are still counted and the
+ * rates still adapt, which shows what the governor would do.
+ */
+public class DynamoDBThroughputGovernor extends RequestHandler2 {
+
+    // the throttle of the last attempt, so afterError does not count it twice
+    private static final HandlerContextKey<Exception> COUNTED_THROTTLE = new HandlerContextKey<>("usertimer.countedThrottle");
+
+    private final AimdRateLimiter reads;
+    private final AimdRateLimiter writes;
+    private final boolean governed;
+
+    public DynamoDBThroughputGovernor(AimdRateLimiter reads, AimdRateLimiter writes, boolean governed) {
+        this.reads = reads;
+        this.writes = writes;
+        this.governed = governed;
+    }
+
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        AmazonWebServiceRequest request = context.getRequest().getOriginalRequest();
+        AimdRateLimiter limiter = limiterOf(request);
+        if (!governed || limiter == null) {
+            return;
+        }
+        try {
+            limiter.acquire(laneOf(request), permitsOf(request));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting for DynamoDB " + limiter.getName() + " capacity", e);
+        }
+    }
+
+    @Override
+    public void afterAttempt(HandlerAfterAttemptContext context) {
+        Exception exception = context.getException();
+        if (isThrottle(exception)) {
+            Request<?> request = context.getRequest();
+            request.addHandlerContext(COUNTED_THROTTLE, exception);
+            onThrottle(request.getOriginalRequest());
+        }
+    }
+
+    @Override
+    public void afterResponse(Request<?> request, Response<?> response) {
+        AimdRateLimiter limiter = limiterOf(request.getOriginalRequest());
+        if (limiter != null) {
+            limiter.onSuccess();
+        }
+    }
+
+    /*
+     * Catches the throttles that never reached afterAttempt, such as those of
+     * the ThrottleFaultInjector
+     */
+    @Override
+    public void afterError(Request<?> request, Response<?> response, Exception e) {
+        if (isThrottle(e) && request.getHandlerContext(COUNTED_THROTTLE) != e) {
+            onThrottle(request.getOriginalRequest());
+        }
+    }
+
+    public List<ThroughputStats> getStats() {
+        return List.of(reads.getStats(governed), writes.getStats(governed));
+    }
+
+    private void onThrottle(AmazonWebServiceRequest request) {
+        AimdRateLimiter limiter = limiterOf(request);
+        if (limiter != null) {
+            limiter.onThrottle();
+        }
+    }
+
+    /*
+     * Read or write limiter of a data plane request, null for the control
+     * plane (DescribeTable, CreateTable, ...)
+     */
+    private AimdRateLimiter limiterOf(AmazonWebServiceRequest request) {
+        if (isRead(request)) {
+            return reads;
+        }
+        return isWrite(request) ? writes : null;
+    }
+
+    static boolean isDataPlane(AmazonWebServiceRequest request) {
+        return isRead(request) || isWrite(request);
+    }
+
+    private static boolean isRead(AmazonWebServiceRequest request) {
+        return request instanceof GetItemRequest || request instanceof BatchGetItemRequest
+                || request instanceof QueryRequest || request instanceof ScanRequest
+                || request instanceof TransactGetItemsRequest;
+    }
+
+    private static boolean isWrite(AmazonWebServiceRequest request) {
+        return request instanceof PutItemRequest || request instanceof UpdateItemRequest
+                || request instanceof DeleteItemRequest || request instanceof BatchWriteItemRequest
+                || request instanceof TransactWriteItemsRequest;
+    }
+
+    private static ThroughputLane laneOf(AmazonWebServiceRequest request) {
+        ThroughputLane lane = ThroughputLane.current();
+        if (lane != null) {
+            return lane;
+        }
+        if (TimerLease.TABLE_NAME.equals(tableNameOf(request))) {
+            return ThroughputLane.CRITICAL;
+        }
+        if (request instanceof ScanRequest) {
+            return ThroughputLane.BACKGROUND;
+        }
+        return ThroughputLane.NORMAL;
+    }
+
+    private static String tableNameOf(AmazonWebServiceRequest request) {
+        if (request instanceof GetItemRequest get) {
+            return get.getTableName();
+        }
+        if (request instanceof PutItemRequest put) {
+            return put.getTableName();
+        }
+        if (request instanceof UpdateItemRequest update) {
+            return update.getTableName();
+        }
+        if (request instanceof DeleteItemRequest delete) {
+            return delete.getTableName();
+        }
+        if (request instanceof ScanRequest scan) {
+            return scan.getTableName();
+        }
+        if (request instanceof QueryRequest query) {
+            return query.getTableName();
+        }
+        return null;
+    }
+
+    private static int permitsOf(AmazonWebServiceRequest request) {
+        int items = 0;
+        if (request instanceof BatchWriteItemRequest batchWrite) {
+            for (List<WriteRequest> writeRequests : batchWrite.getRequestItems().values()) {
+                items += writeRequests.size();
+            }
+        } else if (request instanceof BatchGetItemRequest batchGet) {
+            for (KeysAndAttributes keys : batchGet.getRequestItems().values()) {
+                items += keys.getKeys().size();
+            }
+        } else if (request instanceof TransactWriteItemsRequest transactWrite) {
+            items = transactWrite.getTransactItems().size();
+        } else if (request instanceof TransactGetItemsRequest transactGet) {
+            items = transactGet.getTransactItems().size();
+        }
+        return Math.max(1, items);
+    }
+
+    private static boolean isThrottle(Exception exception) {
+        return exception instanceof AmazonServiceException serviceException
+                && RetryUtils.isThrottlingException(serviceException);
+    }
+}
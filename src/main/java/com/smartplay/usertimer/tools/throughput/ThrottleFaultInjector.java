@@ -0,0 +1,48 @@
+package com.smartplay.usertimer.tools.throughput;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+
+/**
+ * Fails DynamoDB data plane calls with a ProvisionedThroughputExceeded error
+ * at the given probability before they are sent. DynamoDB Local never
+ * throttles, so this is how the throughput governor and the callers' error
+ * handling are exercised against it. Off (probability 0) by default.
+ */
+public class ThrottleFaultInjector extends RequestHandler2 {
+
+    private final double throttleProbability;
+    private final LongAdder injected = new LongAdder();
+
+    public ThrottleFaultInjector(double throttleProbability) {
+        if (throttleProbability < 0 || throttleProbability > 1) {
+            throw new IllegalArgumentException("throttle-probability must be within [0, 1]");
+        }
+        this.throttleProbability = throttleProbability;
+    }
+
+    @Override
+    public void beforeAttempt(HandlerBeforeAttemptContext context) {
+        if (throttleProbability == 0 || !DynamoDBThroughputGovernor.isDataPlane(context.getRequest().getOriginalRequest())
+                || ThreadLocalRandom.current().nextDouble() >= throttleProbability) {
+            return;
+        }
+        injected.increment();
+        ProvisionedThroughputExceededException e = new ProvisionedThroughputExceededException(
+                "Throttle injected by usertimer.dynamodb.fault-injection");
+        e.setErrorCode("ProvisionedThroughputExceededException");
+        e.setErrorType(AmazonServiceException.ErrorType.Client);
+        e.setStatusCode(400);
+        e.setServiceName("AmazonDynamoDBv2");
+        throw e;
+    }
+
+    public long getInjected() {
+        return injected.sum();
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartplay.usertimer.tools.throughput;
+
+import java.util.function.Supplier;
+
+/**
+ * Priority of a DynamoDB call at the throughput governor. While calls of a
+ * lane wait for capacity, calls of the lanes below it are held back.
+ *
+ * The governor picks the lane from the request; code that knows better runs
+ * its calls in a lane with callIn, e.g. the storage migration, whose updates
+ * would otherwise count as rollovers.
+ */
+public enum ThroughputLane {
+
+    // rollovers and leases: losing them loses timers or ownership
+    CRITICAL,
+    // timer reads and writes of the API
+    NORMAL,
+    // scans and maintenance
+    BACKGROUND;
+
+    private static final ThreadLocal<ThroughputLane> CURRENT = new ThreadLocal<>();
+
+    /*
+     * The lane set by callIn on this thread, null when the request decides
+     */
+    public static ThroughputLane current() {
+        return CURRENT.get();
+    }
+
+    public <T> T callIn(Supplier<T> call) {
+        ThroughputLane previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void runIn(Runnable call) {
+        callIn(() -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,157 @@
+package com.smartplay.usertimer.controller;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartplay.usertimer.model.dto.BulkStartResult;
+import com.smartplay.usertimer.services.impl.TimerService;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor.WhenFull;
+
+/**
+ * The asynchronous endpoints of TimeController on a request executor of one
+ * thread and a queue of one, with TimerService mocked.
+ */
+class TimeControllerTest {
+
+    private TimerService timerService;
+    private InstrumentedExecutor requestExecutor;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        timerService = mock(TimerService.class);
+        requestExecutor = new InstrumentedExecutor("test-request", 1, 1,
+                WhenFull.REJECT);
+        TimeController controller = new TimeController();
+        ReflectionTestUtils.setField(controller, "timerService", timerService);
+        ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(controller, "requestExecutor", requestExecutor);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestExecutor.shutdown();
+    }
+
+    @Test
+    void startAnswersOnceTheTimerIsStarted() throws Exception {
+        when(timerService.startTimerAsync("user-1")).thenReturn(CompletableFuture.completedFuture(null));
+
+        MvcResult result = mockMvc.perform(post("/timers/start").param("lpaId", "user-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Timer started for user: user-1"));
+    }
+
+    @Test
+    void startRejectedByTheRequestExecutorIsAnswered503() throws Exception {
+        // as the rejection arrives through the thenCompose chain of startTimerAsync()
+        when(timerService.startTimerAsync("user-1")).thenReturn(CompletableFuture.<Void>failedFuture(
+                new RejectedExecutionException("Executor test-request is full")).thenApply(ignored -> null));
+
+        MvcResult result = mockMvc.perform(post("/timers/start").param("lpaId", "user-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void bulkStartRunsOnTheRequestExecutor() throws Exception {
+        when(timerService.startTimers(List.of("user-1", "user-2"))).thenAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("test-request"));
+            return new BulkStartResult(2, 2, 0, 0, 0, 0,
+                    Map.of("user-1", BulkStartResult.Status.STARTED, "user-2", BulkStartResult.Status.STARTED));
+        });
+
+        MvcResult result = mockMvc.perform(post("/timers/start/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"user-1\", \"user-2\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.started").value(2));
+    }
+
+    @Test
+    void ndjsonBulkStartReadsOneLpaIdPerLine() throws Exception {
+        when(timerService.startTimers(List.of("user-1", "user-2")))
+                .thenReturn(new BulkStartResult(2, 2, 0, 0, 0, 0, Map.of()));
+
+        MvcResult result = mockMvc.perform(post("/timers/start/batch")
+                        .contentType("application/x-ndjson")
+                        .content("\"user-1\"\n\nuser-2\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2));
+    }
+
+    @Test
+    void bulkStartOnAFullRequestExecutorIsAnswered503() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        requestExecutor.execute(() -> {
+            running.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        requestExecutor.execute(() -> {
+        });
+
+        try {
+            MvcResult result = mockMvc.perform(post("/timers/start/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("[\"user-1\"]"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+            verify(timerService, never()).startTimers(any());
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartplay.usertimer.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.simulation.InMemoryUserTimerRepository;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor.WhenFull;
+
+class AsyncUserTimerRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private InMemoryUserTimerRepository table;
+    private InstrumentedExecutor executor;
+    private AsyncUserTimerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        table = new InMemoryUserTimerRepository(16);
+        executor = new InstrumentedExecutor("test-request", 1, 1, WhenFull.REJECT);
+        repository = new AsyncUserTimerRepository(table, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void callsRunOnTheExecutor() {
+        UserTimer timer = timer("user-1");
+
+        repository.save(timer).join();
+
+        assertEquals(timer, repository.findById("user-1").join().orElseThrow());
+        assertTrue(repository.existsById("user-1").join());
+        repository.deleteById("user-1").join();
+        assertEquals(0, table.count());
+        assertEquals(4, executor.getStats().submitted());
+    }
+
+    @Test
+    void failureOfTheCallCompletesTheFuture() {
+        table.save(timer("user-1"));
+
+        CompletableFuture<UserTimer> save = repository.save(timer("user-1"));
+
+        CompletionException e = assertThrows(CompletionException.class, save::join);
+        assertInstanceOf(ConditionalCheckFailedException.class, e.getCause());
+    }
+
+    @Test
+    void callRejectedByTheFullExecutorFailsWithoutRunning() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        // the queue of one
+        executor.execute(() -> {
+        });
+
+        CompletableFuture<UserTimer> save = repository.save(timer("user-1"));
+        release.countDown();
+
+        CompletionException e = assertThrows(CompletionException.class, save::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        assertEquals(0, table.count());
+        assertEquals(1, executor.getStats().rejected());
+    }
+
+    private static UserTimer timer(String lpaId) {
+        return UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(lpaId)
+                .startTime(START)
+                .duration(3600)
+                .endTime(START.plusHours(1))
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
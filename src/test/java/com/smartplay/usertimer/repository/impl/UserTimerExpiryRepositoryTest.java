@@ -0,0 +1,119 @@
+package com.smartplay.usertimer.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
+
+/**
+ * Range queries on the expiry index against a mocked mapper that answers
+ * every query from a list of rows, like the index would.
+ */
+class UserTimerExpiryRepositoryTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final List<UserTimer> rows = new ArrayList<>();
+    private final List<Query> queries = new ArrayList<>();
+    private final List<String> loaded = new ArrayList<>();
+    private UserTimerExpiryRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DynamoDBMapper dynamoDBMapper = mock(DynamoDBMapper.class);
+        when(dynamoDBMapper.queryPage(eq(UserTimer.class), any())).thenAnswer(invocation -> {
+            DynamoDBQueryExpression<UserTimer> expression = invocation.getArgument(1);
+            Query query = Query.of(expression.getExpressionAttributeValues());
+            queries.add(query);
+            QueryResultPage<UserTimer> page = new QueryResultPage<>();
+            page.setResults(rows.stream().filter(query::matches).toList());
+            return page;
+        });
+        repository = new UserTimerExpiryRepository(dynamoDBMapper);
+        // one row every 20 seconds from 11:59:00 to 12:04:40
+        for (int second = -60; second < 300; second += 20) {
+            rows.add(UserTimer.builder().lpaId("at" + second).endTime(NOON.plusSeconds(second)).build());
+        }
+    }
+
+    @Test
+    void rangeInsideOneBucketIsOneQuery() {
+        queryRange(NOON.plusSeconds(10), NOON.plusSeconds(50));
+
+        assertEquals(List.of(new Query(bucketOf(NOON), epochSecond(NOON) + 10, epochSecond(NOON) + 49)), queries);
+        assertEquals(List.of("at20", "at40"), loaded);
+    }
+
+    @Test
+    void rangeOverSeveralBucketsQueriesEveryBucketOnce() {
+        queryRange(NOON.minusSeconds(30), NOON.plusSeconds(150));
+
+        assertEquals(List.of(bucketOf(NOON) - 1, bucketOf(NOON), bucketOf(NOON) + 1, bucketOf(NOON) + 2),
+                queries.stream().map(Query::bucket).toList());
+        assertEquals(List.of("at-20", "at0", "at20", "at40", "at60", "at80", "at100", "at120", "at140"), loaded);
+    }
+
+    @Test
+    void endOfTheRangeIsExclusive() {
+        // ends on a bucket boundary: the bucket starting at 12:02 is not queried
+        queryRange(NOON.plusSeconds(60), NOON.plusSeconds(120));
+
+        assertEquals(List.of(new Query(bucketOf(NOON) + 1, epochSecond(NOON) + 60, epochSecond(NOON) + 119)),
+                queries);
+        assertEquals(List.of("at60", "at80", "at100"), loaded);
+    }
+
+    @Test
+    void emptyRangeQueriesNothing() {
+        queryRange(NOON, NOON);
+        queryRange(NOON.plusSeconds(1), NOON);
+
+        assertEquals(List.of(), queries);
+    }
+
+    private void queryRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo) {
+        repository.queryEndTimeRange(endTimeFrom, endTimeTo, 100,
+                page -> page.forEach(timer -> loaded.add(timer.getLpaId())));
+    }
+
+    private static long bucketOf(LocalDateTime dateTime) {
+        return ExpiryBuckets.bucketOf(dateTime);
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return ExpiryBuckets.epochSecondOf(dateTime);
+    }
+
+    /*
+     * The key condition of one query: expiryBucket = bucket AND expiresAt
+     * BETWEEN from AND to
+     */
+    private record Query(long bucket, long from, long to) {
+
+        static Query of(Map<String, AttributeValue> values) {
+            return new Query(Long.parseLong(values.get(":bucket").getN()), Long.parseLong(values.get(":from").getN()),
+                    Long.parseLong(values.get(":to").getN()));
+        }
+
+        boolean matches(UserTimer timer) {
+            long expiresAt = epochSecond(timer.getEndTime());
+            return ExpiryBuckets.bucketOf(expiresAt) == bucket && expiresAt >= from && expiresAt <= to;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartplay.usertimer.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.tools.converters.CursorConverter;
+
+/**
+ * The scan requests UserTimerScanRepository builds, against a mocked mapper.
+ */
+class UserTimerScanRepositoryTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final LocalDateTime TO = FROM.plusMinutes(15);
+
+    private final List<Scan> scans = new ArrayList<>();
+    private final List<ScanResultPage<UserTimer>> pages = new ArrayList<>();
+    private UserTimerScanRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DynamoDBMapper dynamoDBMapper = mock(DynamoDBMapper.class);
+        when(dynamoDBMapper.scanPage(eq(UserTimer.class), any())).thenAnswer(invocation -> {
+            DynamoDBScanExpression expression = invocation.getArgument(1);
+            scans.add(new Scan(expression.getFilterExpression(), expression.getExpressionAttributeValues(),
+                    expression.getExclusiveStartKey()));
+            return pages.isEmpty() ? page(null) : pages.remove(0);
+        });
+        repository = new UserTimerScanRepository(dynamoDBMapper);
+    }
+
+    @Test
+    void endTimeBoundsAreGivenAsStringsAndAsNumbers() {
+        repository.scanSegment(0, 4, FROM, TO, 100, page -> {
+        });
+
+        Scan scan = scans.get(0);
+        assertEquals("(endTime >= :endTimeFromS AND endTime < :endTimeToS) "
+                + "OR (endTime >= :endTimeFromN AND endTime < :endTimeToN)", scan.filter());
+        assertEquals(Map.of(
+                ":endTimeFromS", new AttributeValue().withS("2024-01-01T12:00:00Z"),
+                ":endTimeToS", new AttributeValue().withS("2024-01-01T12:15:00Z"),
+                ":endTimeFromN", new AttributeValue().withN(epochSecond(FROM)),
+                ":endTimeToN", new AttributeValue().withN(epochSecond(TO))), scan.values());
+    }
+
+    @Test
+    void openBoundsAreLeftOutOfTheFilter() {
+        repository.scanSegment(0, 4, null, TO, 100, page -> {
+        });
+        repository.scanSegment(0, 4, FROM, null, 100, page -> {
+        });
+        repository.scanSegment(0, 4, null, null, 100, page -> {
+        });
+
+        assertEquals("(endTime < :endTimeToS) OR (endTime < :endTimeToN)", scans.get(0).filter());
+        assertEquals(2, scans.get(0).values().size());
+        assertEquals("(endTime >= :endTimeFromS) OR (endTime >= :endTimeFromN)", scans.get(1).filter());
+        assertEquals(2, scans.get(1).values().size());
+        assertNull(scans.get(2).filter());
+        assertNull(scans.get(2).values());
+    }
+
+    @Test
+    void segmentIsScannedUntilTheLastPage() {
+        pages.add(page(Map.of("lpaId", new AttributeValue().withS("user-1")), timer("user-1")));
+        pages.add(page(Map.of("lpaId", new AttributeValue().withS("user-2"))));
+        pages.add(page(null, timer("user-3")));
+        List<String> loaded = new ArrayList<>();
+
+        repository.scanSegment(1, 4, FROM, TO, 1, page -> page.forEach(timer -> loaded.add(timer.getLpaId())));
+
+        // the empty page in between is not handed out
+        assertEquals(List.of("user-1", "user-3"), loaded);
+        assertEquals(3, scans.size());
+        assertEquals("user-2", scans.get(2).exclusiveStartKey().get("lpaId").getS());
+    }
+
+    @Test
+    void scanPageContinuesAfterTheCursor() {
+        pages.add(page(Map.of("lpaId", new AttributeValue().withS("user-2")), timer("user-2")));
+
+        TimerPage<UserTimer> page = repository.scanPage(CursorConverter.encode("user-1"), 1);
+
+        assertEquals("user-1", scans.get(0).exclusiveStartKey().get("lpaId").getS());
+        assertEquals("user-2", CursorConverter.decode(page.nextCursor()));
+        assertNull(repository.scanPage(page.nextCursor(), 1).nextCursor());
+    }
+
+    private static String epochSecond(LocalDateTime dateTime) {
+        return Long.toString(dateTime.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static UserTimer timer(String lpaId) {
+        return UserTimer.builder().lpaId(lpaId).endTime(FROM).build();
+    }
+
+    private static ScanResultPage<UserTimer> page(Map<String, AttributeValue> lastEvaluatedKey, UserTimer... timers) {
+        ScanResultPage<UserTimer> page = new ScanResultPage<>();
+        page.setResults(List.of(timers));
+        page.setLastEvaluatedKey(lastEvaluatedKey == null ? null : new HashMap<>(lastEvaluatedKey));
+        return page;
+    }
+
+    /*
+     * What one scan request asked for, copied when it was sent
+     */
+    private record Scan(String filter, Map<String, AttributeValue> values,
+            Map<String, AttributeValue> exclusiveStartKey) {
+
+        Scan {
+            values = values == null ? null : Map.copyOf(values);
+            exclusiveStartKey = exclusiveStartKey == null ? null : Map.copyOf(exclusiveStartKey);
+        }
+    }
+}
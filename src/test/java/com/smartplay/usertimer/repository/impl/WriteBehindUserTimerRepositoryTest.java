@@ -0,0 +1,156 @@
+package com.smartplay.usertimer.repository.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.simulation.InMemoryUserTimerRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * WriteBehindUserTimerRepository over the in-memory table, with batchWrite
+ * applied to the same table. The flush interval is long enough that only the
+ * test flushes.
+ */
+class WriteBehindUserTimerRepositoryTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private InMemoryUserTimerRepository table;
+    private DynamoDBMapper dynamoDBMapper;
+    private List<Integer> batchSizes;
+    private WriteBehindUserTimerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        table = new InMemoryUserTimerRepository(128);
+        batchSizes = new ArrayList<>();
+        dynamoDBMapper = mock(DynamoDBMapper.class);
+        when(dynamoDBMapper.batchWrite(any(), any())).thenAnswer(invocation -> {
+            Iterable<?> toSave = invocation.getArgument(0);
+            Iterable<?> toDelete = invocation.getArgument(1);
+            int size = 0;
+            for (Object timer : toSave) {
+                table.saveAll(List.of((UserTimer) timer));
+                size++;
+            }
+            for (Object timer : toDelete) {
+                table.deleteById(((UserTimer) timer).getLpaId());
+                size++;
+            }
+            batchSizes.add(size);
+            return List.of();
+        });
+        repository = new WriteBehindUserTimerRepository(table, dynamoDBMapper, 1000, 3_600_000, 2, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void deleteThenSaveOfOneUserIsWrittenAsOnePut() {
+        table.save(timer("user-1"));
+        repository.deleteById("user-1");
+        UserTimer restarted = timer("user-1");
+        repository.save(restarted);
+
+        repository.flush();
+
+        assertEquals(List.of(1), batchSizes);
+        assertEquals(restarted.getTimerId(), table.findById("user-1").orElseThrow().getTimerId());
+    }
+
+    @Test
+    void flushWritesBatchesOfAtMost25Items() {
+        for (int i = 0; i < 60; i++) {
+            repository.save(timer("user-" + i));
+        }
+        assertEquals(0, table.count());
+
+        repository.flush();
+
+        assertEquals(List.of(25, 25, 10), batchSizes);
+        assertEquals(60, table.count());
+        assertEquals(0, repository.getPendingCount());
+    }
+
+    @Test
+    void readsSeePendingWritesWithoutFlushing() {
+        table.save(timer("user-1"));
+        table.save(timer("user-2"));
+        repository.deleteById("user-1");
+        repository.save(timer("user-3"));
+
+        List<String> found = new ArrayList<>();
+        repository.findAllById(List.of("user-1", "user-2", "user-3")).forEach(timer -> found.add(timer.getLpaId()));
+
+        assertEquals(List.of("user-3", "user-2"), found);
+        assertFalse(repository.findById("user-1").isPresent());
+        assertTrue(repository.existsById("user-3"));
+        assertEquals(2, repository.count());
+        verify(dynamoDBMapper, never()).batchWrite(any(), any());
+    }
+
+    @Test
+    void failedBatchIsWrittenAgain() {
+        AtomicInteger failures = new AtomicInteger(1);
+        DynamoDBMapper throttledMapper = mock(DynamoDBMapper.class);
+        when(throttledMapper.batchWrite(any(), any())).thenAnswer(invocation -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new ProvisionedThroughputExceededException("throttled");
+            }
+            return dynamoDBMapper.batchWrite(invocation.getArgument(0), invocation.getArgument(1));
+        });
+        repository.shutdown();
+        repository = new WriteBehindUserTimerRepository(table, throttledMapper, 1000, 3_600_000, 2, null);
+        repository.save(timer("user-1"));
+
+        repository.flush();
+
+        assertTrue(table.existsById("user-1"));
+        assertEquals(List.of(1), batchSizes);
+    }
+
+    @Test
+    void shutdownOfOuterDecoratorWritesWhatIsQueued() {
+        MeteredUserTimerRepository meteredRepository = new MeteredUserTimerRepository(repository,
+                new TimerMetrics(new SimpleMeterRegistry()));
+        repository.save(timer("user-1"));
+
+        meteredRepository.shutdown();
+
+        assertTrue(table.existsById("user-1"));
+    }
+
+    private static UserTimer timer(String lpaId) {
+        return UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(lpaId)
+                .startTime(START)
+                .duration(3600)
+                .endTime(START.plusHours(1))
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.tools.converters.CursorConverter;
+
+class ActiveTimerIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final ActiveTimerIndex index = new ActiveTimerIndex();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= 5; i++) {
+            index.put(timer("user-" + i, NOW.plusMinutes(i)));
+        }
+    }
+
+    @Test
+    void pagesRunFromTheFirstToTheLastTimer() {
+        TimerPage<UserTimer> first = page(null, 2);
+        TimerPage<UserTimer> second = page(first.nextCursor(), 2);
+        TimerPage<UserTimer> last = page(second.nextCursor(), 2);
+
+        assertEquals(List.of("user-1", "user-2"), lpaIds(first));
+        assertEquals(List.of("user-3", "user-4"), lpaIds(second));
+        assertEquals(List.of("user-5"), lpaIds(last));
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void lastFullPageHasNoNextCursor() {
+        index.remove("user-5");
+
+        TimerPage<UserTimer> first = page("", 2);
+        TimerPage<UserTimer> last = page(first.nextCursor(), 2);
+
+        assertNotNull(first.nextCursor());
+        assertEquals(List.of("user-3", "user-4"), lpaIds(last));
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void cursorPastTheEndGivesAnEmptyLastPage() {
+        TimerPage<UserTimer> page = page(CursorConverter.encode("user-9"), 2);
+
+        assertEquals(List.of(), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void removalBetweenPagesSkipsNoRemainingTimer() {
+        TimerPage<UserTimer> first = page(null, 2);
+
+        // the timer the cursor points at and the next one go away
+        index.remove("user-2");
+        index.remove("user-3");
+        TimerPage<UserTimer> second = page(first.nextCursor(), 2);
+
+        assertEquals(List.of("user-4", "user-5"), lpaIds(second));
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void expiredTimersAndTimersBeyondTheLimitAreLeftOut() {
+        index.put(timer("user-0", NOW));
+
+        TimerPage<UserTimer> page = index.page(null, 10, NOW, NOW.plusMinutes(3));
+
+        assertEquals(List.of("user-1", "user-2"), lpaIds(page));
+        assertNull(page.nextCursor());
+    }
+
+    private TimerPage<UserTimer> page(String cursor, int limit) {
+        return index.page(cursor, limit, NOW, null);
+    }
+
+    private static List<String> lpaIds(TimerPage<UserTimer> page) {
+        return page.items().stream().map(UserTimer::getLpaId).toList();
+    }
+
+    private static UserTimer timer(String lpaId, LocalDateTime endTime) {
+        return UserTimer.builder().lpaId(lpaId).endTime(endTime).build();
+    }
+}
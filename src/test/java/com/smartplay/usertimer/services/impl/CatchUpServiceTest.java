@@ -0,0 +1,126 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.simulation.VirtualClock;
+
+class CatchUpServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private CatchUpService catchUpService;
+    private List<String> completed;
+
+    @BeforeEach
+    void setUp() {
+        catchUpService = new CatchUpService(new VirtualClock(NOW), 1000, 10, 10);
+        completed = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        catchUpService.shutdown();
+    }
+
+    @Test
+    void completesOldestFirst() throws InterruptedException {
+        catchUpService.submit(List.of(overdue("user-2", 2), overdue("user-3", 3), overdue("user-1", 1)));
+
+        catchUpService.start(batch -> {
+            batch.forEach(timer -> completed.add(timer.getLpaId()));
+            return 0;
+        });
+
+        awaitTrue(() -> completed.size() == 3);
+        assertEquals(List.of("user-3", "user-2", "user-1"), completed);
+        assertEquals(3, catchUpService.getProgress().completed());
+    }
+
+    @Test
+    void failedBatchIsQueuedAgain() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        catchUpService.submit(List.of(overdue("user-1", 1), overdue("user-2", 2), overdue("user-3", 3)));
+
+        catchUpService.start(batch -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("table unavailable");
+            }
+            batch.forEach(timer -> completed.add(timer.getLpaId()));
+            return batch.size();
+        });
+
+        awaitTrue(() -> completed.size() == 3);
+        assertEquals(List.of("user-3", "user-2", "user-1"), completed);
+        assertEquals(3, catchUpService.getProgress().failed());
+        assertEquals(3, catchUpService.getProgress().completed());
+        assertEquals(3, catchUpService.getProgress().missedWindows());
+        assertEquals(0, catchUpService.getProgress().pending());
+    }
+
+    @Test
+    void userStoppedDuringFailedBatchIsNotQueuedAgain() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        catchUpService.submit(List.of(overdue("user-1", 1), overdue("user-2", 2)));
+
+        catchUpService.start(batch -> {
+            if (calls.incrementAndGet() == 1) {
+                catchUpService.cancel("user-2");
+                throw new IllegalStateException("table unavailable");
+            }
+            batch.forEach(timer -> completed.add(timer.getLpaId()));
+            return 0;
+        });
+
+        awaitTrue(() -> completed.size() == 1);
+        assertEquals(List.of("user-1"), completed);
+        assertFalse(catchUpService.isPending("user-2"));
+    }
+
+    @Test
+    void cancelledTimerIsSkipped() throws InterruptedException {
+        catchUpService.submit(List.of(overdue("user-1", 1), overdue("user-2", 2)));
+        catchUpService.cancel("user-1");
+
+        catchUpService.start(batch -> {
+            completed.addAll(batch.stream().map(UserTimer::getLpaId).collect(Collectors.toList()));
+            return 0;
+        });
+
+        awaitTrue(() -> catchUpService.getProgress().pending() == 0 && !completed.isEmpty());
+        assertEquals(List.of("user-2"), completed);
+        assertEquals(1, catchUpService.getProgress().cancelled());
+    }
+
+    private static UserTimer overdue(String lpaId, long hoursOverdue) {
+        LocalDateTime endTime = NOW.minusHours(hoursOverdue);
+        return UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(lpaId)
+                .startTime(endTime.minusHours(4))
+                .duration(TimeUnit.HOURS.toSeconds(4))
+                .endTime(endTime)
+                .build();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
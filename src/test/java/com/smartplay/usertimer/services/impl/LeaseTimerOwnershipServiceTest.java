@@ -0,0 +1,292 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.data.TimerLease;
+import com.smartplay.usertimer.repository.interfaces.ITimerLeaseRepository;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService.OwnershipListener;
+
+/**
+ * Several nodes sharing an in-memory lease table, each behind its own
+ * connection that a test can cut to simulate a node that is unreachable.
+ */
+class LeaseTimerOwnershipServiceTest {
+
+    private static final int PARTITIONS = 8;
+    private static final Set<Integer> ALL_PARTITIONS = IntStream.range(0, PARTITIONS).boxed()
+            .collect(Collectors.toSet());
+    private static final long LEASE_DURATION_MILLIS = 600;
+    private static final long HEARTBEAT_MILLIS = 100;
+
+    private final InMemoryLeaseTable leaseTable = new InMemoryLeaseTable();
+    private final OwnershipLedger ledger = new OwnershipLedger();
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Node node : nodes) {
+            node.service().shutdown();
+        }
+    }
+
+    @Test
+    void everyPartitionHasExactlyOneOwner() {
+        Node a = start("a", LEASE_DURATION_MILLIS);
+        Node b = start("b", LEASE_DURATION_MILLIS);
+        Node c = start("c", LEASE_DURATION_MILLIS);
+
+        awaitTrue(() -> owned(a).size() + owned(b).size() + owned(c).size() == PARTITIONS
+                && ledger.owners().keySet().equals(ALL_PARTITIONS)
+                && owned(a).size() <= 3 && owned(b).size() <= 3 && owned(c).size() <= 3);
+
+        Set<Integer> union = new HashSet<>(owned(a));
+        union.addAll(owned(b));
+        union.addAll(owned(c));
+        assertEquals(ALL_PARTITIONS, union);
+        assertEquals(3, a.service().getStats().liveNodes());
+        ledger.assertNoPartitionWasSharedAtAnyTime();
+    }
+
+    @Test
+    void joiningNodesAreHandedTheirShare() {
+        Node a = start("a", LEASE_DURATION_MILLIS);
+        awaitTrue(() -> owned(a).equals(ALL_PARTITIONS));
+
+        Node b = start("b", LEASE_DURATION_MILLIS);
+        awaitTrue(() -> owned(a).size() == 4 && owned(b).size() == 4);
+
+        Node c = start("c", LEASE_DURATION_MILLIS);
+        awaitTrue(() -> owned(a).size() + owned(b).size() + owned(c).size() == PARTITIONS
+                && owned(c).size() >= 2 && owned(a).size() <= 3 && owned(b).size() <= 3);
+
+        // the live nodes released the partitions themselves, none were lost
+        assertEquals(0, a.service().getStats().lost() + b.service().getStats().lost());
+        ledger.assertNoPartitionWasSharedAtAnyTime();
+    }
+
+    @Test
+    void leasesOfAnUnreachableNodeAreTakenOverAfterTheLeaseDuration() {
+        Node a = start("a", LEASE_DURATION_MILLIS);
+        Node b = start("b", LEASE_DURATION_MILLIS);
+        awaitTrue(() -> owned(a).size() == 4 && owned(b).size() == 4);
+        Set<Integer> partitionsOfB = owned(b);
+
+        long cutNanos = System.nanoTime();
+        b.connection().cut();
+        awaitTrue(() -> owned(a).equals(ALL_PARTITIONS));
+        long takeoverMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cutNanos);
+
+        // b renewed at most one heartbeat before it was cut
+        assertTrue(takeoverMillis >= LEASE_DURATION_MILLIS - HEARTBEAT_MILLIS, takeoverMillis + " ms");
+        // fenced: b dropped its partitions before a took them
+        assertEquals(Set.of(), owned(b));
+        assertEquals(4, b.service().getStats().lost());
+        assertTrue(partitionsOfB.stream().allMatch(partition -> "a".equals(ledger.owners().get(partition))));
+        ledger.assertNoPartitionWasSharedAtAnyTime();
+    }
+
+    @Test
+    void leasesOfANodeShuttingDownAreTakenOverAtOnce() throws InterruptedException {
+        // long enough that only a released lease can be taken within the test
+        long leaseDurationMillis = 30_000;
+        Node a = start("a", leaseDurationMillis);
+        Node b = start("b", leaseDurationMillis);
+        awaitTrue(() -> owned(a).size() == 4 && owned(b).size() == 4);
+
+        b.service().shutdown();
+
+        awaitTrue(() -> owned(a).equals(ALL_PARTITIONS));
+        assertEquals(1, a.service().getStats().liveNodes());
+        assertTrue(leaseTable.findAll().stream().noneMatch(lease -> "b".equals(lease.owner())));
+        ledger.assertNoPartitionWasSharedAtAnyTime();
+    }
+
+    private Node start(String nodeId, long leaseDurationMillis) {
+        NodeConnection connection = new NodeConnection(leaseTable);
+        LeaseTimerOwnershipService service = new LeaseTimerOwnershipService(connection, nodeId, PARTITIONS,
+                leaseDurationMillis, HEARTBEAT_MILLIS);
+        service.start(ledger.listenerOf(nodeId));
+        Node node = new Node(service, connection);
+        nodes.add(node);
+        return node;
+    }
+
+    private static Set<Integer> owned(Node node) {
+        return node.service().getOwnedPartitions();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private record Node(LeaseTimerOwnershipService service, NodeConnection connection) {
+    }
+
+    /*
+     * The lease table with the conditional writes of TimerLeaseRepository
+     */
+    private static final class InMemoryLeaseTable implements ITimerLeaseRepository {
+
+        private final Map<String, TimerLease> rows = new HashMap<>();
+
+        @Override
+        public synchronized List<TimerLease> findAll() {
+            return List.copyOf(rows.values());
+        }
+
+        @Override
+        public synchronized TimerLease acquire(String leaseKey, String owner, TimerLease expected) {
+            TimerLease current = rows.get(leaseKey);
+            if (expected == null ? current != null : current == null || current.version() != expected.version()) {
+                return null;
+            }
+            return put(new TimerLease(leaseKey, owner, expected == null ? 1 : expected.version() + 1));
+        }
+
+        @Override
+        public synchronized TimerLease renew(TimerLease lease) {
+            return isOwned(lease) ? put(new TimerLease(lease.leaseKey(), lease.owner(), lease.version() + 1)) : null;
+        }
+
+        @Override
+        public synchronized boolean release(TimerLease lease) {
+            return isOwned(lease) && put(new TimerLease(lease.leaseKey(), null, lease.version() + 1)) != null;
+        }
+
+        @Override
+        public synchronized boolean delete(TimerLease lease) {
+            TimerLease current = rows.get(lease.leaseKey());
+            return current != null && current.version() == lease.version() && rows.remove(lease.leaseKey()) != null;
+        }
+
+        private boolean isOwned(TimerLease lease) {
+            TimerLease current = rows.get(lease.leaseKey());
+            return current != null && lease.owner().equals(current.owner()) && current.version() == lease.version();
+        }
+
+        private TimerLease put(TimerLease lease) {
+            rows.put(lease.leaseKey(), lease);
+            return lease;
+        }
+    }
+
+    /*
+     * The lease table as one node reaches it; once cut every call fails
+     */
+    private static final class NodeConnection implements ITimerLeaseRepository {
+
+        private final ITimerLeaseRepository table;
+        private volatile boolean cut;
+
+        private NodeConnection(ITimerLeaseRepository table) {
+            this.table = table;
+        }
+
+        private void cut() {
+            cut = true;
+        }
+
+        @Override
+        public List<TimerLease> findAll() {
+            checkReachable();
+            return table.findAll();
+        }
+
+        @Override
+        public TimerLease acquire(String leaseKey, String owner, TimerLease expected) {
+            checkReachable();
+            return table.acquire(leaseKey, owner, expected);
+        }
+
+        @Override
+        public TimerLease renew(TimerLease lease) {
+            checkReachable();
+            return table.renew(lease);
+        }
+
+        @Override
+        public boolean release(TimerLease lease) {
+            checkReachable();
+            return table.release(lease);
+        }
+
+        @Override
+        public boolean delete(TimerLease lease) {
+            checkReachable();
+            return table.delete(lease);
+        }
+
+        private void checkReachable() {
+            if (cut) {
+                throw new IllegalStateException("lease table unreachable");
+            }
+        }
+    }
+
+    /*
+     * Who holds which partition according to the listeners, and every time a
+     * node was told it acquired a partition another node had not given up yet
+     */
+    private static final class OwnershipLedger {
+
+        private final Map<Integer, String> owners = new HashMap<>();
+        private final List<String> conflicts = new CopyOnWriteArrayList<>();
+
+        private OwnershipListener listenerOf(String nodeId) {
+            return new OwnershipListener() {
+                @Override
+                public void onPartitionsAcquired(Set<Integer> partitions) {
+                    acquired(nodeId, partitions);
+                }
+
+                @Override
+                public void onPartitionsReleased(Set<Integer> partitions) {
+                    released(nodeId, partitions);
+                }
+            };
+        }
+
+        private synchronized void acquired(String nodeId, Set<Integer> partitions) {
+            for (Integer partition : partitions) {
+                String previous = owners.put(partition, nodeId);
+                if (previous != null) {
+                    conflicts.add("partition " + partition + " acquired by " + nodeId + " while owned by " + previous);
+                }
+            }
+        }
+
+        private synchronized void released(String nodeId, Set<Integer> partitions) {
+            for (Integer partition : partitions) {
+                owners.remove(partition, nodeId);
+            }
+        }
+
+        private synchronized Map<Integer, String> owners() {
+            return Map.copyOf(owners);
+        }
+
+        private void assertNoPartitionWasSharedAtAnyTime() {
+            assertEquals(List.of(), conflicts);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.smartplay.usertimer.model.stats.StorageMigrationStats;
+import com.smartplay.usertimer.tools.converters.UserTimerStorageFormat;
+import com.smartplay.usertimer.tools.scheduling.ExpiryBuckets;
+
+/**
+ * Migration of single scanned rows to the compact format against a mocked
+ * DynamoDB client.
+ */
+class StorageMigrationServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final LocalDateTime END = START.plusHours(4);
+    private static final UUID TIMER_ID = UUID.randomUUID();
+
+    private final UserTimerStorageFormat compactFormat = new UserTimerStorageFormat(UserTimerStorageFormat.FORMAT_COMPACT);
+    private AmazonDynamoDB amazonDynamoDB;
+    private StorageMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() {
+        amazonDynamoDB = mock(AmazonDynamoDB.class);
+        migrationService = new StorageMigrationService(amazonDynamoDB, compactFormat, false, 100, 500);
+    }
+
+    @Test
+    void versionedRowIsRewrittenOnlyWhileItKeepsItsVersion() {
+        Map<String, AttributeValue> item = stringRow();
+        item.put("version", new AttributeValue().withN("3"));
+
+        migrationService.migrate(item);
+
+        UpdateItemRequest request = updateRequest();
+        assertEquals("attribute_exists(lpaId) AND #version = :expectedVersion", request.getConditionExpression());
+        Map<String, AttributeValue> values = request.getExpressionAttributeValues();
+        assertEquals(new AttributeValue().withN("3"), values.get(":expectedVersion"));
+        assertEquals(compactFormat.dateTime(START), values.get(":startTime"));
+        assertEquals(compactFormat.dateTime(END), values.get(":endTime"));
+        assertEquals(compactFormat.timerId(TIMER_ID), values.get(":timerId"));
+        assertEquals(Long.toString(ExpiryBuckets.bucketOf(END)), values.get(":expiryBucket").getN());
+        assertEquals(Long.toString(END.toEpochSecond(ZoneOffset.UTC)), values.get(":expiresAt").getN());
+        assertEquals(new AttributeValue().withS("user-1"), request.getKey().get("lpaId"));
+        assertStats(1, 0, 0);
+    }
+
+    @Test
+    void unversionedRowIsRewrittenOnlyWhileItHasNoVersion() {
+        migrationService.migrate(stringRow());
+
+        UpdateItemRequest request = updateRequest();
+        assertEquals("attribute_exists(lpaId) AND attribute_not_exists(#version)", request.getConditionExpression());
+        assertFalse(request.getExpressionAttributeValues().containsKey(":expectedVersion"));
+        assertStats(1, 0, 0);
+    }
+
+    @Test
+    void mixedRowIsRewritten() {
+        Map<String, AttributeValue> item = stringRow();
+        item.put(UserTimerStorageFormat.TIMER_ID, compactFormat.timerId(TIMER_ID));
+        item.put(UserTimerStorageFormat.END_TIME, compactFormat.dateTime(END));
+
+        migrationService.migrate(item);
+
+        assertEquals(compactFormat.dateTime(START), updateRequest().getExpressionAttributeValues().get(":startTime"));
+        assertStats(1, 0, 0);
+    }
+
+    @Test
+    void rowAlreadyConvertedIsSkipped() {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("lpaId", new AttributeValue().withS("user-1"));
+        item.put(UserTimerStorageFormat.START_TIME, compactFormat.dateTime(START));
+        item.put(UserTimerStorageFormat.END_TIME, compactFormat.dateTime(END));
+        item.put(UserTimerStorageFormat.TIMER_ID, compactFormat.timerId(TIMER_ID));
+
+        migrationService.migrate(item);
+
+        verify(amazonDynamoDB, never()).updateItem(any(UpdateItemRequest.class));
+        assertStats(0, 1, 0);
+    }
+
+    @Test
+    void rowChangedSinceTheScanIsSkipped() {
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("version changed"));
+        Map<String, AttributeValue> item = stringRow();
+        item.put("version", new AttributeValue().withN("3"));
+
+        migrationService.migrate(item);
+        migrationService.migrate(stringRow());
+
+        assertStats(0, 2, 0);
+    }
+
+    @Test
+    void failedRewriteIsCounted() {
+        when(amazonDynamoDB.updateItem(any(UpdateItemRequest.class))).thenThrow(new IllegalStateException("down"));
+
+        migrationService.migrate(stringRow());
+
+        assertStats(0, 0, 1);
+    }
+
+    private UpdateItemRequest updateRequest() {
+        ArgumentCaptor<UpdateItemRequest> request = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        verify(amazonDynamoDB).updateItem(request.capture());
+        return request.getValue();
+    }
+
+    private void assertStats(long migrated, long skipped, long failed) {
+        StorageMigrationStats stats = migrationService.getStats();
+        assertEquals(migrated, stats.migrated());
+        assertEquals(skipped, stats.skipped());
+        assertEquals(failed, stats.failed());
+    }
+
+    private static Map<String, AttributeValue> stringRow() {
+        UserTimerStorageFormat stringFormat = new UserTimerStorageFormat(UserTimerStorageFormat.FORMAT_STRING);
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("lpaId", new AttributeValue().withS("user-1"));
+        item.put(UserTimerStorageFormat.START_TIME, stringFormat.dateTime(START));
+        item.put(UserTimerStorageFormat.END_TIME, stringFormat.dateTime(END));
+        item.put(UserTimerStorageFormat.TIMER_ID, stringFormat.timerId(TIMER_ID));
+        return item;
+    }
+}
@@ -0,0 +1,169 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.smartplay.usertimer.model.dto.TimerStreamEvent;
+
+class TimerEventStreamTest {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("event:(\\w+)");
+
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private TimerEventStream stream;
+
+    @AfterEach
+    void tearDown() {
+        if (stream != null) {
+            stream.shutdown();
+        }
+    }
+
+    @Test
+    void reconnectingSubscriberIsSentTheEventsItMissed() {
+        stream = stream(10, 100);
+        long first = stream.getStats().lastSequence() + 1;
+        stream.stopped("user-1");
+        stream.stopped("other-2");
+        stream.stopped("user-3");
+
+        RecordingEmitter emitter = subscribe("user-", first);
+        stream.stopped("user-4");
+
+        awaitTrue(() -> emitter.sent.size() == 2);
+        assertEquals(List.of("stopped", "stopped"), emitter.names());
+        assertEquals(List.of(first + 2, first + 3), emitter.sequences());
+    }
+
+    @Test
+    void subscriberBehindTheReplayGetsAGapFirst() {
+        stream = stream(2, 100);
+        long first = stream.getStats().lastSequence() + 1;
+        for (int i = 0; i < 4; i++) {
+            stream.stopped("user-" + i);
+        }
+
+        RecordingEmitter behind = subscribe(null, first);
+        // a sequence of an earlier run of the service
+        RecordingEmitter ahead = subscribe(null, first + 100);
+
+        awaitTrue(() -> behind.sent.size() == 3 && ahead.sent.size() == 1);
+        assertEquals(List.of("gap", "stopped", "stopped"), behind.names());
+        assertEquals(Map.of("afterSequence", first, "oldestSequence", first + 2), behind.sent.get(0).data());
+        assertEquals(List.of(first + 2, first + 3), behind.sequences());
+        assertEquals(List.of("gap"), ahead.names());
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithItsLastSequence() throws InterruptedException {
+        stream = stream(0, 1);
+        RecordingEmitter emitter = subscribe(null, null);
+        emitter.blockSends();
+        long first = stream.getStats().lastSequence() + 1;
+
+        stream.stopped("user-1");
+        assertTrue(emitter.sending.await(10, TimeUnit.SECONDS));
+        // the second event fills the buffer, the third overflows it
+        stream.stopped("user-2");
+        stream.stopped("user-3");
+        emitter.release.countDown();
+
+        awaitTrue(() -> emitter.completed);
+        assertEquals(List.of("stopped", "overflow"), emitter.names());
+        assertEquals(Map.of("lastSequence", first), emitter.sent.get(1).data());
+        assertEquals(1, stream.getStats().overflowed());
+        assertEquals(0, stream.getStats().subscribers());
+    }
+
+    private TimerEventStream stream(int replayCapacity, int bufferSize) {
+        return new TimerEventStream(replayCapacity, bufferSize, 10, 0, 0) {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    private RecordingEmitter subscribe(String lpaIdPrefix, Long afterSequence) {
+        stream.subscribe(lpaIdPrefix, afterSequence);
+        return emitters.get(emitters.size() - 1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private record Sent(String name, Object data) {
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Sent> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private CountDownLatch release = new CountDownLatch(0);
+        private volatile boolean completed;
+
+        private void blockSends() {
+            release = new CountDownLatch(1);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (var part : builder.build()) {
+                if (part.getData() instanceof String string) {
+                    text.append(string);
+                } else {
+                    data = part.getData();
+                }
+            }
+            Matcher name = EVENT_NAME.matcher(text);
+            if (name.find()) {
+                sent.add(new Sent(name.group(1), data));
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private List<String> names() {
+            return sent.stream().map(Sent::name).toList();
+        }
+
+        private List<Long> sequences() {
+            return sent.stream()
+                    .filter(s -> s.data() instanceof TimerStreamEvent)
+                    .map(s -> ((TimerStreamEvent) s.data()).sequence())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.TimerPage;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerExpiryRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerScanRepository;
+import com.smartplay.usertimer.simulation.InMemoryUserTimerRepository;
+import com.smartplay.usertimer.simulation.VirtualClock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Parallel recovery over a table held in memory, split into segments by the
+ * hash of lpaId like a DynamoDB parallel scan.
+ */
+class TimerRecoveryServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+    private static final int SEGMENTS = 3;
+    private static final int PAGE_SIZE = 2;
+    private static final long READY_HORIZON_SECONDS = 900;
+
+    // every 5 minutes from 10 minutes ago, user-0 to user-4 end within the ready horizon
+    private final List<UserTimer> table = IntStream.range(0, 12)
+            .<UserTimer>mapToObj(i -> UserTimer.builder().lpaId("user-" + i).endTime(NOW.plusMinutes(i * 5L - 10)).build())
+            .toList();
+    private final Set<String> nearTermIds = Set.of("user-0", "user-1", "user-2", "user-3", "user-4");
+    private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
+    private final List<Integer> scannedSegments = new CopyOnWriteArrayList<>();
+    private TimerRecoveryService recoveryService;
+
+    @BeforeEach
+    void setUp() {
+        Set<Integer> segmentsWithRows = table.stream()
+                .map(timer -> segmentOf(timer, SEGMENTS))
+                .collect(Collectors.toSet());
+        assertEquals(SEGMENTS, segmentsWithRows.size(), "every segment should hold rows");
+    }
+
+    @AfterEach
+    void tearDown() {
+        recoveryService.shutdown();
+    }
+
+    @Test
+    void scanDeliversEverySegmentAndArmsAfterTheNearTermPhase() {
+        recoveryService = recoveryService(TimerRecoveryService.SOURCE_SCAN, new TableExpiryRepository(table));
+
+        recover();
+
+        assertEquals(table.size(), deliveredIds().size());
+        assertEquals(List.of(0, 0, 1, 1, 2, 2), scannedSegments.stream().sorted().toList());
+        for (Delivery delivery : deliveries) {
+            // the near-term pages come before the service is armed, the rest after
+            boolean nearTerm = nearTermIds.containsAll(delivery.lpaIds());
+            assertTrue(nearTerm || delivery.lpaIds().stream().noneMatch(nearTermIds::contains), delivery.toString());
+            assertEquals(!nearTerm, delivery.armed(), delivery.toString());
+            assertTrue(delivery.lpaIds().size() <= PAGE_SIZE);
+        }
+        assertEquals(table.size(), recoveryService.getProgress().rowsLoaded());
+    }
+
+    @Test
+    void indexSourceSkipsDeliveredRowsAndScansTheRest() {
+        // the index has not caught up with user-0 yet
+        List<UserTimer> indexed = table.stream().filter(timer -> !timer.getLpaId().equals("user-0")).toList();
+        recoveryService = recoveryService(TimerRecoveryService.SOURCE_INDEX, new TableExpiryRepository(indexed));
+
+        recover();
+
+        assertEquals(table.size(), deliveredIds().size());
+        assertEquals(List.of(0, 1, 2), scannedSegments.stream().sorted().toList());
+        Set<String> deliveredBeforeArmed = deliveries.stream()
+                .filter(delivery -> !delivery.armed())
+                .flatMap(delivery -> delivery.lpaIds().stream())
+                .collect(Collectors.toSet());
+        assertEquals(Set.of("user-1", "user-2", "user-3", "user-4"), deliveredBeforeArmed);
+    }
+
+    private TimerRecoveryService recoveryService(String nearTermSource, IUserTimerExpiryRepository expiryRepository) {
+        return new TimerRecoveryService(new InMemoryUserTimerRepository(16), new TableScanRepository(),
+                expiryRepository, new VirtualClock(NOW), new TimerMetrics(new SimpleMeterRegistry()),
+                TimerRecoveryService.MODE_PARALLEL, nearTermSource, 86400, SEGMENTS, PAGE_SIZE,
+                READY_HORIZON_SECONDS);
+    }
+
+    private void recover() {
+        assertFalse(recoveryService.isNearTermArmed());
+        recoveryService.recover(page -> deliveries.add(new Delivery(
+                page.stream().map(UserTimer::getLpaId).toList(), recoveryService.isNearTermArmed())));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"COMPLETED".equals(recoveryService.getProgress().phase()) && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertEquals("COMPLETED", recoveryService.getProgress().phase());
+        assertTrue(recoveryService.isNearTermArmed());
+    }
+
+    /*
+     * The delivered lpaIds, checking that none came twice
+     */
+    private Set<String> deliveredIds() {
+        List<String> ids = deliveries.stream().flatMap(delivery -> delivery.lpaIds().stream()).toList();
+        Set<String> distinct = Set.copyOf(ids);
+        assertEquals(ids.size(), distinct.size(), ids.toString());
+        return distinct;
+    }
+
+    private static int segmentOf(UserTimer timer, int totalSegments) {
+        return Math.floorMod(timer.getLpaId().hashCode(), totalSegments);
+    }
+
+    private static boolean inRange(UserTimer timer, LocalDateTime endTimeFrom, LocalDateTime endTimeTo) {
+        return (endTimeFrom == null || !timer.getEndTime().isBefore(endTimeFrom))
+                && (endTimeTo == null || timer.getEndTime().isBefore(endTimeTo));
+    }
+
+    private static void deliverInPages(List<UserTimer> rows, int pageSize, Consumer<List<UserTimer>> pageConsumer) {
+        for (int from = 0; from < rows.size(); from += pageSize) {
+            pageConsumer.accept(new ArrayList<>(rows.subList(from, Math.min(rows.size(), from + pageSize))));
+        }
+    }
+
+    private record Delivery(List<String> lpaIds, boolean armed) {
+    }
+
+    private class TableScanRepository implements IUserTimerScanRepository {
+
+        @Override
+        public void scanSegment(int segment, int totalSegments, LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+                int pageSize, Consumer<List<UserTimer>> pageConsumer) {
+            scannedSegments.add(segment);
+            List<UserTimer> rows = table.stream()
+                    .filter(timer -> segmentOf(timer, totalSegments) == segment)
+                    .filter(timer -> inRange(timer, endTimeFrom, endTimeTo))
+                    .toList();
+            deliverInPages(rows, pageSize, pageConsumer);
+        }
+
+        @Override
+        public TimerPage<UserTimer> scanPage(String cursor, int limit) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private record TableExpiryRepository(List<UserTimer> rows) implements IUserTimerExpiryRepository {
+
+        @Override
+        public void queryBucket(long bucket, int pageSize, Consumer<List<UserTimer>> pageConsumer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void queryEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo, int pageSize,
+                Consumer<List<UserTimer>> pageConsumer) {
+            deliverInPages(rows.stream().filter(timer -> inRange(timer, endTimeFrom, endTimeTo)).toList(),
+                    pageSize, pageConsumer);
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.smartplay.usertimer.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.model.ProvisionedThroughputExceededException;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.dto.BulkStartResult;
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.model.stats.TimerClusterStats;
+import com.smartplay.usertimer.model.stats.TimerRecoveryProgress;
+import com.smartplay.usertimer.repository.impl.AsyncUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+import com.smartplay.usertimer.services.interfaces.ITimerOwnershipService;
+import com.smartplay.usertimer.services.interfaces.ITimerRecoveryService;
+import com.smartplay.usertimer.simulation.InMemoryNotificationService;
+import com.smartplay.usertimer.simulation.InMemoryUserTimerRepository;
+import com.smartplay.usertimer.simulation.SimulatedTimerScheduler;
+import com.smartplay.usertimer.simulation.VirtualClock;
+import com.smartplay.usertimer.tools.scheduling.WheelTimerStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * TimerService on the simulation's virtual clock, scheduler and in-memory
+ * table, with every stage on the calling thread.
+ */
+class TimerServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Executor CALLER_EXECUTOR = Runnable::run;
+    private static final long DURATION = ConfigurationService.TIMER_WINDOW_IN_SECONDS;
+
+    private VirtualClock clock;
+    private SimulatedTimerScheduler timerScheduler;
+    private InMemoryUserTimerRepository repository;
+    private ActiveTimerIndex activeTimerIndex;
+    private List<ResetTimerEvent> events;
+    private SimpleMeterRegistry meterRegistry;
+    private TimerService timerService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new VirtualClock(START);
+        timerScheduler = new SimulatedTimerScheduler(clock, 1000, new WheelTimerStore(clock.epochSecond()));
+        repository = new InMemoryUserTimerRepository(16);
+        activeTimerIndex = new ActiveTimerIndex();
+        events = new ArrayList<>();
+        meterRegistry = new SimpleMeterRegistry();
+        timerService = newTimerService(repository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        timerService.shutdown();
+    }
+
+    @Test
+    void startReplacesStoredTimerThatIsNotArmed() {
+        UserTimer staleTimer = storedTimer("user-1", START.minusHours(8));
+        repository.rollover(staleTimer, copyOf(staleTimer));
+
+        timerService.startTimer("user-1");
+
+        UserTimer stored = repository.findById("user-1").orElseThrow();
+        assertEquals(START, stored.getStartTime());
+        assertEquals(START.plusSeconds(DURATION), stored.getEndTime());
+        assertEquals(3L, stored.getVersion());
+        assertTrue(timerScheduler.isScheduled("user-1"));
+    }
+
+    @Test
+    void startAsyncReplacesStoredTimerThatIsNotArmed() {
+        storedTimer("user-1", START.minusHours(8));
+
+        timerService.startTimerAsync("user-1").join();
+
+        UserTimer stored = repository.findById("user-1").orElseThrow();
+        assertEquals(START.plusSeconds(DURATION), stored.getEndTime());
+        assertEquals(2L, stored.getVersion());
+        assertTrue(timerScheduler.isScheduled("user-1"));
+    }
+
+    @Test
+    void rolloverOfReplacedTimerIsSkipped() {
+        UserTimer staleTimer = storedTimer("user-1", START.minusHours(8));
+        UserTimer expiredTimer = copyOf(staleTimer);
+
+        timerService.startTimer("user-1");
+
+        assertFalse(repository.rollover(expiredTimer, copyOf(expiredTimer)));
+        assertEquals(START, repository.findById("user-1").orElseThrow().getStartTime());
+    }
+
+    @Test
+    void startedTimerFiresAndRollsOver() {
+        timerService.startTimer("user-1");
+
+        timerScheduler.advanceTo(START.plusSeconds(DURATION));
+
+        assertEquals(1, events.size());
+        UserTimer stored = repository.findById("user-1").orElseThrow();
+        assertEquals(START.plusSeconds(2 * DURATION), stored.getEndTime());
+        assertTrue(timerScheduler.isScheduled("user-1"));
+    }
+
+    @Test
+    void timersExpiringTogetherAreRearmedForTheirOwnNextEnd() {
+        LocalDateTime endTime = START.plusSeconds(DURATION);
+        UserTimer shortTimer = repository.save(UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId("user-1")
+                .startTime(START)
+                .duration(DURATION)
+                .endTime(endTime)
+                .build());
+        UserTimer longTimer = repository.save(UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId("user-2")
+                .startTime(endTime.minusSeconds(2 * DURATION))
+                .duration(2 * DURATION)
+                .endTime(endTime)
+                .build());
+        timerScheduler.scheduleAll(List.of(shortTimer, longTimer), DURATION);
+
+        timerScheduler.advanceTo(endTime);
+        timerScheduler.advanceTo(endTime.plusSeconds(DURATION));
+
+        assertEquals(3, events.size());
+        assertEquals(endTime.plusSeconds(2 * DURATION), repository.findById("user-1").orElseThrow().getEndTime());
+        assertEquals(endTime.plusSeconds(2 * DURATION), repository.findById("user-2").orElseThrow().getEndTime());
+    }
+
+    @Test
+    void failedRolloverIsRetried() throws InterruptedException {
+        AtomicInteger failures = new AtomicInteger(2);
+        timerService.shutdown();
+        timerService = newTimerService((currentTimer, nextTimer) -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new ProvisionedThroughputExceededException("throttled");
+            }
+            return repository.rollover(currentTimer, nextTimer);
+        });
+        timerService.startTimer("user-1");
+
+        timerScheduler.advanceTo(START.plusSeconds(DURATION));
+
+        LocalDateTime nextEndTime = START.plusSeconds(2 * DURATION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!nextEndTime.equals(activeTimerIndex.get("user-1").getEndTime()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(nextEndTime, activeTimerIndex.get("user-1").getEndTime());
+        assertEquals(nextEndTime, repository.findById("user-1").orElseThrow().getEndTime());
+        assertTrue(timerScheduler.isScheduled("user-1"));
+        assertEquals(1, events.size());
+        assertEquals(2.0, meterRegistry.counter("usertimer.timers.rollover.failures").count());
+    }
+
+    @Test
+    void bulkStartSkipsDuplicatesBlanksAndActiveTimers() {
+        timerService.startTimer("user-1");
+
+        BulkStartResult result = timerService.startTimers(List.of("user-1", "user-2", "user-2", " ", "user-3"));
+
+        assertEquals(5, result.requested());
+        assertEquals(2, result.started());
+        assertEquals(1, result.alreadyActive());
+        assertEquals(1, result.duplicates());
+        assertEquals(1, result.invalid());
+        assertEquals(0, result.failed());
+        assertEquals(List.of("user-1", "user-2", "user-3"), List.copyOf(result.results().keySet()));
+        assertEquals(BulkStartResult.Status.ALREADY_ACTIVE, result.results().get("user-1"));
+        assertEquals(BulkStartResult.Status.STARTED, result.results().get("user-2"));
+        assertTrue(timerScheduler.isScheduled("user-2"));
+        assertTrue(timerScheduler.isScheduled("user-3"));
+        assertEquals(1L, repository.findById("user-1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void bulkStartReplacesStoredTimerThatIsNotArmed() {
+        UserTimer staleTimer = storedTimer("user-1", START.minusHours(8));
+        UserTimer expiredTimer = copyOf(staleTimer);
+
+        BulkStartResult result = timerService.startTimers(List.of("user-1", "user-2"));
+
+        assertEquals(2, result.started());
+        assertEquals(BulkStartResult.Status.STARTED, result.results().get("user-1"));
+        UserTimer stored = repository.findById("user-1").orElseThrow();
+        assertEquals(START, stored.getStartTime());
+        assertEquals(2L, stored.getVersion());
+        assertTrue(timerScheduler.isScheduled("user-1"));
+        // the rollover of the replaced timer fails on the version it carried
+        assertFalse(repository.rollover(expiredTimer, copyOf(expiredTimer)));
+    }
+
+    @Test
+    void bulkStartReportsAChunkThatCannotBeStored() {
+        timerService.shutdown();
+        repository = new InMemoryUserTimerRepository(16) {
+            @Override
+            public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+                throw new ProvisionedThroughputExceededException("throttled");
+            }
+        };
+        timerService = newTimerService(repository);
+
+        BulkStartResult result = timerService.startTimers(List.of("user-1", "user-2"));
+
+        assertEquals(0, result.started());
+        assertEquals(2, result.failed());
+        assertEquals(BulkStartResult.Status.FAILED, result.results().get("user-1"));
+        assertEquals(BulkStartResult.Status.FAILED, result.results().get("user-2"));
+        assertFalse(timerScheduler.isScheduled("user-1"));
+        assertEquals(0, repository.count());
+    }
+
+    @Test
+    void acquiredPartitionsAreArmedAndReleasedOnesDisarmed() throws InterruptedException {
+        storedTimer("0-user", START);
+        storedTimer("1-user", START);
+        storedTimer("2-user", START);
+        TableRecovery recovery = new TableRecovery(null);
+        ClusterOwnership ownership = new ClusterOwnership();
+        startClusterNode(recovery, ownership);
+
+        ownership.acquire(0, 1);
+        awaitLoads(recovery, 1);
+
+        assertTrue(timerScheduler.isScheduled("0-user"));
+        assertTrue(timerScheduler.isScheduled("1-user"));
+        assertFalse(timerScheduler.isScheduled("2-user"));
+
+        ownership.release(0);
+
+        assertFalse(timerScheduler.isScheduled("0-user"));
+        assertTrue(timerScheduler.isScheduled("1-user"));
+    }
+
+    @Test
+    void acquisitionsDuringALoadShareTheNextScan() throws InterruptedException {
+        storedTimer("0-user", START);
+        storedTimer("1-user", START);
+        storedTimer("2-user", START);
+        CountDownLatch gate = new CountDownLatch(1);
+        TableRecovery recovery = new TableRecovery(gate);
+        ClusterOwnership ownership = new ClusterOwnership();
+        startClusterNode(recovery, ownership);
+
+        ownership.acquire(0);
+        assertTrue(recovery.firstScanStarted.await(10, TimeUnit.SECONDS));
+        ownership.acquire(1);
+        ownership.acquire(2);
+        gate.countDown();
+        awaitLoads(recovery, 2);
+
+        assertTrue(timerScheduler.isScheduled("0-user"));
+        assertTrue(timerScheduler.isScheduled("1-user"));
+        assertTrue(timerScheduler.isScheduled("2-user"));
+        Thread.sleep(100);
+        assertEquals(2, recovery.scans.get());
+    }
+
+    @Test
+    void partitionReleasedDuringItsLoadIsNotArmed() throws InterruptedException {
+        storedTimer("0-user", START);
+        storedTimer("1-user", START);
+        ClusterOwnership ownership = new ClusterOwnership();
+        TableRecovery recovery = new TableRecovery(null) {
+            @Override
+            public void recoverAll(Consumer<List<UserTimer>> pageConsumer) {
+                ownership.release(0);
+                super.recoverAll(pageConsumer);
+            }
+        };
+        startClusterNode(recovery, ownership);
+
+        ownership.acquire(0, 1);
+        awaitLoads(recovery, 1);
+
+        assertFalse(timerScheduler.isScheduled("0-user"));
+        assertTrue(timerScheduler.isScheduled("1-user"));
+    }
+
+    @Test
+    void tieredRecoveryArmsOnlyTheHotTier() {
+        storedTimerEndingAt("user-hot", START.plusSeconds(600));
+        storedTimerEndingAt("user-cold", START.plusSeconds(3600));
+        storedTimerEndingAt("user-overdue", START.minusSeconds(60));
+
+        startTieredNode(new TableRecovery(null));
+
+        assertTrue(timerScheduler.isScheduled("user-hot"));
+        assertEquals(START.plusSeconds(600), activeTimerIndex.get("user-hot").getEndTime());
+        assertFalse(timerScheduler.isScheduled("user-cold"));
+        assertTrue(timerService.hasActiveTimer("user-cold"));
+        assertTrue(timerService.hasActiveTimer("user-overdue"));
+    }
+
+    @Test
+    void loadedSliceArmsTheTimersComingIntoTheHorizon() {
+        storedTimerEndingAt("user-cold", START.plusSeconds(3600));
+        storedTimerEndingAt("user-later", START.plusSeconds(7200));
+        startTieredNode(new TableRecovery(null));
+
+        timerScheduler.advanceTo(START.plusSeconds(2000));
+        timerService.loadNextSlice();
+        assertFalse(timerScheduler.isScheduled("user-cold"));
+
+        timerScheduler.advanceTo(START.plusSeconds(3000));
+        timerService.loadNextSlice();
+        assertTrue(timerScheduler.isScheduled("user-cold"));
+        assertFalse(timerScheduler.isScheduled("user-later"));
+
+        timerScheduler.advanceTo(START.plusSeconds(3600));
+        assertEquals(1, events.size());
+        assertEquals("user-cold", events.get(0).getLpaId());
+    }
+
+    @Test
+    void startInTieredModeStoresTheTimerInTheColdTier() {
+        startTieredNode(new TableRecovery(null));
+
+        timerService.startTimer("user-1");
+        // the stored row counts as active, so the user is not started twice
+        timerService.startTimer("user-1");
+        BulkStartResult result = timerService.startTimers(List.of("user-1", "user-2"));
+
+        UserTimer stored = repository.findById("user-1").orElseThrow();
+        assertEquals(START.plusSeconds(DURATION), stored.getEndTime());
+        assertEquals(1L, stored.getVersion());
+        assertFalse(timerScheduler.isScheduled("user-1"));
+        assertTrue(timerService.hasActiveTimer("user-1"));
+        assertEquals(BulkStartResult.Status.ALREADY_ACTIVE, result.results().get("user-1"));
+        assertEquals(BulkStartResult.Status.STARTED, result.results().get("user-2"));
+        assertFalse(timerScheduler.isScheduled("user-2"));
+        assertTrue(repository.existsById("user-2"));
+    }
+
+    private void startTieredNode(ITimerRecoveryService recovery) {
+        timerService.shutdown();
+        timerService = newTimerService(repository, recovery, new SingleNodeOwnershipService(), true);
+        timerService.init();
+    }
+
+    private void startClusterNode(ITimerRecoveryService recovery, ClusterOwnership ownership) {
+        timerService.shutdown();
+        timerService = newTimerService(repository, recovery, ownership);
+        timerService.init();
+    }
+
+    private static void awaitLoads(TableRecovery recovery, int loads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (recovery.completedScans.get() < loads && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(loads, recovery.completedScans.get());
+    }
+
+    private TimerService newTimerService(IUserTimerRolloverRepository rolloverRepository) {
+        return newTimerService(rolloverRepository, new EmptyTableRecovery(), new SingleNodeOwnershipService());
+    }
+
+    private TimerService newTimerService(IUserTimerRolloverRepository rolloverRepository,
+            ITimerRecoveryService recovery, ITimerOwnershipService ownership) {
+        return newTimerService(rolloverRepository, recovery, ownership, false);
+    }
+
+    private TimerService newTimerService(IUserTimerRolloverRepository rolloverRepository,
+            ITimerRecoveryService recovery, ITimerOwnershipService ownership, boolean tiered) {
+        return new TimerService(repository, new ConfigurationService(),
+                new DirectEventOutbox(new InMemoryNotificationService(events::add)), clock, timerScheduler,
+                recovery, rolloverRepository, activeTimerIndex, CALLER_EXECUTOR, CALLER_EXECUTOR,
+                CALLER_EXECUTOR, new TimerMetrics(meterRegistry), ownership,
+                new CatchUpService(clock, 1000, 100, 10), new AsyncUserTimerRepository(repository, CALLER_EXECUTOR),
+                new TimerEventStream(0, 1000, 10, 0, 0),
+                30, 120, tiered, 900, 60, 10, 100);
+    }
+
+    private UserTimer storedTimer(String lpaId, LocalDateTime startTime) {
+        return repository.save(UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(lpaId)
+                .startTime(startTime)
+                .duration(DURATION)
+                .endTime(startTime.plusSeconds(DURATION))
+                .build());
+    }
+
+    private UserTimer storedTimerEndingAt(String lpaId, LocalDateTime endTime) {
+        return storedTimer(lpaId, endTime.minusSeconds(DURATION));
+    }
+
+    private static UserTimer copyOf(UserTimer timer) {
+        return UserTimer.builder()
+                .timerId(timer.getTimerId())
+                .lpaId(timer.getLpaId())
+                .startTime(timer.getStartTime())
+                .duration(timer.getDuration())
+                .endTime(timer.getEndTime())
+                .version(timer.getVersion())
+                .build();
+    }
+
+    private static class EmptyTableRecovery implements ITimerRecoveryService {
+
+        @Override
+        public void recover(Consumer<List<UserTimer>> pageConsumer) {
+            // nothing stored
+        }
+
+        @Override
+        public void recoverAll(Consumer<List<UserTimer>> pageConsumer) {
+            // nothing stored
+        }
+
+        @Override
+        public void recoverEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+                Consumer<List<UserTimer>> pageConsumer) {
+            // nothing stored
+        }
+
+        @Override
+        public boolean isNearTermArmed() {
+            return true;
+        }
+
+        @Override
+        public TimerRecoveryProgress getProgress() {
+            return new TimerRecoveryProgress("test", "COMPLETED", true, 0, 0, 0, 0, null);
+        }
+    }
+
+    /*
+     * Hands the whole in-memory table out as one page; the first scan waits
+     * for the gate, if there is one. Reads of an endTime range get the rows
+     * ending in it.
+     */
+    private class TableRecovery extends EmptyTableRecovery {
+
+        private final CountDownLatch gate;
+        private final CountDownLatch firstScanStarted = new CountDownLatch(1);
+        private final AtomicInteger scans = new AtomicInteger();
+        private final AtomicInteger completedScans = new AtomicInteger();
+
+        private TableRecovery(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void recoverAll(Consumer<List<UserTimer>> pageConsumer) {
+            if (scans.incrementAndGet() == 1 && gate != null) {
+                firstScanStarted.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            List<UserTimer> page = new ArrayList<>();
+            repository.findAll().forEach(page::add);
+            pageConsumer.accept(page);
+            completedScans.incrementAndGet();
+        }
+
+        @Override
+        public void recover(Consumer<List<UserTimer>> pageConsumer) {
+            List<UserTimer> page = new ArrayList<>();
+            repository.findAll().forEach(page::add);
+            pageConsumer.accept(page);
+        }
+
+        @Override
+        public void recoverEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+                Consumer<List<UserTimer>> pageConsumer) {
+            List<UserTimer> page = new ArrayList<>();
+            for (UserTimer timer : repository.findAll()) {
+                if (!timer.getEndTime().isBefore(endTimeFrom) && timer.getEndTime().isBefore(endTimeTo)) {
+                    page.add(timer);
+                }
+            }
+            pageConsumer.accept(page);
+        }
+    }
+
+    /*
+     * Partitions by the digit the test lpaIds start with, owned as the test
+     * acquires and releases them
+     */
+    private static final class ClusterOwnership implements ITimerOwnershipService {
+
+        private final Set<Integer> owned = ConcurrentHashMap.newKeySet();
+        private volatile OwnershipListener listener;
+
+        void acquire(Integer... partitions) {
+            owned.addAll(Set.of(partitions));
+            listener.onPartitionsAcquired(Set.of(partitions));
+        }
+
+        void release(Integer... partitions) {
+            owned.removeAll(Set.of(partitions));
+            listener.onPartitionsReleased(Set.of(partitions));
+        }
+
+        @Override
+        public boolean isClustered() {
+            return true;
+        }
+
+        @Override
+        public boolean owns(String lpaId) {
+            return owned.contains(partitionOf(lpaId));
+        }
+
+        @Override
+        public int partitionOf(String lpaId) {
+            return Character.getNumericValue(lpaId.charAt(0));
+        }
+
+        @Override
+        public Set<Integer> getOwnedPartitions() {
+            return Set.copyOf(owned);
+        }
+
+        @Override
+        public void start(OwnershipListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public TimerClusterStats getStats() {
+            return new TimerClusterStats("test-node", true, 10, List.copyOf(owned), 0, 0, 0, 0, -1);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.smartplay.usertimer.simulation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+import com.smartplay.usertimer.services.interfaces.INotificationService;
+
+/**
+ * Notification service that hands every ResetTimerEvent to a listener on the
+ * publishing thread instead of a sink.
+ */
+public class InMemoryNotificationService implements INotificationService {
+
+    private final Consumer<ResetTimerEvent> listener;
+    private final AtomicLong published = new AtomicLong();
+
+    public InMemoryNotificationService(Consumer<ResetTimerEvent> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public <T> void publishEvent(T event) {
+        if (!(event instanceof ResetTimerEvent resetTimerEvent)) {
+            throw new IllegalArgumentException("Unexpected event " + event);
+        }
+        listener.accept(resetTimerEvent);
+        published.incrementAndGet();
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+}
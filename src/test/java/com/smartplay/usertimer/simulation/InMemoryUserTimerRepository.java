@@ -0,0 +1,122 @@
+package com.smartplay.usertimer.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRepository;
+import com.smartplay.usertimer.repository.interfaces.IUserTimerRolloverRepository;
+
+/**
+ * UserTimer table in a map, with the version semantics of DynamoDBMapper:
+ * save() is conditional on the version attribute and increments it,
+ * saveAll() writes like batchSave() without a condition, and rollover() is
+ * conditional on it like UserTimerRolloverRepository. The entities are stored by reference, not
+ * copied, to keep the footprint of millions of rows down.
+ */
+public class InMemoryUserTimerRepository implements IUserTimerRepository, IUserTimerRolloverRepository {
+
+    private final ConcurrentHashMap<String, UserTimer> table;
+
+    public InMemoryUserTimerRepository(int expectedSize) {
+        this.table = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    @Override
+    public <S extends UserTimer> S save(S entity) {
+        table.compute(entity.getLpaId(), (lpaId, stored) -> {
+            Long storedVersion = stored == null ? null : stored.getVersion();
+            if (!Objects.equals(storedVersion, entity.getVersion())) {
+                throw new ConditionalCheckFailedException("The conditional request failed");
+            }
+            entity.setVersion(storedVersion == null ? 1L : storedVersion + 1);
+            return entity;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends UserTimer> Iterable<S> saveAll(Iterable<S> entities) {
+        for (S entity : entities) {
+            entity.setVersion(entity.getVersion() == null ? 1L : entity.getVersion() + 1);
+            table.put(entity.getLpaId(), entity);
+        }
+        return entities;
+    }
+
+    @Override
+    public boolean rollover(UserTimer currentTimer, UserTimer nextTimer) {
+        boolean[] applied = new boolean[1];
+        table.computeIfPresent(currentTimer.getLpaId(), (lpaId, stored) -> {
+            if (!Objects.equals(stored.getVersion(), currentTimer.getVersion())) {
+                return stored;
+            }
+            Long version = currentTimer.getVersion();
+            nextTimer.setVersion(version == null ? 1L : version + 1);
+            applied[0] = true;
+            return nextTimer;
+        });
+        return applied[0];
+    }
+
+    @Override
+    public Optional<UserTimer> findById(String lpaId) {
+        return Optional.ofNullable(table.get(lpaId));
+    }
+
+    @Override
+    public boolean existsById(String lpaId) {
+        return table.containsKey(lpaId);
+    }
+
+    @Override
+    public Iterable<UserTimer> findAll() {
+        return new ArrayList<>(table.values());
+    }
+
+    @Override
+    public Iterable<UserTimer> findAllById(Iterable<String> lpaIds) {
+        List<UserTimer> found = new ArrayList<>();
+        for (String lpaId : lpaIds) {
+            UserTimer timer = table.get(lpaId);
+            if (timer != null) {
+                found.add(timer);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public long count() {
+        return table.size();
+    }
+
+    @Override
+    public void deleteById(String lpaId) {
+        table.remove(lpaId);
+    }
+
+    @Override
+    public void delete(UserTimer entity) {
+        table.remove(entity.getLpaId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> lpaIds) {
+        lpaIds.forEach(table::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends UserTimer> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        table.clear();
+    }
+}
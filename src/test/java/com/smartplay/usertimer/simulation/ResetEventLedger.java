@@ -0,0 +1,114 @@
+package com.smartplay.usertimer.simulation;
+
+import java.time.ZoneOffset;
+
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+
+/**
+ * Checks the ResetTimerEvents of a simulation run per user. Users are named
+ * PREFIX + index so the state fits in primitive arrays even for millions of
+ * users. Every user must see one event per window, each window starting where
+ * the previous one ended, published on the second its window ended.
+ */
+public class ResetEventLedger {
+
+    public static final String PREFIX = "sim-";
+
+    private final VirtualClock clock;
+    private final long durationSeconds;
+    private final long[] firstEnd;
+    private final long[] lastEnd;
+    private long events;
+    private long duplicates;
+    private long missed;
+    private long late;
+    private long maxLagSeconds;
+
+    public ResetEventLedger(int users, long durationSeconds, VirtualClock clock) {
+        this.clock = clock;
+        this.durationSeconds = durationSeconds;
+        this.firstEnd = new long[users];
+        this.lastEnd = new long[users];
+    }
+
+    public static String lpaId(int user) {
+        return PREFIX + user;
+    }
+
+    /*
+     * The user's first timer was started at the current virtual time
+     */
+    public void started(int user) {
+        firstEnd[user] = clock.epochSecond() + durationSeconds;
+    }
+
+    public void record(ResetTimerEvent event) {
+        int user = Integer.parseInt(event.getLpaId().substring(PREFIX.length()));
+        long end = event.getEndTime().toEpochSecond(ZoneOffset.UTC);
+        events++;
+
+        long lag = clock.epochSecond() - end;
+        maxLagSeconds = Math.max(maxLagSeconds, lag);
+        if (lag != 0) {
+            late++;
+        }
+
+        long expectedEnd = lastEnd[user] == 0 ? firstEnd[user] : lastEnd[user] + durationSeconds;
+        if (end < expectedEnd) {
+            duplicates++;
+            return;
+        }
+        if (end > expectedEnd) {
+            missed += Math.max(1, (end - expectedEnd) / durationSeconds);
+        }
+        lastEnd[user] = end;
+    }
+
+    /*
+     * Windows that ended by now without an event, including those skipped
+     * between two recorded events
+     */
+    public long missedAtEnd() {
+        long now = clock.epochSecond();
+        long total = missed;
+        for (int user = 0; user < firstEnd.length; user++) {
+            if (firstEnd[user] == 0 || now < firstEnd[user]) {
+                continue;
+            }
+            long expectedLastEnd = firstEnd[user] + (now - firstEnd[user]) / durationSeconds * durationSeconds;
+            long seenLastEnd = lastEnd[user] == 0 ? firstEnd[user] - durationSeconds : lastEnd[user];
+            total += Math.max(0, (expectedLastEnd - seenLastEnd) / durationSeconds);
+        }
+        return total;
+    }
+
+    /*
+     * Number of events the run should have produced up to now
+     */
+    public long expectedEvents() {
+        long now = clock.epochSecond();
+        long expected = 0;
+        for (long end : firstEnd) {
+            if (end != 0 && now >= end) {
+                expected += (now - end) / durationSeconds + 1;
+            }
+        }
+        return expected;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getLate() {
+        return late;
+    }
+
+    public long getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+}
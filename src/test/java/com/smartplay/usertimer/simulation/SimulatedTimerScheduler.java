@@ -0,0 +1,122 @@
+package com.smartplay.usertimer.simulation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerSchedulerStats;
+import com.smartplay.usertimer.services.interfaces.ITimerScheduler;
+import com.smartplay.usertimer.tools.scheduling.TimerStore;
+
+/**
+ * Scheduling engine on virtual time: the same TimerStore as
+ * TimingWheelTimerScheduler with one tick per second of the VirtualClock, but
+ * without a ticker thread. advanceTo() moves the clock second by second and
+ * hands every batch to the expiry handler on the calling thread, so a run is
+ * deterministic and as fast as the handler.
+ */
+public class SimulatedTimerScheduler implements ITimerScheduler {
+
+    public static final String ENGINE = "simulated";
+
+    private final VirtualClock clock;
+    private final int maxBatchSize;
+    private final TimerStore store;
+    private long currentSecond;
+    private ExpiryHandler expiryHandler = expired -> {
+    };
+    private long scheduledCount;
+    private long cancelledCount;
+    private long firedCount;
+    private long batchCount;
+
+    /*
+     * The store must start at the epoch second the clock shows
+     */
+    public SimulatedTimerScheduler(VirtualClock clock, int maxBatchSize, TimerStore store) {
+        this.clock = clock;
+        this.maxBatchSize = maxBatchSize;
+        this.store = store;
+        this.currentSecond = clock.epochSecond();
+    }
+
+    @Override
+    public void setExpiryHandler(ExpiryHandler expiryHandler) {
+        this.expiryHandler = expiryHandler;
+    }
+
+    @Override
+    public void schedule(UserTimer userTimer, long delayInSeconds) {
+        store.add(userTimer, clock.epochSecond() + Math.max(delayInSeconds, 0));
+        scheduledCount++;
+    }
+
+    @Override
+    public void scheduleAll(Collection<UserTimer> userTimers, long delayInSeconds) {
+        long deadline = clock.epochSecond() + Math.max(delayInSeconds, 0);
+        for (UserTimer userTimer : userTimers) {
+            store.add(userTimer, deadline);
+        }
+        scheduledCount += userTimers.size();
+    }
+
+    @Override
+    public boolean cancel(String lpaId) {
+        boolean cancelled = store.remove(lpaId);
+        if (cancelled) {
+            cancelledCount++;
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean isScheduled(String lpaId) {
+        return store.contains(lpaId);
+    }
+
+    @Override
+    public Set<String> getScheduledIds() {
+        return store.keys();
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public List<TimerSchedulerStats> getStats() {
+        return List.of(new TimerSchedulerStats("simulated", ENGINE, size(), scheduledCount, cancelledCount,
+                firedCount, batchCount));
+    }
+
+    @Override
+    public void shutdown() {
+        // nothing runs in the background
+    }
+
+    /*
+     * Moves virtual time forward to target, one second at a time; the timers
+     * due on a second are handed out while the clock shows that second.
+     */
+    public void advanceTo(LocalDateTime target) {
+        long targetSecond = target.toEpochSecond(ZoneOffset.UTC);
+        List<UserTimer> expired = new ArrayList<>();
+        while (currentSecond < targetSecond) {
+            long second = ++currentSecond;
+            clock.setEpochSecond(second);
+            expired.clear();
+            store.advanceTo(second, expired);
+            firedCount += expired.size();
+            for (int from = 0; from < expired.size(); from += maxBatchSize) {
+                batchCount++;
+                // copied, the handler may keep the batch after this tick
+                expiryHandler.onExpired(new ArrayList<>(expired.subList(from, Math.min(from + maxBatchSize, expired.size()))));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.smartplay.usertimer.simulation;
+
+/**
+ * Outcome of one TimerSimulationTest run, written as JSON to
+ * build/reports/simulation/.
+ */
+public record SimulationReport(
+        int timers,
+        long simulatedSeconds,
+        long loadMillis,
+        long runMillis,
+        long events,
+        long expectedEvents,
+        double eventsPerSecond,
+        long missed,
+        long duplicates,
+        long late,
+        long maxLagSeconds,
+        long heapUsedAfterLoadBytes,
+        long heapUsedAtEndBytes,
+        long maxHeapBytes) {
+}
@@ -0,0 +1,185 @@
+package com.smartplay.usertimer.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartplay.usertimer.actuator.TimerMetrics;
+import com.smartplay.usertimer.config.TimerSchedulerConfig;
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.stats.TimerRecoveryProgress;
+import com.smartplay.usertimer.repository.impl.AsyncUserTimerRepository;
+import com.smartplay.usertimer.services.impl.ActiveTimerIndex;
+import com.smartplay.usertimer.services.impl.CatchUpService;
+import com.smartplay.usertimer.services.impl.CompactActiveTimerIndex;
+import com.smartplay.usertimer.services.impl.ConfigurationService;
+import com.smartplay.usertimer.services.impl.DirectEventOutbox;
+import com.smartplay.usertimer.services.impl.SingleNodeOwnershipService;
+import com.smartplay.usertimer.services.impl.TimerEventStream;
+import com.smartplay.usertimer.services.impl.TimerService;
+import com.smartplay.usertimer.services.interfaces.IActiveTimerIndex;
+import com.smartplay.usertimer.services.interfaces.ITimerRecoveryService;
+import com.smartplay.usertimer.tools.scheduling.CompactTimerStore;
+import com.smartplay.usertimer.tools.scheduling.WheelTimerStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline load harness: drives TimerService on a VirtualClock with the
+ * SimulatedTimerScheduler, the in-memory repository and notification service,
+ * so days of 4 hour rollovers run in seconds without DynamoDB.
+ *
+ * The users start spread evenly over the first window and the clock is then
+ * fast-forwarded. Every ResetTimerEvent is checked by the ResetEventLedger;
+ * the run fails on a missed, duplicate or late event. Throughput and heap usage
+ * are logged and written to build/reports/simulation/simulation-report.json.
+ * simulation.engine selects the timer store: wheel (default) or compact, the
+ * CompactTimerStore with its CompactActiveTimerIndex.
+ *
+ * Excluded from the test task; run with
+ * ./gradlew simulationTest -Dsimulation.timers=10000000 -Dsimulation.days=7 -PsimulationHeap=8g
+ */
+@Slf4j
+@Tag("simulation")
+class TimerSimulationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Executor CALLER_EXECUTOR = Runnable::run;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final Path REPORT = Path.of("build", "reports", "simulation", "simulation-report.json");
+
+    @Test
+    void fastForwardRollovers() throws Exception {
+        int timers = Integer.getInteger("simulation.timers", 100_000);
+        int days = Integer.getInteger("simulation.days", 3);
+        String engine = System.getProperty("simulation.engine", TimerSchedulerConfig.ENGINE_WHEEL);
+        long duration = ConfigurationService.TIMER_WINDOW_IN_SECONDS;
+
+        VirtualClock clock = new VirtualClock(START);
+        SimulatedTimerScheduler timerScheduler;
+        IActiveTimerIndex activeTimerIndex;
+        if (TimerSchedulerConfig.ENGINE_COMPACT.equalsIgnoreCase(engine)) {
+            CompactTimerStore store = new CompactTimerStore(clock.epochSecond(), timers);
+            timerScheduler = new SimulatedTimerScheduler(clock, MAX_BATCH_SIZE, store);
+            activeTimerIndex = new CompactActiveTimerIndex(new CompactTimerStore[] { store }, lpaId -> 0);
+        } else {
+            timerScheduler = new SimulatedTimerScheduler(clock, MAX_BATCH_SIZE, new WheelTimerStore(clock.epochSecond()));
+            activeTimerIndex = new ActiveTimerIndex();
+        }
+        InMemoryUserTimerRepository repository = new InMemoryUserTimerRepository(timers);
+        ResetEventLedger ledger = new ResetEventLedger(timers, duration, clock);
+        InMemoryNotificationService notificationService = new InMemoryNotificationService(ledger::record);
+        TimerService timerService = new TimerService(repository, new ConfigurationService(),
+                new DirectEventOutbox(notificationService), clock, timerScheduler, new EmptyTableRecovery(),
+                repository, activeTimerIndex, CALLER_EXECUTOR, CALLER_EXECUTOR, CALLER_EXECUTOR,
+                new TimerMetrics(new SimpleMeterRegistry()), new SingleNodeOwnershipService(),
+                new CatchUpService(clock, 1000, 100, 10), new AsyncUserTimerRepository(repository, CALLER_EXECUTOR),
+                new TimerEventStream(0, 1000, 10, 0, 0),
+                30, 120, false, 900, 60, 500, 30000);
+        timerService.init();
+
+        // one bulk start per virtual second across the first window
+        long loadStartedNanos = System.nanoTime();
+        for (long second = 0; second < duration; second++) {
+            int from = (int) (second * timers / duration);
+            int to = (int) ((second + 1) * timers / duration);
+            timerScheduler.advanceTo(START.plusSeconds(second));
+            List<String> lpaIds = new ArrayList<>(to - from);
+            for (int user = from; user < to; user++) {
+                lpaIds.add(ResetEventLedger.lpaId(user));
+                ledger.started(user);
+            }
+            if (!lpaIds.isEmpty()) {
+                timerService.startTimers(lpaIds);
+            }
+        }
+        long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStartedNanos);
+        long heapAfterLoad = usedHeap();
+        assertEquals(timers, timerScheduler.size(), "armed timers after load");
+
+        long runStartedNanos = System.nanoTime();
+        LocalDateTime end = START.plusDays(days);
+        timerScheduler.advanceTo(end);
+        long runNanos = System.nanoTime() - runStartedNanos;
+        long heapAtEnd = usedHeap();
+
+        SimulationReport report = new SimulationReport(
+                timers,
+                TimeUnit.DAYS.toSeconds(days),
+                loadMillis,
+                TimeUnit.NANOSECONDS.toMillis(runNanos),
+                ledger.getEvents(),
+                ledger.expectedEvents(),
+                ledger.getEvents() / Math.max(runNanos / 1e9, 1e-9),
+                ledger.missedAtEnd(),
+                ledger.getDuplicates(),
+                ledger.getLate(),
+                ledger.getMaxLagSeconds(),
+                heapAfterLoad,
+                heapAtEnd,
+                Runtime.getRuntime().maxMemory());
+        log.info("Simulation ({} engine): {} timers over {} days, {} events in {} ms ({} events/s), load {} ms, heap after load {} MB, at end {} MB; missed {}, duplicates {}, late {}",
+                engine, timers, days, report.events(), report.runMillis(), Math.round(report.eventsPerSecond()),
+                loadMillis, heapAfterLoad >> 20, heapAtEnd >> 20, report.missed(), report.duplicates(), report.late());
+        Files.createDirectories(REPORT.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+
+        assertEquals(0, report.missed(), "missed ResetTimerEvents");
+        assertEquals(0, report.duplicates(), "duplicate ResetTimerEvents");
+        assertEquals(0, report.late(), "ResetTimerEvents published after their window ended");
+        assertEquals(report.expectedEvents(), report.events(), "ResetTimerEvents published");
+        assertEquals(report.events(), notificationService.getPublished(), "events delivered to the notification service");
+        assertEquals(timers, timerScheduler.size(), "armed timers at the end");
+        assertEquals(timers, repository.count(), "stored timers at the end");
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /*
+     * The simulation starts with an empty table
+     */
+    private static final class EmptyTableRecovery implements ITimerRecoveryService {
+
+        @Override
+        public void recover(Consumer<List<UserTimer>> pageConsumer) {
+            // nothing stored yet
+        }
+
+        @Override
+        public void recoverAll(Consumer<List<UserTimer>> pageConsumer) {
+            // single node, no partitions to load
+        }
+
+        @Override
+        public void recoverEndTimeRange(LocalDateTime endTimeFrom, LocalDateTime endTimeTo,
+                Consumer<List<UserTimer>> pageConsumer) {
+            // single node, no sweep
+        }
+
+        @Override
+        public boolean isNearTermArmed() {
+            return true;
+        }
+
+        @Override
+        public TimerRecoveryProgress getProgress() {
+            return new TimerRecoveryProgress("simulated", "COMPLETED", true, 0, 0, 0, 0, null);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.smartplay.usertimer.simulation;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import com.smartplay.usertimer.services.interfaces.ISystemService;
+
+/**
+ * ISystemService whose time only moves when the simulation advances it, in
+ * whole seconds (UTC, like ExpiryBuckets).
+ */
+public class VirtualClock implements ISystemService {
+
+    private volatile long epochSecond;
+
+    public VirtualClock(LocalDateTime start) {
+        this.epochSecond = start.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @Override
+    public LocalDateTime getCurrentDateTime() {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    public long epochSecond() {
+        return epochSecond;
+    }
+
+    void setEpochSecond(long epochSecond) {
+        if (epochSecond < this.epochSecond) {
+            throw new IllegalArgumentException("virtual time cannot go backwards");
+        }
+        this.epochSecond = epochSecond;
+    }
+}
@@ -0,0 +1,114 @@
+package com.smartplay.usertimer.tools.caching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+class ExpiringLruCacheTest {
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(64, 60_000);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, String> slowLoader = key -> {
+            loaderCalls.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "value-" + key;
+        };
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> cache.get("a", slowLoader));
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> cache.get("a", slowLoader));
+        // the second caller has registered as a waiter once it counts as coalesced
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cache.getStats().coalesced() == 0 && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        release.countDown();
+
+        assertEquals("value-a", first.get(10, TimeUnit.SECONDS));
+        assertEquals("value-a", second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, cache.getStats().coalesced());
+        assertEquals("value-a", cache.getIfPresent("a"));
+    }
+
+    @Test
+    void putDuringALoadWinsOverTheLoadedValue() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(64, 60_000);
+
+        String loaded = cache.get("a", key -> {
+            cache.put(key, "newer");
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals("newer", cache.getIfPresent("a"));
+    }
+
+    @Test
+    void entryIsReloadedOnceItsTtlHasPassed() throws InterruptedException {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(64, 50);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        Function<String, String> loader = key -> key + "-" + loaderCalls.incrementAndGet();
+
+        assertEquals("a-1", cache.get("a", loader));
+        assertEquals("a-1", cache.get("a", loader));
+        Thread.sleep(100);
+
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("a-2", cache.get("a", loader));
+        assertEquals(1, cache.getStats().expirations());
+    }
+
+    @Test
+    void getAllLoadsOnlyTheMissesInOneCall() {
+        ExpiringLruCache<String, String> cache = new ExpiringLruCache<>(64, 60_000);
+        cache.put("a", "cached-a");
+        List<Collection<String>> bulkCalls = new ArrayList<>();
+
+        Map<String, String> values = cache.getAll(List.of("a", "b", "c"), keys -> {
+            bulkCalls.add(List.copyOf(keys));
+            return Map.of("b", "loaded-b", "c", "loaded-c");
+        });
+
+        assertEquals(Map.of("a", "cached-a", "b", "loaded-b", "c", "loaded-c"), values);
+        assertEquals(1, bulkCalls.size());
+        assertEquals(2, bulkCalls.get(0).size());
+        assertEquals("loaded-c", cache.getIfPresent("c"));
+    }
+
+    @Test
+    void sizeStaysWithinTheMaximum() {
+        ExpiringLruCache<Integer, Integer> cache = new ExpiringLruCache<>(64, 60_000);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+
+        assertTrue(cache.size() <= 64);
+        assertEquals(1000 - cache.size(), cache.getStats().evictions());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.smartplay.usertimer.tools.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.stats.ExecutorStats;
+import com.smartplay.usertimer.tools.concurrent.InstrumentedExecutor.WhenFull;
+
+class InstrumentedExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> threadNames = new CopyOnWriteArrayList<>();
+    private InstrumentedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void tasksRunOnTheNamedThreadsAndAreCounted() {
+        executor = new InstrumentedExecutor("test-stage", 2, 10, WhenFull.BLOCK);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> threadNames.add(Thread.currentThread().getName()));
+        }
+
+        awaitTrue(() -> executor.getStats().completed() == 5);
+
+        ExecutorStats stats = executor.getStats();
+        assertEquals("test-stage", stats.name());
+        assertEquals(2, stats.threads());
+        assertEquals(5, stats.submitted());
+        assertEquals(0, stats.queued());
+        assertEquals(0, stats.active());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("test-stage")), threadNames.toString());
+    }
+
+    @Test
+    void fullQueueRejectsTheTask() throws InterruptedException {
+        executor = new InstrumentedExecutor("test-stage", 1, 1, WhenFull.REJECT);
+        occupyThreadAndQueue();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(this::recordThread));
+
+        ExecutorStats stats = executor.getStats();
+        assertEquals(1, stats.rejected());
+        assertEquals(1, stats.active());
+        assertEquals(1, stats.queued());
+        release.countDown();
+        awaitTrue(() -> executor.getStats().completed() == 2);
+        assertEquals(1, threadNames.size());
+    }
+
+    @Test
+    void fullQueueHoldsTheSubmitterUntilThereIsRoom() throws InterruptedException {
+        executor = new InstrumentedExecutor("test-stage", 1, 1, WhenFull.BLOCK);
+        occupyThreadAndQueue();
+
+        Thread submitter = new Thread(() -> executor.execute(this::recordThread), "submitter");
+        submitter.start();
+        awaitTrue(() -> submitter.getState() == Thread.State.WAITING);
+        assertEquals(1, executor.getStats().blocked());
+        assertTrue(threadNames.isEmpty());
+
+        release.countDown();
+        submitter.join(TimeUnit.SECONDS.toMillis(10));
+
+        awaitTrue(() -> executor.getStats().completed() == 3);
+        // the queued task and the one that waited for room, both on the pool
+        assertEquals(List.of("test-stage-1", "test-stage-1"), threadNames);
+    }
+
+    @Test
+    void shutDownExecutorRejectsTasks() {
+        executor = new InstrumentedExecutor("test-stage", 1, 1, WhenFull.BLOCK);
+        executor.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(this::recordThread));
+        assertEquals(0, executor.getStats().queued());
+    }
+
+    /*
+     * One task running until release, one waiting in the queue
+     */
+    private void occupyThreadAndQueue() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        executor.execute(this::recordThread);
+    }
+
+    private void recordThread() {
+        threadNames.add(Thread.currentThread().getName());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
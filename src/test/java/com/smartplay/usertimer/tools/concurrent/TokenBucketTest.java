@@ -0,0 +1,48 @@
+package com.smartplay.usertimer.tools.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void fullBucketAllowsABurstOfItsCapacity() {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        assertEquals(5, bucket.tryAcquireUpTo(8));
+        assertEquals(0, bucket.tryAcquireUpTo(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void largeRequestGoesIntoDebtThatLaterRequestsWaitOut() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+
+        assertTrue(bucket.tryAcquire(20));
+
+        // 15 tokens owed plus the one asked for, at 10 per second
+        long waitNanos = bucket.nanosUntilAvailable();
+        assertTrue(waitNanos > TimeUnit.MILLISECONDS.toNanos(1500), "wait " + waitNanos);
+        assertTrue(waitNanos <= TimeUnit.MILLISECONDS.toNanos(1600), "wait " + waitNanos);
+        assertFalse(bucket.tryAcquire(1));
+        assertEquals(0, bucket.tryAcquireUpTo(3));
+        // the refused requests took nothing
+        assertTrue(bucket.nanosUntilAvailable() <= waitNanos);
+    }
+
+    @Test
+    void raisingTheRateShortensTheWait() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertTrue(bucket.tryAcquire(1));
+        assertTrue(bucket.nanosUntilAvailable() > TimeUnit.MILLISECONDS.toNanos(900));
+
+        bucket.setRatePerSecond(100);
+
+        assertTrue(bucket.nanosUntilAvailable() <= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+}
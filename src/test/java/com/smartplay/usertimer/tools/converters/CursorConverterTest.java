@@ -0,0 +1,38 @@
+package com.smartplay.usertimer.tools.converters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CursorConverterTest {
+
+    @Test
+    void positionSurvivesARoundTrip() {
+        for (String position : new String[] { "user-1", "user-ä/ß?", "a", "", "???>>>" }) {
+            String cursor = CursorConverter.encode(position);
+
+            assertTrue(cursor.matches("[A-Za-z0-9_-]*"), cursor);
+            assertEquals(position.isEmpty() ? null : position, CursorConverter.decode(cursor));
+        }
+    }
+
+    @Test
+    void missingPositionHasNoCursor() {
+        assertNull(CursorConverter.encode(null));
+        assertNull(CursorConverter.decode(null));
+        assertNull(CursorConverter.decode(""));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        for (String cursor : new String[] { "abc+", "user/1", "a", "dXNlci0x!" }) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> CursorConverter.decode(cursor));
+
+            assertEquals("Invalid cursor: " + cursor, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.smartplay.usertimer.tools.converters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+import com.smartplay.usertimer.model.event.ResetTimerEvent;
+
+class ResetTimerEventCodecTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0, 0, 123_000_000);
+
+    @Test
+    void eventSurvivesARoundTrip() {
+        ResetTimerEvent event = event(UUID.randomUUID(), "user-ä", START, START.plusHours(4), 3);
+
+        ResetTimerEvent decoded = ResetTimerEventCodec.decode(ResetTimerEventCodec.encode(event), this);
+
+        assertEquals(event.getTimerId(), decoded.getTimerId());
+        assertEquals(event.getLpaId(), decoded.getLpaId());
+        assertEquals(event.getStartTime(), decoded.getStartTime());
+        assertEquals(event.getEndTime(), decoded.getEndTime());
+        assertEquals(3, decoded.getMissedWindows());
+    }
+
+    @Test
+    void missingFieldsStayMissing() {
+        ResetTimerEvent event = event(null, "user-1", null, START, 0);
+
+        ResetTimerEvent decoded = ResetTimerEventCodec.decode(ResetTimerEventCodec.encode(event), this);
+
+        assertNull(decoded.getTimerId());
+        assertNull(decoded.getStartTime());
+        assertEquals(START, decoded.getEndTime());
+    }
+
+    @Test
+    void formatOneRecordIsReadWithoutMissedWindows() {
+        ResetTimerEvent event = event(UUID.randomUUID(), "user-1", START, START.plusHours(4), 5);
+        byte[] current = ResetTimerEventCodec.encode(event);
+        // format 1 is format 2 without the trailing missedWindows
+        byte[] formatOne = Arrays.copyOf(current, current.length - 8);
+        formatOne[0] = 1;
+
+        ResetTimerEvent decoded = ResetTimerEventCodec.decode(formatOne, this);
+
+        assertEquals(event.getTimerId(), decoded.getTimerId());
+        assertEquals(event.getEndTime(), decoded.getEndTime());
+        assertEquals(0, decoded.getMissedWindows());
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        byte[] encoded = ResetTimerEventCodec.encode(event(null, "user-1", START, START, 0));
+        encoded[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> ResetTimerEventCodec.decode(encoded, this));
+    }
+
+    private ResetTimerEvent event(UUID timerId, String lpaId, LocalDateTime startTime, LocalDateTime endTime,
+            long missedWindows) {
+        return ResetTimerEvent.builder()
+                .source(this)
+                .userTimer(UserTimer.builder()
+                        .timerId(timerId)
+                        .lpaId(lpaId)
+                        .startTime(startTime)
+                        .endTime(endTime)
+                        .build())
+                .missedWindows(missedWindows)
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.smartplay.usertimer.tools.converters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.AttributeTransformer;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.smartplay.usertimer.model.data.UserTimer;
+
+class UserTimerStorageFormatTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final LocalDateTime END = START.plusHours(4);
+    private static final UUID TIMER_ID = UUID.fromString("0f8fad5b-d9cb-469f-a165-70867728950e");
+
+    private final UserTimerStorageFormat stringFormat = new UserTimerStorageFormat("string");
+    private final UserTimerStorageFormat compactFormat = new UserTimerStorageFormat("COMPACT");
+
+    @Test
+    void compactFormatWritesTheMapperAttributesUnchanged() {
+        Map<String, AttributeValue> item = compactRow();
+
+        assertSame(item, compactFormat.transform(parameters(UserTimer.class, item)));
+    }
+
+    @Test
+    void stringFormatWritesStrings() {
+        Map<String, AttributeValue> written = stringFormat.transform(parameters(UserTimer.class, compactRow()));
+
+        assertEquals(stringRow(), written);
+    }
+
+    @Test
+    void bothFormatsReadStringRowsAsCompactAttributes() {
+        assertEquals(compactRow(), stringFormat.untransform(parameters(UserTimer.class, stringRow())));
+        assertEquals(compactRow(), compactFormat.untransform(parameters(UserTimer.class, stringRow())));
+    }
+
+    @Test
+    void mixedRowIsReadAttributeByAttribute() {
+        Map<String, AttributeValue> mixed = compactRow();
+        mixed.put(UserTimerStorageFormat.START_TIME, stringRow().get(UserTimerStorageFormat.START_TIME));
+
+        assertEquals(compactRow(), compactFormat.untransform(parameters(UserTimer.class, mixed)));
+    }
+
+    @Test
+    void compactRowsAndOtherModelsAreReadUnchanged() {
+        Map<String, AttributeValue> compact = compactRow();
+        Map<String, AttributeValue> otherModel = stringRow();
+
+        assertSame(compact, stringFormat.untransform(parameters(UserTimer.class, compact)));
+        assertSame(otherModel, stringFormat.untransform(parameters(String.class, otherModel)));
+        assertSame(otherModel, stringFormat.transform(parameters(String.class, otherModel)));
+    }
+
+    @Test
+    void rowNeedsMigrationWhenAnyAttributeIsInTheOtherFormat() {
+        Map<String, AttributeValue> mixed = stringRow();
+        mixed.put(UserTimerStorageFormat.TIMER_ID, compactRow().get(UserTimerStorageFormat.TIMER_ID));
+        Map<String, AttributeValue> withoutTimerId = compactRow();
+        withoutTimerId.remove(UserTimerStorageFormat.TIMER_ID);
+
+        assertFalse(compactFormat.needsMigration(compactRow()));
+        assertTrue(compactFormat.needsMigration(stringRow()));
+        assertTrue(compactFormat.needsMigration(mixed));
+        assertFalse(compactFormat.needsMigration(withoutTimerId));
+        assertFalse(stringFormat.needsMigration(stringRow()));
+        assertTrue(stringFormat.needsMigration(compactRow()));
+        assertTrue(stringFormat.needsMigration(mixed));
+    }
+
+    @Test
+    void attributesAreReadInEitherFormat() {
+        assertEquals(END, UserTimerStorageFormat.readDateTime(compactFormat.dateTime(END)));
+        assertEquals(END, UserTimerStorageFormat.readDateTime(stringFormat.dateTime(END)));
+        assertEquals(TIMER_ID, UserTimerStorageFormat.readTimerId(compactFormat.timerId(TIMER_ID)));
+        assertEquals(TIMER_ID, UserTimerStorageFormat.readTimerId(stringFormat.timerId(TIMER_ID)));
+    }
+
+    private static Map<String, AttributeValue> compactRow() {
+        ByteBuffer timerId = ByteBuffer.allocate(16)
+                .putLong(TIMER_ID.getMostSignificantBits())
+                .putLong(TIMER_ID.getLeastSignificantBits())
+                .flip();
+        Map<String, AttributeValue> item = row();
+        item.put(UserTimerStorageFormat.START_TIME, new AttributeValue().withN(epochSecond(START)));
+        item.put(UserTimerStorageFormat.END_TIME, new AttributeValue().withN(epochSecond(END)));
+        item.put(UserTimerStorageFormat.TIMER_ID, new AttributeValue().withB(timerId));
+        return item;
+    }
+
+    private static Map<String, AttributeValue> stringRow() {
+        Map<String, AttributeValue> item = row();
+        item.put(UserTimerStorageFormat.START_TIME, new AttributeValue().withS("2024-01-01T08:00:00Z"));
+        item.put(UserTimerStorageFormat.END_TIME, new AttributeValue().withS("2024-01-01T12:00:00Z"));
+        item.put(UserTimerStorageFormat.TIMER_ID, new AttributeValue().withS(TIMER_ID.toString()));
+        return item;
+    }
+
+    private static Map<String, AttributeValue> row() {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("lpaId", new AttributeValue().withS("user-1"));
+        item.put("duration", new AttributeValue().withN("14400"));
+        return item;
+    }
+
+    private static String epochSecond(LocalDateTime dateTime) {
+        return Long.toString(dateTime.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    private static <T> AttributeTransformer.Parameters<T> parameters(Class<T> modelClass,
+            Map<String, AttributeValue> item) {
+        return new AttributeTransformer.Parameters<>() {
+            @Override
+            public Map<String, AttributeValue> getAttributeValues() {
+                return item;
+            }
+
+            @Override
+            public boolean isPartialUpdate() {
+                return false;
+            }
+
+            @Override
+            public Class<T> getModelClass() {
+                return modelClass;
+            }
+
+            @Override
+            public DynamoDBMapperConfig getMapperConfig() {
+                return DynamoDBMapperConfig.DEFAULT;
+            }
+
+            @Override
+            public String getTableName() {
+                return "UserTimer";
+            }
+
+            @Override
+            public String getHashKeyName() {
+                return "lpaId";
+            }
+
+            @Override
+            public String getRangeKeyName() {
+                return null;
+            }
+        };
+    }
+}
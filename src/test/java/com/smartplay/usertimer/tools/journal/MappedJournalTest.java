@@ -0,0 +1,127 @@
+package com.smartplay.usertimer.tools.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedJournalTest {
+
+    // 8 byte header + 20 byte payload: two records fit in a segment
+    private static final int SEGMENT_SIZE = 64;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendsRollOverIntoNewSegmentsAndReadBackInOrder() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            journal.append(records("a", "b", "c"));
+            journal.append(records("d", "e"));
+
+            assertEquals(3, journal.segmentCount());
+            assertEquals(List.of("a", "b", "c", "d", "e"), readAll(journal, journal.firstPosition()));
+            assertEquals(5, journal.count(journal.firstPosition()));
+        }
+    }
+
+    @Test
+    void readStopsAtMaxRecordsAndContinuesFromTheReturnedPosition() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            journal.append(records("a", "b", "c", "d", "e"));
+
+            List<byte[]> batch = new ArrayList<>();
+            MappedJournal.Position next = journal.read(journal.firstPosition(), 3, batch);
+
+            assertEquals(List.of("a", "b", "c"), strings(batch));
+            assertEquals(List.of("d", "e"), readAll(journal, next));
+        }
+    }
+
+    @Test
+    void reopenReplaysTheRecordsAndAppendsBehindThem() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            journal.append(records("a", "b", "c"));
+        }
+
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            journal.append(records("d"));
+
+            assertEquals(List.of("a", "b", "c", "d"), readAll(journal, journal.firstPosition()));
+        }
+    }
+
+    @Test
+    void tornRecordIsDroppedOnReopenAndOverwritten() throws IOException {
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            journal.append(records("a", "b"));
+        }
+        // flip a payload byte of the second record, as a crash in the middle of its write would
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile(0).toFile(), "rw")) {
+            file.seek(28 + 8);
+            file.write('x');
+        }
+
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(List.of("a"), readAll(journal, journal.firstPosition()));
+            journal.append(records("c"));
+
+            assertEquals(List.of("a", "c"), readAll(journal, journal.firstPosition()));
+        }
+    }
+
+    @Test
+    void checkpointSurvivesReopenAndOldSegmentsCanBeDeleted() throws IOException {
+        MappedJournal.Position checkpoint;
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            assertNull(journal.readCheckpoint());
+            journal.append(records("a", "b", "c", "d", "e"));
+            List<byte[]> consumed = new ArrayList<>();
+            checkpoint = journal.read(journal.firstPosition(), 4, consumed);
+            journal.writeCheckpoint(checkpoint);
+        }
+
+        try (MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE)) {
+            assertEquals(checkpoint, journal.readCheckpoint());
+            journal.deleteSegmentsBefore(checkpoint.segment());
+
+            assertEquals(2, journal.segmentCount());
+            assertEquals(List.of("e"), readAll(journal, checkpoint));
+        }
+    }
+
+    private Path segmentFile(long segment) {
+        return directory.resolve(String.format("journal-%019d.log", segment));
+    }
+
+    private static List<String> readAll(MappedJournal journal, MappedJournal.Position from) {
+        List<byte[]> records = new ArrayList<>();
+        journal.read(from, Integer.MAX_VALUE, records);
+        return strings(records);
+    }
+
+    private static List<byte[]> records(String... values) {
+        List<byte[]> records = new ArrayList<>();
+        for (String value : values) {
+            // padded to 20 bytes
+            records.add(String.format("%-20s", value).getBytes(StandardCharsets.US_ASCII));
+        }
+        return records;
+    }
+
+    private static List<String> strings(List<byte[]> records) {
+        List<String> values = new ArrayList<>();
+        for (byte[] record : records) {
+            values.add(new String(record, StandardCharsets.US_ASCII).trim());
+        }
+        return values;
+    }
+}
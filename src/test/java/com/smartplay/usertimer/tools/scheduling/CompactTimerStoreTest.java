@@ -0,0 +1,143 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.smartplay.usertimer.model.data.UserTimer;
+
+class CompactTimerStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Test
+    void timerIsReadBackFieldByField() {
+        CompactTimerStore store = new CompactTimerStore(0, 16);
+        UserTimer timer = timer("user-1", 7L);
+        UserTimer bare = UserTimer.builder().lpaId("user-2").duration(60).build();
+        store.add(timer, 100);
+        store.add(bare, 100);
+
+        assertEquals(timer, store.get("user-1"));
+        UserTimer readBack = store.get("user-2");
+        assertNull(readBack.getTimerId());
+        assertNull(readBack.getStartTime());
+        assertNull(readBack.getVersion());
+    }
+
+    @Test
+    void deleteShiftsCollidingKeysBack() {
+        CompactTimerStore store = new CompactTimerStore(0, 16);
+        // every key has the hash code of "AaAaAa", so all of them probe from one home slot
+        List<String> colliding = new ArrayList<>();
+        for (int bits = 0; bits < 8; bits++) {
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < 3; i++) {
+                key.append((bits & (1 << i)) == 0 ? "Aa" : "BB");
+            }
+            colliding.add(key.toString());
+        }
+        colliding.forEach(key -> store.add(timer(key, 1L), 100));
+
+        store.remove(colliding.get(0));
+        store.remove(colliding.get(3));
+        store.remove(colliding.get(7));
+
+        for (int i = 0; i < colliding.size(); i++) {
+            boolean removed = i == 0 || i == 3 || i == 7;
+            assertEquals(!removed, store.contains(colliding.get(i)), colliding.get(i));
+        }
+        store.add(timer(colliding.get(3), 2L), 100);
+        assertEquals(2L, store.get(colliding.get(3)).getVersion());
+        assertEquals(6, store.size());
+    }
+
+    @Test
+    void freedRowsAreReused() {
+        CompactTimerStore store = new CompactTimerStore(0, 16);
+        store.add(timer("user-1", 1L), 100);
+        store.add(timer("user-2", 1L), 100);
+        store.add(timer("user-3", 1L), 10);
+
+        store.remove("user-2");
+        store.advanceTo(10, new ArrayList<>());
+        store.add(timer("user-4", 1L), 100);
+        store.add(timer("user-5", 1L), 100);
+
+        assertEquals(3, store.rowCount());
+        assertEquals(3, store.size());
+        assertTrue(store.contains("user-4"));
+        assertTrue(store.contains("user-5"));
+        assertFalse(store.contains("user-3"));
+    }
+
+    @Test
+    void matchesAHashMapThroughGrowthAndChurn() {
+        CompactTimerStore store = new CompactTimerStore(0, 16);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            String lpaId = "user-" + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(lpaId) != null, store.remove(lpaId));
+            } else {
+                long version = i;
+                store.add(timer(lpaId, version), 1_000_000);
+                expected.put(lpaId, version);
+            }
+        }
+
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected.keySet(), store.keys());
+        expected.forEach((lpaId, version) -> assertEquals(version, store.get(lpaId).getVersion()));
+    }
+
+    @Test
+    void timersExpireOnTheirDeadlineAcrossLevels() {
+        CompactTimerStore store = new CompactTimerStore(0, 16);
+        long[] deadlines = { 1, 64, 65, 4096, 4097, 262_144 };
+        for (long deadline : deadlines) {
+            store.add(timer("user-" + deadline, deadline), deadline);
+        }
+        store.add(timer("replaced", 1L), 5);
+        store.add(timer("replaced", 2L), 70);
+
+        Map<String, Long> firedAt = new HashMap<>();
+        List<UserTimer> expired = new ArrayList<>();
+        for (long tick = 1; tick <= 262_144; tick++) {
+            store.advanceTo(tick, expired);
+            for (UserTimer timer : expired) {
+                firedAt.put(timer.getLpaId(), tick);
+            }
+            expired.clear();
+        }
+
+        for (long deadline : deadlines) {
+            assertEquals(deadline, firedAt.get("user-" + deadline));
+        }
+        assertEquals(70L, firedAt.get("replaced"));
+        assertEquals(0, store.size());
+    }
+
+    private static UserTimer timer(String lpaId, Long version) {
+        return UserTimer.builder()
+                .timerId(UUID.randomUUID())
+                .lpaId(lpaId)
+                .startTime(START)
+                .duration(3600)
+                .endTime(START.plusHours(1))
+                .version(version)
+                .build();
+    }
+}
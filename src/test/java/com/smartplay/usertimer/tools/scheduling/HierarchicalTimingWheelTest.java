@@ -0,0 +1,101 @@
+package com.smartplay.usertimer.tools.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTest {
+
+    // one level covers 64 ticks, four levels 64^4
+    private static final long MAX_SPAN = 1L << 24;
+
+    @Test
+    void entriesCascadeDownAndFireOnTheirDeadline() {
+        HierarchicalTimingWheel<String, Long> wheel = new HierarchicalTimingWheel<>(0);
+        long[] deadlines = { 1, 63, 64, 65, 127, 4095, 4096, 4097, 262_143, 262_144, 300_001 };
+        for (long deadline : deadlines) {
+            wheel.add("key-" + deadline, deadline, deadline);
+        }
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        List<Long> expired = new ArrayList<>();
+        for (long tick = 1; tick <= 300_001; tick++) {
+            wheel.advanceTo(tick, expired);
+            for (Long deadline : expired) {
+                firedAt.put(deadline, tick);
+            }
+            expired.clear();
+        }
+
+        for (long deadline : deadlines) {
+            assertEquals(deadline, firedAt.get(deadline), "deadline " + deadline);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void oneAdvanceHandsOutEntriesInDeadlineOrder() {
+        HierarchicalTimingWheel<String, Long> wheel = new HierarchicalTimingWheel<>(100);
+        wheel.add("c", 5000L, 5000);
+        wheel.add("a", 101L, 101);
+        wheel.add("b", 170L, 170);
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advanceTo(5000, expired);
+
+        assertEquals(List.of(101L, 170L, 5000L), expired);
+    }
+
+    @Test
+    void deadlineBeyondTheSpanIsClampedAndFiresOnTime() {
+        HierarchicalTimingWheel<String, Long> wheel = new HierarchicalTimingWheel<>(0);
+        long deadline = MAX_SPAN + 1000;
+        wheel.add("far", deadline, deadline);
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advanceTo(deadline - 1, expired);
+        assertTrue(expired.isEmpty());
+        assertTrue(wheel.contains("far"));
+
+        wheel.advanceTo(deadline, expired);
+        assertEquals(List.of(deadline), expired);
+        assertFalse(wheel.contains("far"));
+    }
+
+    @Test
+    void deadlineInThePastFiresOnTheNextTick() {
+        HierarchicalTimingWheel<String, Long> wheel = new HierarchicalTimingWheel<>(1000);
+        wheel.add("late", 1L, 1);
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advanceTo(1001, expired);
+
+        assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void addingAgainReplacesAndRemoveCancels() {
+        HierarchicalTimingWheel<String, Long> wheel = new HierarchicalTimingWheel<>(0);
+        wheel.add("a", 10L, 10);
+        assertEquals(10L, wheel.add("a", 5000L, 5000));
+        wheel.add("b", 20L, 20);
+        assertEquals(20L, wheel.remove("b"));
+        assertNull(wheel.remove("b"));
+
+        List<Long> expired = new ArrayList<>();
+        wheel.advanceTo(4999, expired);
+        assertTrue(expired.isEmpty());
+        wheel.advanceTo(5000, expired);
+
+        assertEquals(List.of(5000L), expired);
+        assertEquals(0, wheel.size());
+    }
+}
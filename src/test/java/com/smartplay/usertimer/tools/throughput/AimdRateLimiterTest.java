@@ -0,0 +1,76 @@
+package com.smartplay.usertimer.tools.throughput;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AimdRateLimiterTest {
+
+    @Test
+    void throttleCutsTheRateOncePerCooldown() {
+        AimdRateLimiter limiter = new AimdRateLimiter("test", 100, 10, 200, 10, 0.5, 60_000);
+
+        limiter.onThrottle();
+        limiter.onThrottle();
+
+        assertEquals(50, limiter.getRatePerSecond());
+        assertEquals(2, limiter.getStats(true).throttles());
+        assertEquals(1, limiter.getStats(true).decreases());
+    }
+
+    @Test
+    void rateStaysWithinItsBounds() {
+        AimdRateLimiter limiter = new AimdRateLimiter("test", 500, 10, 200, 10, 0.5, 0);
+        assertEquals(200, limiter.getRatePerSecond());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottle();
+        }
+
+        assertEquals(10, limiter.getRatePerSecond());
+    }
+
+    @Test
+    void waitingHigherLaneGoesFirst() throws InterruptedException {
+        // one token per second, so both callers have to wait
+        AimdRateLimiter limiter = new AimdRateLimiter("test", 1, 1, 1, 0, 0.5, 0);
+        limiter.acquire(ThroughputLane.NORMAL, 1);
+        List<ThroughputLane> order = new CopyOnWriteArrayList<>();
+
+        Thread background = start(limiter, ThroughputLane.BACKGROUND, order);
+        awaitWaiting(limiter, 1);
+        Thread critical = start(limiter, ThroughputLane.CRITICAL, order);
+        awaitWaiting(limiter, 2);
+
+        critical.join(TimeUnit.SECONDS.toMillis(10));
+        background.join(TimeUnit.SECONDS.toMillis(10));
+
+        assertEquals(List.of(ThroughputLane.CRITICAL, ThroughputLane.BACKGROUND), order);
+    }
+
+    private static Thread start(AimdRateLimiter limiter, ThroughputLane lane, List<ThroughputLane> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire(lane, 1);
+                order.add(lane);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(AimdRateLimiter limiter, int waiting) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (limiter.getStats(true).waiting() < waiting && System.nanoTime() < deadline) {
+            Thread.yield();
+        }
+        assertTrue(limiter.getStats(true).waiting() >= waiting);
+    }
+}